@@ -23,6 +23,46 @@ function loadJSON(fname) {
   });
 }
 
+// fills in the lines of a file whose contents are kept in the content store of the report,
+// which are shared by every repo, branch and date range that the file is found in
+function loadFileLines(file) {
+  if (!file.blob || file.lines) {
+    return Promise.resolve(file);
+  }
+  return loadJSON(`${REPORT_DIR}/blobs/${file.blob.slice(0, 2)}/${file.blob.slice(2)}.json`)
+    .then((contents) => {
+      const lines = [];
+      file.authorRanges.forEach((range) => {
+        for (let i = 0; i < range.lineCount; i += 1) {
+          lines.push({
+            lineNumber: lines.length + 1,
+            author: range.gitId ? { gitId: range.gitId } : undefined,
+            content: contents[lines.length],
+          });
+        }
+      });
+      file.lines = lines;
+      return file;
+    });
+}
+
+// requests the JSON answer of the server at url, rejecting if it cannot be answered
+function requestJSON(url) {
+  return new Promise((resolve, reject) => {
+    const xhr = new XMLHttpRequest();
+    xhr.open('GET', url);
+    xhr.onload = function xhrOnload() {
+      if (xhr.status === 200) {
+        resolve(JSON.parse(xhr.responseText));
+      } else {
+        reject(new Error(`${url} responded with ${xhr.status}`));
+      }
+    };
+    xhr.onerror = () => reject(new Error(`unable to request ${url}`));
+    xhr.send(null);
+  });
+}
+
 window.api = {
   loadSummary() {
     window.REPOS = {};
@@ -79,12 +119,79 @@ window.api = {
     });
   },
 
-  loadAuthorship(repoName) {
-    return loadJSON(`${REPORT_DIR}/${repoName}/authorship.json`)
-      .then((files) => {
-        window.REPOS[repoName].files = files;
-        return files;
+  // loads the contributions of the authors of each repo, summed by the server over intervals of the granularity,
+  // or resolves null if the report is not served by RepoSense
+  loadContributions(repoNames, since, until, granularity) {
+    if (window.REPORT_ZIP || window.api.isContributionsApiMissing) {
+      return Promise.resolve(null);
+    }
+    const params = [window.enquery('granularity', granularity)];
+    if (since) {
+      params.push(window.enquery('since', since));
+    }
+    if (until) {
+      params.push(window.enquery('until', until));
+    }
+
+    return Promise.all(repoNames.map((repoName) => {
+      const query = [window.enquery('repo', repoName)].concat(params).join('&');
+      return requestJSON(`${REPORT_DIR}/api/contributions?${query}`);
+    })).then((pages) => {
+      const contributions = {};
+      repoNames.forEach((repoName, repoId) => {
+        contributions[repoName] = pages[repoId].authorContributions;
       });
+      return contributions;
+    }).catch(() => {
+      window.api.isContributionsApiMissing = true;
+      return null;
+    });
+  },
+
+  // loads a page of the files of an author from the server, which only RepoSense itself can answer
+  loadAuthorshipPage(repoName, author, offset) {
+    if (window.REPORT_ZIP) {
+      return Promise.reject(new Error('the report is loaded from a zip file'));
+    }
+    const query = [
+      window.enquery('repo', repoName),
+      window.enquery('author', author),
+      window.enquery('offset', offset),
+    ].join('&');
+    return requestJSON(`${REPORT_DIR}/api/authorship?${query}`);
+  },
+
+  // loads the files of the authorship shards of a repo which the author contributed to,
+  // each of which is only loaded once and kept in window.REPOS along with the manifest
+  loadAuthorship(repoName, author) {
+    const repo = window.REPOS[repoName];
+    const authorshipDir = `${REPORT_DIR}/${repoName}/authorship`;
+    if (!repo.authorshipShards) {
+      repo.authorshipShards = loadJSON(`${authorshipDir}/manifest.json`);
+    }
+
+    return repo.authorshipShards
+      .then(shards => Promise.all(shards
+        .filter(shard => shard.authorContributionMap[author])
+        .map((shard) => {
+          if (!shard.files) {
+            shard.files = loadJSON(`${authorshipDir}/${shard.file}`);
+          }
+          return shard.files;
+        })))
+      .then(shardFiles => Promise.all([].concat(...shardFiles)
+        .filter(file => file.authorContributionMap[author])
+        .map(loadFileLines)));
+  },
+
+  // calls onChange with the names of the repos which changed whenever RepoSense regenerates the report in watch mode,
+  // which never happens if the report is not served by RepoSense in watch mode
+  subscribeToReportChanges(onChange) {
+    if (window.REPORT_ZIP || !window.EventSource) {
+      return;
+    }
+    const source = new window.EventSource(`${REPORT_DIR}/api/events`);
+    source.addEventListener('report', evt => onChange(JSON.parse(evt.data).repos));
   },
 
 };
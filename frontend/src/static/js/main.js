@@ -102,5 +102,11 @@ window.app = new window.Vue({
   },
   created() {
     this.updateReportDir();
+    window.api.subscribeToReportChanges(() => {
+      // a report loaded from a zip file is not the one which changed
+      if (!window.REPORT_ZIP) {
+        this.updateReportView();
+      }
+    });
   },
 });
@@ -34,6 +34,8 @@ window.vAuthorship = {
       files: [],
       filesLinesObj: {},
       totalLineCount: "",
+      nextOffset: 0,
+      hasMoreFiles: false,
     };
   },
 
@@ -44,19 +46,37 @@ window.vAuthorship = {
       if (repoCache.length === 2) {
         const toRemove = repoCache.shift();
         if (toRemove !== this.info.repo) {
-          delete window.REPOS[toRemove].files;
+          delete window.REPOS[toRemove].authorshipShards;
         }
       }
       repoCache.push(this.info.repo);
 
-      if (repo.files) {
-        this.processFiles(repo.files);
-      } else {
-        window.api.loadAuthorship(this.info.repo)
+      if (repo.authorshipShards) {
+        window.api.loadAuthorship(this.info.repo, this.info.author)
           .then(files => this.processFiles(files));
+      } else {
+        // only the files of the author are asked for, unless the report is not served by RepoSense
+        window.api.loadAuthorshipPage(this.info.repo, this.info.author, 0)
+          .then(page => this.processPage(page))
+          .catch(() => window.api.loadAuthorship(this.info.repo, this.info.author)
+            .then(files => this.processFiles(files)));
       }
     },
 
+    loadMoreFiles() {
+      window.api.loadAuthorshipPage(this.info.repo, this.info.author, this.nextOffset)
+        .then(page => this.processPage(page));
+    },
+
+    processPage(page) {
+      this.totalLineCount = page.totalLineCount;
+      this.filesLinesObj = page.fileTypeLineCounts;
+      this.files = this.files.concat(page.files);
+      this.nextOffset = page.offset + page.files.length;
+      this.hasMoreFiles = this.nextOffset < page.totalFileCount;
+      this.isLoaded = true;
+    },
+
     splitSegments(lines) {
       // split into segments separated by authored
       let lastState;
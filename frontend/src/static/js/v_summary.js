@@ -39,6 +39,39 @@ function addDays(dateStr, numDays) {
   return getDateStr(date.getTime() + numDays * DAY_IN_MS);
 }
 
+// time frames, from the finest to the coarsest, along with the average number of days in each of them
+const TIME_FRAMES = ['day', 'week', 'month', 'quarter'];
+const TIME_FRAME_DAYS = {
+  day: 1, week: 7, month: 30.44, quarter: 91.31,
+};
+const MIN_SLICE_WIDTH_PX = 2;
+
+function getIntervalStart(dateStr, timeFrame) {
+  // weeks start on sunday, and months and quarters on the first day of the month
+  const date = new Date(dateStr);
+  if (timeFrame === 'week') {
+    date.setUTCDate(date.getUTCDate() - date.getUTCDay());
+  } else if (timeFrame === 'month') {
+    date.setUTCDate(1);
+  } else if (timeFrame === 'quarter') {
+    date.setUTCDate(1);
+    date.setUTCMonth(Math.floor(date.getUTCMonth() / 3) * 3);
+  }
+  return getDateStr(date);
+}
+
+function getNextIntervalStart(dateStr, timeFrame) {
+  const date = new Date(dateStr);
+  if (timeFrame === 'day') {
+    date.setUTCDate(date.getUTCDate() + 1);
+  } else if (timeFrame === 'week') {
+    date.setUTCDate(date.getUTCDate() + 7);
+  } else {
+    date.setUTCMonth(date.getUTCMonth() + (timeFrame === 'month' ? 1 : 3));
+  }
+  return getDateStr(date);
+}
+
 window.vSummary = {
   props: ['repos'],
   template: window.$('v_summary').innerHTML,
@@ -58,6 +91,9 @@ window.vSummary = {
       rampSize: 0.01,
       minDate: '',
       maxDate: '',
+      hasCoarseTimeFrames: false,
+      displayedTimeFrame: 'day',
+      contributionsRequestId: 0,
     };
   },
   watch: {
@@ -137,7 +173,7 @@ window.vSummary = {
     },
     getSliceLink(user, slice) {
       const { REPOS } = window;
-      const untilDate = this.filterTimeFrame === 'week' ? addDays(slice.sinceDate, 6): slice.sinceDate;
+      const untilDate = this.displayedTimeFrame === 'day' ? slice.sinceDate : addDays(slice.untilDate, -1);
 
       return `http://github.com/${
         REPOS[user.repoId].organization}/${
@@ -247,6 +283,50 @@ window.vSummary = {
     getFiltered() {
       this.getFilterHash();
 
+      // the contributions are summed by the server if it can, and only the latest request is used
+      this.contributionsRequestId += 1;
+      const requestId = this.contributionsRequestId;
+      const timeFrame = this.getDisplayedTimeFrame();
+      window.api.loadContributions(this.repos.map(repo => repo.displayName),
+        this.filterSinceDate, this.filterUntilDate, timeFrame)
+        .then((contributions) => {
+          if (requestId === this.contributionsRequestId) {
+            this.filterUsers(contributions, timeFrame);
+          }
+        });
+    },
+    hasContributionPyramid() {
+      return this.repos.every(repo => repo.commits && repo.commits.contributionPyramid);
+    },
+    getDisplayedTimeFrame() {
+      // the chosen time frame is made coarser until its slices fit into the width of the viewport
+      const canAggregate = !window.REPORT_ZIP && !window.api.isContributionsApiMissing;
+      const coarsestId = (canAggregate || this.hasContributionPyramid()) ? TIME_FRAMES.length - 1 : 1;
+      let timeFrameId = Math.min(Math.max(TIME_FRAMES.indexOf(this.filterTimeFrame), 0), coarsestId);
+      if (this.filterSinceDate && this.filterUntilDate) {
+        const dayCount = getIntervalDay(this.filterUntilDate, this.filterSinceDate) + 1;
+        const maxSliceCount = window.innerWidth / MIN_SLICE_WIDTH_PX;
+        while (timeFrameId < coarsestId
+            && dayCount / TIME_FRAME_DAYS[TIME_FRAMES[timeFrameId]] > maxSliceCount) {
+          timeFrameId += 1;
+        }
+      }
+      return TIME_FRAMES[timeFrameId];
+    },
+    filterUsers(contributions, timeFrame) {
+      const hasPyramid = this.hasContributionPyramid();
+      if (!contributions && !hasPyramid && timeFrame !== 'day' && timeFrame !== 'week') {
+        // the server cannot sum the contributions after all
+        if (this.filterTimeFrame === 'month' || this.filterTimeFrame === 'quarter') {
+          this.filterTimeFrame = 'week';
+        } else {
+          this.getFiltered();
+        }
+        return;
+      }
+      this.hasCoarseTimeFrames = !!contributions || hasPyramid;
+      this.displayedTimeFrame = timeFrame;
+
       // array of array, sorted by repo
       const full = [];
 
@@ -261,9 +341,16 @@ window.vSummary = {
             .reduce((curr, bool) => curr || bool, false);
 
           if (!this.filterSearch || toDisplay) {
-            this.getUserCommits(user);
-            if (this.filterTimeFrame === 'week') {
-              this.splitCommitsWeek(user);
+            if (contributions) {
+              user.commits = contributions[user.repoId][user.name] || [];
+            } else if (hasPyramid && timeFrame !== 'day') {
+              // the pyramid has no day level, as the daily contributions are already in the report
+              this.getPyramidCommits(user, timeFrame);
+            } else {
+              this.getUserCommits(user);
+              if (timeFrame === 'week') {
+                this.splitCommitsWeek(user);
+              }
             }
 
             res.push(user);
@@ -306,6 +393,36 @@ window.vSummary = {
 
       user.commits = res;
     },
+    getPyramidCommits(user, timeFrame) {
+      // reads the contributions of the user summed over the time frame from the level of the pyramid in the report
+      const level = window.REPOS[user.repoId].commits.contributionPyramid[timeFrame];
+      user.commits = [];
+      if (!level.sinceDates.length) {
+        return;
+      }
+      if (!level.indexOfDate) {
+        level.indexOfDate = {};
+        level.sinceDates.forEach((date, dateId) => {
+          level.indexOfDate[date] = dateId;
+        });
+      }
+
+      const insertions = level.authorInsertions[user.name] || [];
+      const deletions = level.authorDeletions[user.name] || [];
+      const sinceDate = this.filterSinceDate || level.sinceDates[0];
+      const untilDate = this.filterUntilDate || addDays(level.untilDate, -1);
+      for (let date = getIntervalStart(sinceDate, timeFrame); date <= untilDate;) {
+        const nextDate = getNextIntervalStart(date, timeFrame);
+        const dateId = level.indexOfDate[date];
+        user.commits.push({
+          insertions: dateId === undefined ? 0 : insertions[dateId],
+          deletions: dateId === undefined ? 0 : deletions[dateId],
+          sinceDate: date,
+          untilDate: nextDate,
+        });
+        date = nextDate;
+      }
+    },
     getUserCommits(user) {
       user.commits = [];
       const userFirst = user.dailyCommits[0];
@@ -325,7 +442,7 @@ window.vSummary = {
         untilDate = userLast.sinceDate;
       }
 
-      if (this.filterTimeFrame === 'week') {
+      if (this.displayedTimeFrame === 'week') {
         sinceDate = dateRounding(sinceDate, 1);
       }
       let diff = getIntervalDay(userFirst.sinceDate, sinceDate);
@@ -347,7 +464,7 @@ window.vSummary = {
         }
       });
 
-      if (this.filterTimeFrame === 'week') {
+      if (this.displayedTimeFrame === 'week') {
         untilDate = dateRounding(untilDate);
       }
       diff = getIntervalDay(untilDate, userLast.sinceDate);
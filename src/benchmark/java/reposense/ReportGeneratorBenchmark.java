@@ -0,0 +1,180 @@
+package reposense;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import reposense.metrics.MetricsRecorder;
+import reposense.metrics.Phase;
+import reposense.metrics.PhaseMetrics;
+import reposense.model.RepoConfiguration;
+import reposense.parser.ArgsParser;
+import reposense.report.ReportGenerator;
+import reposense.util.FileUtil;
+import reposense.util.SyntheticRepoGenerator;
+
+/**
+ * Runs {@code ReportGenerator} end-to-end over synthetic repositories of increasing size and records the time spent
+ * in each phase of the analysis, as well as the peak heap usage.
+ *
+ * The size of the repositories can be scaled with the {@code benchmark.scale} system property, and the seed of the
+ * generated repositories set with {@code benchmark.seed}.
+ */
+public class ReportGeneratorBenchmark {
+    private static final Path BENCHMARK_DIRECTORY = Paths.get("build", "benchmark");
+    private static final Path RESULTS_PATH = BENCHMARK_DIRECTORY.resolve("results.json");
+    private static final String GENERATION_DATE = "Benchmark";
+    private static final long START_EPOCH_SECOND = 1483228800L; // 1 Jan 2017
+    private static final double RENAME_RATE = 0.02;
+
+    private final int scale = Integer.getInteger("benchmark.scale", 1);
+    private final long seed = Long.getLong("benchmark.seed", 42L);
+    private final List<BenchmarkResult> results = new ArrayList<>();
+
+    private Path workingDirectory;
+
+    @Before
+    public void before() throws IOException {
+        Files.createDirectories(BENCHMARK_DIRECTORY);
+        workingDirectory = Files.createTempDirectory(BENCHMARK_DIRECTORY.toAbsolutePath(), "run");
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtil.deleteDirectory(workingDirectory.toString());
+        FileUtil.deleteDirectory(FileUtil.REPOS_ADDRESS);
+    }
+
+    @Test
+    public void generateReposReport_syntheticRepos() throws Exception {
+        runShape("small", new SyntheticRepoGenerator(
+                5, 200 * scale, 50 * scale, 10, RENAME_RATE, START_EPOCH_SECOND, 180, seed));
+        runShape("medium", new SyntheticRepoGenerator(
+                20, 2000 * scale, 300 * scale, 15, RENAME_RATE, START_EPOCH_SECOND, 365, seed));
+        runShape("wide", new SyntheticRepoGenerator(
+                100, 2000 * scale, 1000 * scale, 5, RENAME_RATE, START_EPOCH_SECOND, 730, seed));
+
+        FileUtil.writeJsonFile(results, RESULTS_PATH.toString());
+        printResults();
+    }
+
+    /**
+     * Generates a repository with {@code generator}, then benchmarks a full {@code ReportGenerator#generateReposReport}
+     * run over it, broken down into the phases recorded by {@code MetricsRecorder}.
+     */
+    private void runShape(String shapeName, SyntheticRepoGenerator generator) throws Exception {
+        Path repoPath = workingDirectory.resolve(shapeName);
+        BenchmarkResult result = new BenchmarkResult(shapeName);
+
+        long startTime = System.nanoTime();
+        generator.generate(repoPath);
+        result.generationMillis = toMillis(System.nanoTime() - startTime);
+
+        List<RepoConfiguration> configs = Collections.singletonList(createConfig(repoPath));
+        String outputPath = workingDirectory.resolve(shapeName + "-report").toString();
+        MetricsRecorder.reset();
+        resetPeakHeapUsage();
+        result.endToEndMillis = time(() -> ReportGenerator.generateReposReport(configs, outputPath, GENERATION_DATE));
+        result.peakHeapBytes = getPeakHeapUsage();
+        result.phases = MetricsRecorder.getReport().getRepos().get(0).getPhases();
+
+        results.add(result);
+    }
+
+    private RepoConfiguration createConfig(Path repoPath) throws Exception {
+        RepoConfiguration config = new RepoConfiguration(repoPath.toAbsolutePath().toString());
+        config.setFormats(ArgsParser.DEFAULT_FORMATS);
+        return config;
+    }
+
+    /**
+     * Runs {@code action} and returns its wall time in milliseconds.
+     */
+    private long time(BenchmarkedAction action) throws Exception {
+        long startTime = System.nanoTime();
+        action.run();
+        return toMillis(System.nanoTime() - startTime);
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Runs the garbage collector and resets the peak usage of all heap memory pools.
+     */
+    private static void resetPeakHeapUsage() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Returns the sum of the peak usage of all heap memory pools since the last {@link #resetPeakHeapUsage()}.
+     */
+    private static long getPeakHeapUsage() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Prints one line of measurements per repository shape.
+     */
+    private void printResults() {
+        System.out.println(String.format("Benchmark results (scale %d, seed %d), also written to %s",
+                scale, seed, RESULTS_PATH.toAbsolutePath()));
+        for (BenchmarkResult result : results) {
+            Map<Phase, Long> phaseMillis = new LinkedHashMap<>();
+            result.phases.forEach((phase, metrics) ->
+                    phaseMillis.put(phase, TimeUnit.NANOSECONDS.toMillis(metrics.getWallNanos())));
+            System.out.println(String.format("%-8s generate %6d ms | end-to-end %6d ms, peak heap %d MB | phases %s",
+                    result.shape, result.generationMillis, result.endToEndMillis, result.peakHeapBytes >> 20,
+                    phaseMillis));
+        }
+    }
+
+    /**
+     * Represents a benchmarked step, which may throw any exception.
+     */
+    @FunctionalInterface
+    private interface BenchmarkedAction {
+        void run() throws Exception;
+    }
+
+    /**
+     * Holds the measurements of one repository shape, serialized into the results JSON file.
+     */
+    private static class BenchmarkResult {
+        private final String shape;
+        private long generationMillis;
+        private long endToEndMillis;
+        private long peakHeapBytes;
+        private Map<Phase, PhaseMetrics> phases;
+
+        BenchmarkResult(String shape) {
+            this.shape = shape;
+        }
+    }
+}
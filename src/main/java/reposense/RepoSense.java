@@ -1,6 +1,7 @@
 package reposense;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -9,54 +10,182 @@ import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import reposense.authorship.BlameCache;
+import reposense.commits.CommitCache;
+import reposense.metrics.MetricsRecorder;
+import reposense.metrics.TraceWriter;
 import reposense.model.CliArguments;
 import reposense.model.ConfigCliArguments;
+import reposense.model.DaemonCliArguments;
 import reposense.model.LocationsCliArguments;
+import reposense.model.MergeCliArguments;
 import reposense.model.RepoConfiguration;
+import reposense.model.Shard;
 import reposense.model.ViewCliArguments;
 import reposense.parser.ArgsParser;
 import reposense.parser.AuthorConfigCsvParser;
 import reposense.parser.InvalidLocationException;
 import reposense.parser.ParseException;
 import reposense.parser.RepoConfigCsvParser;
+import reposense.report.CostEstimator;
 import reposense.report.ReportGenerator;
+import reposense.report.ReportWatcher;
+import reposense.report.ShardMerger;
+import reposense.report.ShardScheduler;
+import reposense.system.AnalysisDaemon;
+import reposense.system.DaemonClient;
+import reposense.system.DaemonToken;
 import reposense.system.DashboardServer;
 import reposense.system.LogsManager;
-import reposense.util.FileUtil;
+import reposense.system.MemoryBudget;
+import reposense.system.ReportEventsHandler;
 
 public class RepoSense {
     private static final Logger logger = LogsManager.getLogger(RepoSense.class);
     private static final int SERVER_PORT_NUMBER = 9000;
+    private static final int EXIT_CODE_FAILURE = 1;
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("E MMM d HH:mm:ss 'SGT' yyyy");
 
     public static void main(String[] args) {
         try {
+            if (DaemonClient.isClientInvocation(args)) {
+                if (!DaemonClient.submit(args)) {
+                    System.exit(EXIT_CODE_FAILURE);
+                }
+                return;
+            }
+
             CliArguments cliArguments = ArgsParser.parse(args);
-            List<RepoConfiguration> configs = null;
 
             if (cliArguments instanceof ViewCliArguments) {
                 DashboardServer.startServer(SERVER_PORT_NUMBER, ((
                         ViewCliArguments) cliArguments).getReportDirectoryPath().toAbsolutePath());
                 return;
-            } else if (cliArguments instanceof ConfigCliArguments) {
-                configs = getRepoConfigurations((ConfigCliArguments) cliArguments);
-            } else if (cliArguments instanceof LocationsCliArguments) {
-                configs = getRepoConfigurations((LocationsCliArguments) cliArguments);
-            } else {
-                throw new AssertionError("CliArguments's subclass type is unhandled.");
+            } else if (cliArguments instanceof DaemonCliArguments) {
+                // the daemon analyzes the same repos again and again, from the clones kept by the analyses before
+                CommitCache.enable();
+                BlameCache.enable();
+                new AnalysisDaemon(((DaemonCliArguments) cliArguments).getPort(), DaemonToken.DEFAULT_DIRECTORY,
+                        RepoSense::runJob).start();
+                return;
+            } else if (cliArguments instanceof MergeCliArguments) {
+                mergeReports(cliArguments);
+                return;
             }
 
-            RepoConfiguration.setFormatsToRepoConfigs(configs, cliArguments.getFormats());
-            RepoConfiguration.setDatesToRepoConfigs(configs, cliArguments.getSinceDate(), cliArguments.getUntilDate());
-            ReportGenerator.generateReposReport(configs, cliArguments.getOutputFilePath().toAbsolutePath().toString(),
-                    formatter.format(ZonedDateTime.now(ZoneId.of("UTC+8"))));
+            if (cliArguments.isWatchEnabled()) {
+                CommitCache.enable();
+                BlameCache.enable();
+            }
+            List<RepoConfiguration> configs = generateReport(cliArguments);
+            if (cliArguments.isWatchEnabled()) {
+                watchReport(cliArguments, configs);
+            }
+        } catch (IOException ioe) {
+            logger.log(Level.WARNING, ioe.getMessage(), ioe);
+            System.exit(EXIT_CODE_FAILURE);
+        } catch (ParseException pe) {
+            logger.log(Level.WARNING, pe.getMessage(), pe);
+            System.exit(EXIT_CODE_FAILURE);
+        }
+    }
+
+    /**
+     * Serves the report of {@code cliArguments}, which was generated from {@code configs}, on the dashboard, and
+     * regenerates it whenever the repos change, notifying the dashboard each time.
+     */
+    private static void watchReport(CliArguments cliArguments, List<RepoConfiguration> configs) {
+        ReportEventsHandler eventsHandler = new ReportEventsHandler();
+        DashboardServer.startServer(SERVER_PORT_NUMBER, cliArguments.getOutputFilePath().toAbsolutePath(),
+                eventsHandler);
+        new ReportWatcher(() -> generateReport(cliArguments), eventsHandler::notifyReportChanged).watch(configs);
+    }
+
+    /**
+     * Runs the analysis of {@code args}, which were submitted to the daemon by a client. Returns true if it succeeded.
+     */
+    private static boolean runJob(String[] args) {
+        try {
+            CliArguments cliArguments = ArgsParser.parse(args);
+            if (cliArguments instanceof ViewCliArguments || cliArguments instanceof DaemonCliArguments) {
+                logger.warning("Only analyses, with -config or -repos, and merges can be submitted to the daemon.");
+                return false;
+            } else if (cliArguments.isWatchEnabled()) {
+                logger.warning("Analyses in watch mode cannot be submitted to the daemon.");
+                return false;
+            } else if (cliArguments instanceof MergeCliArguments) {
+                mergeReports(cliArguments);
+                return true;
+            }
 
-            FileUtil.zip(cliArguments.getOutputFilePath().toAbsolutePath(), ".json");
+            generateReport(cliArguments);
+            return true;
         } catch (IOException ioe) {
             logger.log(Level.WARNING, ioe.getMessage(), ioe);
+            return false;
         } catch (ParseException pe) {
             logger.log(Level.WARNING, pe.getMessage(), pe);
+            return false;
+        }
+    }
+
+    /**
+     * Analyzes the repos of {@code cliArguments}, which is a {@code ConfigCliArguments} or a
+     * {@code LocationsCliArguments}, and generates their report. Returns the configs of the repos.
+     *
+     * @throws IOException if the config files or the report cannot be read or written.
+     */
+    private static List<RepoConfiguration> generateReport(CliArguments cliArguments) throws IOException {
+        List<RepoConfiguration> configs = null;
+        if (cliArguments instanceof ConfigCliArguments) {
+            configs = getRepoConfigurations((ConfigCliArguments) cliArguments);
+        } else if (cliArguments instanceof LocationsCliArguments) {
+            configs = getRepoConfigurations((LocationsCliArguments) cliArguments);
+        } else {
+            throw new AssertionError("CliArguments's subclass type is unhandled.");
+        }
+
+        Path reportPath = cliArguments.getOutputFilePath().toAbsolutePath();
+        CostEstimator costEstimator = CostEstimator.load(reportPath);
+        if (cliArguments.getShard().isPresent()) {
+            Shard shard = cliArguments.getShard().get();
+            List<RepoConfiguration> shardConfigs = ShardScheduler.selectShard(configs, shard, costEstimator);
+            ShardMerger.deleteStaleShards(reportPath, shard);
+            reportPath = ShardMerger.getShardPath(reportPath, shard);
+            ShardMerger.recordAssignment(reportPath, configs, shardConfigs);
+            configs = shardConfigs;
         }
+
+        try {
+            MetricsRecorder.reset();
+            if (cliArguments.getTraceFilePath().isPresent()) {
+                TraceWriter.start(cliArguments.getTraceFilePath().get());
+            }
+            if (cliArguments.getMaxHeapBudget().isPresent()) {
+                MemoryBudget.enable(cliArguments.getMaxHeapBudget().get());
+            }
+            RepoConfiguration.setFormatsToRepoConfigs(configs, cliArguments.getFormats());
+            RepoConfiguration.setDatesToRepoConfigs(configs, cliArguments.getSinceDate(), cliArguments.getUntilDate());
+            RepoConfiguration.setContentStoreToRepoConfigs(configs, cliArguments.isContentStoreEnabled());
+            ReportGenerator.generateReposReport(configs, reportPath.toString(),
+                    formatter.format(ZonedDateTime.now(ZoneId.of("UTC+8"))), costEstimator, cliArguments.isResumed());
+
+            MetricsRecorder.writeReport(reportPath.toString());
+            return configs;
+        } finally {
+            TraceWriter.stop();
+            MemoryBudget.disable();
+        }
+    }
+
+    /**
+     * Merges the reports of the shards in the report folder of {@code cliArguments} into one report.
+     *
+     * @throws IOException if the reports of the shards are incomplete, or the merged report cannot be written.
+     */
+    private static void mergeReports(CliArguments cliArguments) throws IOException {
+        ShardMerger.merge(cliArguments.getOutputFilePath().toAbsolutePath(),
+                formatter.format(ZonedDateTime.now(ZoneId.of("UTC+8"))));
     }
 
     /**
@@ -1,30 +1,113 @@
 package reposense.authorship;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
 
+import reposense.authorship.model.AuthorshipShard;
 import reposense.authorship.model.AuthorshipSummary;
 import reposense.authorship.model.FileInfo;
 import reposense.authorship.model.FileResult;
+import reposense.metrics.MetricsRecorder;
+import reposense.metrics.Phase;
 import reposense.model.RepoConfiguration;
+import reposense.system.LogsManager;
+import reposense.system.MemoryBudget;
 
 /**
  * Generates the authorship summary data for each repository.
  */
 public class AuthorshipReporter {
+    public static final int MAX_SHARD_LINE_COUNT = 20000;
+
+    private static final Logger logger = LogsManager.getLogger(AuthorshipReporter.class);
 
     /**
      * Generates and returns the authorship summary for each repo in {@code config}.
+     * The results of the files are split into shards, one for each top-level directory of the repo, with the
+     * directories holding more than {@code MAX_SHARD_LINE_COUNT} lines split into several shards, each of which is
+     * passed to {@code shardWriter} and freed as soon as its files are analyzed.
+     * Within a heap budget, the lines of each file are only read once the file is reached, instead of up front.
+     */
+    public static AuthorshipSummary generateAuthorshipSummary(RepoConfiguration config,
+            AuthorshipShardWriter shardWriter) {
+        return MetricsRecorder.callPhase(Phase.AUTHORSHIP, () -> analyzeFiles(config, shardWriter));
+    }
+
+    /**
+     * Analyzes the files of the repo in {@code config}, passing the results of each shard to {@code shardWriter}, and
+     * returns the authorship summary of all of them.
+     */
+    private static AuthorshipSummary analyzeFiles(RepoConfiguration config, AuthorshipShardWriter shardWriter) {
+        // the files are sorted by path, so the files of each top-level directory are consecutive
+        try (Stream<FileInfo> fileInfos = extractFileInfos(config)) {
+            BlameCache.update(config);
+            AuthorshipSummary authorshipSummary = new AuthorshipSummary(config.getAuthorList());
+
+            List<FileResult> shardResults = new ArrayList<>();
+            String shardDirectory = "";
+            int shardLineCount = 0;
+            Iterator<FileInfo> fileInfoIterator = fileInfos.iterator();
+            while (fileInfoIterator.hasNext()) {
+                FileResult fileResult = FileInfoAnalyzer.analyzeFile(config, fileInfoIterator.next());
+                if (fileResult == null) {
+                    continue;
+                }
+
+                String directory = AuthorshipShard.getTopLevelDirectory(fileResult.getPath());
+                int lineCount = fileResult.getLines().size();
+                if (!shardResults.isEmpty() && (!directory.equals(shardDirectory)
+                        || shardLineCount + lineCount > MAX_SHARD_LINE_COUNT)) {
+                    writeShard(config, authorshipSummary, shardDirectory, shardResults, shardWriter);
+                    shardResults = new ArrayList<>();
+                    shardLineCount = 0;
+                }
+                shardDirectory = directory;
+                shardResults.add(fileResult);
+                shardLineCount += lineCount;
+            }
+            if (!shardResults.isEmpty()) {
+                writeShard(config, authorshipSummary, shardDirectory, shardResults, shardWriter);
+            }
+            return authorshipSummary;
+        }
+    }
+
+    /**
+     * Returns the relevant files of the repo in {@code config}, sorted by path. Within a heap budget, they are
+     * streamed from the repo and a temporary file holding its diff, unless the file cannot be written. Otherwise,
+     * they are read into memory, and each is freed once the stream has passed it.
      */
-    public static AuthorshipSummary generateAuthorshipSummary(RepoConfiguration config) {
-        List<FileInfo> fileInfos = FileInfoExtractor.extractFileInfos(config);
+    private static Stream<FileInfo> extractFileInfos(RepoConfiguration config) {
+        if (MemoryBudget.isEnabled()) {
+            try {
+                return FileInfoExtractor.streamFileInfos(config);
+            } catch (IOException ioe) {
+                logger.log(Level.WARNING, String.format("Unable to write the diff of %s into a temporary file, "
+                        + "will read its files into memory instead.", config.getDisplayName()), ioe);
+            }
+        }
 
-        List<FileResult> fileResults = fileInfos.stream()
-                .map(fileInfo -> FileInfoAnalyzer.analyzeFile(config, fileInfo))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        Deque<FileInfo> fileInfos = new ArrayDeque<>(FileInfoExtractor.extractFileInfos(config));
+        return Stream.generate(fileInfos::poll).limit(fileInfos.size());
+    }
 
-        return FileResultAggregator.aggregateFileResult(fileResults, config.getAuthorList());
+    /**
+     * Passes {@code fileResults}, which are the results of files in the top-level {@code directory} of the repo of
+     * {@code config}, to {@code shardWriter} as the next shard of the repo, and adds them to
+     * {@code authorshipSummary}.
+     */
+    private static void writeShard(RepoConfiguration config, AuthorshipSummary authorshipSummary, String directory,
+            List<FileResult> fileResults, AuthorshipShardWriter shardWriter) {
+        AuthorshipShard shard = new AuthorshipShard(authorshipSummary.getShards().size(), directory, fileResults);
+        shardWriter.write(shard, fileResults);
+        FileResultAggregator.aggregateFileResult(authorshipSummary, fileResults, config.getAuthorList());
+        authorshipSummary.addShard(shard);
     }
 }
@@ -0,0 +1,18 @@
+package reposense.authorship;
+
+import java.util.List;
+
+import reposense.authorship.model.AuthorshipShard;
+import reposense.authorship.model.FileResult;
+
+/**
+ * Writes out the results of each shard of the files of a repo as soon as they are analyzed, so that they do not have
+ * to be held in memory until the whole repo is analyzed.
+ */
+public interface AuthorshipShardWriter {
+
+    /**
+     * Writes out {@code fileResults}, which are summarized by {@code shard}.
+     */
+    void write(AuthorshipShard shard, List<FileResult> fileResults);
+}
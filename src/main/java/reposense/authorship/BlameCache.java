@@ -0,0 +1,96 @@
+package reposense.authorship;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import reposense.git.HistoryReader;
+import reposense.git.PackHistoryReader;
+import reposense.model.CommitBoundaries;
+import reposense.model.RepoConfiguration;
+import reposense.system.CommandRunner;
+import reposense.system.LogsManager;
+
+/**
+ * Keeps the raw git blame of the files in the repos analyzed so far, so that when the branch of a repo has moved on
+ * since it was last analyzed, only the files changed by the commits added to it are blamed again.
+ *
+ * The cache is off until it is enabled, which watch mode and the daemon do, as they analyze the same repos again and
+ * again.
+ */
+public class BlameCache {
+    private static final Logger logger = LogsManager.getLogger(BlameCache.class);
+    private static final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private static volatile boolean isEnabled = false;
+
+    public static void enable() {
+        isEnabled = true;
+    }
+
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Brings the blames cached for the working tree of {@code config} up to date with the commit checked out in it.
+     * The blames cached for an ancestor of that commit are kept, except those of the files changed since.
+     */
+    public static void update(RepoConfiguration config) {
+        if (!isEnabled) {
+            return;
+        }
+
+        String root = config.getRepoRoot();
+        HistoryReader historyReader = PackHistoryReader.open(root);
+        // the latest commit of the date range is the one checked out, if it was resolved
+        String headCommit = config.getCommitBoundaries()
+                .map(CommitBoundaries::getUntilCommit)
+                .filter(commit -> !commit.isEmpty())
+                .orElseGet(historyReader::getHeadCommit);
+        Snapshot snapshot = snapshots.get(root);
+        if (snapshot != null && snapshot.commit.equals(headCommit)) {
+            return;
+        }
+
+        Map<String, String> blames = new ConcurrentHashMap<>();
+        if (snapshot != null && historyReader.isAncestor(snapshot.commit, headCommit)) {
+            blames.putAll(snapshot.blames);
+            Arrays.stream(CommandRunner.getChangedPaths(root, snapshot.commit, headCommit).split("\n"))
+                    .forEach(blames::remove);
+            logger.info(String.format("Reusing the blames of %d files of %s.", blames.size(), config.getLocation()));
+        }
+        snapshots.put(root, new Snapshot(headCommit, blames));
+    }
+
+    /**
+     * Returns the raw git blame of the file at {@code path} in the working tree of {@code config}, as given by
+     * {@code CommandRunner#blameRaw}, from the cache if it is there.
+     */
+    public static String getBlame(RepoConfiguration config, String path) {
+        Snapshot snapshot = isEnabled ? snapshots.get(config.getRepoRoot()) : null;
+        if (snapshot == null) {
+            return CommandRunner.blameRaw(config.getRepoRoot(), path);
+        }
+
+        String blame = snapshot.blames.get(path);
+        if (blame == null) {
+            blame = CommandRunner.blameRaw(config.getRepoRoot(), path);
+            snapshot.blames.put(path, blame);
+        }
+        return blame;
+    }
+
+    /**
+     * The blames of the files in a working tree at a commit.
+     */
+    private static class Snapshot {
+        private final String commit;
+        private final Map<String, String> blames;
+
+        Snapshot(String commit, Map<String, String> blames) {
+            this.commit = commit;
+            this.blames = blames;
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package reposense.authorship;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
@@ -10,6 +16,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -21,6 +28,7 @@ import reposense.authorship.model.FileInfo;
 import reposense.authorship.model.LineInfo;
 import reposense.git.CommitNotFoundException;
 import reposense.git.GitChecker;
+import reposense.model.CommitBoundaries;
 import reposense.model.RepoConfiguration;
 import reposense.system.CommandRunner;
 import reposense.system.LogsManager;
@@ -33,6 +41,8 @@ public class FileInfoExtractor {
 
     private static final String DIFF_FILE_CHUNK_SEPARATOR = "\ndiff --git a/.*\n";
     private static final String LINE_CHUNKS_SEPARATOR = "\n@@ ";
+    private static final String DIFF_FILE_HEADER_PREFIX = "diff --git a/";
+    private static final String LINE_CHUNK_PREFIX = "@@ ";
     private static final String LINE_INSERTED_SYMBOL = "+";
     private static final String STARTING_LINE_NUMBER_GROUP_NAME = "startingLineNumber";
     private static final String FILE_CHANGED_GROUP_NAME = "filePath";
@@ -41,6 +51,7 @@ public class FileInfoExtractor {
     private static final String INVALID_FILE_PATH_MESSAGE_FORMAT = "Invalid file path %s provided, skipping this file.";
 
     private static final int LINE_CHANGED_HEADER_INDEX = 0;
+    private static final int MAX_INDEXED_LINE_LENGTH = 1 << 16;
 
     private static final Pattern STARTING_LINE_NUMBER_PATTERN = Pattern.compile(
             "-(\\d)+(,)?(\\d)* \\+(?<startingLineNumber>\\d+)(,)?(\\d)* @@");
@@ -53,27 +64,105 @@ public class FileInfoExtractor {
         logger.info("Extracting relevant file infos " + config.getLocation() + "...");
 
         List<FileInfo> fileInfos = new ArrayList<>();
-
-        // checks out to the latest commit of the date range to ensure the FileInfo generated correspond to the
-        // git blame file analyze output
-        try {
-            GitChecker.checkoutToDate(config.getRepoRoot(), config.getBranch(), config.getUntilDate());
-        } catch (CommitNotFoundException cnfe) {
+        Optional<String> lastCommitHash = checkoutLatestCommit(config);
+        if (!lastCommitHash.isPresent()) {
             return fileInfos;
         }
-        String lastCommitHash = CommandRunner.getCommitHashBeforeDate(
-                config.getRepoRoot(), config.getBranch(), config.getSinceDate());
 
-        if (!lastCommitHash.isEmpty()) {
-            fileInfos = getEditedFileInfos(config, lastCommitHash);
+        if (!lastCommitHash.get().isEmpty()) {
+            fileInfos = getEditedFileInfos(config, lastCommitHash.get());
         } else {
-            getAllFileInfo(config, Paths.get(config.getRepoRoot()), fileInfos);
+            List<String> relativePaths = new ArrayList<>();
+            getAllFilePaths(config, Paths.get(config.getRepoRoot()), relativePaths);
+            for (String relativePath : relativePaths) {
+                generateFileInfoIfValid(config.getRepoRoot(), relativePath).ifPresent(fileInfos::add);
+            }
         }
 
         fileInfos.sort(Comparator.comparing(FileInfo::getPath));
         return fileInfos;
     }
 
+    /**
+     * Returns the relevant files given in {@code config}, like {@code #extractFileInfos(RepoConfiguration)}, but
+     * with the lines of each file only read once the stream reaches it, and the diff which marks the lines to track
+     * read from a temporary file instead of from memory, so that only the lines of one file are held at a time.
+     * The stream has to be closed once it is consumed, which deletes the file.
+     *
+     * @throws IOException if the temporary file cannot be written.
+     */
+    public static Stream<FileInfo> streamFileInfos(RepoConfiguration config) throws IOException {
+        logger.info("Extracting relevant file infos " + config.getLocation() + " through a temporary file...");
+
+        Optional<String> lastCommitHash = checkoutLatestCommit(config);
+        if (!lastCommitHash.isPresent()) {
+            return Stream.empty();
+        }
+
+        if (lastCommitHash.get().isEmpty()) {
+            List<String> relativePaths = new ArrayList<>();
+            getAllFilePaths(config, Paths.get(config.getRepoRoot()), relativePaths);
+            relativePaths.sort(Comparator.comparing(relativePath -> relativePath.replace('\\', '/')));
+            return relativePaths.stream()
+                    .map(relativePath -> generateFileInfoIfValid(config.getRepoRoot(), relativePath))
+                    .filter(Optional::isPresent)
+                    .map(Optional::get);
+        }
+
+        Path diffPath = Files.createTempFile("reposense-diff", ".txt");
+        List<FileDiff> fileDiffs;
+        RandomAccessFile diffFile;
+        try {
+            CommandRunner.diffCommit(config.getRepoRoot(), lastCommitHash.get(), diffPath);
+            fileDiffs = indexFileDiffs(config, diffPath);
+            diffFile = new RandomAccessFile(diffPath.toFile(), "r");
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(diffPath);
+            throw e;
+        }
+
+        fileDiffs.sort(Comparator.comparing(fileDiff -> fileDiff.path));
+        return fileDiffs.stream()
+                .map(fileDiff -> generateEditedFileInfo(config, fileDiff.path, readFileDiff(diffFile, fileDiff)))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .onClose(() -> {
+                    try {
+                        diffFile.close();
+                        Files.deleteIfExists(diffPath);
+                    } catch (IOException ioe) {
+                        logger.log(Level.WARNING, "Unable to delete the temporary file " + diffPath, ioe);
+                    }
+                });
+    }
+
+    /**
+     * Checks out the latest commit of the date range of {@code config}, to ensure the {@code FileInfo} generated
+     * correspond to the git blame file analyze output. Returns the latest commit before the date range, which is
+     * empty if the whole history is in the range, or nothing if there are no commits in the range.
+     */
+    private static Optional<String> checkoutLatestCommit(RepoConfiguration config) {
+        Optional<CommitBoundaries> boundaries = config.getCommitBoundaries();
+        if (boundaries.isPresent()) {
+            if (boundaries.get().getUntilCommit().isEmpty()) {
+                return Optional.empty();
+            }
+            if (config.getUntilDate() != null) {
+                GitChecker.checkout(config.getRepoRoot(), boundaries.get().getUntilCommit());
+            }
+            return Optional.of(boundaries.get().getSinceCommit());
+        }
+
+        try {
+            GitChecker.checkoutToDate(config.getRepoRoot(), config.getBranch(), config.getUntilDate());
+        } catch (CommitNotFoundException cnfe) {
+            return Optional.empty();
+        }
+        // the hash is output with a line break, which would end the command it is passed to
+        return Optional.of(CommandRunner.getCommitHashBeforeDate(
+                config.getRepoRoot(), config.getBranch(), config.getSinceDate()).trim());
+    }
+
     /**
      * Generates a list of relevant {@code FileInfo} for all files that were edited in between the current
      * commit and the {@code lastCommitHash} commit, marks each {@code LineInfo} for each {@code FileInfo} on
@@ -91,32 +180,133 @@ public class FileInfoExtractor {
         String[] fileDiffResultList = fullDiffResult.split(DIFF_FILE_CHUNK_SEPARATOR);
 
         for (String fileDiffResult : fileDiffResultList) {
-            Matcher filePathMatcher = FILE_CHANGED_PATTERN.matcher(fileDiffResult);
+            getEditedFilePath(config, fileDiffResult)
+                    .flatMap(filePath -> generateEditedFileInfo(config, filePath, fileDiffResult))
+                    .ifPresent(fileInfos::add);
+        }
 
-            // diff result does not have the markers to indicate that file has any line changes, skip it
-            if (!filePathMatcher.find()) {
-                continue;
-            }
+        return fileInfos;
+    }
 
-            String filePath = filePathMatcher.group(FILE_CHANGED_GROUP_NAME);
+    /**
+     * Returns the path of the file which {@code fileDiffResult} is the diff of, if the file has any line changes, is
+     * not deleted, and is of one of the formats of {@code config}.
+     */
+    private static Optional<String> getEditedFilePath(RepoConfiguration config, String fileDiffResult) {
+        Matcher filePathMatcher = FILE_CHANGED_PATTERN.matcher(fileDiffResult);
 
-            // file is deleted, skip it as well
-            if (filePath.equals(FILE_DELETED_SYMBOL)) {
-                continue;
-            }
+        // diff result does not have the markers to indicate that file has any line changes, skip it
+        if (!filePathMatcher.find()) {
+            return Optional.empty();
+        }
+
+        String filePath = filePathMatcher.group(FILE_CHANGED_GROUP_NAME);
 
-            if (isFormatInsideWhiteList(filePath, config.getFormats())) {
-                try {
-                    FileInfo currentFileInfo = generateFileInfo(config.getRepoRoot(), filePath);
-                    setLinesToTrack(currentFileInfo, fileDiffResult);
-                    fileInfos.add(currentFileInfo);
-                } catch (InvalidPathException ipe) {
-                    logger.warning(String.format(INVALID_FILE_PATH_MESSAGE_FORMAT, filePath));
+        // file is deleted, skip it as well
+        if (filePath.equals(FILE_DELETED_SYMBOL)) {
+            return Optional.empty();
+        }
+
+        return isFormatInsideWhiteList(filePath, config.getFormats()) ? Optional.of(filePath) : Optional.empty();
+    }
+
+    /**
+     * Generates the {@code FileInfo} of the file at {@code filePath}, with the lines inserted in
+     * {@code fileDiffResult} marked as tracked. Returns nothing if {@code filePath} is invalid.
+     */
+    private static Optional<FileInfo> generateEditedFileInfo(RepoConfiguration config, String filePath,
+            String fileDiffResult) {
+        try {
+            FileInfo fileInfo = generateFileInfo(config.getRepoRoot(), filePath);
+            setLinesToTrack(fileInfo, fileDiffResult);
+            return Optional.of(fileInfo);
+        } catch (InvalidPathException ipe) {
+            logger.warning(String.format(INVALID_FILE_PATH_MESSAGE_FORMAT, filePath));
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Finds the diff of each relevant file in the diff at {@code diffPath}, reading only the header of each, which
+     * ends where its first chunk of changed lines starts.
+     *
+     * @throws IOException if the diff cannot be read.
+     */
+    private static List<FileDiff> indexFileDiffs(RepoConfiguration config, Path diffPath) throws IOException {
+        List<FileDiff> fileDiffs = new ArrayList<>();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(diffPath))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            StringBuilder header = new StringBuilder();
+            boolean isInHeader = false;
+            long position = 0;
+            long start = -1;
+            for (long length = readLine(in, line); length != -1; length = readLine(in, line)) {
+                String text = new String(line.toByteArray(), StandardCharsets.UTF_8);
+                if (text.startsWith(DIFF_FILE_HEADER_PREFIX)) {
+                    // the line break before the header of a file belongs to neither file, as in the split diff
+                    addFileDiff(config, fileDiffs, header, start, position - 1);
+                    header.setLength(0);
+                    isInHeader = true;
+                    start = position;
+                } else if (text.startsWith(LINE_CHUNK_PREFIX)) {
+                    isInHeader = false;
                 }
+                if (isInHeader) {
+                    header.append(text).append('\n');
+                }
+                position += length;
             }
+            addFileDiff(config, fileDiffs, header, start, position);
         }
+        return fileDiffs;
+    }
 
-        return fileInfos;
+    /**
+     * Adds the diff between {@code start} and {@code end} whose header is {@code header} to {@code fileDiffs}, if it
+     * is the diff of a relevant file.
+     */
+    private static void addFileDiff(RepoConfiguration config, List<FileDiff> fileDiffs, CharSequence header,
+            long start, long end) {
+        if (start < 0) {
+            return;
+        }
+        getEditedFilePath(config, header.toString())
+                .ifPresent(filePath -> fileDiffs.add(new FileDiff(filePath, start, end)));
+    }
+
+    /**
+     * Reads the next line of {@code in} into {@code line}, without its line break and keeping at most
+     * {@code MAX_INDEXED_LINE_LENGTH} bytes of it. Returns the number of bytes read, or -1 at the end of {@code in}.
+     */
+    private static long readLine(InputStream in, ByteArrayOutputStream line) throws IOException {
+        line.reset();
+        long length = 0;
+        for (int value = in.read(); value != -1; value = in.read()) {
+            length++;
+            if (value == '\n') {
+                return length;
+            }
+            if (line.size() < MAX_INDEXED_LINE_LENGTH) {
+                line.write(value);
+            }
+        }
+        return (length == 0) ? -1 : length;
+    }
+
+    /**
+     * Returns the text of {@code fileDiff} in {@code diffFile}.
+     *
+     * @throws UncheckedIOException if the diff cannot be read.
+     */
+    private static String readFileDiff(RandomAccessFile diffFile, FileDiff fileDiff) {
+        try {
+            byte[] bytes = new byte[Math.toIntExact(fileDiff.end - fileDiff.start)];
+            diffFile.seek(fileDiff.start);
+            diffFile.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
     }
 
     /**
@@ -156,23 +346,19 @@ public class FileInfoExtractor {
     }
 
     /**
-     * Traverses each file from the repo root directory, generates the {@code FileInfo} for each relevant file found
-     * based on {@code config} and inserts it into {@code fileInfos}.
+     * Traverses each file from the repo root directory, and inserts the path of each relevant file found based on
+     * {@code config}, relative to the repo root, into {@code relativePaths}.
      */
-    private static void getAllFileInfo(RepoConfiguration config, Path directory, List<FileInfo> fileInfos) {
+    private static void getAllFilePaths(RepoConfiguration config, Path directory, List<String> relativePaths) {
         try (Stream<Path> pathStream = Files.list(directory)) {
             for (Path filePath : pathStream.collect(Collectors.toList())) {
                 String relativePath = filePath.toString().substring(config.getRepoRoot().length());
                 if (Files.isDirectory(filePath)) {
-                    getAllFileInfo(config, filePath, fileInfos);
+                    getAllFilePaths(config, filePath, relativePaths);
                 }
 
                 if (isFormatInsideWhiteList(relativePath, config.getFormats())) {
-                    try {
-                        fileInfos.add(generateFileInfo(config.getRepoRoot(), relativePath));
-                    } catch (InvalidPathException ipe) {
-                        logger.warning(String.format(INVALID_FILE_PATH_MESSAGE_FORMAT, filePath));
-                    }
+                    relativePaths.add(relativePath);
                 }
             }
         } catch (IOException ioe) {
@@ -180,6 +366,18 @@ public class FileInfoExtractor {
         }
     }
 
+    /**
+     * Generates the {@code FileInfo} of the {@code relativePath} file, or nothing if the path is invalid.
+     */
+    private static Optional<FileInfo> generateFileInfoIfValid(String repoRoot, String relativePath) {
+        try {
+            return Optional.of(generateFileInfo(repoRoot, relativePath));
+        } catch (InvalidPathException ipe) {
+            logger.warning(String.format(INVALID_FILE_PATH_MESSAGE_FORMAT, relativePath));
+            return Optional.empty();
+        }
+    }
+
     /**
      * Generates and returns a {@code FileInfo} with a list of {@code LineInfo} for each line content in the
      * {@code relativePath} file.
@@ -221,4 +419,19 @@ public class FileInfoExtractor {
 
         return Integer.parseInt(chunkHeaderMatcher.group(STARTING_LINE_NUMBER_GROUP_NAME));
     }
+
+    /**
+     * Represents the diff of a file, which lies between {@code start} and {@code end} of a diff written into a file.
+     */
+    private static class FileDiff {
+        private final String path;
+        private final long start;
+        private final long end;
+
+        FileDiff(String path, long start, long end) {
+            this.path = path;
+            this.start = start;
+            this.end = end;
+        }
+    }
 }
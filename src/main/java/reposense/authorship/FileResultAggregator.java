@@ -13,19 +13,18 @@ import reposense.model.Author;
 public class FileResultAggregator {
 
     /**
-     * Returns the {@code AuthorshipSummary} generated from aggregating the {@code fileResults}.
+     * Adds the contributions of the {@code authors} in {@code fileResults} to {@code authorshipSummary}.
      */
-    public static AuthorshipSummary aggregateFileResult(List<FileResult> fileResults, List<Author> authors) {
-        AuthorshipSummary authorContributionSummary = new AuthorshipSummary(fileResults, authors);
+    public static void aggregateFileResult(AuthorshipSummary authorshipSummary, List<FileResult> fileResults,
+            List<Author> authors) {
         for (FileResult fileResult : fileResults) {
             for (LineInfo lineInfo : fileResult.getLines()) {
                 Author author = lineInfo.getAuthor();
                 if (!authors.contains(author)) {
                     continue;
                 }
-                authorContributionSummary.addAuthorContributionCount(author);
+                authorshipSummary.addAuthorContributionCount(author);
             }
         }
-        return authorContributionSummary;
     }
 }
@@ -0,0 +1,76 @@
+package reposense.authorship.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import reposense.model.Author;
+
+/**
+ * Stores the summary of a shard of the {@code FileResult} of a repo, which are the results of the files in one
+ * top-level directory of the repo, or of a chunk of them if there are too many lines in the directory.
+ * The shards of a repo are listed in its authorship manifest, so that the results can be written, and loaded, one
+ * shard at a time.
+ */
+public class AuthorshipShard {
+    private static final String SHARD_FILE_FORMAT = "%d.json";
+
+    private final String directory;
+    private final String file;
+    private final int fileCount;
+    private final int lineCount;
+    private final TreeMap<String, Integer> authorContributionMap;
+
+    /**
+     * Summarizes {@code fileResults}, which are the results of the files in the top-level {@code directory} of the
+     * repo, or in the root of the repo if it is empty, as the {@code index}-th shard of the repo.
+     */
+    public AuthorshipShard(int index, String directory, List<FileResult> fileResults) {
+        this.directory = directory;
+        this.file = String.format(SHARD_FILE_FORMAT, index);
+        this.fileCount = fileResults.size();
+        this.lineCount = fileResults.stream().mapToInt(fileResult -> fileResult.getLines().size()).sum();
+        this.authorContributionMap = new TreeMap<>();
+        for (FileResult fileResult : fileResults) {
+            // the authors are keyed like in the JSON of the results, in which a line without an author is keyed "null"
+            for (Map.Entry<Author, Integer> entry : fileResult.getAuthorContributionMap().entrySet()) {
+                authorContributionMap.merge(String.valueOf(entry.getKey()), entry.getValue(), Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Returns the top-level directory of the file at the relative {@code path}, which is empty for the files in the
+     * root of the repo.
+     */
+    public static String getTopLevelDirectory(String path) {
+        int separatorIndex = path.indexOf('/');
+        return (separatorIndex == -1) ? "" : path.substring(0, separatorIndex);
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the name of the file holding the results of the shard, relative to the authorship manifest.
+     */
+    public String getFile() {
+        return file;
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Returns the number of lines of the files of the shard contributed by the author with {@code gitId}.
+     */
+    public int getLineCount(String gitId) {
+        return authorContributionMap.getOrDefault(gitId, 0);
+    }
+}
@@ -1,19 +1,21 @@
 package reposense.authorship.model;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
 import reposense.model.Author;
 
 /**
- * Stores the contribution summary of the authors in the repo.
+ * Stores the contribution summary of the authors in the repo, along with the shards which the results of its files
+ * were written in.
  */
 public class AuthorshipSummary {
-    private final List<FileResult> fileResults;
+    private final List<AuthorshipShard> shards;
     private final HashMap<Author, Integer> authorFinalContributionMap;
 
-    public AuthorshipSummary(List<FileResult> fileResults, List<Author> authors) {
-        this.fileResults = fileResults;
+    public AuthorshipSummary(List<Author> authors) {
+        shards = new ArrayList<>();
         authorFinalContributionMap = new HashMap<>();
 
         // initialise each author contribution to be 0
@@ -27,11 +29,15 @@ public class AuthorshipSummary {
         authorFinalContributionMap.put(author, authorFinalContributionMap.get(author) + 1);
     }
 
+    public void addShard(AuthorshipShard shard) {
+        shards.add(shard);
+    }
+
     public HashMap<Author, Integer> getAuthorFinalContributionMap() {
         return authorFinalContributionMap;
     }
 
-    public List<FileResult> getFileResults() {
-        return fileResults;
+    public List<AuthorshipShard> getShards() {
+        return shards;
     }
 }
@@ -0,0 +1,116 @@
+package reposense.commits;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import reposense.git.PackHistoryReader;
+import reposense.model.Author;
+import reposense.model.RepoConfiguration;
+import reposense.system.CommandRunner;
+
+/**
+ * Keeps the logs of the commits of each author in the repos analyzed so far, so that when the branch of a repo has
+ * moved on since it was last analyzed, only the log of the commits added to it is read.
+ *
+ * The cache is off until it is enabled, which watch mode and the daemon do, as they analyze the same repos again and
+ * again.
+ */
+public class CommitCache {
+    private static final Map<String, RepoLogs> repoLogs = new ConcurrentHashMap<>();
+    private static volatile boolean isEnabled = false;
+
+    public static void enable() {
+        isEnabled = true;
+    }
+
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Returns the log of the commits of {@code author} in the repo of {@code config}, as given by
+     * {@code CommandRunner#gitLog}, where {@code headCommit} is the commit checked out in it.
+     * If the log was cached for an ancestor of {@code headCommit}, only the log of the commits after it is read.
+     */
+    public static String getLog(RepoConfiguration config, Author author, String headCommit) {
+        RepoLogs logs = getRepoLogs(config, headCommit);
+        String authorKey = getAuthorKey(author);
+        String log = logs.authorLogs.get(authorKey);
+        if (log != null) {
+            return log;
+        }
+
+        String baseLog = (logs.baseAuthorLogs == null) ? null : logs.baseAuthorLogs.get(authorKey);
+        if (baseLog == null) {
+            log = CommandRunner.gitLog(config, author);
+        } else {
+            log = joinLogs(CommandRunner.gitLog(config, author, logs.baseCommit), baseLog);
+        }
+        logs.authorLogs.put(authorKey, log);
+        return log;
+    }
+
+    /**
+     * Returns the logs cached for the repo of {@code config} at {@code headCommit}, replacing those cached for any
+     * other commit, which are kept as the base of the new logs if that commit is an ancestor of {@code headCommit}.
+     */
+    private static synchronized RepoLogs getRepoLogs(RepoConfiguration config, String headCommit) {
+        String repoKey = getRepoKey(config);
+        RepoLogs logs = repoLogs.get(repoKey);
+        if (logs != null && logs.commit.equals(headCommit)) {
+            return logs;
+        }
+
+        RepoLogs newLogs = (logs != null
+                && PackHistoryReader.open(config.getRepoRoot()).isAncestor(logs.commit, headCommit))
+                ? new RepoLogs(headCommit, logs.commit, logs.authorLogs)
+                : new RepoLogs(headCommit, null, null);
+        repoLogs.put(repoKey, newLogs);
+        return newLogs;
+    }
+
+    /**
+     * Returns the log made of the entries of both {@code newLog} and {@code oldLog}.
+     * The order of the entries does not matter, as the commits are sorted by their time when they are analyzed.
+     */
+    private static String joinLogs(String newLog, String oldLog) {
+        if (newLog.isEmpty()) {
+            return oldLog;
+        } else if (oldLog.isEmpty()) {
+            return newLog;
+        }
+        return newLog + "\n" + oldLog;
+    }
+
+    /**
+     * Returns the key of the logs of the branch of {@code config} within its date range and file formats.
+     */
+    private static String getRepoKey(RepoConfiguration config) {
+        return Arrays.asList(config.getLocation(), config.getBranch(), config.getSinceDate(), config.getUntilDate(),
+                config.getFormats()).toString();
+    }
+
+    /**
+     * Returns the key of the log of {@code author}, made of everything which the log is filtered by.
+     */
+    private static String getAuthorKey(Author author) {
+        return Arrays.asList(author.getGitId(), author.getAuthorAliases(), author.getIgnoreGlobList()).toString();
+    }
+
+    /**
+     * The logs of the commits of each author in a repo at a commit.
+     */
+    private static class RepoLogs {
+        private final String commit;
+        private final Map<String, String> authorLogs = new ConcurrentHashMap<>();
+        private final String baseCommit;
+        private final Map<String, String> baseAuthorLogs;
+
+        RepoLogs(String commit, String baseCommit, Map<String, String> baseAuthorLogs) {
+            this.commit = commit;
+            this.baseCommit = baseCommit;
+            this.baseAuthorLogs = baseAuthorLogs;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import reposense.commits.model.CommitInfo;
 import reposense.commits.model.CommitResult;
@@ -25,7 +26,8 @@ import reposense.system.LogsManager;
 public class CommitInfoAnalyzer {
     private static final Logger logger = LogsManager.getLogger(CommitInfoAnalyzer.class);
 
-    private static final DateFormat GIT_ISO_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private static final ThreadLocal<DateFormat> GIT_ISO_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"));
     private static final String LOG_SPLITTER = "\\|";
 
     private static final int COMMIT_HASH_INDEX = 0;
@@ -41,7 +43,15 @@ public class CommitInfoAnalyzer {
      * specified to be ignored or the author is inside {@code config}.
      */
     public static List<CommitResult> analyzeCommits(List<CommitInfo> commitInfos, RepoConfiguration config) {
-        return commitInfos.stream()
+        return analyzeCommits(commitInfos.stream(), config);
+    }
+
+    /**
+     * Analyzes each {@code CommitInfo} in {@code commitInfos} like {@code #analyzeCommits(List, RepoConfiguration)},
+     * as they are read from the stream, so that only the results are held in memory.
+     */
+    public static List<CommitResult> analyzeCommits(Stream<CommitInfo> commitInfos, RepoConfiguration config) {
+        return commitInfos
                 .map(commitInfo -> analyzeCommit(commitInfo, config.getAuthorAliasMap()))
                 .filter(commitResult -> !commitResult.getAuthor().equals(new Author(Author.UNKNOWN_AUTHOR_GIT_ID))
                         && !isCommitHashWithinIgnoredCommitList(commitResult.getHash(), config.getIgnoreCommitList()))
@@ -62,7 +72,7 @@ public class CommitInfoAnalyzer {
 
         Date date = null;
         try {
-            date = GIT_ISO_FORMAT.parse(elements[DATE_INDEX]);
+            date = GIT_ISO_FORMAT.get().parse(elements[DATE_INDEX]);
         } catch (ParseException pe) {
             logger.log(Level.WARNING, "Unable to parse the date from git log result for commit.", pe);
         }
@@ -1,13 +1,29 @@
 package reposense.commits;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import reposense.commits.model.CommitInfo;
 import reposense.git.GitChecker;
+import reposense.git.PackHistoryReader;
 import reposense.model.Author;
+import reposense.model.CommitBoundaries;
 import reposense.model.RepoConfiguration;
 import reposense.system.CommandRunner;
 import reposense.system.LogsManager;
@@ -17,6 +33,7 @@ import reposense.system.LogsManager;
  */
 public class CommitInfoExtractor {
     private static final Logger logger = LogsManager.getLogger(CommitInfoExtractor.class);
+    private static final byte[] LINE_BREAK = "\n".getBytes(StandardCharsets.UTF_8);
 
     /**
      * Extracts out and returns the raw information of each commit for the repo in {@code config}.
@@ -24,12 +41,18 @@ public class CommitInfoExtractor {
     public static List<CommitInfo> extractCommitInfos(RepoConfiguration config) {
         logger.info("Extracting commits info for " + config.getLocation() + "...");
 
-        GitChecker.checkoutBranch(config.getRepoRoot(), config.getBranch());
+        checkoutUnresolvedBranch(config);
 
         List<CommitInfo> repoCommitInfos = new ArrayList<>();
+        String headCommit = CommitCache.isEnabled()
+                ? config.getCommitBoundaries().map(CommitBoundaries::getHeadCommit)
+                        .orElseGet(() -> PackHistoryReader.open(config.getRepoRoot()).getHeadCommit())
+                : null;
 
         for (Author author : config.getAuthorList()) {
-            String gitLogResult = CommandRunner.gitLog(config, author);
+            String gitLogResult = CommitCache.isEnabled()
+                    ? CommitCache.getLog(config, author, headCommit)
+                    : CommandRunner.gitLog(config, author);
             List<CommitInfo> authorCommitInfos = parseGitLogResults(gitLogResult);
             repoCommitInfos.addAll(authorCommitInfos);
         }
@@ -37,6 +60,55 @@ public class CommitInfoExtractor {
         return repoCommitInfos;
     }
 
+    /**
+     * Returns the raw information of each commit for the repo in {@code config}, like
+     * {@code #extractCommitInfos(RepoConfiguration)}, but read one commit at a time from a temporary file which the
+     * logs of the authors are written into, instead of from the logs held in memory. The stream has to be closed
+     * once it is consumed, which deletes the file.
+     *
+     * @throws IOException if the temporary file cannot be written.
+     */
+    public static Stream<CommitInfo> streamCommitInfos(RepoConfiguration config) throws IOException {
+        logger.info("Extracting commits info for " + config.getLocation() + " through a temporary file...");
+
+        checkoutUnresolvedBranch(config);
+
+        Path logPath = Files.createTempFile("reposense-log", ".txt");
+        BufferedReader reader;
+        try {
+            for (Author author : config.getAuthorList()) {
+                CommandRunner.gitLog(config, author, logPath);
+                // the log of an author does not end with a line break, which would join it to the next log
+                Files.write(logPath, LINE_BREAK, StandardOpenOption.APPEND);
+            }
+            reader = Files.newBufferedReader(logPath, StandardCharsets.UTF_8);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(logPath);
+            throw e;
+        }
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new CommitInfoIterator(reader),
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                        Files.deleteIfExists(logPath);
+                    } catch (IOException ioe) {
+                        logger.log(Level.WARNING, "Unable to delete the temporary file " + logPath, ioe);
+                    }
+                });
+    }
+
+    /**
+     * Checks out the branch of {@code config} to be logged, unless its latest commit was resolved, which is logged
+     * instead without checking it out.
+     */
+    private static void checkoutUnresolvedBranch(RepoConfiguration config) {
+        if (!config.getCommitBoundaries().isPresent()) {
+            GitChecker.checkoutBranch(config.getRepoRoot(), config.getBranch());
+        }
+    }
+
     /**
      * Parses the {@code gitLogResult} into a list of {@code CommitInfo} and returns it.
      */
@@ -57,4 +129,51 @@ public class CommitInfoExtractor {
         Collections.reverse(commitInfos);
         return commitInfos;
     }
+
+    /**
+     * Reads the raw information of one commit after another from the logs given by {@code reader}, in which the info
+     * line of each commit is followed by its stat line, and the commits are separated by empty lines.
+     */
+    private static class CommitInfoIterator implements Iterator<CommitInfo> {
+        private final BufferedReader reader;
+        private CommitInfo nextCommitInfo;
+
+        CommitInfoIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextCommitInfo != null) {
+                return true;
+            }
+
+            try {
+                String infoLine = reader.readLine();
+                while (infoLine != null && infoLine.isEmpty()) {
+                    infoLine = reader.readLine();
+                }
+                if (infoLine == null) {
+                    return false;
+                }
+
+                String statLine = reader.readLine();
+                nextCommitInfo = new CommitInfo(infoLine, (statLine == null) ? "" : statLine);
+                return true;
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
+
+        @Override
+        public CommitInfo next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            CommitInfo commitInfo = nextCommitInfo;
+            nextCommitInfo = null;
+            return commitInfo;
+        }
+    }
 }
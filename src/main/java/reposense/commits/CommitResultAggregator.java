@@ -1,17 +1,24 @@
 package reposense.commits;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import reposense.commits.model.AuthorIntervalContribution;
 import reposense.commits.model.CommitContributionSummary;
 import reposense.commits.model.CommitResult;
+import reposense.commits.model.ContributionGranularity;
+import reposense.commits.model.ContributionLevel;
 import reposense.model.Author;
 import reposense.model.RepoConfiguration;
 
@@ -19,6 +26,10 @@ import reposense.model.RepoConfiguration;
  * Uses the commit analysis results to generate the summary information of a repository.
  */
 public class CommitResultAggregator {
+    // the daily contributions are not repeated in the pyramid, as they are already in the daily interval contributions
+    private static final ContributionGranularity[] PYRAMID_GRANULARITIES = {
+        ContributionGranularity.WEEK, ContributionGranularity.MONTH, ContributionGranularity.QUARTER
+    };
 
     /**
      * Returns the {@code CommitContributionSummary} generated from aggregating the {@code commitResults}.
@@ -37,11 +48,84 @@ public class CommitResultAggregator {
         Map<Author, Float> authorContributionVariance =
                 calcAuthorContributionVariance(authorDailyIntervalContributions);
 
+        Map<String, ContributionLevel> contributionPyramid =
+                getContributionPyramid(authorDailyIntervalContributions);
+
         return new CommitContributionSummary(
                 config.getAuthorDisplayNameMap(),
                 authorDailyIntervalContributions,
                 authorWeeklyIntervalContributions,
-                authorContributionVariance);
+                authorContributionVariance,
+                contributionPyramid);
+    }
+
+    /**
+     * Returns the contributions in {@code authorDailyIntervalContributions} summed over the intervals of each of the
+     * {@code PYRAMID_GRANULARITIES}, keyed by the name of the granularity, in a single pass over the daily
+     * contributions of each author.
+     */
+    private static Map<String, ContributionLevel> getContributionPyramid(
+            Map<Author, List<AuthorIntervalContribution>> authorDailyIntervalContributions) {
+        // every author has a contribution on each of the same days
+        List<LocalDate> days = authorDailyIntervalContributions.values().stream()
+                .filter(contributions -> !contributions.isEmpty())
+                .findFirst()
+                .map(contributions -> contributions.stream()
+                        .map(contribution -> toLocalDate(contribution.getSinceDate()))
+                        .collect(Collectors.toList()))
+                .orElse(Collections.emptyList());
+
+        ContributionGranularity[] granularities = PYRAMID_GRANULARITIES;
+        List<List<Date>> sinceDates = new ArrayList<>();
+        Date[] untilDates = new Date[granularities.length];
+        // the interval of each granularity which each day falls into
+        int[][] intervalIndexes = new int[granularities.length][days.size()];
+        for (int level = 0; level < granularities.length; level++) {
+            List<Date> levelSinceDates = new ArrayList<>();
+            LocalDate lastStart = null;
+            for (int day = 0; day < days.size(); day++) {
+                LocalDate start = granularities[level].getStart(days.get(day));
+                if (!start.equals(lastStart)) {
+                    levelSinceDates.add(toDate(start));
+                    lastStart = start;
+                }
+                intervalIndexes[level][day] = levelSinceDates.size() - 1;
+            }
+            sinceDates.add(levelSinceDates);
+            untilDates[level] = (lastStart == null) ? null : toDate(granularities[level].getNext(lastStart));
+        }
+
+        List<Map<Author, int[]>> authorInsertions = new ArrayList<>();
+        List<Map<Author, int[]>> authorDeletions = new ArrayList<>();
+        for (int level = 0; level < granularities.length; level++) {
+            authorInsertions.add(new LinkedHashMap<>());
+            authorDeletions.add(new LinkedHashMap<>());
+        }
+        for (Map.Entry<Author, List<AuthorIntervalContribution>> entry : authorDailyIntervalContributions.entrySet()) {
+            int[][] insertions = new int[granularities.length][];
+            int[][] deletions = new int[granularities.length][];
+            for (int level = 0; level < granularities.length; level++) {
+                insertions[level] = new int[sinceDates.get(level).size()];
+                deletions[level] = new int[sinceDates.get(level).size()];
+                authorInsertions.get(level).put(entry.getKey(), insertions[level]);
+                authorDeletions.get(level).put(entry.getKey(), deletions[level]);
+            }
+
+            List<AuthorIntervalContribution> contributions = entry.getValue();
+            for (int day = 0; day < contributions.size(); day++) {
+                for (int level = 0; level < granularities.length; level++) {
+                    insertions[level][intervalIndexes[level][day]] += contributions.get(day).getInsertions();
+                    deletions[level][intervalIndexes[level][day]] += contributions.get(day).getDeletions();
+                }
+            }
+        }
+
+        Map<String, ContributionLevel> contributionPyramid = new LinkedHashMap<>();
+        for (int level = 0; level < granularities.length; level++) {
+            contributionPyramid.put(granularities[level].toString(), new ContributionLevel(sinceDates.get(level),
+                    untilDates[level], authorInsertions.get(level), authorDeletions.get(level)));
+        }
+        return contributionPyramid;
     }
 
     private static Map<Author, Float> calcAuthorContributionVariance(
@@ -124,6 +208,14 @@ public class CommitResultAggregator {
         return c.getTime();
     }
 
+    private static LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
     private static Date getStartDate(List<CommitResult> commitInfos) {
         Calendar cal = Calendar.getInstance();
         cal.set(Calendar.YEAR, 2050);
@@ -1,25 +1,50 @@
 package reposense.commits;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import reposense.commits.model.CommitContributionSummary;
 import reposense.commits.model.CommitInfo;
 import reposense.commits.model.CommitResult;
+import reposense.metrics.MetricsRecorder;
+import reposense.metrics.Phase;
 import reposense.model.RepoConfiguration;
+import reposense.system.LogsManager;
+import reposense.system.MemoryBudget;
 
 /**
  * Generates the commit summary data for each repository.
  */
 public class CommitsReporter {
+    private static final Logger logger = LogsManager.getLogger(CommitsReporter.class);
 
     /**
      * Generates and returns the commit contribution summary for each repo in {@code config}.
      */
     public static CommitContributionSummary generateCommitSummary(RepoConfiguration config) {
-        List<CommitInfo> commitInfos = CommitInfoExtractor.extractCommitInfos(config);
+        return MetricsRecorder.callPhase(Phase.COMMITS, () -> {
+            List<CommitResult> commitResults = MemoryBudget.isEnabled()
+                    ? analyzeStreamedCommits(config)
+                    : CommitInfoAnalyzer.analyzeCommits(CommitInfoExtractor.extractCommitInfos(config), config);
 
-        List<CommitResult> commitResults = CommitInfoAnalyzer.analyzeCommits(commitInfos, config);
+            return CommitResultAggregator.aggregateCommitResults(config, commitResults);
+        });
+    }
 
-        return CommitResultAggregator.aggregateCommitResults(config, commitResults);
+    /**
+     * Analyzes the commits of the repo in {@code config} as they are streamed from a temporary file holding their
+     * log, so that the log is not held in memory, or from the log read into memory if the file cannot be written.
+     */
+    private static List<CommitResult> analyzeStreamedCommits(RepoConfiguration config) {
+        try (Stream<CommitInfo> commitInfos = CommitInfoExtractor.streamCommitInfos(config)) {
+            return CommitInfoAnalyzer.analyzeCommits(commitInfos, config);
+        } catch (IOException ioe) {
+            logger.log(Level.WARNING, String.format("Unable to write the log of %s into a temporary file, "
+                    + "will read it into memory instead.", config.getDisplayName()), ioe);
+            return CommitInfoAnalyzer.analyzeCommits(CommitInfoExtractor.extractCommitInfos(config), config);
+        }
     }
 }
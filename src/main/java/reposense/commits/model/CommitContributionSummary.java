@@ -13,16 +13,19 @@ public class CommitContributionSummary {
     private final Map<Author, List<AuthorIntervalContribution>> authorDailyIntervalContributions;
     private final Map<Author, Float> authorContributionVariance;
     private final Map<Author, String> authorDisplayNameMap;
+    private final Map<String, ContributionLevel> contributionPyramid;
 
     public CommitContributionSummary(
             Map<Author, String> authorDisplayNameMap,
             Map<Author, List<AuthorIntervalContribution>> authorDailyIntervalContributions,
             Map<Author, List<AuthorIntervalContribution>> authorWeeklyIntervalContributions,
-            Map<Author, Float> authorContributionVariance) {
+            Map<Author, Float> authorContributionVariance,
+            Map<String, ContributionLevel> contributionPyramid) {
         this.authorDisplayNameMap = authorDisplayNameMap;
         this.authorDailyIntervalContributions = authorDailyIntervalContributions;
         this.authorWeeklyIntervalContributions = authorWeeklyIntervalContributions;
         this.authorContributionVariance = authorContributionVariance;
+        this.contributionPyramid = contributionPyramid;
     }
 
     public Map<Author, String> getAuthorDisplayNameMap() {
@@ -40,4 +43,12 @@ public class CommitContributionSummary {
     public Map<Author, Float> getAuthorContributionVariance() {
         return authorContributionVariance;
     }
+
+    /**
+     * Returns the contributions of each author summed over the intervals of each granularity, keyed by the name of the
+     * granularity.
+     */
+    public Map<String, ContributionLevel> getContributionPyramid() {
+        return contributionPyramid;
+    }
 }
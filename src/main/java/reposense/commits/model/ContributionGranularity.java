@@ -0,0 +1,86 @@
+package reposense.commits.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Represents the length of the intervals which the contributions of an author are summed over, from the finest to the
+ * coarsest. Weeks start on Sunday, and months and quarters start on the first day of the calendar month.
+ */
+public enum ContributionGranularity {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month"),
+    QUARTER("quarter");
+
+    private final String name;
+
+    ContributionGranularity(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the granularity named {@code name}, or null if there is none.
+     */
+    public static ContributionGranularity fromName(String name) {
+        for (ContributionGranularity granularity : values()) {
+            if (granularity.name.equals(name)) {
+                return granularity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the first date of the interval which contains {@code date}.
+     */
+    public LocalDate getStart(LocalDate date) {
+        if (this == DAY) {
+            return date;
+        } else if (this == WEEK) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+        } else if (this == MONTH) {
+            return date.withDayOfMonth(1);
+        } else {
+            return date.withDayOfMonth(1).withMonth((date.getMonthValue() - 1) / 3 * 3 + 1);
+        }
+    }
+
+    /**
+     * Returns the first date of the interval which follows the one starting on {@code start}.
+     */
+    public LocalDate getNext(LocalDate start) {
+        if (this == DAY) {
+            return start.plusDays(1);
+        } else if (this == WEEK) {
+            return start.plusWeeks(1);
+        } else if (this == MONTH) {
+            return start.plusMonths(1);
+        } else {
+            return start.plusMonths(3);
+        }
+    }
+
+    /**
+     * Returns an upper bound of the number of intervals from the one starting on {@code start} until the one
+     * containing {@code until}, without counting them one by one.
+     */
+    public long countIntervals(LocalDate start, LocalDate until) {
+        long days = until.toEpochDay() - start.toEpochDay() + 1;
+        if (this == DAY) {
+            return days;
+        } else if (this == WEEK) {
+            return days / 7 + 1;
+        } else if (this == MONTH) {
+            return days / 28 + 1;
+        } else {
+            return days / 90 + 1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
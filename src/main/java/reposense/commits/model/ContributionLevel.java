@@ -0,0 +1,42 @@
+package reposense.commits.model;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import reposense.model.Author;
+
+/**
+ * Stores the contributions of each author summed over the intervals of a {@code ContributionGranularity}, as arrays
+ * which share the start dates of the intervals instead of one object per interval.
+ */
+public class ContributionLevel {
+    private final List<Date> sinceDates;
+    private final Date untilDate;
+    private final Map<Author, int[]> authorInsertions;
+    private final Map<Author, int[]> authorDeletions;
+
+    public ContributionLevel(List<Date> sinceDates, Date untilDate, Map<Author, int[]> authorInsertions,
+            Map<Author, int[]> authorDeletions) {
+        this.sinceDates = sinceDates;
+        this.untilDate = untilDate;
+        this.authorInsertions = authorInsertions;
+        this.authorDeletions = authorDeletions;
+    }
+
+    public List<Date> getSinceDates() {
+        return sinceDates;
+    }
+
+    public Date getUntilDate() {
+        return untilDate;
+    }
+
+    public Map<Author, int[]> getAuthorInsertions() {
+        return authorInsertions;
+    }
+
+    public Map<Author, int[]> getAuthorDeletions() {
+        return authorDeletions;
+    }
+}
@@ -1,9 +1,28 @@
 package reposense.git;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import reposense.metrics.MetricsRecorder;
+import reposense.metrics.Phase;
 import reposense.model.RepoConfiguration;
 import reposense.system.CommandRunner;
 import reposense.system.LogsManager;
@@ -16,13 +35,34 @@ public class GitDownloader {
 
     private static final Logger logger = LogsManager.getLogger(GitDownloader.class);
 
-    public static void downloadRepo(RepoConfiguration repoConfig)
-            throws GitDownloaderException {
+    private static final int SHALLOW_SINCE_MARGIN_DAYS = 1;
+    private static final String BLOB_LIST_FILE_NAME = "reposense-prefetch";
+    private static final String OLD_BLOB_GROUP_NAME = "oldBlob";
+    private static final String NEW_BLOB_GROUP_NAME = "newBlob";
+    private static final Pattern RAW_DIFF_PATTERN = Pattern.compile(
+            "^:\\d+ \\d+ (?<oldBlob>[0-9a-f]{40}) (?<newBlob>[0-9a-f]{40}) ");
+
+    private static final Map<String, Object> storeLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Clones the repository of {@code repoConfig} and checks out the branch to analyze into its own working tree.
+     */
+    public static void downloadRepo(RepoConfiguration repoConfig) throws GitDownloaderException {
+        downloadRepoStore(Collections.singletonList(repoConfig));
+        checkoutWorktree(repoConfig);
+    }
+
+    /**
+     * Clones the repository shared by all of {@code repoConfigs} once, into a bare repository which the working trees
+     * of their branches are then created from, and resolves the default branch of those which did not specify one.
+     * The clone is kept after the analysis, and only updated with the latest commits of their branches by later runs.
+     * It is then maintained by {@code GitMaintenance}, so that the branches can be analyzed faster.
+     * All of {@code repoConfigs} must have the same location.
+     */
+    public static void downloadRepoStore(List<RepoConfiguration> repoConfigs) throws GitDownloaderException {
+        RepoConfiguration repoConfig = repoConfigs.get(0);
         try {
-            FileUtil.deleteDirectory(repoConfig.getRepoRoot());
-            logger.info("Cloning " + repoConfig.getLocation() + "...");
-            CommandRunner.cloneRepo(repoConfig.getLocation(), repoConfig.getRepoName());
-            logger.info("Cloning completed!");
+            MetricsRecorder.runPhase(Phase.CLONE, () -> downloadOrUpdateRepoStore(repoConfigs));
         } catch (RuntimeException rte) {
             logger.log(Level.SEVERE, "Error encountered in Git Cloning, will attempt to continue analyzing", rte);
             throw new GitDownloaderException(rte);
@@ -31,17 +71,306 @@ public class GitDownloader {
         } catch (IOException ioe) {
             throw new GitDownloaderException(ioe);
         }
+        GitMaintenance.maintainRepoStore(repoConfig.getRepoStoreRoot());
+    }
+
+    /**
+     * Deletes the working trees of the branches of {@code repoConfig}'s repository, keeping the bare repository which
+     * they were created from, so that later runs only have to update it. Its lock is dropped along with them, as its
+     * branches are done with it.
+     *
+     * @throws IOException if the working trees cannot be deleted.
+     */
+    public static void deleteWorktrees(RepoConfiguration repoConfig) throws IOException {
+        storeLocks.remove(repoConfig.getRepoStoreRoot());
+        Path repoFolderPath = Paths.get(repoConfig.getRepoFolderPath());
+        Path storePath = Paths.get(repoConfig.getRepoStoreRoot());
+        if (!Files.isDirectory(repoFolderPath)) {
+            return;
+        }
+
+        try (Stream<Path> paths = Files.list(repoFolderPath)) {
+            for (Path path : paths.collect(Collectors.toList())) {
+                if (!path.getFileName().equals(storePath.getFileName())) {
+                    FileUtil.deleteDirectory(path.toString());
+                }
+            }
+        }
+        if (Files.isDirectory(storePath)) {
+            CommandRunner.pruneWorktrees(storePath.toString());
+        }
+    }
+
+    /**
+     * Updates the clone of {@code repoConfigs} kept from an earlier run if it was cloned from the same location, or
+     * clones their repository afresh otherwise, or if it cannot be updated.
+     *
+     * @throws IOException if the earlier clone cannot be deleted.
+     */
+    private static void downloadOrUpdateRepoStore(List<RepoConfiguration> repoConfigs) throws IOException {
+        RepoConfiguration repoConfig = repoConfigs.get(0);
+        if (isRepoStoreReusable(repoConfigs)) {
+            try {
+                logger.info("Updating the clone of " + repoConfig.getLocation() + "...");
+                updateRepoStore(repoConfigs);
+                logger.info("Updating completed!");
+                return;
+            } catch (RuntimeException rte) {
+                logger.log(Level.INFO, "Unable to update the clone of " + repoConfig.getLocation()
+                        + ", will clone it again instead.", rte);
+            }
+        }
+
+        FileUtil.deleteDirectory(repoConfig.getRepoFolderPath());
+        logger.info("Cloning " + repoConfig.getLocation() + "...");
+        cloneRepo(repoConfigs);
+        logger.info("Cloning completed!");
+    }
+
+    /**
+     * Returns true if the bare repository of {@code repoConfigs} was kept by an earlier run, which cloned it from the
+     * same location, and it does not leave out the contents of files which they analyze the whole history of.
+     */
+    private static boolean isRepoStoreReusable(List<RepoConfiguration> repoConfigs) {
+        RepoConfiguration repoConfig = repoConfigs.get(0);
+        String storeRoot = repoConfig.getRepoStoreRoot();
+        if (!Files.isDirectory(Paths.get(storeRoot))) {
+            return false;
+        }
 
         try {
-            if (repoConfig.getBranch().equals(RepoConfiguration.DEFAULT_BRANCH)) {
-                String currentBranch = CommandRunner.getCurrentBranch(repoConfig.getRepoRoot());
-                repoConfig.setBranch(currentBranch);
+            if (getEarliestSinceDate(repoConfigs) == null && CommandRunner.isPartialClone(storeRoot)) {
+                // the whole history would be fetched into it, without the contents of the earlier file versions
+                return false;
             }
-            GitChecker.checkout(repoConfig.getRepoRoot(), repoConfig.getBranch());
+            return CommandRunner.getRemoteUrl(storeRoot).equals(getCloneLocation(repoConfig));
+        } catch (RuntimeException rte) {
+            // the folder is not a repository, or was not cloned
+            return false;
+        }
+    }
+
+    /**
+     * Updates the branches of {@code repoConfigs} in their bare repository, kept by an earlier run, to their latest
+     * commits, after deleting the working trees which the earlier run left behind.
+     * A shallow clone is deepened or shortened to the history after their since date, or made complete if any of them
+     * analyzes the whole history.
+     *
+     * @throws IOException if the working trees cannot be deleted.
+     */
+    private static void updateRepoStore(List<RepoConfiguration> repoConfigs) throws IOException {
+        RepoConfiguration repoConfig = repoConfigs.get(0);
+        String storeRoot = repoConfig.getRepoStoreRoot();
+        // git refuses to update a branch which is checked out in a working tree
+        deleteWorktrees(repoConfig);
+
+        Optional<String> defaultBranch = GitForEachRef.extractCurrentBranch(GitForEachRef.listRefs(storeRoot));
+        List<String> branches = repoConfigs.stream()
+                .map(RepoConfiguration::getBranch)
+                .map(branch -> branch.equals(RepoConfiguration.DEFAULT_BRANCH) ? defaultBranch.orElse(branch) : branch)
+                .distinct()
+                .collect(Collectors.toList());
+        boolean isShallow = CommandRunner.isShallowRepo(storeRoot);
+        Date sinceDate = getEarliestSinceDate(repoConfigs);
+        Date shallowSinceDate = (sinceDate == null) ? null : getShallowSinceDate(sinceDate);
+        CommandRunner.fetchBranches(storeRoot, branches, isShallow, shallowSinceDate);
+        resolveDefaultBranches(repoConfigs);
+        if (isShallow && sinceDate != null) {
+            CommandRunner.deepenRepo(storeRoot, 1, branches);
+        }
+    }
+
+    /**
+     * Returns the location which the bare repository of {@code repoConfig} is cloned from.
+     */
+    private static String getCloneLocation(RepoConfiguration repoConfig) {
+        return repoConfig.isLocalRepo()
+                ? Paths.get(repoConfig.getLocation()).toAbsolutePath().toString()
+                : repoConfig.getLocation();
+    }
+
+    /**
+     * Creates the working tree of {@code repoConfig}'s branch from the bare repository cloned by
+     * {@code downloadRepoStore}.
+     */
+    public static void checkoutWorktree(RepoConfiguration repoConfig) throws GitDownloaderException {
+        try {
+            MetricsRecorder.runPhase(Phase.CHECKOUT, () -> {
+                FileUtil.deleteDirectory(repoConfig.getRepoRoot());
+                CommandRunner.addWorktree(repoConfig.getRepoStoreRoot(), repoConfig.getRepoRoot(),
+                        repoConfig.getBranch());
+            });
         } catch (RuntimeException e) {
             logger.log(Level.SEVERE, "Branch does not exist! Analyze terminated.", e);
             throw new GitDownloaderException(e);
+        } catch (IOException ioe) {
+            throw new GitDownloaderException(ioe);
+        }
+    }
+
+    /**
+     * Fetches the contents of the files of {@code repoConfig}'s formats in every commit of its branch in a single
+     * batch, if the repo was partially cloned.
+     * Otherwise, git would fetch them one at a time when git blame and git log need them, which is much slower.
+     * Failing to fetch them is not fatal, as git will still fetch the missing contents when needed.
+     */
+    public static void prefetchFileContents(RepoConfiguration repoConfig) {
+        String repoRoot = repoConfig.getRepoRoot();
+        Object storeLock = storeLocks.computeIfAbsent(repoConfig.getRepoStoreRoot(), root -> new Object());
+        // branches sharing the store are fetched for one at a time, so that their common file versions are fetched once
+        synchronized (storeLock) {
+            fetchFileContents(repoConfig, repoRoot);
         }
+    }
+
+    /**
+     * Fetches the file contents needed to analyze {@code repoConfig} which are missing from the partial clone of its
+     * working tree at {@code repoRoot}.
+     */
+    private static void fetchFileContents(RepoConfiguration repoConfig, String repoRoot) {
+        try {
+            MetricsRecorder.runPhase(Phase.CLONE, () -> fetchMissingBlobs(repoConfig, repoRoot));
+        } catch (RuntimeException | IOException e) {
+            logger.log(Level.WARNING, "Unable to fetch the file contents in advance, will fetch them when needed.", e);
+        }
+    }
+
+    /**
+     * Fetches the blobs of the files of {@code repoConfig}'s formats changed within its date range which are missing
+     * from the working tree at {@code repoRoot}, in a single batch, if it is a partial clone.
+     *
+     * @throws IOException if the list of the blobs cannot be written.
+     */
+    private static void fetchMissingBlobs(RepoConfiguration repoConfig, String repoRoot) throws IOException {
+        if (!CommandRunner.isPartialClone(repoRoot)) {
+            return;
+        }
+
+        // only the blobs changed within the date range are kept, rather than every object missing from the clone
+        Set<String> changedBlobs = new HashSet<>();
+        CommandRunner.walkRawDiffHistory(repoRoot, repoConfig.getBranch(), repoConfig.getFormats(),
+                repoConfig.getSinceDate(), repoConfig.getUntilDate(), line -> addChangedBlobs(line, changedBlobs));
+        Set<String> blobsToFetch = new TreeSet<>();
+        CommandRunner.walkMissingObjects(repoRoot, repoConfig.getBranch(), repoConfig.getSinceDate(),
+                repoConfig.getUntilDate(), objectId -> addIfChanged(objectId, changedBlobs, blobsToFetch));
+        if (blobsToFetch.isEmpty()) {
+            return;
+        }
+
+        logger.info(String.format("Fetching the contents of %d file versions of %s...",
+                blobsToFetch.size(), repoConfig.getLocation()));
+        Path objectListPath = Paths.get(repoConfig.getRepoStoreRoot(), BLOB_LIST_FILE_NAME);
+        Files.write(objectListPath, blobsToFetch);
+        CommandRunner.fetchObjects(repoRoot, objectListPath);
+        Files.delete(objectListPath);
+    }
+
+    /**
+     * Adds the ids of the blobs before and after the change listed in {@code rawDiffLine}, if it lists one, to
+     * {@code changedBlobs}. Returns true, so that the rest of the raw diff is walked.
+     */
+    private static boolean addChangedBlobs(String rawDiffLine, Set<String> changedBlobs) {
+        Matcher rawDiffMatcher = RAW_DIFF_PATTERN.matcher(rawDiffLine);
+        if (rawDiffMatcher.find()) {
+            changedBlobs.add(rawDiffMatcher.group(OLD_BLOB_GROUP_NAME));
+            changedBlobs.add(rawDiffMatcher.group(NEW_BLOB_GROUP_NAME));
+        }
+        return true;
+    }
+
+    /**
+     * Adds {@code objectId} to {@code blobsToFetch} if it is one of {@code changedBlobs}. Returns true, so that the
+     * rest of the missing objects are walked.
+     */
+    private static boolean addIfChanged(String objectId, Set<String> changedBlobs, Set<String> blobsToFetch) {
+        if (changedBlobs.contains(objectId)) {
+            blobsToFetch.add(objectId);
+        }
+        return true;
+    }
+
+    /**
+     * Clones the repository of {@code repoConfigs} into a bare repository, leaving out the history before their
+     * since date and the contents of files until they are needed, if all of them have a since date.
+     * The contents of files are not left out of a clone of the whole history, as git blame would fetch the contents of
+     * every earlier version of a file one at a time, all the way back to its first commit.
+     * A repository on a local path is not copied, but shared with the clone instead.
+     * Falls back to a full clone if the remote or the installed git does not support leaving them out.
+     */
+    private static void cloneRepo(List<RepoConfiguration> repoConfigs) throws IOException {
+        RepoConfiguration repoConfig = repoConfigs.get(0);
+        String storeRoot = repoConfig.getRepoStoreRoot();
+
+        if (repoConfig.isLocalRepo()) {
+            // git ignores the options to leave out history and file contents for local paths, but borrowing the
+            // objects of the local repo is cheaper anyway
+            CommandRunner.sharedCloneRepo(repoConfig.getLocation(), storeRoot);
+            resolveDefaultBranches(repoConfigs);
+            return;
+        }
+
+        Date sinceDate = getEarliestSinceDate(repoConfigs);
+        // a shallow clone has only one branch unless told otherwise
+        String branch = (repoConfigs.size() == 1) ? repoConfig.getBranch() : null;
+
+        if (sinceDate != null) {
+            try {
+                CommandRunner.partialCloneRepo(repoConfig.getLocation(), storeRoot, branch,
+                        getShallowSinceDate(sinceDate));
+                resolveDefaultBranches(repoConfigs);
+                // the last commit before the since date is needed to find the lines changed within the date range
+                CommandRunner.deepenRepo(storeRoot, 1, repoConfigs.stream()
+                        .map(RepoConfiguration::getBranch)
+                        .distinct()
+                        .collect(Collectors.toList()));
+                return;
+            } catch (RuntimeException rte) {
+                logger.log(Level.INFO, "Unable to clone only the history within the date range, "
+                        + "will do a full clone instead.", rte);
+                FileUtil.deleteDirectory(storeRoot);
+            }
+        }
+
+        CommandRunner.cloneRepo(repoConfig.getLocation(), storeRoot);
+        resolveDefaultBranches(repoConfigs);
+    }
+
+    /**
+     * Sets the branch of each of {@code repoConfigs} which did not specify one to the default branch of the cloned
+     * repository.
+     */
+    private static void resolveDefaultBranches(List<RepoConfiguration> repoConfigs) {
+        List<RepoConfiguration> defaultBranchConfigs = repoConfigs.stream()
+                .filter(config -> config.getBranch().equals(RepoConfiguration.DEFAULT_BRANCH))
+                .collect(Collectors.toList());
+        if (defaultBranchConfigs.isEmpty()) {
+            return;
+        }
+
+        Optional<String> defaultBranch =
+                GitForEachRef.extractCurrentBranch(GitForEachRef.listRefs(repoConfigs.get(0).getRepoStoreRoot()));
+        if (!defaultBranch.isPresent()) {
+            logger.warning(String.format("Unable to find the default branch of %s.", repoConfigs.get(0).getLocation()));
+            return;
+        }
+        defaultBranchConfigs.forEach(config -> config.setBranch(defaultBranch.get()));
+    }
+
+    /**
+     * Returns the earliest since date of {@code repoConfigs}, or null if any of them analyzes the whole history.
+     */
+    private static Date getEarliestSinceDate(List<RepoConfiguration> repoConfigs) {
+        if (repoConfigs.stream().anyMatch(config -> config.getSinceDate() == null)) {
+            return null;
+        }
+        return repoConfigs.stream().map(RepoConfiguration::getSinceDate).min(Date::compareTo).get();
+    }
 
+    /**
+     * Returns the date from which the history needs to be cloned to analyze commits since {@code sinceDate}.
+     * A margin is left as the date range is interpreted in a fixed time zone, which may not be that of the commits.
+     */
+    private static Date getShallowSinceDate(Date sinceDate) {
+        return new Date(sinceDate.getTime() - TimeUnit.DAYS.toMillis(SHALLOW_SINCE_MARGIN_DAYS));
     }
 }
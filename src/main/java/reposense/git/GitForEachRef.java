@@ -0,0 +1,31 @@
+package reposense.git;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import reposense.system.CommandRunner;
+
+/**
+ * Executes and extracts information from git-for-each-ref related commands.
+ */
+public class GitForEachRef {
+    private static final Pattern CURRENT_BRANCH_PATTERN =
+            Pattern.compile("^\\*[0-9a-f]{40} refs/heads/(?<branch>\\S+)$", Pattern.MULTILINE);
+
+    /**
+     * Returns the branches of the repo at {@code root} with their latest commits, marking the branch which is checked
+     * out, in the format read by {@code extractCurrentBranch}.
+     */
+    public static String listRefs(String root) {
+        return CommandRunner.listLocalRefs(root);
+    }
+
+    /**
+     * Extracts the name of the branch which is checked out from {@code refs}, if a branch is checked out.
+     */
+    public static Optional<String> extractCurrentBranch(String refs) {
+        Matcher matcher = CURRENT_BRANCH_PATTERN.matcher(refs);
+        return matcher.find() ? Optional.of(matcher.group("branch")) : Optional.empty();
+    }
+}
@@ -0,0 +1,38 @@
+package reposense.git;
+
+import java.util.function.BiPredicate;
+
+import reposense.system.CommandRunner;
+
+/**
+ * Reads the history of a repo by running git.
+ */
+public class GitHistoryReader implements HistoryReader {
+    private final String root;
+
+    /**
+     * Creates a reader of the history of the repo at {@code root}.
+     */
+    public GitHistoryReader(String root) {
+        this.root = root;
+    }
+
+    @Override
+    public String getHeadCommit() {
+        return CommandRunner.getHeadCommit(root);
+    }
+
+    @Override
+    public boolean isAncestor(String ancestorCommit, String commit) {
+        return CommandRunner.isAncestor(root, ancestorCommit, commit);
+    }
+
+    @Override
+    public void walkCommits(String branchName, BiPredicate<String, Long> visitor) {
+        CommandRunner.walkCommits(root, branchName, line -> {
+            // each line is the commit time followed by the hash of the commit
+            String[] fields = line.trim().split(" ");
+            return fields.length < 2 || visitor.test(fields[1], Long.parseLong(fields[0]));
+        });
+    }
+}
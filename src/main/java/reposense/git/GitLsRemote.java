@@ -0,0 +1,55 @@
+package reposense.git;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import reposense.model.RepoConfiguration;
+import reposense.system.CommandRunner;
+
+/**
+ * Executes and extracts information from git-ls-remote related commands.
+ */
+public class GitLsRemote {
+    private static final String BRANCH_REF_PREFIX = "refs/heads/";
+    private static final Pattern DEFAULT_BRANCH_PATTERN =
+            Pattern.compile("^ref: refs/heads/(?<branch>\\S+)\\tHEAD$", Pattern.MULTILINE);
+    private static final Pattern REF_PATTERN = Pattern.compile("^(?<hash>[0-9a-f]{40})\\t(?<ref>\\S+)$",
+            Pattern.MULTILINE);
+
+    /**
+     * Returns the branches of the repository at {@code location} along with the branch its HEAD points to, in the
+     * format read by {@code extractBranchHeads} and {@code extractDefaultBranch}.
+     */
+    public static String listRefs(String location) {
+        return CommandRunner.listRemoteRefs(location);
+    }
+
+    /**
+     * Extracts the latest commit of each branch from {@code refs}, keyed by the branch name.
+     * The latest commit of the default branch is also keyed by {@code RepoConfiguration#DEFAULT_BRANCH}.
+     */
+    public static Map<String, String> extractBranchHeads(String refs) {
+        Map<String, String> branchHeads = new HashMap<>();
+        Matcher matcher = REF_PATTERN.matcher(refs);
+        while (matcher.find()) {
+            String ref = matcher.group("ref");
+            if (ref.equals(RepoConfiguration.DEFAULT_BRANCH)) {
+                branchHeads.put(RepoConfiguration.DEFAULT_BRANCH, matcher.group("hash"));
+            } else if (ref.startsWith(BRANCH_REF_PREFIX)) {
+                branchHeads.put(ref.substring(BRANCH_REF_PREFIX.length()), matcher.group("hash"));
+            }
+        }
+        return branchHeads;
+    }
+
+    /**
+     * Extracts the name of the branch which HEAD points to from {@code refs}, if it points to a branch.
+     */
+    public static Optional<String> extractDefaultBranch(String refs) {
+        Matcher matcher = DEFAULT_BRANCH_PATTERN.matcher(refs);
+        return matcher.find() ? Optional.of(matcher.group("branch")) : Optional.empty();
+    }
+}
@@ -0,0 +1,88 @@
+package reposense.git;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import reposense.metrics.MetricsRecorder;
+import reposense.metrics.Phase;
+import reposense.system.CommandRunner;
+import reposense.system.LogsManager;
+
+/**
+ * Maintains the clones of the repos, so that the history of their branches can be walked quickly by the analysis.
+ *
+ * A commit-graph file lets git log, git rev-list and git blame read the parents and dates of commits without parsing
+ * them, and its changed-path Bloom filters let them skip the commits which did not change the files being followed.
+ * As git looks for an object in each pack in turn, the packs are also combined, with a bitmap index where git can
+ * write one, once fetching has left too many of them.
+ *
+ * Shallow clones are left as they are, as git does not use the commit-graph of a shallow repo. Partial clones are not
+ * repacked, as a bitmap index cannot be written for the objects which they left out, but still get a commit-graph,
+ * as they have all of their commits.
+ */
+public class GitMaintenance {
+    static final int MAX_PACK_COUNT = 4;
+
+    private static final Logger logger = LogsManager.getLogger(GitMaintenance.class);
+    private static final Pattern PACK_COUNT_PATTERN = Pattern.compile("^packs: (?<count>\\d+)$", Pattern.MULTILINE);
+
+    /**
+     * Writes the commit-graph of the repo at {@code storeRoot} and repacks it if it has more than
+     * {@code MAX_PACK_COUNT} packs, unless it is a partial clone, and leaves it as it is if it is a shallow clone.
+     * Failing to do either is not fatal, as the analysis only runs slower without them.
+     */
+    public static void maintainRepoStore(String storeRoot) {
+        try {
+            MetricsRecorder.runPhase(Phase.MAINTENANCE, () -> maintain(storeRoot));
+        } catch (RuntimeException rte) {
+            logger.log(Level.WARNING, "Unable to maintain the clone at " + storeRoot + ", will analyze it as is.", rte);
+        }
+    }
+
+    /**
+     * Writes the commit-graph of the repo at {@code storeRoot} and repacks it as needed, unless it is a shallow clone.
+     * A partial clone is not repacked.
+     */
+    private static void maintain(String storeRoot) {
+        if (CommandRunner.isShallowRepo(storeRoot)) {
+            logger.info(String.format("Skipping the maintenance of %s, as it is a shallow clone.", storeRoot));
+            return;
+        }
+
+        writeCommitGraph(storeRoot);
+
+        if (CommandRunner.isPartialClone(storeRoot)) {
+            return;
+        }
+        int packCount = extractPackCount(CommandRunner.countObjects(storeRoot));
+        if (packCount > MAX_PACK_COUNT) {
+            logger.info(String.format("Repacking the %d packs of %s...", packCount, storeRoot));
+            CommandRunner.repackRepo(storeRoot);
+        }
+    }
+
+    /**
+     * Extracts the number of packs from {@code objectCounts}, given in the format of git count-objects, or returns 0 if
+     * it is not given.
+     */
+    static int extractPackCount(String objectCounts) {
+        Matcher matcher = PACK_COUNT_PATTERN.matcher(objectCounts);
+        return matcher.find() ? Integer.parseInt(matcher.group("count")) : 0;
+    }
+
+    /**
+     * Writes the commit-graph of the repo at {@code storeRoot} with changed-path Bloom filters, or without them if the
+     * installed git cannot write them.
+     */
+    private static void writeCommitGraph(String storeRoot) {
+        try {
+            CommandRunner.writeCommitGraph(storeRoot, true);
+        } catch (RuntimeException rte) {
+            logger.log(Level.INFO, "Unable to write the changed paths of the commits, "
+                    + "will write the commit-graph without them instead.", rte);
+            CommandRunner.writeCommitGraph(storeRoot, false);
+        }
+    }
+}
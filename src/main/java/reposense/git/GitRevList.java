@@ -0,0 +1,84 @@
+package reposense.git;
+
+import java.util.Date;
+import java.util.function.BiPredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import reposense.model.CommitBoundaries;
+import reposense.model.RepoConfiguration;
+import reposense.system.CommandRunner;
+import reposense.system.LogsManager;
+
+/**
+ * Resolves the commits bounding the analysis of a branch with a single walk of its history in the order of
+ * git rev-list, read by a {@code HistoryReader}.
+ */
+public class GitRevList {
+    private static final Logger logger = LogsManager.getLogger(GitRevList.class);
+
+    /**
+     * Resolves the latest commit of the branch of {@code config}, along with the latest commits before its until date
+     * and before its since date, in one walk of its history which stops as soon as they are found, and caches them in
+     * {@code config} for the later phases of the analysis.
+     * Leaves them unresolved if the history cannot be walked, so that the later phases look for them on their own.
+     */
+    public static void resolveBoundaries(RepoConfiguration config) {
+        Date untilDate = config.getUntilDate();
+        Date sinceDate = config.getSinceDate();
+        Long untilTimestamp = (untilDate == null) ? null : CommandRunner.getUntilTimestamp(untilDate);
+        Long sinceTimestamp = (sinceDate == null) ? null : CommandRunner.getSinceTimestamp(sinceDate);
+        BoundaryWalk walk = new BoundaryWalk(untilTimestamp, sinceTimestamp);
+        try {
+            PackHistoryReader.open(config.getRepoRoot()).walkCommits(config.getBranch(), walk);
+        } catch (RuntimeException rte) {
+            logger.log(Level.WARNING, String.format("Unable to resolve the commits bounding the date range of %s, "
+                    + "they will be looked for when needed instead.", config.getDisplayName()), rte);
+            return;
+        }
+        config.setCommitBoundaries(walk.getBoundaries());
+    }
+
+    /**
+     * Finds the commits bounding the analysis of a branch among the commits of its history, given one at a time with
+     * their commit times, latest first, until all of them are found.
+     */
+    static class BoundaryWalk implements BiPredicate<String, Long> {
+        private final Long untilTimestamp;
+        private final Long sinceTimestamp;
+        private String headCommit = "";
+        private String untilCommit = "";
+        private String sinceCommit = "";
+
+        /**
+         * Creates a walk for the commits up to {@code untilTimestamp}, and the commits up to {@code sinceTimestamp}
+         * which lie before them, in seconds since the epoch, where a null timestamp is not looked for.
+         */
+        BoundaryWalk(Long untilTimestamp, Long sinceTimestamp) {
+            this.untilTimestamp = untilTimestamp;
+            this.sinceTimestamp = sinceTimestamp;
+        }
+
+        /**
+         * Checks {@code commit}, whose commit time is {@code timestamp}, against the boundaries not found yet.
+         * Returns false once all of them are found, as the rest of the history need not be walked.
+         */
+        @Override
+        public boolean test(String commit, Long timestamp) {
+            if (headCommit.isEmpty()) {
+                headCommit = commit;
+            }
+            if (untilCommit.isEmpty() && (untilTimestamp == null || timestamp <= untilTimestamp)) {
+                untilCommit = commit;
+            }
+            if (sinceCommit.isEmpty() && sinceTimestamp != null && timestamp <= sinceTimestamp) {
+                sinceCommit = commit;
+            }
+            return untilCommit.isEmpty() || (sinceCommit.isEmpty() && sinceTimestamp != null);
+        }
+
+        CommitBoundaries getBoundaries() {
+            return new CommitBoundaries(headCommit, untilCommit, sinceCommit);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package reposense.git;
+
+import java.util.function.BiPredicate;
+
+/**
+ * Answers the questions about the history of a repo which the analysis asks without needing the changes made by the
+ * commits, such as where a branch was at a date.
+ */
+public interface HistoryReader {
+    /**
+     * Returns the hash of the commit checked out in the repo.
+     */
+    String getHeadCommit();
+
+    /**
+     * Returns true if {@code ancestorCommit} is {@code commit} or one of its ancestors.
+     * Returns false if either commit is not in the repo.
+     */
+    boolean isAncestor(String ancestorCommit, String commit);
+
+    /**
+     * Passes the commits reachable from {@code branchName} to {@code visitor}, along with their commit times in
+     * seconds since the epoch, in the order of git rev-list, which is the latest commit time first, until
+     * {@code visitor} returns false.
+     */
+    void walkCommits(String branchName, BiPredicate<String, Long> visitor);
+}
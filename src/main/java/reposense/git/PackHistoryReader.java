@@ -0,0 +1,200 @@
+package reposense.git;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import reposense.git.objects.CommitReader;
+import reposense.git.objects.GitDirectory;
+import reposense.git.objects.ObjectIds;
+import reposense.system.CommandRunner;
+import reposense.system.LogsManager;
+
+/**
+ * Reads the history of a repo from its packs, loose objects and commit-graph file, without running git.
+ *
+ * Anything which cannot be read this way, such as a revision which is not the name of a ref or a repo whose objects
+ * are stored in a format which is not supported, is read with git instead.
+ */
+public class PackHistoryReader implements HistoryReader {
+    private static final Logger logger = LogsManager.getLogger(PackHistoryReader.class);
+    private static final Comparator<QueuedCommit> REV_LIST_ORDER = Comparator
+            .comparingLong((QueuedCommit queuedCommit) -> queuedCommit.commit.getTime()).reversed()
+            .thenComparingLong(queuedCommit -> queuedCommit.sequence);
+
+    private final String root;
+    private final GitDirectory directory;
+    private final CommitReader commitReader;
+    private final HistoryReader fallback;
+
+    private PackHistoryReader(String root, GitDirectory directory, CommitReader commitReader,
+            HistoryReader fallback) {
+        this.root = root;
+        this.directory = directory;
+        this.commitReader = commitReader;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Returns a reader of the history of the repo at {@code root}, which reads it without running git if the repo can
+     * be read that way, or with git otherwise.
+     * The files of the repo are not read without git on Windows, as they are mapped into memory, and Windows does not
+     * allow mapped files to be deleted until the mappings are garbage collected.
+     */
+    public static HistoryReader open(String root) {
+        HistoryReader fallback = new GitHistoryReader(root);
+        if (CommandRunner.isWindows()) {
+            return fallback;
+        }
+
+        try {
+            GitDirectory directory = GitDirectory.open(Paths.get(root));
+            return new PackHistoryReader(root, directory, CommitReader.open(directory), fallback);
+        } catch (IOException ioe) {
+            logger.log(Level.INFO, "Unable to read the history of " + root + " without git, will use git instead.",
+                    ioe);
+            return fallback;
+        }
+    }
+
+    @Override
+    public String getHeadCommit() {
+        try {
+            Optional<String> headCommit = resolveCommit("HEAD");
+            if (headCommit.isPresent()) {
+                return headCommit.get();
+            }
+        } catch (IOException ioe) {
+            logFallback("the commit checked out", ioe);
+        }
+        return fallback.getHeadCommit();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The commits are walked from {@code commit} towards their parents, skipping those whose generations show that
+     * {@code ancestorCommit} cannot be among their ancestors.
+     */
+    @Override
+    public boolean isAncestor(String ancestorCommit, String commit) {
+        if (!ObjectIds.isValid(ancestorCommit) || !ObjectIds.isValid(commit)) {
+            return fallback.isAncestor(ancestorCommit, commit);
+        }
+
+        try {
+            CommitReader.Commit ancestor = commitReader.read(ancestorCommit);
+            Deque<CommitReader.Commit> commitsToVisit = new ArrayDeque<>();
+            Set<String> seenCommits = new HashSet<>();
+            commitsToVisit.push(commitReader.read(commit));
+            seenCommits.add(commit);
+
+            while (!commitsToVisit.isEmpty()) {
+                CommitReader.Commit visitedCommit = commitsToVisit.pop();
+                if (visitedCommit.getId().equals(ancestorCommit)) {
+                    return true;
+                }
+                // a commit is only an ancestor of the commits of larger generations
+                if (ancestor.getGeneration() > 0 && visitedCommit.getGeneration() > 0
+                        && visitedCommit.getGeneration() <= ancestor.getGeneration()) {
+                    continue;
+                }
+
+                for (String parent : visitedCommit.getParents()) {
+                    if (seenCommits.add(parent)) {
+                        commitsToVisit.push(commitReader.read(parent));
+                    }
+                }
+            }
+            return false;
+        } catch (IOException ioe) {
+            logFallback("whether " + ancestorCommit + " is an ancestor of " + commit, ioe);
+            return fallback.isAncestor(ancestorCommit, commit);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * As git rev-list does, the commits are visited latest first, in the order they were reached in if their commit
+     * times are the same, and the parents of a commit are reached in order after it is visited.
+     *
+     * @throws UncheckedIOException if a commit cannot be read after the walk has started, as git would pass the
+     *     commits which were visited to {@code visitor} again.
+     */
+    @Override
+    public void walkCommits(String branchName, BiPredicate<String, Long> visitor) {
+        CommitReader.Commit branchCommit;
+        try {
+            Optional<String> branchCommitId = resolveCommit(branchName);
+            if (!branchCommitId.isPresent()) {
+                fallback.walkCommits(branchName, visitor);
+                return;
+            }
+            branchCommit = commitReader.read(branchCommitId.get());
+        } catch (IOException ioe) {
+            logFallback("the commits of " + branchName, ioe);
+            fallback.walkCommits(branchName, visitor);
+            return;
+        }
+
+        PriorityQueue<QueuedCommit> queue = new PriorityQueue<>(REV_LIST_ORDER);
+        Set<String> seenCommits = new HashSet<>();
+        long sequence = 0;
+        queue.add(new QueuedCommit(branchCommit, sequence++));
+        seenCommits.add(branchCommit.getId());
+
+        try {
+            while (!queue.isEmpty()) {
+                CommitReader.Commit commit = queue.poll().commit;
+                if (!visitor.test(commit.getId(), commit.getTime())) {
+                    return;
+                }
+
+                for (String parent : commit.getParents()) {
+                    if (seenCommits.add(parent)) {
+                        queue.add(new QueuedCommit(commitReader.read(parent), sequence++));
+                    }
+                }
+            }
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to read the commits of " + branchName + " in " + root + ".", ioe);
+        }
+    }
+
+    /**
+     * Returns the commit which {@code revision} names, if it is the name of a ref or the hash of a commit.
+     *
+     * @throws IOException if the ref or the objects it points to cannot be read.
+     */
+    private Optional<String> resolveCommit(String revision) throws IOException {
+        Optional<String> id = directory.resolve(revision);
+        return id.isPresent() ? Optional.of(commitReader.peel(id.get())) : Optional.empty();
+    }
+
+    private void logFallback(String question, IOException ioe) {
+        logger.log(Level.INFO, String.format("Unable to read %s in %s without git, will use git instead.",
+                question, root), ioe);
+    }
+
+    /**
+     * Represents a commit waiting to be visited, with the number of commits which were queued before it.
+     */
+    private static class QueuedCommit {
+        private final CommitReader.Commit commit;
+        private final long sequence;
+
+        QueuedCommit(CommitReader.Commit commit, long sequence) {
+            this.commit = commit;
+            this.sequence = sequence;
+        }
+    }
+}
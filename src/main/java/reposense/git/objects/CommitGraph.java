@@ -0,0 +1,196 @@
+package reposense.git.objects;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads the commit-graph file of a repo, which gives the parents, commit time and generation of each of its commits
+ * without having to read the commits from the object store.
+ *
+ * The file is mapped into memory. After a header, it is made of chunks listed in a table of contents: a fanout table
+ * and the sorted ids of the commits, as in a pack index, the data of each commit in the same order, and the extra
+ * parents of the commits which have more than two. A parent is given by its position in the sorted ids.
+ */
+class CommitGraph {
+    private static final int SIGNATURE = 0x43475048;
+    private static final int VERSION = 1;
+    private static final int SHA1_HASH_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int CHUNK_ENTRY_SIZE = 12;
+    private static final int FANOUT_CHUNK_ID = 0x4f494446;
+    private static final int IDS_CHUNK_ID = 0x4f49444c;
+    private static final int DATA_CHUNK_ID = 0x43444154;
+    private static final int EXTRA_EDGES_CHUNK_ID = 0x45444745;
+    private static final int DATA_SIZE = ObjectIds.LENGTH + 16;
+    private static final int NO_PARENT = 0x70000000;
+    private static final int EXTRA_EDGES_FLAG = 0x80000000;
+    private static final int LAST_EDGE_FLAG = 0x80000000;
+
+    private final ByteBuffer buffer;
+    private final int fanoutPosition;
+    private final int idsPosition;
+    private final int dataPosition;
+    private final int extraEdgesPosition;
+    private final int commitCount;
+
+    private CommitGraph(ByteBuffer buffer, int fanoutPosition, int idsPosition, int dataPosition,
+            int extraEdgesPosition) {
+        this.buffer = buffer;
+        this.fanoutPosition = fanoutPosition;
+        this.idsPosition = idsPosition;
+        this.dataPosition = dataPosition;
+        this.extraEdgesPosition = extraEdgesPosition;
+        this.commitCount = buffer.getInt(fanoutPosition + 4 * 255);
+    }
+
+    /**
+     * Maps the commit-graph file at {@code graphPath} into memory.
+     * Returns an empty optional if there is no such file, or if it is of a version which is not supported, or is one
+     * of a chain of commit-graph files, in which case the commits are read from the object store instead.
+     *
+     * @throws IOException if the file cannot be read or is malformed.
+     */
+    static Optional<CommitGraph> open(Path graphPath) throws IOException {
+        if (!Files.isRegularFile(graphPath)) {
+            return Optional.empty();
+        }
+
+        ByteBuffer buffer = ObjectStore.mapFile(graphPath);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != SIGNATURE) {
+            throw new IOException(graphPath + " is not a commit-graph file.");
+        }
+        if (buffer.get(4) != VERSION || buffer.get(5) != SHA1_HASH_VERSION || buffer.get(7) != 0) {
+            return Optional.empty();
+        }
+
+        int chunkCount = buffer.get(6) & 0xff;
+        int fanoutPosition = -1;
+        int idsPosition = -1;
+        int dataPosition = -1;
+        int extraEdgesPosition = -1;
+        try {
+            for (int i = 0; i < chunkCount; i++) {
+                int entryPosition = HEADER_SIZE + CHUNK_ENTRY_SIZE * i;
+                int chunkId = buffer.getInt(entryPosition);
+                long chunkOffset = buffer.getLong(entryPosition + 4);
+                if (chunkOffset < 0 || chunkOffset >= buffer.capacity()) {
+                    throw new IOException("A chunk of " + graphPath + " lies outside of it.");
+                }
+
+                if (chunkId == FANOUT_CHUNK_ID) {
+                    fanoutPosition = (int) chunkOffset;
+                } else if (chunkId == IDS_CHUNK_ID) {
+                    idsPosition = (int) chunkOffset;
+                } else if (chunkId == DATA_CHUNK_ID) {
+                    dataPosition = (int) chunkOffset;
+                } else if (chunkId == EXTRA_EDGES_CHUNK_ID) {
+                    extraEdgesPosition = (int) chunkOffset;
+                }
+            }
+            if (fanoutPosition < 0 || idsPosition < 0 || dataPosition < 0) {
+                throw new IOException(graphPath + " is missing some of its chunks.");
+            }
+
+            CommitGraph graph = new CommitGraph(buffer, fanoutPosition, idsPosition, dataPosition, extraEdgesPosition);
+            if (graph.commitCount < 0 || (long) dataPosition + (long) DATA_SIZE * graph.commitCount > buffer.capacity()
+                    || (long) idsPosition + (long) ObjectIds.LENGTH * graph.commitCount > buffer.capacity()) {
+                throw new IOException(graphPath + " is truncated.");
+            }
+            return Optional.of(graph);
+        } catch (IndexOutOfBoundsException ioobe) {
+            throw new IOException(graphPath + " is truncated.", ioobe);
+        }
+    }
+
+    int getCommitCount() {
+        return commitCount;
+    }
+
+    /**
+     * Returns the position of the commit with {@code id} in the sorted ids of the file, or -1 if it is not there.
+     */
+    int findPosition(byte[] id) {
+        int firstByte = id[0] & 0xff;
+        int low = (firstByte == 0) ? 0 : buffer.getInt(fanoutPosition + 4 * (firstByte - 1));
+        int high = buffer.getInt(fanoutPosition + 4 * firstByte) - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = ObjectIds.compare(buffer, idsPosition + ObjectIds.LENGTH * middle, id);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the id of the commit at {@code position}.
+     */
+    String getId(int position) {
+        return ObjectIds.format(buffer, idsPosition + ObjectIds.LENGTH * position);
+    }
+
+    /**
+     * Returns the commit time of the commit at {@code position}, in seconds since the epoch, which takes up 34 bits.
+     */
+    long getCommitTime(int position) {
+        int commitDataPosition = dataPosition + DATA_SIZE * position;
+        long highBits = buffer.getInt(commitDataPosition + ObjectIds.LENGTH + 8) & 0x3;
+        long lowBits = buffer.getInt(commitDataPosition + ObjectIds.LENGTH + 12) & 0xffffffffL;
+        return (highBits << 32) | lowBits;
+    }
+
+    /**
+     * Returns the generation of the commit at {@code position}, which is one more than the largest generation of its
+     * parents, so that a commit can only be an ancestor of the commits of larger generations.
+     */
+    int getGeneration(int position) {
+        return buffer.getInt(dataPosition + DATA_SIZE * position + ObjectIds.LENGTH + 8) >>> 2;
+    }
+
+    /**
+     * Returns the positions of the parents of the commit at {@code position}, in order.
+     *
+     * @throws IOException if the commit has more than two parents and the file does not list the others.
+     */
+    List<Integer> getParentPositions(int position) throws IOException {
+        int commitDataPosition = dataPosition + DATA_SIZE * position;
+        int firstParent = buffer.getInt(commitDataPosition + ObjectIds.LENGTH);
+        int secondParent = buffer.getInt(commitDataPosition + ObjectIds.LENGTH + 4);
+
+        List<Integer> parents = new ArrayList<>();
+        if (firstParent == NO_PARENT) {
+            return parents;
+        }
+        parents.add(firstParent);
+        if (secondParent == NO_PARENT) {
+            return parents;
+        }
+        if ((secondParent & EXTRA_EDGES_FLAG) == 0) {
+            parents.add(secondParent);
+            return parents;
+        }
+
+        if (extraEdgesPosition < 0) {
+            throw new IOException("The commit-graph file does not list the parents of " + getId(position) + ".");
+        }
+        int edgePosition = extraEdgesPosition + 4 * (secondParent & ~EXTRA_EDGES_FLAG);
+        int edge;
+        do {
+            edge = buffer.getInt(edgePosition);
+            parents.add(edge & ~LAST_EDGE_FLAG);
+            edgePosition += 4;
+        } while ((edge & LAST_EDGE_FLAG) == 0);
+        return parents;
+    }
+}
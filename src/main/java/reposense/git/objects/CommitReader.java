@@ -0,0 +1,211 @@
+package reposense.git.objects;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads the parents and commit times of the commits of a repo without running git, from its commit-graph file where
+ * the commit is in it, or from its object store otherwise.
+ *
+ * As git does, the commit-graph file of a shallow repo is not used, and the commits whose parents were left out of
+ * a shallow repo are read as having none.
+ */
+public class CommitReader {
+    private static final String PARENT_PREFIX = "parent ";
+    private static final String COMMITTER_PREFIX = "committer ";
+    private static final String TAG_OBJECT_PREFIX = "object ";
+
+    private final ObjectStore store;
+    private final CommitGraph graph;
+    private final Set<String> shallowCommits;
+
+    private CommitReader(ObjectStore store, CommitGraph graph, Set<String> shallowCommits) {
+        this.store = store;
+        this.graph = graph;
+        this.shallowCommits = shallowCommits;
+    }
+
+    /**
+     * Opens the commit-graph file and object store of the repo of {@code directory}.
+     *
+     * @throws IOException if either of them cannot be read.
+     */
+    public static CommitReader open(GitDirectory directory) throws IOException {
+        ObjectStore store = ObjectStore.open(directory.getObjectsDirectory());
+        Set<String> shallowCommits = directory.getShallowCommits();
+        CommitGraph graph = shallowCommits.isEmpty()
+                ? CommitGraph.open(directory.getCommitGraphPath()).orElse(null)
+                : null;
+        return new CommitReader(store, graph, shallowCommits);
+    }
+
+    /**
+     * Returns the commit with {@code id}.
+     *
+     * @throws IOException if the repo does not have the commit, or it cannot be read.
+     */
+    public Commit read(String id) throws IOException {
+        byte[] idBytes = ObjectIds.parse(id);
+        if (graph != null) {
+            int position = graph.findPosition(idBytes);
+            if (position >= 0) {
+                return readFromGraph(id, position);
+            }
+        }
+
+        GitObject object = store.read(idBytes)
+                .orElseThrow(() -> new IOException("The commit " + id + " is missing."));
+        if (object.getType() != GitObject.Type.COMMIT) {
+            throw new IOException(id + " is a " + object.getType() + ", not a commit.");
+        }
+        return parseCommit(id, object.getData(), shallowCommits.contains(id));
+    }
+
+    /**
+     * Returns the id of the commit which {@code id} names, which is {@code id} itself unless it is an annotated tag,
+     * which is followed to the commit it tags.
+     *
+     * @throws IOException if {@code id} does not name a commit, or the objects cannot be read.
+     */
+    public String peel(String id) throws IOException {
+        String objectId = id;
+        while (graph == null || graph.findPosition(ObjectIds.parse(objectId)) < 0) {
+            GitObject object = store.read(ObjectIds.parse(objectId))
+                    .orElseThrow(() -> new IOException("The object " + id + " is missing."));
+            if (object.getType() == GitObject.Type.COMMIT) {
+                break;
+            }
+            if (object.getType() != GitObject.Type.TAG) {
+                throw new IOException(id + " does not name a commit.");
+            }
+            objectId = getHeaderValue(object.getData(), TAG_OBJECT_PREFIX)
+                    .filter(ObjectIds::isValid)
+                    .orElseThrow(() -> new IOException("The tag " + id + " is malformed."));
+        }
+        return objectId;
+    }
+
+    /**
+     * Returns the commit with {@code id} from the commit-graph file, where it is at {@code position}.
+     *
+     * @throws IOException if the commit-graph file is malformed.
+     */
+    private Commit readFromGraph(String id, int position) throws IOException {
+        try {
+            List<String> parents = new ArrayList<>();
+            for (int parentPosition : graph.getParentPositions(position)) {
+                if (parentPosition >= graph.getCommitCount()) {
+                    throw new IOException("The commit-graph file gives a missing parent of " + id + ".");
+                }
+                parents.add(graph.getId(parentPosition));
+            }
+            return new Commit(id, parents, graph.getCommitTime(position), graph.getGeneration(position));
+        } catch (IndexOutOfBoundsException ioobe) {
+            throw new IOException("The commit-graph file is malformed.", ioobe);
+        }
+    }
+
+    /**
+     * Returns the commit with {@code id} parsed from {@code data}, which gives its parents and its committer, whose
+     * line ends with the commit time and time zone. The commit is read without parents if {@code isShallow}.
+     *
+     * @throws IOException if the commit is malformed.
+     */
+    static Commit parseCommit(String id, byte[] data, boolean isShallow) throws IOException {
+        List<String> parents = new ArrayList<>();
+        long time = 0;
+        for (String line : getHeaderLines(data)) {
+            if (line.startsWith(PARENT_PREFIX)) {
+                String parent = line.substring(PARENT_PREFIX.length());
+                if (!ObjectIds.isValid(parent)) {
+                    throw new IOException("The parent of the commit " + id + " is malformed.");
+                }
+                parents.add(parent);
+            } else if (line.startsWith(COMMITTER_PREFIX)) {
+                time = parseCommitTime(line);
+            }
+        }
+        return new Commit(id, isShallow ? Collections.emptyList() : parents, time, 0);
+    }
+
+    /**
+     * Returns the commit time at the end of the committer {@code line}, after the email address, or 0 if it is
+     * malformed, as git reads it.
+     */
+    private static long parseCommitTime(String line) {
+        String[] fields = line.substring(line.lastIndexOf('>') + 1).trim().split(" ");
+        try {
+            return Long.parseLong(fields[0]);
+        } catch (NumberFormatException nfe) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the value of the header line of {@code data} which starts with {@code prefix}, if there is one.
+     */
+    private static Optional<String> getHeaderValue(byte[] data, String prefix) {
+        return getHeaderLines(data).stream()
+                .filter(line -> line.startsWith(prefix))
+                .map(line -> line.substring(prefix.length()))
+                .findFirst();
+    }
+
+    /**
+     * Returns the lines of the header of the commit or tag {@code data}, which ends at the first empty line.
+     */
+    private static List<String> getHeaderLines(byte[] data) {
+        List<String> lines = new ArrayList<>();
+        int lineStart = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] != '\n') {
+                continue;
+            }
+            if (i == lineStart) {
+                break;
+            }
+            lines.add(new String(data, lineStart, i - lineStart, StandardCharsets.UTF_8));
+            lineStart = i + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * Represents a commit, with the ids of its parents, its commit time in seconds since the epoch, and its
+     * generation if it was read from the commit-graph file, or 0 otherwise.
+     */
+    public static class Commit {
+        private final String id;
+        private final List<String> parents;
+        private final long time;
+        private final int generation;
+
+        Commit(String id, List<String> parents, long time, int generation) {
+            this.id = id;
+            this.parents = parents;
+            this.time = time;
+            this.generation = generation;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public List<String> getParents() {
+            return parents;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public int getGeneration() {
+            return generation;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package reposense.git.objects;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the objects which were most recently used as the bases of deltas, up to a total size, so that the deltas
+ * sharing a base do not each rebuild it from the start of their chain.
+ */
+class DeltaBaseCache {
+    private final long capacity;
+    private final Map<Key, GitObject> objects = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes = 0;
+
+    /**
+     * Creates a cache which keeps at most {@code capacity} bytes of objects.
+     */
+    DeltaBaseCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the object at {@code offset} of {@code pack}, or null if it is not cached.
+     */
+    synchronized GitObject get(PackFile pack, long offset) {
+        return objects.get(new Key(pack, offset));
+    }
+
+    /**
+     * Caches {@code object}, which is at {@code offset} of {@code pack}, evicting the objects which were used least
+     * recently if the cache is full. Objects larger than the whole cache are not cached.
+     */
+    synchronized void put(PackFile pack, long offset, GitObject object) {
+        if (object.getSize() > capacity) {
+            return;
+        }
+
+        GitObject replacedObject = objects.put(new Key(pack, offset), object);
+        if (replacedObject != null) {
+            cachedBytes -= replacedObject.getSize();
+        }
+        cachedBytes += object.getSize();
+
+        Iterator<GitObject> iterator = objects.values().iterator();
+        while (cachedBytes > capacity && iterator.hasNext()) {
+            cachedBytes -= iterator.next().getSize();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Returns the total size of the objects which are cached.
+     */
+    synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * Identifies an object by the pack it is in and its offset in the pack.
+     */
+    private static class Key {
+        private final PackFile pack;
+        private final long offset;
+
+        Key(PackFile pack, long offset) {
+            this.pack = pack;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == this) {
+                return true;
+            }
+
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            Key otherKey = (Key) other;
+            return pack == otherKey.pack && offset == otherKey.offset;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(pack) * 31 + Long.hashCode(offset);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package reposense.git.objects;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the refs of a repo, and locates its object store, from its git directory without running git.
+ *
+ * The git directory of a working tree added with git worktree holds only the refs of that working tree, such as its
+ * HEAD, and points to the git directory which it shares with the other working trees for everything else.
+ * Repos whose refs or objects git would read differently, such as those with replaced commits, are not supported.
+ */
+public class GitDirectory {
+    private static final String GIT_DIRECTORY_NAME = ".git";
+    private static final String GIT_DIRECTORY_FILE_PREFIX = "gitdir:";
+    private static final String OBJECTS_DIRECTORY_NAME = "objects";
+    private static final String SYMBOLIC_REF_PREFIX = "ref:";
+    private static final String PACKED_REFS_FILE_NAME = "packed-refs";
+    private static final String SHALLOW_FILE_NAME = "shallow";
+    private static final String COMMON_DIRECTORY_FILE_NAME = "commondir";
+    private static final String CONFIG_FILE_NAME = "config";
+    private static final String REPLACE_REFS_PREFIX = "refs/replace/";
+    private static final List<String> PER_WORKTREE_REF_PREFIXES =
+            Arrays.asList("refs/worktree/", "refs/bisect/", "refs/rewritten/");
+    private static final List<String> REVISION_RULES = Arrays.asList(
+            "%s", "refs/%s", "refs/tags/%s", "refs/heads/%s", "refs/remotes/%s", "refs/remotes/%s/HEAD");
+    private static final Pattern UNSUPPORTED_CONFIG_PATTERN =
+            Pattern.compile("^\\s*(objectformat|refstorage)\\s*=", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+    private static final Pattern PSEUDO_REF_PATTERN = Pattern.compile("[A-Z_]+");
+    private static final Pattern REF_NAME_PATTERN = Pattern.compile("[A-Za-z0-9_./-]+");
+    private static final int MAX_SYMBOLIC_REF_DEPTH = 5;
+
+    private final Path gitDirectory;
+    private final Path commonDirectory;
+    private Map<String, String> packedRefs;
+
+    private GitDirectory(Path gitDirectory, Path commonDirectory) {
+        this.gitDirectory = gitDirectory;
+        this.commonDirectory = commonDirectory;
+    }
+
+    /**
+     * Opens the git directory of the repo at {@code repoRoot}, which is either a working tree or a bare repo.
+     *
+     * @throws IOException if there is no git directory there, or the repo is not supported.
+     */
+    public static GitDirectory open(Path repoRoot) throws IOException {
+        Path dotGitPath = repoRoot.resolve(GIT_DIRECTORY_NAME);
+        Path gitDirectory;
+        if (Files.isRegularFile(dotGitPath)) {
+            String content = new String(Files.readAllBytes(dotGitPath), StandardCharsets.UTF_8).trim();
+            if (!content.startsWith(GIT_DIRECTORY_FILE_PREFIX)) {
+                throw new IOException(dotGitPath + " does not point to a git directory.");
+            }
+            gitDirectory = repoRoot.resolve(content.substring(GIT_DIRECTORY_FILE_PREFIX.length()).trim());
+        } else if (Files.isDirectory(dotGitPath)) {
+            gitDirectory = dotGitPath;
+        } else {
+            gitDirectory = repoRoot;
+        }
+        gitDirectory = gitDirectory.toAbsolutePath().normalize();
+
+        Path commonDirectoryPath = gitDirectory.resolve(COMMON_DIRECTORY_FILE_NAME);
+        Path commonDirectory = Files.isRegularFile(commonDirectoryPath)
+                ? gitDirectory.resolve(new String(Files.readAllBytes(commonDirectoryPath), StandardCharsets.UTF_8)
+                        .trim()).normalize()
+                : gitDirectory;
+        if (!Files.isRegularFile(gitDirectory.resolve("HEAD"))
+                || !Files.isDirectory(commonDirectory.resolve(OBJECTS_DIRECTORY_NAME))) {
+            throw new IOException(repoRoot + " is not a git repo.");
+        }
+
+        GitDirectory directory = new GitDirectory(gitDirectory, commonDirectory);
+        directory.checkSupported();
+        return directory;
+    }
+
+    public Path getObjectsDirectory() {
+        return commonDirectory.resolve(OBJECTS_DIRECTORY_NAME);
+    }
+
+    /**
+     * Returns the path of the commit-graph file of the repo, which may not exist.
+     */
+    public Path getCommitGraphPath() {
+        return getObjectsDirectory().resolve("info").resolve("commit-graph");
+    }
+
+    /**
+     * Returns the ids of the commits of a shallow repo whose parents were left out of it, or an empty set if the
+     * repo is not shallow.
+     *
+     * @throws IOException if the list of those commits cannot be read.
+     */
+    public Set<String> getShallowCommits() throws IOException {
+        Path shallowPath = commonDirectory.resolve(SHALLOW_FILE_NAME);
+        if (!Files.isRegularFile(shallowPath)) {
+            return Collections.emptySet();
+        }
+
+        Set<String> shallowCommits = new HashSet<>();
+        for (String line : Files.readAllLines(shallowPath, StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty()) {
+                shallowCommits.add(line.trim());
+            }
+        }
+        return shallowCommits;
+    }
+
+    /**
+     * Returns the id of the object which {@code revision} names, if it is a full object id or the name of a ref,
+     * which is looked for in the same order as git does, such as {@code HEAD} or the name of a branch.
+     * Returns an empty optional for any other revision, or if there is no such ref.
+     *
+     * @throws IOException if the refs cannot be read.
+     */
+    public Optional<String> resolve(String revision) throws IOException {
+        if (ObjectIds.isValid(revision)) {
+            return Optional.of(revision);
+        }
+        if (!REF_NAME_PATTERN.matcher(revision).matches() || revision.contains("..")) {
+            return Optional.empty();
+        }
+
+        for (String rule : REVISION_RULES) {
+            // git only takes a name as it is if it is a full ref name or that of a ref such as HEAD
+            if (rule.equals("%s") && !revision.startsWith("refs/") && !PSEUDO_REF_PATTERN.matcher(revision).matches()) {
+                continue;
+            }
+
+            Optional<String> id = readRef(String.format(rule, revision), 0);
+            if (id.isPresent()) {
+                return id;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the id which the ref named {@code refName} points to, following the symbolic refs which are
+     * {@code depth} levels away from the ref being resolved.
+     *
+     * @throws IOException if the ref cannot be read.
+     */
+    private Optional<String> readRef(String refName, int depth) throws IOException {
+        if (depth > MAX_SYMBOLIC_REF_DEPTH) {
+            throw new IOException("The symbolic ref " + refName + " is nested too deeply.");
+        }
+
+        boolean isPerWorktree = !refName.startsWith("refs/")
+                || PER_WORKTREE_REF_PREFIXES.stream().anyMatch(refName::startsWith);
+        Path refPath = (isPerWorktree ? gitDirectory : commonDirectory).resolve(refName);
+        if (Files.isRegularFile(refPath)) {
+            String content = new String(Files.readAllBytes(refPath), StandardCharsets.UTF_8).trim();
+            if (content.startsWith(SYMBOLIC_REF_PREFIX)) {
+                return readRef(content.substring(SYMBOLIC_REF_PREFIX.length()).trim(), depth + 1);
+            }
+            if (!ObjectIds.isValid(content)) {
+                throw new IOException("The ref " + refPath + " is malformed.");
+            }
+            return Optional.of(content);
+        }
+
+        if (isPerWorktree) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(getPackedRefs().get(refName));
+    }
+
+    /**
+     * Returns the ids which the refs packed into the {@code packed-refs} file point to, keyed by the names of the
+     * refs.
+     *
+     * @throws IOException if the file cannot be read.
+     */
+    private synchronized Map<String, String> getPackedRefs() throws IOException {
+        if (packedRefs != null) {
+            return packedRefs;
+        }
+
+        Map<String, String> refs = new HashMap<>();
+        Path packedRefsPath = commonDirectory.resolve(PACKED_REFS_FILE_NAME);
+        if (Files.isRegularFile(packedRefsPath)) {
+            for (String line : Files.readAllLines(packedRefsPath, StandardCharsets.UTF_8)) {
+                // the comments give the traits of the file, and the lines starting with ^ give the commits of tags
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("^")) {
+                    continue;
+                }
+
+                String[] fields = line.split(" ", 2);
+                if (fields.length != 2 || !ObjectIds.isValid(fields[0])) {
+                    throw new IOException("The line \"" + line + "\" of " + packedRefsPath + " is malformed.");
+                }
+                refs.put(fields[1], fields[0]);
+            }
+        }
+        packedRefs = refs;
+        return packedRefs;
+    }
+
+    /**
+     * Checks that git reads the refs and objects of the repo the same way as they are read here.
+     *
+     * @throws IOException if it does not, or the repo cannot be read.
+     */
+    private void checkSupported() throws IOException {
+        Path configPath = commonDirectory.resolve(CONFIG_FILE_NAME);
+        if (Files.isRegularFile(configPath) && UNSUPPORTED_CONFIG_PATTERN.matcher(
+                new String(Files.readAllBytes(configPath), StandardCharsets.UTF_8)).find()) {
+            throw new IOException("The object format or ref storage of " + commonDirectory + " is not supported.");
+        }
+        if (Files.exists(getObjectsDirectory().resolve("info").resolve("grafts"))) {
+            throw new IOException("The grafts of " + commonDirectory + " are not supported.");
+        }
+
+        Path replaceRefsPath = commonDirectory.resolve(REPLACE_REFS_PREFIX);
+        if (Files.isDirectory(replaceRefsPath)) {
+            try (DirectoryStream<Path> replaceRefs = Files.newDirectoryStream(replaceRefsPath)) {
+                if (replaceRefs.iterator().hasNext()) {
+                    throw new IOException("The replaced objects of " + commonDirectory + " are not supported.");
+                }
+            }
+        }
+        if (getPackedRefs().keySet().stream().anyMatch(refName -> refName.startsWith(REPLACE_REFS_PREFIX))) {
+            throw new IOException("The replaced objects of " + commonDirectory + " are not supported.");
+        }
+    }
+}
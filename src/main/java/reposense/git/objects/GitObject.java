@@ -0,0 +1,71 @@
+package reposense.git.objects;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Represents an object read from the object store of a repo, which is a commit, a tree, a blob or an annotated tag.
+ */
+public class GitObject {
+    private final Type type;
+    private final byte[] data;
+
+    GitObject(Type type, byte[] data) {
+        this.type = type;
+        this.data = data;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the content of the object, which is shared with the caches of the object store and must not be
+     * modified.
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getSize() {
+        return data.length;
+    }
+
+    /**
+     * Represents the types of objects, with the codes which identify them in packs and the names which identify them
+     * in loose objects.
+     */
+    public enum Type {
+        COMMIT(1, "commit"),
+        TREE(2, "tree"),
+        BLOB(3, "blob"),
+        TAG(4, "tag");
+
+        private final int code;
+        private final String name;
+
+        Type(int code, String name) {
+            this.code = code;
+            this.name = name;
+        }
+
+        /**
+         * Returns the type identified by {@code code} in a pack, if it is the type of a whole object.
+         */
+        static Optional<Type> fromCode(int code) {
+            return Arrays.stream(values()).filter(type -> type.code == code).findFirst();
+        }
+
+        /**
+         * Returns the type named {@code name} in the header of a loose object, if there is one.
+         */
+        static Optional<Type> fromName(String name) {
+            return Arrays.stream(values()).filter(type -> type.name.equals(name)).findFirst();
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
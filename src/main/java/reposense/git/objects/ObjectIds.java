@@ -0,0 +1,81 @@
+package reposense.git.objects;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts the ids of git objects between the 40 hexadecimal digits which git prints and the 20 bytes of the SHA-1
+ * hash which git stores.
+ */
+public class ObjectIds {
+    public static final int LENGTH = 20;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Returns true if {@code hexId} is the full id of an object, as printed by git.
+     */
+    public static boolean isValid(String hexId) {
+        if (hexId.length() != 2 * LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < hexId.length(); i++) {
+            char digit = hexId.charAt(i);
+            if ((digit < '0' || digit > '9') && (digit < 'a' || digit > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the bytes of {@code hexId}.
+     *
+     * @throws IllegalArgumentException if {@code hexId} is not the full id of an object.
+     */
+    public static byte[] parse(String hexId) {
+        if (!isValid(hexId)) {
+            throw new IllegalArgumentException("Not the id of an object: " + hexId);
+        }
+
+        byte[] id = new byte[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            id[i] = (byte) ((Character.digit(hexId.charAt(2 * i), 16) << 4)
+                    | Character.digit(hexId.charAt(2 * i + 1), 16));
+        }
+        return id;
+    }
+
+    /**
+     * Returns the hexadecimal form of {@code id}.
+     */
+    public static String format(byte[] id) {
+        return format(ByteBuffer.wrap(id), 0);
+    }
+
+    /**
+     * Returns the hexadecimal form of the id stored in {@code buffer} at {@code position}.
+     */
+    static String format(ByteBuffer buffer, int position) {
+        char[] hexId = new char[2 * LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            int value = buffer.get(position + i) & 0xff;
+            hexId[2 * i] = HEX_DIGITS[value >>> 4];
+            hexId[2 * i + 1] = HEX_DIGITS[value & 0xf];
+        }
+        return new String(hexId);
+    }
+
+    /**
+     * Compares the id stored in {@code buffer} at {@code position} with {@code id}, byte by byte as unsigned values,
+     * which is the order of the ids in the indexes of git.
+     */
+    static int compare(ByteBuffer buffer, int position, byte[] id) {
+        for (int i = 0; i < LENGTH; i++) {
+            int difference = (buffer.get(position + i) & 0xff) - (id[i] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,229 @@
+package reposense.git.objects;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads the objects of a repo from its object store without running git, which holds them in packs and as loose
+ * objects, each compressed in a file of its own.
+ *
+ * The object stores which the repo borrows objects from, as listed in its {@code info/alternates}, are read as well.
+ * The packs are listed again when an object is not found, as git may have fetched it into a new pack since.
+ */
+public class ObjectStore {
+    private static final long DELTA_BASE_CACHE_SIZE = 32L << 20;
+    private static final int MAX_ALTERNATES_DEPTH = 5;
+    private static final String ALTERNATES_PATH = "info/alternates";
+    private static final String PACK_DIRECTORY_NAME = "pack";
+    private static final String INDEX_EXTENSION = ".idx";
+    private static final String PACK_EXTENSION = ".pack";
+
+    private final List<Path> objectDirectories;
+    private final DeltaBaseCache cache = new DeltaBaseCache(DELTA_BASE_CACHE_SIZE);
+    private final Map<Path, PackFile> packs = new LinkedHashMap<>();
+
+    private ObjectStore(List<Path> objectDirectories) {
+        this.objectDirectories = objectDirectories;
+    }
+
+    /**
+     * Opens the object store at {@code objectsDirectory}, along with the object stores it borrows objects from.
+     *
+     * @throws IOException if any of the object stores or their packs cannot be read.
+     */
+    public static ObjectStore open(Path objectsDirectory) throws IOException {
+        List<Path> objectDirectories = new ArrayList<>();
+        addObjectDirectory(objectsDirectory.toAbsolutePath().normalize(), 0, objectDirectories);
+        ObjectStore store = new ObjectStore(objectDirectories);
+        store.scanPacks();
+        return store;
+    }
+
+    /**
+     * Returns the object with {@code id}, if the object store has it.
+     *
+     * @throws IOException if the object is malformed or cannot be read.
+     */
+    public Optional<GitObject> read(byte[] id) throws IOException {
+        Optional<PackFile> pack = findPack(id);
+        if (pack.isPresent()) {
+            return pack.get().read(id);
+        }
+
+        Optional<GitObject> looseObject = readLooseObject(id);
+        if (looseObject.isPresent() || !scanPacks()) {
+            return looseObject;
+        }
+
+        pack = findPack(id);
+        return pack.isPresent() ? pack.get().read(id) : Optional.empty();
+    }
+
+    /**
+     * Returns the pack which has the object with {@code id}, if any of the packs listed so far has it.
+     */
+    synchronized Optional<PackFile> findPack(byte[] id) {
+        return packs.values().stream().filter(pack -> pack.getIndex().findOffset(id) >= 0).findFirst();
+    }
+
+    /**
+     * Returns the packs listed so far.
+     */
+    synchronized List<PackFile> getPacks() {
+        return new ArrayList<>(packs.values());
+    }
+
+    /**
+     * Maps the whole of the file at {@code path} into memory, read-only.
+     *
+     * @throws IOException if the file cannot be read or is too large to be mapped at once.
+     */
+    static ByteBuffer mapFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large to be mapped.");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Adds {@code objectsDirectory} to {@code objectDirectories}, followed by the object stores it borrows objects
+     * from, which are {@code depth} levels of borrowing away from the object store of the repo.
+     *
+     * @throws IOException if the list of the object stores it borrows from cannot be read.
+     */
+    private static void addObjectDirectory(Path objectsDirectory, int depth, List<Path> objectDirectories)
+            throws IOException {
+        if (objectDirectories.contains(objectsDirectory)) {
+            return;
+        }
+        if (depth > MAX_ALTERNATES_DEPTH) {
+            throw new IOException("The object stores borrowed by " + objectsDirectory + " are nested too deeply.");
+        }
+
+        objectDirectories.add(objectsDirectory);
+        Path alternatesPath = objectsDirectory.resolve(ALTERNATES_PATH);
+        if (!Files.isRegularFile(alternatesPath)) {
+            return;
+        }
+
+        for (String line : Files.readAllLines(alternatesPath, StandardCharsets.UTF_8)) {
+            String alternate = line.trim();
+            if (alternate.isEmpty() || alternate.startsWith("#")) {
+                continue;
+            }
+            if (alternate.startsWith("\"")) {
+                throw new IOException("The quoted paths in " + alternatesPath + " are not supported.");
+            }
+            addObjectDirectory(objectsDirectory.resolve(alternate).normalize(), depth + 1, objectDirectories);
+        }
+    }
+
+    /**
+     * Opens the packs of the object stores which were not listed before.
+     * Returns true if there were any.
+     *
+     * @throws IOException if any of the new packs cannot be read.
+     */
+    private synchronized boolean scanPacks() throws IOException {
+        boolean hasNewPacks = false;
+        for (Path objectsDirectory : objectDirectories) {
+            Path packDirectory = objectsDirectory.resolve(PACK_DIRECTORY_NAME);
+            if (!Files.isDirectory(packDirectory)) {
+                continue;
+            }
+
+            try (DirectoryStream<Path> indexPaths = Files.newDirectoryStream(packDirectory, "*" + INDEX_EXTENSION)) {
+                for (Path indexPath : indexPaths) {
+                    String indexName = indexPath.getFileName().toString();
+                    Path packPath = packDirectory.resolve(
+                            indexName.substring(0, indexName.length() - INDEX_EXTENSION.length()) + PACK_EXTENSION);
+                    if (packs.containsKey(packPath) || !Files.isRegularFile(packPath)) {
+                        continue;
+                    }
+
+                    packs.put(packPath, PackFile.open(packPath, PackIndex.open(indexPath), this, cache));
+                    hasNewPacks = true;
+                }
+            }
+        }
+        return hasNewPacks;
+    }
+
+    /**
+     * Returns the loose object with {@code id}, if any of the object stores has it.
+     *
+     * @throws IOException if the object is malformed or cannot be read.
+     */
+    private Optional<GitObject> readLooseObject(byte[] id) throws IOException {
+        String hexId = ObjectIds.format(id);
+        for (Path objectsDirectory : objectDirectories) {
+            Path objectPath = objectsDirectory.resolve(hexId.substring(0, 2)).resolve(hexId.substring(2));
+            if (!Files.isRegularFile(objectPath)) {
+                continue;
+            }
+
+            try (InputStream is = new InflaterInputStream(Files.newInputStream(objectPath))) {
+                return Optional.of(readLooseObject(is, objectPath));
+            } catch (NoSuchFileException nsfe) {
+                // git has packed the object since it was found
+                continue;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reads the loose object at {@code objectPath} from {@code is}, which inflates its content, made of a header
+     * giving its type and size followed by its data.
+     *
+     * @throws IOException if the object is malformed or cannot be read.
+     */
+    private static GitObject readLooseObject(InputStream is, Path objectPath) throws IOException {
+        StringBuilder header = new StringBuilder();
+        int value;
+        while ((value = is.read()) > 0) {
+            header.append((char) value);
+        }
+
+        String[] fields = header.toString().split(" ");
+        if (value != 0 || fields.length != 2) {
+            throw new IOException("The header of " + objectPath + " is malformed.");
+        }
+
+        GitObject.Type type = GitObject.Type.fromName(fields[0])
+                .orElseThrow(() -> new IOException(objectPath + " has an unknown type."));
+        byte[] data;
+        try {
+            data = new byte[Integer.parseInt(fields[1])];
+        } catch (NumberFormatException | NegativeArraySizeException e) {
+            throw new IOException("The size of " + objectPath + " is malformed.", e);
+        }
+
+        int position = 0;
+        while (position < data.length) {
+            int length = is.read(data, position, data.length - position);
+            if (length < 0) {
+                throw new IOException(objectPath + " is shorter than declared.");
+            }
+            position += length;
+        }
+        return new GitObject(type, data);
+    }
+}
@@ -0,0 +1,319 @@
+package reposense.git.objects;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the objects of a pack, a {@code .pack} file, which is mapped into memory.
+ *
+ * Each object in a pack is stored either whole or as a delta, which is the list of instructions to build the object
+ * from a base object, found either at an earlier offset of the same pack or by its id. The bases which deltas are
+ * applied to are kept in a {@code DeltaBaseCache}, as the objects of a history tend to share them.
+ */
+class PackFile {
+    private static final int SIGNATURE = 0x5041434b;
+    private static final int OFS_DELTA = 6;
+    private static final int REF_DELTA = 7;
+    private static final int HEADER_SIZE = 12;
+    private static final int MAX_INPUT_CHUNK_SIZE = 1 << 16;
+    private static final int INPUT_CHUNK_MARGIN = 64;
+    private static final int MAX_DELTA_CHAIN_LENGTH = 10000;
+    private static final int COPY_SIZE_ZERO = 0x10000;
+
+    private final Path packPath;
+    private final ByteBuffer buffer;
+    private final PackIndex index;
+    private final ObjectStore store;
+    private final DeltaBaseCache cache;
+
+    private PackFile(Path packPath, ByteBuffer buffer, PackIndex index, ObjectStore store, DeltaBaseCache cache) {
+        this.packPath = packPath;
+        this.buffer = buffer;
+        this.index = index;
+        this.store = store;
+        this.cache = cache;
+    }
+
+    /**
+     * Maps the pack at {@code packPath}, whose index is {@code index}, into memory. The bases of its deltas which are
+     * given by their ids are looked up in {@code store}, and those which are read are kept in {@code cache}.
+     *
+     * @throws IOException if the pack cannot be read, or is not of version 2 or 3.
+     */
+    static PackFile open(Path packPath, PackIndex index, ObjectStore store, DeltaBaseCache cache) throws IOException {
+        ByteBuffer buffer = ObjectStore.mapFile(packPath);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != SIGNATURE
+                || (buffer.getInt(4) != 2 && buffer.getInt(4) != 3)) {
+            throw new IOException(packPath + " is not a pack of version 2 or 3.");
+        }
+        return new PackFile(packPath, buffer, index, store, cache);
+    }
+
+    PackIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the object with {@code id}, if the pack has it.
+     *
+     * @throws IOException if the object, or any of the bases of its deltas, cannot be read.
+     */
+    Optional<GitObject> read(byte[] id) throws IOException {
+        long offset = index.findOffset(id);
+        return (offset < 0) ? Optional.empty() : Optional.of(read(offset));
+    }
+
+    /**
+     * Returns the object at {@code offset}, applying the deltas it is stored as, if any, to their bases.
+     *
+     * @throws IOException if the object, or any of the bases of its deltas, cannot be read.
+     */
+    GitObject read(long offset) throws IOException {
+        Deque<Entry> deltas = new ArrayDeque<>();
+        PackFile pack = this;
+        long entryOffset = offset;
+        GitObject object;
+
+        // follows the chain of deltas down to the first base which is cached or stored whole
+        while (true) {
+            object = cache.get(pack, entryOffset);
+            if (object != null) {
+                break;
+            }
+
+            Entry entry = pack.readEntry(entryOffset);
+            Optional<GitObject.Type> type = GitObject.Type.fromCode(entry.typeCode);
+            if (type.isPresent()) {
+                object = new GitObject(type.get(), pack.inflate(entry.dataPosition, entry.size));
+                if (!deltas.isEmpty()) {
+                    cache.put(pack, entryOffset, object);
+                }
+                break;
+            }
+
+            deltas.push(entry);
+            if (deltas.size() > MAX_DELTA_CHAIN_LENGTH) {
+                throw new IOException("The delta chain at " + offset + " of " + packPath + " is too long.");
+            }
+
+            if (entry.typeCode == OFS_DELTA) {
+                entryOffset = entry.baseOffset;
+                continue;
+            }
+
+            Optional<PackFile> basePack = store.findPack(entry.baseId);
+            if (!basePack.isPresent()) {
+                // the base of a delta given by its id may also be a loose object
+                object = store.read(entry.baseId).orElseThrow(() -> new IOException("The base "
+                        + ObjectIds.format(entry.baseId) + " of a delta in " + packPath + " is missing."));
+                break;
+            }
+            pack = basePack.get();
+            entryOffset = pack.index.findOffset(entry.baseId);
+        }
+
+        while (!deltas.isEmpty()) {
+            Entry entry = deltas.pop();
+            byte[] delta = entry.pack.inflate(entry.dataPosition, entry.size);
+            object = new GitObject(object.getType(), applyDelta(object.getData(), delta));
+            if (!deltas.isEmpty()) {
+                cache.put(entry.pack, entry.offset, object);
+            }
+        }
+        return object;
+    }
+
+    /**
+     * Returns the object built by applying {@code delta} to {@code base}.
+     *
+     * @throws IOException if {@code delta} is malformed or does not apply to {@code base}.
+     */
+    static byte[] applyDelta(byte[] base, byte[] delta) throws IOException {
+        try {
+            int[] position = {0};
+            long baseSize = readDeltaSize(delta, position);
+            long resultSize = readDeltaSize(delta, position);
+            if (baseSize != base.length || resultSize > Integer.MAX_VALUE) {
+                throw new IOException("The delta does not apply to a base of " + base.length + " bytes.");
+            }
+
+            byte[] result = new byte[(int) resultSize];
+            int resultPosition = 0;
+            int deltaPosition = position[0];
+            while (deltaPosition < delta.length) {
+                int instruction = delta[deltaPosition++] & 0xff;
+                if ((instruction & 0x80) != 0) {
+                    // copies a range of the base, whose offset and size are given by the bytes flagged as present
+                    long copyOffset = 0;
+                    for (int i = 0; i < 4; i++) {
+                        if ((instruction & (1 << i)) != 0) {
+                            copyOffset |= (long) (delta[deltaPosition++] & 0xff) << (8 * i);
+                        }
+                    }
+                    int copySize = 0;
+                    for (int i = 0; i < 3; i++) {
+                        if ((instruction & (0x10 << i)) != 0) {
+                            copySize |= (delta[deltaPosition++] & 0xff) << (8 * i);
+                        }
+                    }
+                    if (copySize == 0) {
+                        copySize = COPY_SIZE_ZERO;
+                    }
+                    if (copyOffset + copySize > base.length) {
+                        throw new IOException("The delta copies beyond the end of its base.");
+                    }
+                    System.arraycopy(base, (int) copyOffset, result, resultPosition, copySize);
+                    resultPosition += copySize;
+                } else if (instruction != 0) {
+                    // inserts the bytes which follow
+                    System.arraycopy(delta, deltaPosition, result, resultPosition, instruction);
+                    deltaPosition += instruction;
+                    resultPosition += instruction;
+                } else {
+                    throw new IOException("The delta has an unknown instruction.");
+                }
+            }
+
+            if (resultPosition != result.length) {
+                throw new IOException("The delta builds fewer bytes than it declares.");
+            }
+            return result;
+        } catch (IndexOutOfBoundsException ioobe) {
+            throw new IOException("The delta is truncated.", ioobe);
+        }
+    }
+
+    /**
+     * Returns the size encoded in {@code delta} at {@code position[0]}, seven bits per byte with the least significant
+     * first, and moves {@code position[0]} past it.
+     */
+    private static long readDeltaSize(byte[] delta, int[] position) {
+        long size = 0;
+        int shift = 0;
+        int value;
+        do {
+            value = delta[position[0]++] & 0xff;
+            size |= (long) (value & 0x7f) << shift;
+            shift += 7;
+        } while ((value & 0x80) != 0 && shift < 64);
+        return size;
+    }
+
+    /**
+     * Reads the header of the entry at {@code offset}, which gives the type and inflated size of its data, and the
+     * base of the delta it is, if it is one.
+     *
+     * @throws IOException if the header lies outside of the pack.
+     */
+    private Entry readEntry(long offset) throws IOException {
+        if (offset < HEADER_SIZE || offset >= buffer.capacity()) {
+            throw new IOException("There is no object at " + offset + " of " + packPath + ".");
+        }
+
+        try {
+            int position = (int) offset;
+            int value = buffer.get(position++) & 0xff;
+            int typeCode = (value >>> 4) & 0x7;
+            long size = value & 0xf;
+            int shift = 4;
+            while ((value & 0x80) != 0) {
+                value = buffer.get(position++) & 0xff;
+                size |= (long) (value & 0x7f) << shift;
+                shift += 7;
+            }
+            if (size > Integer.MAX_VALUE || shift > 64) {
+                throw new IOException("The object at " + offset + " of " + packPath + " is too large.");
+            }
+
+            long baseOffset = -1;
+            byte[] baseId = null;
+            if (typeCode == OFS_DELTA) {
+                // the distance back to the base, seven bits per byte with the most significant first, where each
+                // byte after the first also adds one to the bytes before it
+                value = buffer.get(position++) & 0xff;
+                long distance = value & 0x7f;
+                while ((value & 0x80) != 0) {
+                    value = buffer.get(position++) & 0xff;
+                    distance = ((distance + 1) << 7) | (value & 0x7f);
+                }
+                baseOffset = offset - distance;
+            } else if (typeCode == REF_DELTA) {
+                baseId = new byte[ObjectIds.LENGTH];
+                ByteBuffer idBuffer = buffer.duplicate();
+                idBuffer.position(position);
+                idBuffer.get(baseId);
+                position += ObjectIds.LENGTH;
+            } else if (!GitObject.Type.fromCode(typeCode).isPresent()) {
+                throw new IOException("The object at " + offset + " of " + packPath + " has an unknown type.");
+            }
+            return new Entry(this, offset, typeCode, (int) size, position, baseOffset, baseId);
+        } catch (IndexOutOfBoundsException ioobe) {
+            throw new IOException("The object at " + offset + " of " + packPath + " is truncated.", ioobe);
+        }
+    }
+
+    /**
+     * Returns the {@code size} bytes inflated from the compressed data at {@code position}.
+     *
+     * @throws IOException if the data is malformed or inflates to fewer bytes.
+     */
+    private byte[] inflate(int position, int size) throws IOException {
+        byte[] result = new byte[size];
+        ByteBuffer input = buffer.duplicate();
+        input.position(position);
+        // the compressed data is rarely larger than the inflated data, so one chunk of that size usually holds it all
+        byte[] chunk = new byte[Math.min(Math.min(MAX_INPUT_CHUNK_SIZE, size + INPUT_CHUNK_MARGIN), input.remaining())];
+        Inflater inflater = new Inflater();
+        try {
+            int resultPosition = 0;
+            while (resultPosition < size) {
+                if (inflater.finished() || inflater.needsDictionary()) {
+                    throw new IOException("The data at " + position + " of " + packPath + " is shorter than declared.");
+                }
+                if (inflater.needsInput()) {
+                    int length = Math.min(chunk.length, input.remaining());
+                    if (length == 0) {
+                        throw new IOException("The data at " + position + " of " + packPath + " is truncated.");
+                    }
+                    input.get(chunk, 0, length);
+                    inflater.setInput(chunk, 0, length);
+                }
+                resultPosition += inflater.inflate(result, resultPosition, size - resultPosition);
+            }
+            return result;
+        } catch (DataFormatException dfe) {
+            throw new IOException("The data at " + position + " of " + packPath + " is malformed.", dfe);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Represents the header of an entry of a pack.
+     */
+    private static class Entry {
+        private final PackFile pack;
+        private final long offset;
+        private final int typeCode;
+        private final int size;
+        private final int dataPosition;
+        private final long baseOffset;
+        private final byte[] baseId;
+
+        Entry(PackFile pack, long offset, int typeCode, int size, int dataPosition, long baseOffset, byte[] baseId) {
+            this.pack = pack;
+            this.offset = offset;
+            this.typeCode = typeCode;
+            this.size = size;
+            this.dataPosition = dataPosition;
+            this.baseOffset = baseOffset;
+            this.baseId = baseId;
+        }
+    }
+}
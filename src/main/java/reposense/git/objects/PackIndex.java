@@ -0,0 +1,95 @@
+package reposense.git.objects;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Reads the index of a pack, a {@code .idx} file of version 2, which gives the offset of each object in the pack.
+ *
+ * The index is mapped into memory. It starts with a fanout table giving the number of objects whose id starts with
+ * each byte or a smaller one, followed by the sorted ids, their checksums, and their offsets, of which those beyond
+ * 2 GiB are stored in a table of 64-bit offsets of their own.
+ */
+class PackIndex {
+    private static final int SIGNATURE = 0xff744f63;
+    private static final int VERSION = 2;
+    private static final int FANOUT_POSITION = 8;
+    private static final int FANOUT_SIZE = 256;
+    private static final int IDS_POSITION = FANOUT_POSITION + 4 * FANOUT_SIZE;
+    private static final int LARGE_OFFSET_FLAG = 0x80000000;
+
+    private final ByteBuffer buffer;
+    private final int objectCount;
+    private final int offsetsPosition;
+    private final int largeOffsetsPosition;
+
+    private PackIndex(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.objectCount = buffer.getInt(IDS_POSITION - 4);
+        this.offsetsPosition = IDS_POSITION + (ObjectIds.LENGTH + 4) * objectCount;
+        this.largeOffsetsPosition = offsetsPosition + 4 * objectCount;
+    }
+
+    /**
+     * Maps the index at {@code indexPath} into memory.
+     *
+     * @throws IOException if the index cannot be read, or is not of version 2.
+     */
+    static PackIndex open(Path indexPath) throws IOException {
+        ByteBuffer buffer = ObjectStore.mapFile(indexPath);
+        if (buffer.capacity() < IDS_POSITION || buffer.getInt(0) != SIGNATURE || buffer.getInt(4) != VERSION) {
+            throw new IOException(indexPath + " is not a pack index of version " + VERSION + ".");
+        }
+
+        PackIndex index = new PackIndex(buffer);
+        if (index.objectCount < 0 || index.largeOffsetsPosition > buffer.capacity()) {
+            throw new IOException(indexPath + " is truncated.");
+        }
+        return index;
+    }
+
+    int getObjectCount() {
+        return objectCount;
+    }
+
+    /**
+     * Returns the id of the object at {@code position} in the sorted ids of the index.
+     */
+    String getId(int position) {
+        return ObjectIds.format(buffer, IDS_POSITION + ObjectIds.LENGTH * position);
+    }
+
+    /**
+     * Returns the offset of the object with {@code id} in the pack, or -1 if the pack does not have it.
+     */
+    long findOffset(byte[] id) {
+        int firstByte = id[0] & 0xff;
+        int low = (firstByte == 0) ? 0 : buffer.getInt(FANOUT_POSITION + 4 * (firstByte - 1));
+        int high = buffer.getInt(FANOUT_POSITION + 4 * firstByte) - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = ObjectIds.compare(buffer, IDS_POSITION + ObjectIds.LENGTH * middle, id);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return getOffset(middle);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset in the pack of the object at {@code position} in the sorted ids of the index.
+     */
+    private long getOffset(int position) {
+        int offset = buffer.getInt(offsetsPosition + 4 * position);
+        if ((offset & LARGE_OFFSET_FLAG) == 0) {
+            return offset;
+        }
+        return buffer.getLong(largeOffsetsPosition + 8 * (offset & ~LARGE_OFFSET_FLAG));
+    }
+}
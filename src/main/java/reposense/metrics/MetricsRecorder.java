@@ -0,0 +1,324 @@
+package reposense.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import reposense.model.RepoConfiguration;
+import reposense.system.LogsManager;
+import reposense.util.FileUtil;
+
+/**
+ * Records the wall time, CPU time, memory allocation and processes spawned by each {@code Phase} of the report
+ * generation, for each repository.
+ *
+ * The repository and phase being worked on are tracked per thread, so that the processes spawned by
+ * {@code CommandRunner} are attributed to them without having to pass them around. A phase run within another phase
+ * is only counted in the inner phase, so that the phases of a repository add up to the time spent on it.
+ */
+public class MetricsRecorder {
+    public static final String METRICS_FILE_NAME = "metrics.json";
+
+    private static final Logger logger = LogsManager.getLogger(MetricsRecorder.class);
+    private static final ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+    private static final int MAX_REPOS_IN_SUMMARY = 10;
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double BYTES_PER_MEGABYTE = 1 << 20;
+
+    private static final ThreadLocal<RepoMetrics> currentRepo = new ThreadLocal<>();
+    private static final ThreadLocal<Deque<Span>> openSpans = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private static final List<RepoMetrics> repoMetricsList = new ArrayList<>();
+    private static RepoMetrics globalMetrics = new RepoMetrics(null, null);
+
+    /**
+     * Discards all the metrics recorded so far and restarts the clock of the whole run.
+     */
+    public static synchronized void reset() {
+        repoMetricsList.clear();
+        globalMetrics = new RepoMetrics(null, null);
+    }
+
+    /**
+     * Attributes the phases subsequently run on the current thread to the repository of {@code config}.
+     */
+    public static void startRepo(RepoConfiguration config) {
+        currentRepo.set(new RepoMetrics(config, config.getLocation()));
+    }
+
+    /**
+     * Attributes the phases subsequently run on the current thread to the work shared by the branches of the
+     * repository at {@code location}, such as cloning it.
+     */
+    public static void startLocation(String location) {
+        currentRepo.set(new RepoMetrics(null, location));
+    }
+
+    /**
+     * Marks the end of the analysis of the repository, or of the work shared by its branches, started on the current
+     * thread.
+     */
+    public static void endRepo() {
+        RepoMetrics repoMetrics = currentRepo.get();
+        currentRepo.remove();
+        if (repoMetrics == null) {
+            return;
+        }
+
+        repoMetrics.end();
+        if (TraceWriter.isEnabled()) {
+            Map<String, Object> args = new LinkedHashMap<>();
+            args.put("location", repoMetrics.getLocation());
+            TraceWriter.addSpan(repoMetrics.getName(), "repo", repoMetrics.getStartNanos(),
+                    repoMetrics.getStartNanos() + repoMetrics.getWallNanos(), args);
+        }
+        synchronized (MetricsRecorder.class) {
+            repoMetricsList.add(repoMetrics);
+        }
+    }
+
+    /**
+     * Runs {@code runnable} on the current thread, measuring it as a run of {@code phase}.
+     *
+     * @throws E if {@code runnable} throws it, after the run is measured.
+     */
+    public static <E extends Exception> void runPhase(Phase phase, PhaseRunnable<E> runnable) throws E {
+        Span span = startPhase(phase);
+        try {
+            runnable.run();
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * Runs {@code callable} on the current thread, measuring it as a run of {@code phase}, and returns its result.
+     *
+     * @throws E if {@code callable} throws it, after the run is measured.
+     */
+    public static <T, E extends Exception> T callPhase(Phase phase, PhaseCallable<T, E> callable) throws E {
+        Span span = startPhase(phase);
+        try {
+            return callable.call();
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * Starts measuring {@code phase} on the current thread, until the returned {@code Span} is closed.
+     */
+    private static Span startPhase(Phase phase) {
+        Span span = new Span(phase, getCurrentRepoMetrics().getPhaseMetrics(phase));
+        openSpans.get().push(span);
+        return span;
+    }
+
+    /**
+     * Records a process which ran {@code commandLine} against the innermost phase open on the current thread.
+     * The process is grouped with the other processes running the same {@code command}.
+     */
+    public static void recordProcess(String command, String commandLine, long nanos, long bytesRead) {
+        Span span = openSpans.get().peek();
+        PhaseMetrics phaseMetrics = (span == null)
+                ? getCurrentRepoMetrics().getPhaseMetrics(Phase.OTHER)
+                : span.phaseMetrics;
+        phaseMetrics.addProcess(command, nanos, bytesRead);
+
+        if (TraceWriter.isEnabled()) {
+            long endNanos = System.nanoTime();
+            Map<String, Object> args = new LinkedHashMap<>();
+            args.put("command", commandLine);
+            args.put("bytesRead", bytesRead);
+            TraceWriter.addSpan(command, "process", endNanos - nanos, endNanos, args);
+        }
+    }
+
+    /**
+     * Returns all the metrics recorded since the last {@code reset}, with the repositories in order of completion.
+     */
+    public static synchronized MetricsReportJson getReport() {
+        long wallNanos = System.nanoTime() - globalMetrics.getStartNanos();
+        return new MetricsReportJson(TimeUnit.NANOSECONDS.toMillis(wallNanos), globalMetrics.getPhases(),
+                new ArrayList<>(repoMetricsList));
+    }
+
+    /**
+     * Writes the metrics recorded so far into {@code METRICS_FILE_NAME} at {@code outputPath}, and logs a summary of
+     * them.
+     */
+    public static void writeReport(String outputPath) {
+        MetricsReportJson report = getReport();
+        FileUtil.writeJsonFile(report, Paths.get(outputPath, METRICS_FILE_NAME).toString());
+        logger.info(getSummaryTable(report));
+    }
+
+    /**
+     * Returns a table of the resources used by each phase and each command across all repositories, followed by the
+     * repositories which took the longest to analyze.
+     */
+    static String getSummaryTable(MetricsReportJson report) {
+        Map<Phase, PhaseMetrics> phaseTotals = new EnumMap<>(Phase.class);
+        report.getPhases().forEach((phase, metrics) -> addTo(phaseTotals, phase, metrics));
+        report.getRepos().forEach(repoMetrics ->
+                repoMetrics.getPhases().forEach((phase, metrics) -> addTo(phaseTotals, phase, metrics)));
+
+        long analyzedCount = report.getRepos().stream().filter(repoMetrics -> repoMetrics.getRepo() != null).count();
+        StringBuilder table = new StringBuilder(String.format("Run completed in %.1fs, %d repositories analyzed.%n",
+                report.getWallMillis() / 1000.0, analyzedCount));
+        table.append(String.format("%-12s %10s %10s %8s %10s %10s %11s%n",
+                "Phase", "Wall (s)", "CPU (s)", "Procs", "Procs (s)", "Read (MB)", "Alloc (MB)"));
+        phaseTotals.forEach((phase, metrics) -> table.append(String.format(
+                "%-12s %10.1f %10.1f %8d %10.1f %10.1f %11.1f%n",
+                phase, metrics.getWallNanos() / NANOS_PER_SECOND, metrics.getCpuNanos() / NANOS_PER_SECOND,
+                metrics.getProcesses(), metrics.getProcessNanos() / NANOS_PER_SECOND,
+                metrics.getBytesRead() / BYTES_PER_MEGABYTE, metrics.getAllocatedBytes() / BYTES_PER_MEGABYTE)));
+
+        Map<String, PhaseMetrics.CommandMetrics> commandTotals = new TreeMap<>();
+        phaseTotals.values().forEach(metrics -> metrics.getCommands().forEach((command, commandMetrics) ->
+                commandTotals.merge(command, commandMetrics, PhaseMetrics.CommandMetrics::merge)));
+        table.append(String.format("%-24s %8s %10s %10s%n", "Command", "Procs", "Wall (s)", "Read (MB)"));
+        commandTotals.forEach((command, metrics) -> table.append(String.format("%-24s %8d %10.1f %10.1f%n",
+                command, metrics.getCount(), metrics.getNanos() / NANOS_PER_SECOND,
+                metrics.getBytesRead() / BYTES_PER_MEGABYTE)));
+
+        List<RepoMetrics> slowestRepos = report.getRepos().stream()
+                .sorted(Comparator.comparingLong(RepoMetrics::getWallNanos).reversed())
+                .limit(MAX_REPOS_IN_SUMMARY)
+                .collect(Collectors.toList());
+        table.append("Slowest repositories:");
+        for (RepoMetrics repoMetrics : slowestRepos) {
+            String phases = repoMetrics.getPhases().entrySet().stream()
+                    .map(entry -> String.format("%s %.1fs", entry.getKey(),
+                            entry.getValue().getWallNanos() / NANOS_PER_SECOND))
+                    .collect(Collectors.joining(", "));
+            table.append(String.format("%n  %s %.1fs (%s)", repoMetrics.getName(),
+                    repoMetrics.getWallNanos() / NANOS_PER_SECOND, phases));
+        }
+        return table.toString();
+    }
+
+    private static void addTo(Map<Phase, PhaseMetrics> totals, Phase phase, PhaseMetrics metrics) {
+        totals.computeIfAbsent(phase, p -> new PhaseMetrics()).addAll(metrics);
+    }
+
+    /**
+     * Returns the metrics of the repository being analyzed on the current thread, or the metrics of the whole run if
+     * there is no such repository.
+     */
+    private static RepoMetrics getCurrentRepoMetrics() {
+        RepoMetrics repoMetrics = currentRepo.get();
+        if (repoMetrics != null) {
+            return repoMetrics;
+        }
+
+        synchronized (MetricsRecorder.class) {
+            return globalMetrics;
+        }
+    }
+
+    /**
+     * Represents work run in a {@code Phase}, which may throw {@code E}.
+     */
+    @FunctionalInterface
+    public interface PhaseRunnable<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * Represents work run in a {@code Phase} which returns a result of type {@code T}, and may throw {@code E}.
+     */
+    @FunctionalInterface
+    public interface PhaseCallable<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    /**
+     * Represents one run of a {@code Phase} on a thread, whose resource usage is recorded when it is closed.
+     */
+    private static class Span {
+        private final Phase phase;
+        private final PhaseMetrics phaseMetrics;
+        private final long startNanos;
+        private final long startCpuNanos;
+        private final long startAllocatedBytes;
+        private long nestedNanos = 0;
+        private long nestedCpuNanos = 0;
+        private long nestedAllocatedBytes = 0;
+
+        private Span(Phase phase, PhaseMetrics phaseMetrics) {
+            this.phase = phase;
+            this.phaseMetrics = phaseMetrics;
+            this.startNanos = System.nanoTime();
+            this.startCpuNanos = getCurrentThreadCpuNanos();
+            this.startAllocatedBytes = getCurrentThreadAllocatedBytes();
+        }
+
+        /**
+         * Records the resources used by the current thread since this span was started, except those recorded by the
+         * spans nested in it, and adds them to those nested in the span which encloses it, if any.
+         */
+        public void close() {
+            long endNanos = System.nanoTime();
+            long wallNanos = endNanos - startNanos;
+            long cpuNanos = getCurrentThreadCpuNanos() - startCpuNanos;
+            long allocatedBytes = getCurrentThreadAllocatedBytes() - startAllocatedBytes;
+            Deque<Span> spans = openSpans.get();
+            spans.remove(this);
+            phaseMetrics.addRun(wallNanos - nestedNanos, cpuNanos - nestedCpuNanos,
+                    allocatedBytes - nestedAllocatedBytes);
+            Span enclosingSpan = spans.peek();
+            if (enclosingSpan != null) {
+                enclosingSpan.nestedNanos += wallNanos;
+                enclosingSpan.nestedCpuNanos += cpuNanos;
+                enclosingSpan.nestedAllocatedBytes += allocatedBytes;
+            }
+
+            if (TraceWriter.isEnabled()) {
+                RepoMetrics repoMetrics = currentRepo.get();
+                Map<String, Object> args = new LinkedHashMap<>();
+                if (repoMetrics != null) {
+                    args.put("location", repoMetrics.getLocation());
+                }
+                TraceWriter.addSpan(phase.toString(), "phase", startNanos, endNanos, args);
+            }
+        }
+    }
+
+    /**
+     * Returns the CPU time used by the current thread so far, or 0 if the JVM does not measure it.
+     */
+    private static long getCurrentThreadCpuNanos() {
+        if (!threadMxBean.isCurrentThreadCpuTimeSupported() || !threadMxBean.isThreadCpuTimeEnabled()) {
+            return 0;
+        }
+        return threadMxBean.getCurrentThreadCpuTime();
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far, or 0 if the JVM does not measure it.
+     */
+    private static long getCurrentThreadAllocatedBytes() {
+        if (!(threadMxBean instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+
+        com.sun.management.ThreadMXBean sunThreadMxBean = (com.sun.management.ThreadMXBean) threadMxBean;
+        if (!sunThreadMxBean.isThreadAllocatedMemorySupported() || !sunThreadMxBean.isThreadAllocatedMemoryEnabled()) {
+            return 0;
+        }
+        return sunThreadMxBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
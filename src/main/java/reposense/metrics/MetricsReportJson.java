@@ -0,0 +1,31 @@
+package reposense.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the structure of metrics.json file in reposense-report folder.
+ */
+public class MetricsReportJson {
+    private final long wallMillis;
+    private final Map<Phase, PhaseMetrics> phases;
+    private final List<RepoMetrics> repos;
+
+    public MetricsReportJson(long wallMillis, Map<Phase, PhaseMetrics> phases, List<RepoMetrics> repos) {
+        this.wallMillis = wallMillis;
+        this.phases = phases;
+        this.repos = repos;
+    }
+
+    public long getWallMillis() {
+        return wallMillis;
+    }
+
+    public Map<Phase, PhaseMetrics> getPhases() {
+        return phases;
+    }
+
+    public List<RepoMetrics> getRepos() {
+        return repos;
+    }
+}
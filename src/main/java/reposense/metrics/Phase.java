@@ -0,0 +1,33 @@
+package reposense.metrics;
+
+/**
+ * Represents a stage of the report generation whose resource usage is measured separately.
+ * The git subprocesses which dominate the analysis of a repository, such as git blame, have phases of their own, which
+ * are run within the phase of the stage which spawns them.
+ */
+public enum Phase {
+    TEMPLATE("template"),
+    CLONE("clone"),
+    MAINTENANCE("maintenance"),
+    CHECKOUT("checkout"),
+    PREPROCESS("preprocess"),
+    COMMITS("commits"),
+    LOG("log"),
+    AUTHORSHIP("authorship"),
+    BLAME("blame"),
+    REPORT("report"),
+    SUMMARY("summary"),
+    ARCHIVE("archive"),
+    OTHER("other");
+
+    private final String name;
+
+    Phase(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,141 @@
+package reposense.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores the resources used by one {@code Phase}, accumulated over every time the phase was entered.
+ *
+ * CPU time and allocated bytes only cover the JVM thread which ran the phase, as the JVM cannot measure the
+ * CPU time of the git processes it spawns. Those are accounted for by their wall time and output size instead.
+ */
+public class PhaseMetrics {
+    private long wallMillis;
+    private long cpuMillis;
+    private long allocatedBytes;
+    private int processes;
+    private long processMillis;
+    private long bytesRead;
+    private final Map<String, CommandMetrics> commands = new TreeMap<>();
+
+    private transient long wallNanos;
+    private transient long cpuNanos;
+    private transient long processNanos;
+
+    /**
+     * Adds the resources used by one run of the phase.
+     */
+    synchronized void addRun(long wallNanos, long cpuNanos, long allocatedBytes) {
+        this.wallNanos += wallNanos;
+        this.cpuNanos += cpuNanos;
+        this.allocatedBytes += allocatedBytes;
+        wallMillis = TimeUnit.NANOSECONDS.toMillis(this.wallNanos);
+        cpuMillis = TimeUnit.NANOSECONDS.toMillis(this.cpuNanos);
+    }
+
+    /**
+     * Adds a process running {@code command}, which took {@code nanos} to complete and wrote {@code bytesRead} bytes
+     * to its output and error streams.
+     */
+    synchronized void addProcess(String command, long nanos, long bytesRead) {
+        processes++;
+        processNanos += nanos;
+        processMillis = TimeUnit.NANOSECONDS.toMillis(processNanos);
+        this.bytesRead += bytesRead;
+        commands.computeIfAbsent(command, c -> new CommandMetrics()).add(1, nanos, bytesRead);
+    }
+
+    /**
+     * Adds all the resources recorded in {@code other} into this.
+     */
+    synchronized void addAll(PhaseMetrics other) {
+        synchronized (other) {
+            addRun(other.wallNanos, other.cpuNanos, other.allocatedBytes);
+            processes += other.processes;
+            processNanos += other.processNanos;
+            processMillis = TimeUnit.NANOSECONDS.toMillis(processNanos);
+            bytesRead += other.bytesRead;
+            other.commands.forEach((command, metrics) -> commands.computeIfAbsent(command, c -> new CommandMetrics())
+                    .add(metrics.count, metrics.nanos, metrics.bytesRead));
+        }
+    }
+
+    public synchronized long getWallNanos() {
+        return wallNanos;
+    }
+
+    public synchronized long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    public synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public synchronized int getProcesses() {
+        return processes;
+    }
+
+    public synchronized long getProcessNanos() {
+        return processNanos;
+    }
+
+    public synchronized long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Returns a copy of the process metrics, keyed by the command which the processes ran.
+     */
+    public synchronized Map<String, CommandMetrics> getCommands() {
+        Map<String, CommandMetrics> copy = new TreeMap<>();
+        commands.forEach((command, metrics) ->
+                copy.computeIfAbsent(command, c -> new CommandMetrics()).add(metrics.count, metrics.nanos,
+                        metrics.bytesRead));
+        return copy;
+    }
+
+    /**
+     * Stores the processes spawned for a single command, such as {@code git blame}.
+     */
+    public static class CommandMetrics {
+        private int count;
+        private long millis;
+        private long bytesRead;
+
+        private transient long nanos;
+
+        /**
+         * Adds {@code count} processes which took {@code nanos} in total and wrote {@code bytesRead} bytes.
+         */
+        void add(int count, long nanos, long bytesRead) {
+            this.count += count;
+            this.nanos += nanos;
+            this.bytesRead += bytesRead;
+            millis = TimeUnit.NANOSECONDS.toMillis(this.nanos);
+        }
+
+        /**
+         * Returns a new {@code CommandMetrics} holding the sum of {@code first} and {@code second}.
+         */
+        static CommandMetrics merge(CommandMetrics first, CommandMetrics second) {
+            CommandMetrics sum = new CommandMetrics();
+            sum.add(first.count, first.nanos, first.bytesRead);
+            sum.add(second.count, second.nanos, second.bytesRead);
+            return sum;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+    }
+}
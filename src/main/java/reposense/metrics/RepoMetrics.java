@@ -0,0 +1,75 @@
+package reposense.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import reposense.model.RepoConfiguration;
+
+/**
+ * Stores the resources used while generating the report of one repository, broken down by {@code Phase}.
+ * The work shared by the branches of a repository, such as cloning it, is stored separately, under its location
+ * alone, without a repository name.
+ */
+public class RepoMetrics {
+    private String repo;
+    private final String location;
+    private long wallMillis;
+    private final Map<Phase, PhaseMetrics> phases = new LinkedHashMap<>();
+
+    private final transient RepoConfiguration config;
+    private final transient long startNanos;
+    private transient long wallNanos;
+
+    RepoMetrics(RepoConfiguration config, String location) {
+        this.config = config;
+        this.location = location;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns the metrics of {@code phase}, creating them if the phase has not been entered before.
+     */
+    synchronized PhaseMetrics getPhaseMetrics(Phase phase) {
+        return phases.computeIfAbsent(phase, p -> new PhaseMetrics());
+    }
+
+    /**
+     * Marks the end of the analysis of the repository.
+     * The repository is named only at this point, as its display name is updated once its default branch is known.
+     */
+    synchronized void end() {
+        wallNanos = System.nanoTime() - startNanos;
+        wallMillis = TimeUnit.NANOSECONDS.toMillis(wallNanos);
+        repo = (config == null) ? null : config.getDisplayName();
+    }
+
+    public synchronized String getRepo() {
+        return repo;
+    }
+
+    /**
+     * Returns the name of the repository, or its location if these are the metrics of the work shared by its
+     * branches.
+     */
+    public synchronized String getName() {
+        return (repo == null) ? location : repo;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public synchronized long getWallNanos() {
+        return wallNanos;
+    }
+
+    public synchronized Map<Phase, PhaseMetrics> getPhases() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(phases));
+    }
+}
@@ -0,0 +1,142 @@
+package reposense.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.gson.Gson;
+
+import reposense.system.LogsManager;
+
+/**
+ * Writes the spans of the analysis into a file in the Chrome trace event format, which can be opened with
+ * {@code chrome://tracing} or Perfetto.
+ *
+ * Events are streamed to the file as the spans complete, using the JSON array format of the trace. The closing
+ * bracket of the array is optional in that format, hence the trace of a run which did not complete can still be
+ * opened.
+ */
+public class TraceWriter {
+    private static final Logger logger = LogsManager.getLogger(TraceWriter.class);
+    private static final Gson gson = new Gson();
+    private static final String PROCESS_NAME = "RepoSense";
+    private static final int PROCESS_ID = 1;
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private static volatile boolean isEnabled = false;
+    private static Writer writer;
+    private static long startNanos;
+    private static boolean isFirstEvent;
+    private static final Set<Long> namedThreadIds = new HashSet<>();
+
+    /**
+     * Starts writing the trace of the spans which complete from now on into {@code traceFilePath}.
+     *
+     * @throws IOException if the trace file cannot be created.
+     */
+    public static synchronized void start(Path traceFilePath) throws IOException {
+        stop();
+
+        writer = Files.newBufferedWriter(traceFilePath, StandardCharsets.UTF_8);
+        startNanos = System.nanoTime();
+        isFirstEvent = true;
+        namedThreadIds.clear();
+        writer.write("[");
+        writeEvent(createMetadataEvent("process_name", 0, PROCESS_NAME));
+        isEnabled = true;
+    }
+
+    /**
+     * Completes the trace file, if the trace is being written.
+     */
+    public static synchronized void stop() {
+        if (writer == null) {
+            return;
+        }
+
+        isEnabled = false;
+        try {
+            writer.write("\n]\n");
+            writer.close();
+        } catch (IOException ioe) {
+            logger.log(Level.WARNING, "Error completing the trace file.", ioe);
+        }
+        writer = null;
+    }
+
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Adds a span named {@code name}, which ran on the current thread from {@code spanStartNanos} to
+     * {@code spanEndNanos}, as given by {@code System#nanoTime}.
+     */
+    static synchronized void addSpan(String name, String category, long spanStartNanos, long spanEndNanos,
+            Map<String, Object> args) {
+        if (writer == null) {
+            return;
+        }
+
+        Thread thread = Thread.currentThread();
+        if (namedThreadIds.add(thread.getId())) {
+            writeEvent(createMetadataEvent("thread_name", thread.getId(), thread.getName()));
+        }
+
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("name", name);
+        event.put("cat", category);
+        event.put("ph", "X");
+        event.put("ts", (spanStartNanos - startNanos) / NANOS_PER_MICRO);
+        event.put("dur", (spanEndNanos - spanStartNanos) / NANOS_PER_MICRO);
+        event.put("pid", PROCESS_ID);
+        event.put("tid", thread.getId());
+        if (!args.isEmpty()) {
+            event.put("args", args);
+        }
+        writeEvent(event);
+    }
+
+    /**
+     * Returns a metadata event which names the process, or the thread with {@code threadId}, as {@code name}.
+     */
+    private static Map<String, Object> createMetadataEvent(String type, long threadId, String name) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("name", type);
+        event.put("ph", "M");
+        event.put("pid", PROCESS_ID);
+        event.put("tid", threadId);
+        event.put("args", Collections.singletonMap("name", name));
+        return event;
+    }
+
+    /**
+     * Appends {@code event} to the trace file.
+     * Stops tracing if the file cannot be written to, instead of failing the analysis.
+     */
+    private static void writeEvent(Map<String, Object> event) {
+        try {
+            writer.write(isFirstEvent ? "\n" : ",\n");
+            writer.write(gson.toJson(event));
+            isFirstEvent = false;
+        } catch (IOException ioe) {
+            logger.log(Level.WARNING, "Error writing to the trace file, tracing will be stopped.", ioe);
+            isEnabled = false;
+            try {
+                writer.close();
+            } catch (IOException closeException) {
+                logger.log(Level.WARNING, "Error closing the trace file.", closeException);
+            }
+            writer = null;
+        }
+    }
+}
@@ -13,6 +13,12 @@ public abstract class CliArguments {
     protected Optional<Date> sinceDate;
     protected Optional<Date> untilDate;
     protected List<String> formats;
+    protected Optional<Path> traceFilePath;
+    protected boolean isContentStoreEnabled;
+    protected boolean isWatchEnabled;
+    protected Optional<Shard> shard;
+    protected boolean isResumed;
+    protected Optional<Long> maxHeapBudget;
 
     public Path getOutputFilePath() {
         return outputFilePath;
@@ -30,6 +36,30 @@ public abstract class CliArguments {
         return formats;
     }
 
+    public Optional<Path> getTraceFilePath() {
+        return traceFilePath;
+    }
+
+    public boolean isContentStoreEnabled() {
+        return isContentStoreEnabled;
+    }
+
+    public boolean isWatchEnabled() {
+        return isWatchEnabled;
+    }
+
+    public Optional<Shard> getShard() {
+        return shard;
+    }
+
+    public boolean isResumed() {
+        return isResumed;
+    }
+
+    public Optional<Long> getMaxHeapBudget() {
+        return maxHeapBudget;
+    }
+
     @Override
     public boolean equals(Object other) {
         // short circuit if same object
@@ -47,6 +77,12 @@ public abstract class CliArguments {
         return this.outputFilePath.equals(otherCliArguments.outputFilePath)
                 && this.sinceDate.equals(otherCliArguments.sinceDate)
                 && this.untilDate.equals(otherCliArguments.untilDate)
-                && this.formats.equals(otherCliArguments.formats);
+                && this.formats.equals(otherCliArguments.formats)
+                && this.traceFilePath.equals(otherCliArguments.traceFilePath)
+                && this.isContentStoreEnabled == otherCliArguments.isContentStoreEnabled
+                && this.isWatchEnabled == otherCliArguments.isWatchEnabled
+                && this.shard.equals(otherCliArguments.shard)
+                && this.isResumed == otherCliArguments.isResumed
+                && this.maxHeapBudget.equals(otherCliArguments.maxHeapBudget);
     }
 }
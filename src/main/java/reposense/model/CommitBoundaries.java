@@ -0,0 +1,38 @@
+package reposense.model;
+
+/**
+ * Represents the commits of a branch which bound its analysis: the latest commit of the branch, and the latest
+ * commits before the until date and before the since date, as resolved in one walk of its history.
+ * A boundary which does not exist, as there is no commit before its date or the date is not given, is empty.
+ */
+public class CommitBoundaries {
+    private final String headCommit;
+    private final String untilCommit;
+    private final String sinceCommit;
+
+    public CommitBoundaries(String headCommit, String untilCommit, String sinceCommit) {
+        this.headCommit = headCommit;
+        this.untilCommit = untilCommit;
+        this.sinceCommit = sinceCommit;
+    }
+
+    public String getHeadCommit() {
+        return headCommit;
+    }
+
+    /**
+     * Returns the latest commit before the until date, which is the latest commit of the branch if there is no until
+     * date, or an empty {@code String} if there is no commit before the until date.
+     */
+    public String getUntilCommit() {
+        return untilCommit;
+    }
+
+    /**
+     * Returns the latest commit before the since date, or an empty {@code String} if there is no since date or no
+     * commit before it.
+     */
+    public String getSinceCommit() {
+        return sinceCommit;
+    }
+}
@@ -17,7 +17,9 @@ public class ConfigCliArguments extends CliArguments {
     private Path authorConfigFilePath;
 
     public ConfigCliArguments(Path configFolderPath,
-            Path outputFilePath, Optional<Date> sinceDate, Optional<Date> untilDate, List<String> formats) {
+            Path outputFilePath, Optional<Date> sinceDate, Optional<Date> untilDate, List<String> formats,
+            Optional<Path> traceFilePath, boolean isContentStoreEnabled, boolean isWatchEnabled,
+            Optional<Shard> shard, boolean isResumed, Optional<Long> maxHeapBudget) {
         this.configFolderPath = configFolderPath;
         this.repoConfigFilePath = configFolderPath.resolve(RepoConfigCsvParser.REPO_CONFIG_FILENAME);
         this.authorConfigFilePath = configFolderPath.resolve(AuthorConfigCsvParser.AUTHOR_CONFIG_FILENAME);
@@ -25,6 +27,12 @@ public class ConfigCliArguments extends CliArguments {
         this.sinceDate = sinceDate;
         this.untilDate = untilDate;
         this.formats = formats;
+        this.traceFilePath = traceFilePath;
+        this.isContentStoreEnabled = isContentStoreEnabled;
+        this.isWatchEnabled = isWatchEnabled;
+        this.shard = shard;
+        this.isResumed = isResumed;
+        this.maxHeapBudget = maxHeapBudget;
     }
 
     public Path getConfigFolderPath() {
@@ -0,0 +1,39 @@
+package reposense.model;
+
+/**
+ * Represents command line arguments user supplied when running the program with mandatory field -daemon.
+ */
+public class DaemonCliArguments extends CliArguments {
+    private int port;
+
+    public DaemonCliArguments(int port) {
+        this.port = port;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        // short circuit if same object
+        if (this == other) {
+            return true;
+        }
+
+        // instanceof handles null
+        if (!(other instanceof DaemonCliArguments)) {
+            return false;
+        }
+
+        DaemonCliArguments otherDaemonCliArguments = (DaemonCliArguments) other;
+
+        // the other arguments are not used by the daemon, and are left unset
+        return this.port == otherDaemonCliArguments.port;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(port);
+    }
+}
@@ -12,12 +12,20 @@ public class LocationsCliArguments extends CliArguments {
     private List<String> locations;
 
     public LocationsCliArguments(List<String> locations,
-            Path outputFilePath, Optional<Date> sinceDate, Optional<Date> untilDate, List<String> formats) {
+            Path outputFilePath, Optional<Date> sinceDate, Optional<Date> untilDate, List<String> formats,
+            Optional<Path> traceFilePath, boolean isContentStoreEnabled, boolean isWatchEnabled,
+            Optional<Shard> shard, boolean isResumed, Optional<Long> maxHeapBudget) {
         this.locations = locations;
         this.outputFilePath = outputFilePath;
         this.sinceDate = sinceDate;
         this.untilDate = untilDate;
         this.formats = formats;
+        this.traceFilePath = traceFilePath;
+        this.isContentStoreEnabled = isContentStoreEnabled;
+        this.isWatchEnabled = isWatchEnabled;
+        this.shard = shard;
+        this.isResumed = isResumed;
+        this.maxHeapBudget = maxHeapBudget;
     }
 
     public List<String> getLocations() {
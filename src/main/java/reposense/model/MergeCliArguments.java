@@ -0,0 +1,35 @@
+package reposense.model;
+
+import java.nio.file.Path;
+
+/**
+ * Represents command line arguments user supplied when running the program with mandatory field -merge.
+ */
+public class MergeCliArguments extends CliArguments {
+    public MergeCliArguments(Path outputFilePath) {
+        this.outputFilePath = outputFilePath;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        // short circuit if same object
+        if (this == other) {
+            return true;
+        }
+
+        // instanceof handles null
+        if (!(other instanceof MergeCliArguments)) {
+            return false;
+        }
+
+        MergeCliArguments otherMergeCliArguments = (MergeCliArguments) other;
+
+        // the other arguments are not used by the merge, and are left unset
+        return this.outputFilePath.equals(otherMergeCliArguments.outputFilePath);
+    }
+
+    @Override
+    public int hashCode() {
+        return outputFilePath.hashCode();
+    }
+}
@@ -3,6 +3,7 @@ package reposense.model;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
@@ -20,6 +21,7 @@ import java.util.TreeMap;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.CRC32;
 
 import reposense.parser.InvalidLocationException;
 import reposense.system.LogsManager;
@@ -35,6 +37,7 @@ public class RepoConfiguration {
     private static final Pattern GIT_REPOSITORY_LOCATION_PATTERN =
             Pattern.compile("^.*github.com\\/(?<org>.+?)\\/(?<repoName>.+?)\\.git$");
     private static final String COMMIT_HASH_REGEX = "^[0-9a-f]+$";
+    private static final String BRANCH_FOLDER_ILLEGAL_CHARS_REGEX = "[^A-Za-z0-9._-]";
     private static final String INVALID_COMMIT_HASH_MESSAGE =
             "The provided commit hash, %s, contains illegal characters.";
 
@@ -57,6 +60,8 @@ public class RepoConfiguration {
     private transient Map<Author, String> authorDisplayNameMap = new HashMap<>();
     private transient boolean isStandaloneConfigIgnored;
     private transient List<String> ignoreCommitList;
+    private transient boolean isContentStoreEnabled;
+    private transient CommitBoundaries commitBoundaries;
 
     /**
      * @throws InvalidLocationException if {@code location} cannot be represented by a {@code URL} or {@code Path}.
@@ -129,6 +134,14 @@ public class RepoConfiguration {
         }
     }
 
+    /**
+     * Sets whether the contents of the files of each {@code RepoConfiguration} in {@code configs} are written into the
+     * content store of the report, rather than into its authorship.
+     */
+    public static void setContentStoreToRepoConfigs(List<RepoConfiguration> configs, boolean isContentStoreEnabled) {
+        configs.forEach(config -> config.isContentStoreEnabled = isContentStoreEnabled);
+    }
+
     /**
      * Sets {@code formats} to {@code RepoConfiguration} in {@code configs} if its format list is empty.
      */
@@ -168,14 +181,32 @@ public class RepoConfiguration {
         ignoreCommitList = standaloneConfig.getIgnoreCommitList();
     }
 
-    public String getRepoRoot() {
-        String path = FileUtil.REPOS_ADDRESS + File.separator + repoName + File.separator;
+    /**
+     * Returns the directory which holds the clone of the repo and the working trees of all its branches.
+     * Repos with the same name are told apart by their organization, if they are on GitHub.
+     */
+    public String getRepoFolderPath() {
+        String folderName = (organization == null) ? repoName : organization + "_" + repoName;
+        return FileUtil.REPOS_ADDRESS + File.separator + folderName + File.separator;
+    }
 
-        if (!repoName.isEmpty()) {
-            path += repoName + File.separator;
-        }
+    /**
+     * Returns the bare clone of the repo, whose objects are shared by the working trees of all its branches.
+     */
+    public String getRepoStoreRoot() {
+        return getRepoFolderPath() + repoName + GIT_LINK_SUFFIX + File.separator;
+    }
 
-        return path;
+    /**
+     * Returns the working tree of the branch to analyze.
+     * The branch is named in the folder of the working tree by its legal characters, followed by a hash of its full
+     * name, so that branches such as {@code feature/x} and {@code feature_x} are not checked out into the same folder.
+     */
+    public String getRepoRoot() {
+        CRC32 branchHash = new CRC32();
+        branchHash.update(branch.getBytes(StandardCharsets.UTF_8));
+        return getRepoFolderPath() + repoName + "_" + branch.replaceAll(BRANCH_FOLDER_ILLEGAL_CHARS_REGEX, "_")
+                + String.format("_%08x", branchHash.getValue()) + File.separator;
     }
 
     @Override
@@ -228,6 +259,7 @@ public class RepoConfiguration {
     public void setBranch(String branch) {
         updateDisplayName(branch);
         this.branch = branch;
+        this.commitBoundaries = null;
     }
 
     public void updateDisplayName(String branch) {
@@ -298,6 +330,7 @@ public class RepoConfiguration {
 
     public void setSinceDate(Date sinceDate) {
         this.sinceDate = sinceDate;
+        this.commitBoundaries = null;
     }
 
     public Date getUntilDate() {
@@ -306,6 +339,7 @@ public class RepoConfiguration {
 
     public void setUntilDate(Date untilDate) {
         this.untilDate = untilDate;
+        this.commitBoundaries = null;
     }
 
     public List<String> getFormats() {
@@ -340,6 +374,34 @@ public class RepoConfiguration {
         return isStandaloneConfigIgnored;
     }
 
+    public boolean isContentStoreEnabled() {
+        return isContentStoreEnabled;
+    }
+
+    /**
+     * Returns the commits bounding the analysis of the branch, if they were resolved since the branch or the dates
+     * were last set.
+     */
+    public Optional<CommitBoundaries> getCommitBoundaries() {
+        return Optional.ofNullable(commitBoundaries);
+    }
+
+    public void setCommitBoundaries(CommitBoundaries commitBoundaries) {
+        this.commitBoundaries = commitBoundaries;
+    }
+
+    /**
+     * Returns true if {@code location} is a path on this machine, rather than a URL.
+     */
+    public boolean isLocalRepo() {
+        try {
+            new URL(location);
+            return false;
+        } catch (MalformedURLException mue) {
+            return true;
+        }
+    }
+
     /**
      * Verifies {@code location} can be presented as a {@code URL} or {@code Path}.
      * @throws InvalidLocationException if otherwise.
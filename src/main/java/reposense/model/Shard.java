@@ -0,0 +1,59 @@
+package reposense.model;
+
+/**
+ * Represents one of the shards of a sharded run, given by -shard INDEX/COUNT, in which each of {@code count}
+ * independent processes analyzes a different part of the repos. Shards are numbered from 1.
+ */
+public class Shard {
+    private final int index;
+    private final int count;
+
+    public Shard(int index, int count) {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException(String.format("There is no shard %d of %d.", index, count));
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the name of the folder which the report of the shard is written into.
+     */
+    public String getFolderName() {
+        return index + "-of-" + count;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        // short circuit if same object
+        if (this == other) {
+            return true;
+        }
+
+        // instanceof handles null
+        if (!(other instanceof Shard)) {
+            return false;
+        }
+
+        Shard otherShard = (Shard) other;
+        return this.index == otherShard.index && this.count == otherShard.count;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * index + count;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
@@ -1,13 +1,17 @@
 package reposense.parser;
 
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.impl.action.HelpArgumentAction;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
@@ -15,7 +19,10 @@ import net.sourceforge.argparse4j.inf.MutuallyExclusiveGroup;
 import net.sourceforge.argparse4j.inf.Namespace;
 import reposense.model.CliArguments;
 import reposense.model.ConfigCliArguments;
+import reposense.model.DaemonCliArguments;
 import reposense.model.LocationsCliArguments;
+import reposense.model.MergeCliArguments;
+import reposense.model.Shard;
 import reposense.model.ViewCliArguments;
 
 /**
@@ -28,8 +35,18 @@ public class ArgsParser {
     private static final String PROGRAM_USAGE = "java -jar RepoSense.jar";
     private static final String PROGRAM_DESCRIPTION =
             "RepoSense is a contribution analysis tool for Git repositories.";
+    private static final List<String> PATH_FLAGS = Arrays.asList("-config", "-output", "-view", "-trace");
+    private static final List<String> LOCATIONS_FLAGS = Arrays.asList("-repo", "-repos");
+    private static final List<String> SOURCE_FLAGS =
+            Arrays.asList("-config", "-repo", "-repos", "-view", "-daemon", "-merge");
     private static final String MESSAGE_SINCE_DATE_LATER_THAN_UNTIL_DATE =
             "\"Since Date\" cannot be later than \"Until Date\"";
+    private static final String MESSAGE_SHARD_WATCHED =
+            "A shard cannot be watched, as its report is only a part of the whole report.";
+    private static final String MESSAGE_RESUMED_WATCHED =
+            "A resumed run cannot be watched, as it reuses the reports of an earlier run without checking their repos.";
+    private static final String MESSAGE_BUDGETED_WATCHED =
+            "A run with a heap budget cannot be watched, as watching keeps the logs and blames of the repos in memory.";
 
     private static ArgumentParser getArgumentParser() {
         ArgumentParser parser = ArgumentParsers
@@ -62,7 +79,21 @@ public class ArgsParser {
         mutexParser.addArgument("-view")
                 .metavar("PATH")
                 .type(new ReportFolderArgumentType())
-                .help("Starts a server to display the dashboard in the provided directory.");
+                .help("Starts a server to display the dashboard in the provided directory, "
+                        + "or of the provided report archive without extracting it.");
+
+        mutexParser.addArgument("-daemon")
+                .metavar("PORT")
+                .type(Integer.class)
+                .choices(Arguments.range(1, 65535))
+                .help("Starts a daemon which keeps running, listening on the given port of the loopback interface for "
+                        + "analyses submitted with -connect PORT, and runs them one at a time.");
+
+        mutexParser.addArgument("-merge")
+                .dest("merge")
+                .action(Arguments.storeTrue())
+                .help("Merges the reports of the shards of a sharded run in the output directory, "
+                        + "written with -shard, into one report.");
 
         parser.addArgument("-output")
                 .metavar("PATH")
@@ -92,6 +123,49 @@ public class ArgsParser {
                         + "If not provided, default file formats will be used.\n"
                         + "Please refer to userguide for more information.");
 
+        parser.addArgument("-trace")
+                .metavar("FILE")
+                .type(new TraceFileArgumentType())
+                .setDefault(Optional.empty())
+                .help("The file to write a trace of the analysis into, in the Chrome trace event format.");
+
+        parser.addArgument("-content-store")
+                .dest("contentStore")
+                .action(Arguments.storeTrue())
+                .help("Writes the contents of the analyzed files once into a shared area of the report, "
+                        + "instead of into the authorship of every repository and branch they are found in.");
+
+        parser.addArgument("-watch")
+                .dest("watch")
+                .action(Arguments.storeTrue())
+                .help("Keeps the report up to date after generating it, by polling the repositories for new commits "
+                        + "and regenerating the parts of the report which they change, and serves it on a "
+                        + "dashboard which reloads itself whenever it changes.");
+
+        parser.addArgument("-shard")
+                .metavar("INDEX/COUNT")
+                .type(new ShardArgumentType())
+                .setDefault(Optional.empty())
+                .help("Analyzes only the given shard of the repositories, out of COUNT shards which together cover "
+                        + "every repository once, and writes its report into the shards folder of the report "
+                        + "folder, to be merged with -merge once every shard is done.");
+
+        parser.addArgument("-resume")
+                .dest("resume")
+                .action(Arguments.storeTrue())
+                .help("Resumes an earlier run into the same output directory which did not complete, reusing the "
+                        + "reports of the repositories which it completed, as recorded in its progress journal, "
+                        + "instead of analyzing them again.");
+
+        parser.addArgument("-max-heap-budget")
+                .dest("maxHeapBudget")
+                .metavar("SIZE")
+                .type(new MemorySizeArgumentType())
+                .setDefault(Optional.empty())
+                .help("Keeps the memory used by the analysis within the given size, e.g. 512m or 2g, by streaming the "
+                        + "logs of the repositories from temporary files instead of holding them in memory, and by "
+                        + "analyzing fewer branches at a time while the memory used is near the size.");
+
         return parser;
     }
 
@@ -107,28 +181,131 @@ public class ArgsParser {
 
             Path configFolderPath = results.get("config");
             Path reportFolderPath = results.get("view");
+            Integer daemonPort = results.get("daemon");
             Path outputFolderPath = results.get("output");
             Optional<Date> sinceDate = results.get("since");
             Optional<Date> untilDate = results.get("until");
             List<String> formats = results.get("formats");
             List<String> locations = results.get("repos");
+            Optional<Path> traceFilePath = results.get("trace");
+            boolean isContentStoreEnabled = results.getBoolean("contentStore");
+            boolean isWatchEnabled = results.getBoolean("watch");
+            boolean isMerge = results.getBoolean("merge");
+            Optional<Shard> shard = results.get("shard");
+            boolean isResumed = results.getBoolean("resume");
+            Optional<Long> maxHeapBudget = results.get("maxHeapBudget");
 
             verifyDatesRangeIsCorrect(sinceDate, untilDate);
+            verifyShardIsNotWatched(shard, isWatchEnabled);
+            verifyResumedIsNotWatched(isResumed, isWatchEnabled);
+            verifyBudgetedIsNotWatched(maxHeapBudget, isWatchEnabled);
 
             if (locations != null) {
-                return new LocationsCliArguments(locations, outputFolderPath, sinceDate, untilDate, formats);
+                return new LocationsCliArguments(locations, outputFolderPath, sinceDate, untilDate, formats,
+                        traceFilePath, isContentStoreEnabled, isWatchEnabled, shard, isResumed,
+                        maxHeapBudget);
             }
 
             if (reportFolderPath != null) {
                 return new ViewCliArguments(reportFolderPath);
             }
 
-            return new ConfigCliArguments(configFolderPath, outputFolderPath, sinceDate, untilDate, formats);
+            if (daemonPort != null) {
+                return new DaemonCliArguments(daemonPort);
+            }
+
+            if (isMerge) {
+                return new MergeCliArguments(outputFolderPath);
+            }
+
+            return new ConfigCliArguments(configFolderPath, outputFolderPath, sinceDate, untilDate, formats,
+                    traceFilePath, isContentStoreEnabled, isWatchEnabled, shard, isResumed, maxHeapBudget);
         } catch (ArgumentParserException ape) {
             throw new ParseException(getArgumentParser().formatUsage() + ape.getMessage() + "\n");
         }
     }
 
+    /**
+     * Returns {@code args} with the paths in them resolved against {@code workingDirectory}, and with the config and
+     * output folders defaulting to it, so that they are parsed as if the program were run from
+     * {@code workingDirectory} rather than from the current working directory.
+     */
+    public static String[] resolvePaths(String[] args, Path workingDirectory) {
+        List<String> resolvedArgs = new ArrayList<>();
+        String flag = null;
+        for (String arg : args) {
+            if (arg.startsWith("-")) {
+                flag = arg;
+                resolvedArgs.add(arg);
+            } else if (PATH_FLAGS.contains(flag)) {
+                resolvedArgs.add(workingDirectory.resolve(arg).normalize().toString());
+                flag = null;
+            } else if (LOCATIONS_FLAGS.contains(flag) && !isUrl(arg)) {
+                resolvedArgs.add(workingDirectory.resolve(arg).normalize().toString());
+            } else {
+                resolvedArgs.add(arg);
+            }
+        }
+
+        List<String> flags = Arrays.asList(args);
+        if (flags.stream().noneMatch(SOURCE_FLAGS::contains)) {
+            resolvedArgs.addAll(Arrays.asList("-config", workingDirectory.toString()));
+        }
+        if (!flags.contains("-output")) {
+            resolvedArgs.addAll(Arrays.asList("-output", workingDirectory.toString()));
+        }
+        return resolvedArgs.toArray(new String[0]);
+    }
+
+    /**
+     * Returns true if {@code location} is a URL, rather than a path on this machine.
+     */
+    private static boolean isUrl(String location) {
+        try {
+            new URL(location);
+            return true;
+        } catch (MalformedURLException mue) {
+            return false;
+        }
+    }
+
+    /**
+     * Verifies that the report of {@code shard}, if any, is not watched, as the report is only complete once the
+     * shards are merged.
+     *
+     * @throws ParseException if {@code shard} is present and {@code isWatchEnabled} is true.
+     */
+    private static void verifyShardIsNotWatched(Optional<Shard> shard, boolean isWatchEnabled) throws ParseException {
+        if (shard.isPresent() && isWatchEnabled) {
+            throw new ParseException(MESSAGE_SHARD_WATCHED);
+        }
+    }
+
+    /**
+     * Verifies that the run is not both resumed and watched, as a resumed run trusts the progress journal of the
+     * earlier run instead of checking the repos for new commits.
+     *
+     * @throws ParseException if both {@code isResumed} and {@code isWatchEnabled} are true.
+     */
+    private static void verifyResumedIsNotWatched(boolean isResumed, boolean isWatchEnabled) throws ParseException {
+        if (isResumed && isWatchEnabled) {
+            throw new ParseException(MESSAGE_RESUMED_WATCHED);
+        }
+    }
+
+    /**
+     * Verifies that the run is not watched if it has a heap budget, as watch mode caches the logs and blames of the
+     * repos in memory, which the budget cannot bound.
+     *
+     * @throws ParseException if {@code maxHeapBudget} is present and {@code isWatchEnabled} is true.
+     */
+    private static void verifyBudgetedIsNotWatched(Optional<Long> maxHeapBudget, boolean isWatchEnabled)
+            throws ParseException {
+        if (maxHeapBudget.isPresent() && isWatchEnabled) {
+            throw new ParseException(MESSAGE_BUDGETED_WATCHED);
+        }
+    }
+
     /**
      * Verifies that {@code sinceDate} is earlier than {@code untilDate}.
      *
@@ -0,0 +1,33 @@
+package reposense.parser;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.google.gson.reflect.TypeToken;
+
+import reposense.authorship.model.AuthorshipShard;
+
+/**
+ * Parses the authorship manifest of a repo from {@code Path} into the list of its {@code AuthorshipShard}.
+ */
+public class AuthorshipManifestJsonParser extends JsonParser<List<AuthorshipShard>> {
+
+    /**
+     * Gets the type of a list of {@code AuthorshipShard} for json conversion.
+     */
+    @Override
+    public Type getType() {
+        return new TypeToken<List<AuthorshipShard>>(){}.getType();
+    }
+
+    /**
+     * Converts json file from the given {@code path} and returns the list of {@code AuthorshipShard} in it.
+     * @throws IOException if {@code path} is invalid.
+     */
+    @Override
+    public List<AuthorshipShard> parse(Path path) throws IOException {
+        return fromJson(path);
+    }
+}
@@ -0,0 +1,31 @@
+package reposense.parser;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.Map;
+
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Parses json file from {@code Path} and creates a map of the cost of analyzing each repo location, in milliseconds.
+ */
+public class CostHistoryJsonParser extends JsonParser<Map<String, Long>> {
+
+    /**
+     * Gets the type of the map of costs for json conversion.
+     */
+    @Override
+    public Type getType() {
+        return new TypeToken<Map<String, Long>>(){}.getType();
+    }
+
+    /**
+     * Converts json file from the given {@code path} and returns the map of costs.
+     * @throws IOException if {@code path} is invalid.
+     */
+    @Override
+    public Map<String, Long> parse(Path path) throws IOException {
+        return fromJson(path);
+    }
+}
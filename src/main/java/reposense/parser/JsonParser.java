@@ -1,13 +1,16 @@
 package reposense.parser;
 
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.reflect.Type;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import com.google.gson.Gson;
 import com.google.gson.stream.JsonReader;
 
+import reposense.util.FileUtil;
+
 /**
  * Represents a {@code JsonParser} that is able to parse json file from a {@code Path} into an object of type {@code T}.
  */
@@ -28,8 +31,14 @@ public abstract class JsonParser<T> {
         return fromJson(new Gson(), path, getType());
     }
 
+    /**
+     * Converts the json file at {@code path}, which is read in the charset of the report files, into an object of
+     * {@code type} with {@code gson}.
+     * @throws IOException if {@code path} cannot be read.
+     */
     protected T fromJson(Gson gson, Path path, Type type) throws IOException {
-        try (JsonReader jsonReader = new JsonReader(new FileReader(path.toString()))) {
+        try (JsonReader jsonReader = new JsonReader(
+                new InputStreamReader(Files.newInputStream(path), FileUtil.JSON_CHARSET))) {
             return gson.fromJson(jsonReader, type);
         }
     }
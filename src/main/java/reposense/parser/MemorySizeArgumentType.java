@@ -0,0 +1,43 @@
+package reposense.parser;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.sourceforge.argparse4j.inf.Argument;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.ArgumentType;
+
+/**
+ * Verifies that the memory size is given as a positive number of bytes, optionally followed by k, m or g like the
+ * -Xmx option of java, and converts it into bytes.
+ */
+public class MemorySizeArgumentType implements ArgumentType<Optional<Long>> {
+    private static final Pattern MEMORY_SIZE_PATTERN = Pattern.compile("(\\d{1,9})([kKmMgG]?)");
+    private static final String MESSAGE_INVALID_MEMORY_SIZE =
+            "\"%s\" is not a memory size. A memory size is given in bytes, or with k, m or g after it, e.g. 512m.";
+
+    @Override
+    public Optional<Long> convert(ArgumentParser parser, Argument arg, String value) throws ArgumentParserException {
+        Matcher matcher = MEMORY_SIZE_PATTERN.matcher(value.trim());
+        if (!matcher.matches()) {
+            throw new ArgumentParserException(String.format(MESSAGE_INVALID_MEMORY_SIZE, value), parser);
+        }
+
+        long size = Long.parseLong(matcher.group(1));
+        String unit = matcher.group(2).toLowerCase();
+        if (unit.equals("k")) {
+            size <<= 10;
+        } else if (unit.equals("m")) {
+            size <<= 20;
+        } else if (unit.equals("g")) {
+            size <<= 30;
+        }
+
+        if (size <= 0) {
+            throw new ArgumentParserException(String.format(MESSAGE_INVALID_MEMORY_SIZE, value), parser);
+        }
+        return Optional.of(size);
+    }
+}
@@ -0,0 +1,32 @@
+package reposense.parser;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+
+import com.google.gson.reflect.TypeToken;
+
+import reposense.report.RepoFingerprint;
+
+/**
+ * Parses json file from {@code Path} and creates a new {@code RepoFingerprint} object.
+ */
+public class RepoFingerprintJsonParser extends JsonParser<RepoFingerprint> {
+
+    /**
+     * Gets the type of {@code RepoFingerprint} for json conversion.
+     */
+    @Override
+    public Type getType() {
+        return new TypeToken<RepoFingerprint>(){}.getType();
+    }
+
+    /**
+     * Converts json file from the given {@code path} and returns a {@code RepoFingerprint} object.
+     * @throws IOException if {@code path} is invalid.
+     */
+    @Override
+    public RepoFingerprint parse(Path path) throws IOException {
+        return fromJson(path);
+    }
+}
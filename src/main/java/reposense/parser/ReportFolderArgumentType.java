@@ -9,11 +9,16 @@ import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
 import net.sourceforge.argparse4j.inf.ArgumentType;
 
+/**
+ * Verifies that the report to view, which is either a report directory or a report archive, can be read.
+ */
 public class ReportFolderArgumentType implements ArgumentType<Path> {
     @Override
     public Path convert(ArgumentParser parser, Argument arg, String value) throws ArgumentParserException {
         // Piggyback on library methods to do file existence checks
-        Arguments.fileType().verifyExists().verifyIsDirectory().verifyCanRead().convert(parser, arg, value);
+        Arguments.fileType().verifyExists().verifyIsDirectory().verifyCanRead()
+                .or()
+                .verifyIsFile().verifyCanRead().convert(parser, arg, value);
         return Paths.get(value);
     }
 }
@@ -0,0 +1,34 @@
+package reposense.parser;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.sourceforge.argparse4j.inf.Argument;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.ArgumentType;
+import reposense.model.Shard;
+
+/**
+ * Verifies that the shard is given as INDEX/COUNT, with INDEX from 1 to COUNT.
+ */
+public class ShardArgumentType implements ArgumentType<Optional<Shard>> {
+    private static final Pattern SHARD_PATTERN = Pattern.compile("(\\d{1,6})/(\\d{1,6})");
+    private static final String MESSAGE_INVALID_SHARD =
+            "\"%s\" is not a shard. A shard is given as INDEX/COUNT, with INDEX from 1 to COUNT, e.g. 2/4.";
+
+    @Override
+    public Optional<Shard> convert(ArgumentParser parser, Argument arg, String value) throws ArgumentParserException {
+        Matcher matcher = SHARD_PATTERN.matcher(value.trim());
+        if (!matcher.matches()) {
+            throw new ArgumentParserException(String.format(MESSAGE_INVALID_SHARD, value), parser);
+        }
+
+        try {
+            return Optional.of(new Shard(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+        } catch (IllegalArgumentException iae) {
+            throw new ArgumentParserException(String.format(MESSAGE_INVALID_SHARD, value), parser);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package reposense.parser;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.Argument;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.ArgumentType;
+
+/**
+ * Verifies that the trace file can be written to, creating it if it does not exist yet.
+ */
+public class TraceFileArgumentType implements ArgumentType<Optional<Path>> {
+    @Override
+    public Optional<Path> convert(ArgumentParser parser, Argument arg, String value) throws ArgumentParserException {
+        // Piggyback on library methods to do file existence checks
+        Arguments.fileType().verifyIsFile().verifyCanWrite()
+                .or()
+                .verifyNotExists().verifyCanCreate().convert(parser, arg, value);
+        return Optional.of(Paths.get(value));
+    }
+}
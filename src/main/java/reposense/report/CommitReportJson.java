@@ -8,6 +8,7 @@ import java.util.Map;
 import reposense.authorship.model.AuthorshipSummary;
 import reposense.commits.model.AuthorIntervalContribution;
 import reposense.commits.model.CommitContributionSummary;
+import reposense.commits.model.ContributionLevel;
 import reposense.model.Author;
 
 /**
@@ -19,6 +20,7 @@ public class CommitReportJson {
     private final Map<Author, Integer> authorFinalContributionMap;
     private final Map<Author, Float> authorContributionVariance;
     private final Map<Author, String> authorDisplayNameMap;
+    private final Map<String, ContributionLevel> contributionPyramid;
 
     /**
      * Empty constructor to construct an empty commit report.
@@ -39,6 +41,8 @@ public class CommitReportJson {
 
         authorDisplayNameMap = new HashMap<>();
         authorDisplayNameMap.put(emptyAuthor, "FAILED TO CLONE OR CHECKOUT THIS REPOSITORY");
+
+        contributionPyramid = null;
     }
 
     public CommitReportJson(CommitContributionSummary commitSummary, AuthorshipSummary authorshipSummary) {
@@ -47,5 +51,6 @@ public class CommitReportJson {
         authorFinalContributionMap = authorshipSummary.getAuthorFinalContributionMap();
         authorContributionVariance = commitSummary.getAuthorContributionVariance();
         authorDisplayNameMap = commitSummary.getAuthorDisplayNameMap();
+        contributionPyramid = commitSummary.getContributionPyramid();
     }
 }
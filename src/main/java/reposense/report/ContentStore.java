@@ -0,0 +1,171 @@
+package reposense.report;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import com.google.gson.stream.JsonReader;
+
+import reposense.authorship.model.FileResult;
+import reposense.authorship.model.LineInfo;
+import reposense.system.LogsManager;
+import reposense.util.ArchiveWriter;
+import reposense.util.FileUtil;
+
+/**
+ * Writes the contents of the analyzed files into a content-addressed area of the report, in which each file is
+ * written once under its git blob SHA, however many repos, branches or date ranges of the report it is found in.
+ * The authorship shards of the repos then refer to the contents by the SHA instead of holding them.
+ *
+ * The contents of a file are written as the list of its lines, as read by {@code FileInfoExtractor}, into
+ * {@code blobs/XX/YYYY.json}, where {@code XX} are the first two characters of the SHA and {@code YYYY} the rest,
+ * like in the object store of git.
+ */
+public class ContentStore {
+    public static final String CONTENT_STORE_FOLDER = "blobs";
+
+    private static final Logger logger = LogsManager.getLogger(ContentStore.class);
+    private static final String BLOB_DIGEST_ALGORITHM = "SHA-1";
+
+    private final Path storePath;
+    private final ArchiveWriter archiveWriter;
+    private final Set<String> storedBlobs = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates the content store of the report at {@code outputPath}, whose files are added to {@code archiveWriter}.
+     */
+    public ContentStore(String outputPath, ArchiveWriter archiveWriter) {
+        this.storePath = Paths.get(outputPath, CONTENT_STORE_FOLDER);
+        this.archiveWriter = archiveWriter;
+    }
+
+    /**
+     * Returns the attributions of {@code fileResults}, which are the results of files in the repo at
+     * {@code repoRoot}, with the contents of the files written into the store.
+     * The results of the files whose contents cannot be read are returned as they are, holding their contents.
+     *
+     * @throws IOException if the contents of a file cannot be written into the store.
+     */
+    public List<Object> store(String repoRoot, List<FileResult> fileResults) throws IOException {
+        List<Object> attributions = new ArrayList<>();
+        for (FileResult fileResult : fileResults) {
+            byte[] content;
+            try {
+                content = Files.readAllBytes(Paths.get(repoRoot, fileResult.getPath()));
+            } catch (IOException ioe) {
+                logger.log(Level.WARNING, String.format("Unable to read %s, its contents will be kept in its "
+                        + "authorship.", fileResult.getPath()), ioe);
+                attributions.add(fileResult);
+                continue;
+            }
+            attributions.add(new FileAttributionJson(fileResult, storeFile(computeBlobSha(content), fileResult)));
+        }
+        return attributions;
+    }
+
+    /**
+     * Adds the contents referred to by the authorship shard at {@code shardPath}, which is reused from a previous
+     * run, to the archive of the report.
+     *
+     * @throws IOException if the shard cannot be read, or the contents it refers to are missing.
+     */
+    public void storeReused(Path shardPath) throws IOException {
+        for (String blob : readBlobs(shardPath)) {
+            Path blobPath = getBlobPath(blob);
+            if (!Files.exists(blobPath)) {
+                throw new IOException(String.format("%s refers to %s, which is missing.", shardPath, blobPath));
+            }
+            if (storedBlobs.add(blob)) {
+                archiveWriter.addFile(blobPath);
+            }
+        }
+    }
+
+    /**
+     * Writes the contents of the file of {@code fileResult}, whose git blob SHA is {@code blob}, into the store,
+     * unless they are already there, and returns {@code blob}.
+     *
+     * @throws IOException if the contents cannot be written into the store.
+     */
+    private String storeFile(String blob, FileResult fileResult) throws IOException {
+        if (!storedBlobs.add(blob)) {
+            return blob;
+        }
+
+        Path blobPath = getBlobPath(blob);
+        if (Files.exists(blobPath)) {
+            // written by a previous run into the same report
+            archiveWriter.addFile(blobPath);
+            return blob;
+        }
+        FileUtil.createDirectory(blobPath.getParent());
+        List<String> contents = fileResult.getLines().stream().map(LineInfo::getContent).collect(Collectors.toList());
+        FileUtil.writeJsonFile(contents, blobPath.toString(), archiveWriter);
+        return blob;
+    }
+
+    private Path getBlobPath(String blob) {
+        return storePath.resolve(blob.substring(0, 2)).resolve(blob.substring(2) + ".json");
+    }
+
+    /**
+     * Returns the git blob SHA of a file whose contents are {@code content}, which is the SHA-1 digest of the
+     * contents prefixed with a header giving their length.
+     */
+    private static String computeBlobSha(byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(BLOB_DIGEST_ALGORITHM);
+            digest.update(String.format("blob %d\0", content.length).getBytes(StandardCharsets.US_ASCII));
+            digest.update(content);
+            StringBuilder sha = new StringBuilder();
+            for (byte value : digest.digest()) {
+                sha.append(String.format("%02x", value));
+            }
+            return sha.toString();
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new AssertionError("Every Java platform is required to support " + BLOB_DIGEST_ALGORITHM + ".");
+        }
+    }
+
+    /**
+     * Returns the SHA of the contents referred to by each file of the authorship shard at {@code shardPath}, reading
+     * the shard one file at a time.
+     *
+     * @throws IOException if the shard cannot be read, or is not a list of files.
+     */
+    private static List<String> readBlobs(Path shardPath) throws IOException {
+        List<String> blobs = new ArrayList<>();
+        try (Reader reader = new InputStreamReader(Files.newInputStream(shardPath), FileUtil.JSON_CHARSET);
+                JsonReader jsonReader = new JsonReader(reader)) {
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                jsonReader.beginObject();
+                while (jsonReader.hasNext()) {
+                    if (jsonReader.nextName().equals("blob")) {
+                        blobs.add(jsonReader.nextString());
+                    } else {
+                        jsonReader.skipValue();
+                    }
+                }
+                jsonReader.endObject();
+            }
+            jsonReader.endArray();
+        } catch (IllegalStateException ise) {
+            throw new IOException(shardPath + " is not a list of files.", ise);
+        }
+        return blobs;
+    }
+}
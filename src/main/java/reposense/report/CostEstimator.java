@@ -0,0 +1,217 @@
+package reposense.report;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.google.gson.JsonParseException;
+
+import reposense.metrics.RepoMetrics;
+import reposense.model.RepoConfiguration;
+import reposense.parser.CostHistoryJsonParser;
+import reposense.system.CommandRunner;
+import reposense.system.LogsManager;
+import reposense.util.FileUtil;
+
+/**
+ * Estimates the cost of analyzing the branches of each repo location, in milliseconds, before any of them is
+ * analyzed, so that the costliest repos can be started first.
+ *
+ * The cost of a location is the time its branches took to be analyzed the last time they were, as recorded in
+ * {@code COST_HISTORY_FILE} of the report folder. A location without a recorded cost is estimated from the size of
+ * its objects if it is a repo on this machine, at the time per KiB taken by the local repos with recorded costs.
+ * Failing that, it is estimated as the average of the other estimates. Estimates which other machines have to agree
+ * on are made from the recorded costs alone.
+ */
+public class CostEstimator {
+    public static final String COST_HISTORY_FILE = "costs.json";
+
+    static final long DEFAULT_COST = 1;
+
+    private static final Logger logger = LogsManager.getLogger(CostEstimator.class);
+    private static final Pattern OBJECT_SIZE_PATTERN = Pattern.compile("^(size|size-pack): (\\d+)$",
+            Pattern.MULTILINE);
+
+    private final Map<String, Long> history;
+
+    public CostEstimator(Map<String, Long> history) {
+        this.history = new HashMap<>(history);
+    }
+
+    /**
+     * Returns an estimator of the costs recorded in the report folder at {@code reportPath}, which has no recorded
+     * costs if the report folder has none or they cannot be read.
+     */
+    public static CostEstimator load(Path reportPath) {
+        Path historyPath = reportPath.resolve(COST_HISTORY_FILE);
+        if (!Files.exists(historyPath)) {
+            return new CostEstimator(Collections.emptyMap());
+        }
+
+        try {
+            Map<String, Long> history = new CostHistoryJsonParser().parse(historyPath);
+            return new CostEstimator((history == null) ? Collections.emptyMap() : history);
+        } catch (IOException | JsonParseException e) {
+            logger.log(Level.WARNING, "Unable to read the costs of the repos from " + historyPath
+                    + ", they will be estimated from their sizes instead.", e);
+            return new CostEstimator(Collections.emptyMap());
+        }
+    }
+
+    /**
+     * Returns the estimated cost of analyzing the branches of each location of {@code configs}, in milliseconds.
+     */
+    public Map<String, Long> estimate(List<RepoConfiguration> configs) {
+        Set<String> locations = new LinkedHashSet<>();
+        Map<String, Long> sizes = new HashMap<>();
+        for (RepoConfiguration config : configs) {
+            if (locations.add(config.getLocation()) && config.isLocalRepo()) {
+                readObjectSize(config.getLocation()).ifPresent(size -> sizes.put(config.getLocation(), size));
+            }
+        }
+
+        Map<String, Long> estimates = estimate(locations, sizes);
+        long recordedCount = locations.stream().filter(history::containsKey).count();
+        long sizedCount = sizes.keySet().stream().filter(location -> !history.containsKey(location)).count();
+        logger.info(String.format("Estimated the costs of %d repos, %d from earlier runs and %d from their sizes.",
+                locations.size(), recordedCount, sizedCount));
+        return estimates;
+    }
+
+    /**
+     * Returns the estimated cost of each of {@code locations}, given the sizes of the objects of some of them in KiB,
+     * {@code sizes}.
+     */
+    Map<String, Long> estimate(Collection<String> locations, Map<String, Long> sizes) {
+        Map<String, Long> estimates = new HashMap<>();
+        locations.stream()
+                .filter(history::containsKey)
+                .forEach(location -> estimates.put(location, Math.max(DEFAULT_COST, history.get(location))));
+
+        double millisPerKib = getMillisPerKib(locations, sizes);
+        locations.stream()
+                .filter(location -> !estimates.containsKey(location) && sizes.containsKey(location))
+                .forEach(location -> estimates.put(location,
+                        Math.max(DEFAULT_COST, Math.round(sizes.get(location) * millisPerKib))));
+
+        long averageCost = estimates.isEmpty()
+                ? DEFAULT_COST
+                : estimates.values().stream().mapToLong(Long::longValue).sum() / estimates.size();
+        locations.forEach(location -> estimates.putIfAbsent(location, averageCost));
+        return estimates;
+    }
+
+    /**
+     * Returns the estimated cost of analyzing the branches of each location of {@code configs}, in milliseconds, from
+     * their recorded costs alone, so that every machine with the same recorded costs makes the same estimates.
+     */
+    public Map<String, Long> estimateFromHistory(List<RepoConfiguration> configs) {
+        return estimate(configs.stream().map(RepoConfiguration::getLocation).collect(Collectors.toSet()),
+                Collections.emptyMap());
+    }
+
+    /**
+     * Records the costs of the locations of {@code configs} which were analyzed, given by the metrics of their
+     * branches and of the work shared by them, such as cloning, {@code repoMetrics}, into {@code COST_HISTORY_FILE}
+     * at {@code outputPath}, along with the costs recorded before of the locations whose reports were reused instead.
+     */
+    public void record(String outputPath, List<RepoConfiguration> configs, List<RepoMetrics> repoMetrics) {
+        // a location whose branches were all reused only checked for changes, which is not the cost of analyzing it
+        Set<String> analyzedLocations = repoMetrics.stream()
+                .filter(metrics -> metrics.getRepo() != null)
+                .map(RepoMetrics::getLocation)
+                .collect(Collectors.toSet());
+        Map<String, Long> measuredCosts = new HashMap<>();
+        for (RepoMetrics metrics : repoMetrics) {
+            if (analyzedLocations.contains(metrics.getLocation())) {
+                measuredCosts.merge(metrics.getLocation(),
+                        TimeUnit.NANOSECONDS.toMillis(metrics.getWallNanos()), Long::sum);
+            }
+        }
+
+        Map<String, Long> costs = new TreeMap<>();
+        for (String location : configs.stream().map(RepoConfiguration::getLocation).collect(Collectors.toSet())) {
+            Long cost = measuredCosts.getOrDefault(location, history.get(location));
+            if (cost != null) {
+                costs.put(location, cost);
+            }
+        }
+        history.putAll(costs);
+        FileUtil.writeJsonFile(costs, Paths.get(outputPath, COST_HISTORY_FILE).toString());
+    }
+
+    /**
+     * Returns the time taken per KiB of objects by the locations of {@code locations} with both a recorded cost and a
+     * size in {@code sizes}. Failing that, returns the average recorded cost over the average size of the locations
+     * with only a size, so that they are weighed like an average recorded location, or 1 if there are no recorded
+     * costs to weigh them against.
+     */
+    private double getMillisPerKib(Collection<String> locations, Map<String, Long> sizes) {
+        long recordedMillis = 0;
+        long recordedCount = 0;
+        long calibratedMillis = 0;
+        long calibratedKib = 0;
+        long unrecordedKib = 0;
+        long unrecordedCount = 0;
+        for (String location : locations) {
+            if (history.containsKey(location)) {
+                recordedMillis += history.get(location);
+                recordedCount++;
+                if (sizes.containsKey(location)) {
+                    calibratedMillis += history.get(location);
+                    calibratedKib += sizes.get(location);
+                }
+            } else if (sizes.containsKey(location)) {
+                unrecordedKib += sizes.get(location);
+                unrecordedCount++;
+            }
+        }
+
+        if (calibratedKib > 0) {
+            return (double) calibratedMillis / calibratedKib;
+        }
+        if (recordedCount == 0 || unrecordedKib == 0) {
+            return 1;
+        }
+        return ((double) recordedMillis / recordedCount) / ((double) unrecordedKib / unrecordedCount);
+    }
+
+    /**
+     * Returns the total size of the loose and packed objects of the repo on this machine at {@code location} in KiB,
+     * or an empty optional if it is not a repo.
+     */
+    private static Optional<Long> readObjectSize(String location) {
+        if (!Files.isDirectory(Paths.get(location))) {
+            return Optional.empty();
+        }
+
+        try {
+            Matcher matcher = OBJECT_SIZE_PATTERN.matcher(CommandRunner.countObjects(location));
+            long size = 0;
+            while (matcher.find()) {
+                size += Long.parseLong(matcher.group(2));
+            }
+            return Optional.of(size);
+        } catch (RuntimeException rte) {
+            logger.log(Level.WARNING, "Unable to find the size of " + location
+                    + ", its cost will be estimated as the average cost.", rte);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package reposense.report;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import reposense.authorship.model.FileResult;
+import reposense.authorship.model.LineInfo;
+import reposense.model.Author;
+
+/**
+ * Class that holds the authorship of a file to be serialized into JSON format in an authorship shard, in place of its
+ * {@code FileResult}, when the contents of the file are kept in the {@code ContentStore} of the report.
+ * The lines of the file are attributed to their authors by ranges of consecutive lines, in order.
+ */
+public class FileAttributionJson {
+    private final String path;
+    private final String blob;
+    private final List<AuthorRange> authorRanges;
+    private final Map<Author, Integer> authorContributionMap;
+
+    public FileAttributionJson(FileResult fileResult, String blob) {
+        this.path = fileResult.getPath();
+        this.blob = blob;
+        this.authorRanges = new ArrayList<>();
+        this.authorContributionMap = fileResult.getAuthorContributionMap();
+
+        AuthorRange lastRange = null;
+        for (LineInfo line : fileResult.getLines()) {
+            String gitId = (line.getAuthor() == null) ? null : line.getAuthor().getGitId();
+            if (lastRange == null || !String.valueOf(gitId).equals(String.valueOf(lastRange.gitId))) {
+                lastRange = new AuthorRange(gitId);
+                authorRanges.add(lastRange);
+            }
+            lastRange.lineCount++;
+        }
+    }
+
+    /**
+     * Holds the number of consecutive lines of a file written by the author with {@code gitId}, which is omitted for
+     * lines without an author.
+     */
+    private static class AuthorRange {
+        private final String gitId;
+        private int lineCount;
+
+        AuthorRange(String gitId) {
+            this.gitId = gitId;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package reposense.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import reposense.system.LogsManager;
+
+/**
+ * Records the progress of a run in {@code JOURNAL_FILE_NAME} of the report folder, so that a run which did not
+ * complete can be resumed without analyzing the repos which it completed again.
+ *
+ * A repo is recorded once its report is complete, by a line holding the fingerprint of the report and the size and
+ * checksum of each of its files, after the files and then the line are forced to the disk. The line being written
+ * when the run ended, if any, is discarded when the journal is resumed. The report of a recorded repo is only reused
+ * if its files are still as recorded.
+ */
+public class ProgressJournal implements Closeable {
+    public static final String JOURNAL_FILE_NAME = "progress.journal";
+
+    private static final Logger logger = LogsManager.getLogger(ProgressJournal.class);
+    private static final Gson gson = new Gson();
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path outputPath;
+    private final FileChannel channel;
+    private final Map<String, Entry> entries;
+
+    private ProgressJournal(Path outputPath, FileChannel channel, Map<String, Entry> entries) {
+        this.outputPath = outputPath.toAbsolutePath();
+        this.channel = channel;
+        this.entries = entries;
+    }
+
+    /**
+     * Opens the journal of the report folder at {@code outputPath}, continuing the journal of an earlier run there if
+     * {@code isResumed}, or starting a new one otherwise.
+     *
+     * @throws IOException if the journal cannot be read or written.
+     */
+    public static ProgressJournal open(Path outputPath, boolean isResumed) throws IOException {
+        Path journalPath = outputPath.resolve(JOURNAL_FILE_NAME);
+        if (!isResumed) {
+            return new ProgressJournal(outputPath, FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), new HashMap<>());
+        }
+
+        FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            byte[] content = Files.readAllBytes(journalPath);
+            int length = content.length;
+            while (length > 0 && content[length - 1] != '\n') {
+                length--;
+            }
+            // the last line is incomplete if the run ended while it was being written
+            channel.truncate(length);
+            channel.position(length);
+
+            Map<String, Entry> entries = new HashMap<>();
+            for (String line : new String(content, 0, length, StandardCharsets.UTF_8).split("\n")) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    Entry entry = gson.fromJson(line, Entry.class);
+                    entries.put(entry.key, entry);
+                } catch (JsonParseException jpe) {
+                    logger.log(Level.WARNING, "Ignoring a malformed line of " + journalPath + ".", jpe);
+                }
+            }
+            logger.info(String.format("Resuming the run recorded in %s, which completed %d branches.",
+                    journalPath, entries.size()));
+            return new ProgressJournal(outputPath, channel, entries);
+        } catch (IOException ioe) {
+            channel.close();
+            throw ioe;
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the report recorded under {@code key} by the earlier run, if there is one and its
+     * files are still as recorded.
+     */
+    public Optional<RepoFingerprint> getCompletedFingerprint(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null || entry.fingerprint == null || entry.files == null) {
+            return Optional.empty();
+        }
+
+        for (Map.Entry<String, FileDigest> file : entry.files.entrySet()) {
+            Path filePath = outputPath.resolve(file.getKey());
+            try {
+                if (!Files.isRegularFile(filePath) || !digest(filePath).equals(file.getValue())) {
+                    logger.warning(String.format("%s has changed since it was completed, will analyze %s again.",
+                            filePath, entry.displayName));
+                    return Optional.empty();
+                }
+            } catch (IOException ioe) {
+                logger.log(Level.WARNING, String.format("Unable to verify %s, will analyze %s again.",
+                        filePath, entry.displayName), ioe);
+                return Optional.empty();
+            }
+        }
+        return Optional.of(entry.fingerprint);
+    }
+
+    /**
+     * Records that the report of {@code displayName}, identified by {@code key} and {@code fingerprint}, is complete
+     * with the files at {@code filePaths}, after forcing them to the disk.
+     *
+     * @throws IOException if the files cannot be read or forced to the disk, or the journal cannot be written.
+     */
+    public void record(String key, String displayName, RepoFingerprint fingerprint, List<Path> filePaths)
+            throws IOException {
+        Map<String, FileDigest> files = new TreeMap<>();
+        for (Path filePath : filePaths) {
+            try (FileChannel fileChannel = FileChannel.open(filePath, StandardOpenOption.WRITE)) {
+                fileChannel.force(true);
+            }
+            files.put(outputPath.relativize(filePath.toAbsolutePath()).toString().replace('\\', '/'),
+                    digest(filePath));
+        }
+
+        Entry entry = new Entry(key, displayName, fingerprint, files);
+        ByteBuffer line = ByteBuffer.wrap((gson.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+        synchronized (this) {
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            channel.force(false);
+            entries.put(key, entry);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Returns the size and checksum of the file at {@code filePath}.
+     *
+     * @throws IOException if the file cannot be read.
+     */
+    private static FileDigest digest(Path filePath) throws IOException {
+        CRC32 crc = new CRC32();
+        long size = 0;
+        try (InputStream is = Files.newInputStream(filePath)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                crc.update(buffer, 0, length);
+                size += length;
+            }
+        }
+        return new FileDigest(size, crc.getValue());
+    }
+
+    /**
+     * Represents a repo whose report was completed, as recorded by a line of the journal.
+     */
+    private static class Entry {
+        private final String key;
+        private final String displayName;
+        private final RepoFingerprint fingerprint;
+        private final Map<String, FileDigest> files;
+
+        Entry(String key, String displayName, RepoFingerprint fingerprint, Map<String, FileDigest> files) {
+            this.key = key;
+            this.displayName = displayName;
+            this.fingerprint = fingerprint;
+            this.files = files;
+        }
+    }
+
+    /**
+     * Represents the size and CRC-32 checksum of a file of a report.
+     */
+    private static class FileDigest {
+        private final long size;
+        private final long crc;
+
+        FileDigest(long size, long crc) {
+            this.size = size;
+            this.crc = crc;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == this) {
+                return true;
+            }
+
+            if (!(other instanceof FileDigest)) {
+                return false;
+            }
+
+            FileDigest otherDigest = (FileDigest) other;
+            return size == otherDigest.size && crc == otherDigest.crc;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + Long.hashCode(crc);
+        }
+    }
+}
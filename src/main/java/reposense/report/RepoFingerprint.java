@@ -0,0 +1,175 @@
+package reposense.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.gson.Gson;
+
+import reposense.model.Author;
+import reposense.model.RepoConfiguration;
+import reposense.system.LogsManager;
+
+/**
+ * Identifies everything the report of a repo is generated from, so that the report can be reused by later runs as
+ * long as none of it has changed.
+ */
+public class RepoFingerprint {
+    public static final String FINGERPRINT_FILE_NAME = "fingerprint.json";
+
+    private static final Logger logger = LogsManager.getLogger(RepoFingerprint.class);
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String TOOL_VERSION = computeToolVersion();
+
+    private final String toolVersion;
+    private final String location;
+    private final String branch;
+    private final String commit;
+    private final Long sinceDate;
+    private final Long untilDate;
+    private final List<String> formats;
+    private final boolean isContentStoreEnabled;
+    private final String configHash;
+
+    private RepoFingerprint(RepoConfiguration config, String commit, String toolVersion) {
+        this.toolVersion = toolVersion;
+        this.location = config.getLocation();
+        this.branch = config.getBranch();
+        this.commit = commit;
+        this.sinceDate = toMillis(config.getSinceDate());
+        this.untilDate = toMillis(config.getUntilDate());
+        this.formats = new ArrayList<>(config.getFormats());
+        this.isContentStoreEnabled = config.isContentStoreEnabled();
+        this.configHash = hashAuthorConfig(config);
+    }
+
+    /**
+     * Returns the fingerprint of the report of {@code config}, whose branch is at {@code commit}.
+     * Returns an empty {@code Optional} if the version of RepoSense being run cannot be identified, as a report
+     * generated by another version cannot be told apart then.
+     */
+    public static Optional<RepoFingerprint> create(RepoConfiguration config, String commit) {
+        if (TOOL_VERSION == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new RepoFingerprint(config, commit, TOOL_VERSION));
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    public String getCommit() {
+        return commit;
+    }
+
+    /**
+     * Returns a digest of the settings of {@code config} which decide how commits are attributed to authors, and
+     * which of them are counted.
+     */
+    private static String hashAuthorConfig(RepoConfiguration config) {
+        List<Object> authorConfig = new ArrayList<>();
+        for (Author author : config.getAuthorList()) {
+            authorConfig.add(Stream.of(author.getGitId(), config.getAuthorDisplayNameMap().get(author),
+                    author.getAuthorAliases(), author.getIgnoreGlobList()).collect(Collectors.toList()));
+        }
+        authorConfig.add(config.getAuthorAliasMap().entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue().getGitId())
+                .collect(Collectors.toList()));
+        authorConfig.add(config.getIgnoreGlobList());
+        authorConfig.add(config.getIgnoreCommitList());
+        authorConfig.add(config.isStandaloneConfigIgnored());
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            return toHex(digest.digest(new Gson().toJson(authorConfig).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new AssertionError("Every Java platform is required to support " + DIGEST_ALGORITHM + ".");
+        }
+    }
+
+    /**
+     * Returns a digest of the jar or class files of RepoSense being run, or null if they cannot be read.
+     */
+    private static String computeToolVersion() {
+        try {
+            Path codePath =
+                    Paths.get(RepoFingerprint.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            if (Files.isRegularFile(codePath)) {
+                try (InputStream is = new DigestInputStream(Files.newInputStream(codePath), digest)) {
+                    byte[] buffer = new byte[1 << 16];
+                    while (is.read(buffer) != -1) {
+                        // the digest is updated as the jar is read
+                    }
+                }
+            } else {
+                // the class files are not hashed by content as they are many, but are rewritten whenever recompiled
+                try (Stream<Path> paths = Files.walk(codePath)) {
+                    List<Path> filePaths = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                    for (Path filePath : filePaths) {
+                        digest.update(String.format("%s %d %d\n", codePath.relativize(filePath), Files.size(filePath),
+                                Files.getLastModifiedTime(filePath).toMillis()).getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            return toHex(digest.digest());
+        } catch (IOException | URISyntaxException | NoSuchAlgorithmException | RuntimeException e) {
+            logger.log(Level.WARNING, "Unable to identify the version of RepoSense, reports will not be reused.", e);
+            return null;
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        return String.format("%0" + (bytes.length * 2) + "x", new BigInteger(1, bytes));
+    }
+
+    private static Long toMillis(Date date) {
+        return (date == null) ? null : date.getTime();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+
+        if (!(other instanceof RepoFingerprint)) {
+            return false;
+        }
+
+        RepoFingerprint otherFingerprint = (RepoFingerprint) other;
+        return Objects.equals(toolVersion, otherFingerprint.toolVersion)
+                && Objects.equals(location, otherFingerprint.location)
+                && Objects.equals(branch, otherFingerprint.branch)
+                && Objects.equals(commit, otherFingerprint.commit)
+                && Objects.equals(sinceDate, otherFingerprint.sinceDate)
+                && Objects.equals(untilDate, otherFingerprint.untilDate)
+                && Objects.equals(formats, otherFingerprint.formats)
+                && isContentStoreEnabled == otherFingerprint.isContentStoreEnabled
+                && Objects.equals(configHash, otherFingerprint.configHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(toolVersion, location, branch, commit, sinceDate, untilDate, formats,
+                isContentStoreEnabled, configHash);
+    }
+}
@@ -4,89 +4,497 @@ import static reposense.git.GitShortlog.extractAuthorsFromLog;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
 
 import reposense.RepoSense;
 import reposense.authorship.AuthorshipReporter;
+import reposense.authorship.AuthorshipShardWriter;
+import reposense.authorship.model.AuthorshipShard;
 import reposense.authorship.model.AuthorshipSummary;
+import reposense.authorship.model.FileResult;
 import reposense.commits.CommitsReporter;
 import reposense.commits.model.CommitContributionSummary;
 import reposense.git.GitDownloader;
 import reposense.git.GitDownloaderException;
+import reposense.git.GitLsRemote;
+import reposense.git.GitRevList;
+import reposense.metrics.MetricsRecorder;
+import reposense.metrics.Phase;
 import reposense.model.Author;
 import reposense.model.RepoConfiguration;
 import reposense.model.StandaloneConfig;
+import reposense.parser.AuthorshipManifestJsonParser;
+import reposense.parser.RepoFingerprintJsonParser;
 import reposense.parser.StandaloneConfigJsonParser;
 import reposense.system.LogsManager;
+import reposense.system.MemoryBudget;
+import reposense.util.ArchiveWriter;
 import reposense.util.FileUtil;
 
 public class ReportGenerator {
+    // zip file which contains all the dashboard template files
+    public static final String TEMPLATE_FILE = "/templateZip.zip";
+
     private static final String REPOSENSE_CONFIG_FOLDER = "_reposense";
     private static final String REPOSENSE_CONFIG_FILE = "config.json";
     private static final Logger logger = LogsManager.getLogger(ReportGenerator.class);
 
-    // zip file which contains all the dashboard template files
-    private static final String TEMPLATE_FILE = "/templateZip.zip";
-
     private static final String MESSAGE_INVALID_CONFIG_JSON = "%s Ignoring the config provided by this repository.";
 
     /**
      * Generates the authorship and commits JSON file for each repo in {@code configs} at {@code outputPath}, as
-     * well as the summary JSON file of all the repos.
+     * well as the summary JSON file of all the repos, and archives them into {@code FileUtil#ZIP_FILE} as they are
+     * generated.
      *
      * @throws IOException if templateZip.zip does not exists in jar file.
      */
     public static void generateReposReport(List<RepoConfiguration> configs, String outputPath,
             String generationDate) throws IOException {
-        InputStream is = RepoSense.class.getResourceAsStream(TEMPLATE_FILE);
-        FileUtil.copyTemplate(is, outputPath);
+        generateReposReport(configs, outputPath, generationDate, CostEstimator.load(Paths.get(outputPath)), false);
+    }
 
-        for (RepoConfiguration config : configs) {
-            Path repoReportDirectory;
+    /**
+     * Generates the report of {@code configs} at {@code outputPath} like
+     * {@code #generateReposReport(List, String, String)}, analyzing the repos estimated by {@code costEstimator} to
+     * cost the most first, and records their actual costs at {@code outputPath} for later runs.
+     * The progress of the run is recorded in a {@code ProgressJournal}, which continues that of the earlier run at
+     * {@code outputPath} if {@code isResumed}, reusing the reports which that run completed.
+     *
+     * @throws IOException if templateZip.zip does not exists in jar file, or the journal cannot be opened.
+     */
+    public static void generateReposReport(List<RepoConfiguration> configs, String outputPath,
+            String generationDate, CostEstimator costEstimator, boolean isResumed) throws IOException {
+        MetricsRecorder.runPhase(Phase.TEMPLATE, () -> {
+            InputStream is = RepoSense.class.getResourceAsStream(TEMPLATE_FILE);
+            FileUtil.copyTemplate(is, outputPath);
+        });
+
+        ProgressJournal journal = ProgressJournal.open(Paths.get(outputPath), isResumed);
+        ArchiveWriter archiveWriter =
+                new ArchiveWriter(Paths.get(outputPath, FileUtil.ZIP_FILE), Paths.get(outputPath));
+        ContentStore contentStore = new ContentStore(outputPath, archiveWriter);
+        Map<String, Long> costs = costEstimator.estimate(configs);
+        // queued tasks are taken the costliest first, as CostedTask orders them
+        int threadCount = Math.max(1, Math.min(configs.size(), Runtime.getRuntime().availableProcessors()));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>());
+        try {
+            generateReposReport(configs, outputPath, archiveWriter, contentStore, executor, costs, journal);
+
+            MetricsRecorder.runPhase(Phase.SUMMARY, () -> FileUtil.writeJsonFile(
+                    new SummaryReportJson(configs, generationDate), getSummaryResultPath(outputPath), archiveWriter));
+            costEstimator.record(outputPath, configs, MetricsRecorder.getReport().getRepos());
+        } finally {
+            executor.shutdown();
             try {
-                GitDownloader.downloadRepo(config);
-                repoReportDirectory = Paths.get(outputPath, config.getDisplayName());
-                FileUtil.createDirectory(repoReportDirectory);
-            } catch (GitDownloaderException gde) {
-                logger.log(Level.WARNING,
-                        "Exception met while trying to clone the repo, will skip this repo.", gde);
-                repoReportDirectory = Paths.get(outputPath, config.getDisplayName());
-                FileUtil.createDirectory(repoReportDirectory);
-                generateEmptyRepoReport(repoReportDirectory.toString());
-                continue;
+                MetricsRecorder.runPhase(Phase.ARCHIVE, archiveWriter::close);
             } catch (IOException ioe) {
-                logger.log(Level.WARNING,
-                        "Error has occurred while creating repo directory, will skip this repo.", ioe);
-                continue;
-            } catch (RuntimeException rte) {
-                logger.log(Level.SEVERE, "Error has occurred during analysis, will skip this repo.", rte);
-                continue;
+                logger.log(Level.SEVERE, "Error completing " + FileUtil.ZIP_FILE, ioe);
+            }
+            journal.close();
+        }
+        logger.info("The report is generated at " + outputPath);
+    }
+
+    /**
+     * Generates the authorship and commits JSON files of each repo in {@code configs} on {@code executor}, the repos
+     * with the highest {@code costs} first.
+     * Each repo is cloned once for all the branches to be analyzed, which are then analyzed in parallel, each in a
+     * working tree of its own.
+     *
+     * @throws IOException if the report directory of a repo which failed to be cloned cannot be created.
+     */
+    private static void generateReposReport(List<RepoConfiguration> configs, String outputPath,
+            ArchiveWriter archiveWriter, ContentStore contentStore, Executor executor, Map<String, Long> costs,
+            ProgressJournal journal) throws IOException {
+        Map<String, List<RepoConfiguration>> configsByLocation = configs.stream()
+                .collect(Collectors.groupingBy(RepoConfiguration::getLocation, LinkedHashMap::new,
+                        Collectors.toList()));
+        List<String> locations = new ArrayList<>(configsByLocation.keySet());
+        locations.sort(Comparator.comparing((String location) -> costs.get(location)).reversed());
+        // repos cloned into the same folder, such as local repos of the same name, have to take turns
+        Map<String, CompletableFuture<Void>> folderFutures = new HashMap<>();
+
+        for (String location : locations) {
+            List<RepoConfiguration> repoConfigs = configsByLocation.get(location);
+            RepoConfiguration repoConfig = repoConfigs.get(0);
+            String repoFolderPath = repoConfig.getRepoFolderPath();
+            long cost = costs.get(location);
+            Executor repoExecutor = task -> executor.execute(new CostedTask(task, cost));
+            CompletableFuture<Void> previousFuture =
+                    folderFutures.getOrDefault(repoFolderPath, CompletableFuture.completedFuture(null));
+            folderFutures.put(repoFolderPath, previousFuture
+                    .handleAsync((result, exception) ->
+                            generateRepoReports(repoConfigs, outputPath, archiveWriter, contentStore, repoExecutor,
+                                    journal),
+                            repoExecutor)
+                    .thenCompose(branchFutures -> branchFutures)
+                    .whenComplete((result, exception) -> deleteWorktrees(repoConfig)));
+        }
+
+        try {
+            CompletableFuture.allOf(folderFutures.values().toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException ce) {
+            if (ce.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) ce.getCause()).getCause();
+            }
+            throw ce;
+        }
+    }
+
+    /**
+     * Clones the repo shared by {@code configs}, which all have the same location, then analyzes each of its branches
+     * on {@code executor}, except those whose report from a previous run can be reused as they have not changed, or
+     * as they were completed by the run which {@code journal} resumes. Each report completed is recorded in
+     * {@code journal}. Returns a future which completes when all the branches are analyzed.
+     */
+    private static CompletableFuture<Void> generateRepoReports(List<RepoConfiguration> configs, String outputPath,
+            ArchiveWriter archiveWriter, ContentStore contentStore, Executor executor, ProgressJournal journal) {
+        // the keys are taken before the default branches are resolved, as the resumed run resolved them already
+        Map<RepoConfiguration, String> journalKeys = new IdentityHashMap<>();
+        List<RepoConfiguration> configsToCheck = new ArrayList<>();
+        for (RepoConfiguration config : configs) {
+            journalKeys.put(config, config.getLocation() + "#" + config.getBranch());
+            if (isReportCompleted(config, journalKeys.get(config), journal)) {
+                archiveReusedReport(config, outputPath, archiveWriter, contentStore);
+            } else {
+                configsToCheck.add(config);
+            }
+        }
+        if (configsToCheck.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // checking for changes and cloning are shared by the branches, so their time is attributed to the location
+        Map<RepoConfiguration, RepoFingerprint> fingerprints;
+        List<RepoConfiguration> configsToAnalyze = new ArrayList<>();
+        boolean isCloned;
+        MetricsRecorder.startLocation(configsToCheck.get(0).getLocation());
+        try {
+            fingerprints = getFingerprints(configsToCheck);
+            for (RepoConfiguration config : configsToCheck) {
+                if (isReportReusable(config, fingerprints.get(config), outputPath)) {
+                    archiveReusedReport(config, outputPath, archiveWriter, contentStore);
+                    recordProgress(config, journalKeys.get(config), fingerprints.get(config), outputPath, journal);
+                } else {
+                    configsToAnalyze.add(config);
+                }
+            }
+            if (configsToAnalyze.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            isCloned = downloadRepoStore(configsToAnalyze);
+        } finally {
+            MetricsRecorder.endRepo();
+        }
+        return CompletableFuture.allOf(configsToAnalyze.stream()
+                .map(config -> CompletableFuture.runAsync(() ->
+                        generateRepoReport(config, outputPath, archiveWriter, contentStore, isCloned,
+                                fingerprints.get(config)), executor)
+                        .thenRun(() -> recordProgress(config, journalKeys.get(config), fingerprints.get(config),
+                                outputPath, journal)))
+                .toArray(CompletableFuture<?>[]::new));
+    }
+
+    /**
+     * Returns true if the report of {@code config} was completed by the run which {@code journal} resumes, as
+     * recorded under {@code journalKey}, and is still as it was then, with the same fingerprint, and hence can be
+     * reused without checking its repo. Sets the branch of {@code config} to the one analyzed then if it did not
+     * specify one.
+     */
+    private static boolean isReportCompleted(RepoConfiguration config, String journalKey, ProgressJournal journal) {
+        Optional<RepoFingerprint> fingerprint = journal.getCompletedFingerprint(journalKey);
+        if (!fingerprint.isPresent()) {
+            return false;
+        }
+
+        String branch = config.getBranch();
+        if (branch.equals(RepoConfiguration.DEFAULT_BRANCH)) {
+            config.setBranch(fingerprint.get().getBranch());
+        }
+        if (!fingerprint.equals(RepoFingerprint.create(config, fingerprint.get().getCommit()))) {
+            config.setBranch(branch);
+            logger.info(String.format("%s has been configured differently since it was completed, "
+                    + "will analyze it again.", config.getDisplayName()));
+            return false;
+        }
+
+        logger.info(String.format("%s was completed by the run being resumed, its report will be reused.",
+                config.getDisplayName()));
+        return true;
+    }
+
+    /**
+     * Records the report of {@code config} at {@code outputPath} as completed in {@code journal} under
+     * {@code journalKey}, if it was completely generated with {@code fingerprint}.
+     */
+    private static void recordProgress(RepoConfiguration config, String journalKey, RepoFingerprint fingerprint,
+            String outputPath, ProgressJournal journal) {
+        String repoReportDirectory = Paths.get(outputPath, config.getDisplayName()).toString();
+        Path fingerprintPath = Paths.get(getFingerprintPath(repoReportDirectory));
+        // the fingerprint is only written once the report is complete
+        if (fingerprint == null || !Files.exists(fingerprintPath)) {
+            return;
+        }
+
+        try {
+            List<Path> filePaths = new ArrayList<>();
+            filePaths.add(Paths.get(getIndividualCommitsPath(repoReportDirectory)));
+            Path manifestPath = Paths.get(getAuthorshipManifestPath(repoReportDirectory));
+            for (AuthorshipShard shard : new AuthorshipManifestJsonParser().parse(manifestPath)) {
+                filePaths.add(Paths.get(getAuthorshipShardPath(repoReportDirectory, shard)));
+            }
+            filePaths.add(manifestPath);
+            filePaths.add(fingerprintPath);
+            journal.record(journalKey, config.getDisplayName(), fingerprint, filePaths);
+        } catch (IOException | JsonParseException e) {
+            logger.log(Level.WARNING, String.format("Unable to record the progress of %s, "
+                    + "it will be analyzed again if the run is resumed.", config.getDisplayName()), e);
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the report of each of {@code configs} whose latest commit can be found without
+     * cloning its repo, and sets the branch of those which did not specify one to the default branch of the repo.
+     */
+    private static Map<RepoConfiguration, RepoFingerprint> getFingerprints(List<RepoConfiguration> configs) {
+        // the branch, and hence the hash code, of a config changes once its default branch is known
+        Map<RepoConfiguration, RepoFingerprint> fingerprints = new IdentityHashMap<>();
+        String refs;
+        try {
+            refs = GitLsRemote.listRefs(configs.get(0).getLocation());
+        } catch (RuntimeException rte) {
+            logger.log(Level.WARNING, String.format("Unable to find the latest commits of %s, "
+                    + "will analyze it even if it has not changed.", configs.get(0).getLocation()), rte);
+            return fingerprints;
+        }
+
+        Map<String, String> branchHeads = GitLsRemote.extractBranchHeads(refs);
+        Optional<String> defaultBranch = GitLsRemote.extractDefaultBranch(refs);
+        for (RepoConfiguration config : configs) {
+            String commit = branchHeads.get(config.getBranch());
+            if (config.getBranch().equals(RepoConfiguration.DEFAULT_BRANCH) && defaultBranch.isPresent()) {
+                config.setBranch(defaultBranch.get());
+            }
+            if (commit != null) {
+                RepoFingerprint.create(config, commit).ifPresent(fingerprint -> fingerprints.put(config, fingerprint));
+            }
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Returns true if the report of {@code config} at {@code outputPath} was generated from the same commit and
+     * configuration as given by {@code fingerprint}, and hence can be reused.
+     */
+    private static boolean isReportReusable(RepoConfiguration config, RepoFingerprint fingerprint, String outputPath) {
+        String repoReportDirectory = Paths.get(outputPath, config.getDisplayName()).toString();
+        Path fingerprintPath = Paths.get(getFingerprintPath(repoReportDirectory));
+        if (fingerprint == null || !Files.exists(fingerprintPath)
+                || !Files.exists(Paths.get(getIndividualCommitsPath(repoReportDirectory)))
+                || !Files.exists(Paths.get(getAuthorshipManifestPath(repoReportDirectory)))) {
+            return false;
+        }
+
+        try {
+            if (!fingerprint.equals(new RepoFingerprintJsonParser().parse(fingerprintPath))) {
+                return false;
             }
+        } catch (IOException | JsonParseException e) {
+            logger.log(Level.WARNING, String.format("%s is malformed, will analyze %s again.",
+                    fingerprintPath, config.getDisplayName()), e);
+            return false;
+        }
+
+        logger.info(String.format("%s has not changed since its last report, which will be reused.",
+                config.getDisplayName()));
+        return true;
+    }
+
+    /**
+     * Adds the authorship and commits JSON files of {@code config} reused from a previous run to
+     * {@code archiveWriter}, along with the contents in {@code contentStore} which they refer to, if any.
+     */
+    private static void archiveReusedReport(RepoConfiguration config, String outputPath,
+            ArchiveWriter archiveWriter, ContentStore contentStore) {
+        String repoReportDirectory = Paths.get(outputPath, config.getDisplayName()).toString();
+        try {
+            MetricsRecorder.runPhase(Phase.ARCHIVE, () -> {
+                archiveWriter.addFile(Paths.get(getIndividualCommitsPath(repoReportDirectory)));
+                Path manifestPath = Paths.get(getAuthorshipManifestPath(repoReportDirectory));
+                List<AuthorshipShard> shards = new AuthorshipManifestJsonParser().parse(manifestPath);
+                for (AuthorshipShard shard : shards) {
+                    Path shardPath = Paths.get(getAuthorshipShardPath(repoReportDirectory, shard));
+                    archiveWriter.addFile(shardPath);
+                    if (config.isContentStoreEnabled()) {
+                        contentStore.storeReused(shardPath);
+                    }
+                }
+                archiveWriter.addFile(manifestPath);
+            });
+        } catch (IOException | JsonParseException e) {
+            logger.log(Level.SEVERE, "Error archiving the report of " + config.getDisplayName(), e);
+        }
+    }
+
+    /**
+     * Clones the repo shared by {@code configs}, which all have the same location.
+     * Returns false if it cannot be cloned.
+     */
+    private static boolean downloadRepoStore(List<RepoConfiguration> configs) {
+        try {
+            GitDownloader.downloadRepoStore(configs);
+            return true;
+        } catch (GitDownloaderException gde) {
+            logger.log(Level.WARNING,
+                    "Exception met while trying to clone the repo, will skip this repo.", gde);
+            return false;
+        }
+    }
+
+    /**
+     * Analyzes the repo of {@code config} if {@code isCloned}, then generates its authorship and commits JSON files,
+     * along with its {@code fingerprint} if it is not null, and adds them to {@code archiveWriter}.
+     * Generates an empty report for it otherwise. Waits until the branch can be analyzed within the heap budget first.
+     *
+     * @throws UncheckedIOException if the report directory of a repo which failed to be cloned cannot be created.
+     */
+    private static void generateRepoReport(RepoConfiguration config, String outputPath, ArchiveWriter archiveWriter,
+            ContentStore contentStore, boolean isCloned, RepoFingerprint fingerprint) {
+        MemoryBudget.acquire();
+        MetricsRecorder.startRepo(config);
+        try {
+            // the report is only reused by later runs if it is completely regenerated by this run
+            Files.deleteIfExists(Paths.get(getFingerprintPath(
+                    Paths.get(outputPath, config.getDisplayName()).toString())));
+            if (isCloned) {
+                checkoutAndAnalyzeRepo(config, outputPath, archiveWriter, contentStore, fingerprint);
+            } else {
+                Path repoReportDirectory = Paths.get(outputPath, config.getDisplayName());
+                FileUtil.createDirectory(repoReportDirectory);
+                generateEmptyRepoReport(repoReportDirectory.toString(), archiveWriter);
+            }
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        } finally {
+            MetricsRecorder.endRepo();
+            MemoryBudget.release();
+        }
+    }
+
+    /**
+     * Deletes the working trees of the branches of {@code repoConfig}'s repo, keeping its clone for later runs.
+     */
+    private static void deleteWorktrees(RepoConfiguration repoConfig) {
+        try {
+            GitDownloader.deleteWorktrees(repoConfig);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Error deleting the working trees of " + repoConfig.getLocation() + ".", e);
+        }
+    }
+
+    /**
+     * Checks out the branch of {@code config} from the clone of its repo and analyzes it, then generates its
+     * authorship and commits JSON files in a directory named after the repo at {@code outputPath}, along with its
+     * {@code fingerprint} if it is not null, and adds the JSON files to {@code archiveWriter}. The contents of the
+     * analyzed files are written into {@code contentStore} instead of the authorship if {@code config} enables it.
+     *
+     * @throws IOException if the report directory of a repo which failed to be checked out cannot be created.
+     */
+    private static void checkoutAndAnalyzeRepo(RepoConfiguration config, String outputPath,
+            ArchiveWriter archiveWriter, ContentStore contentStore, RepoFingerprint fingerprint) throws IOException {
+        Path repoReportDirectory;
+        try {
+            GitDownloader.checkoutWorktree(config);
+            repoReportDirectory = Paths.get(outputPath, config.getDisplayName());
+            FileUtil.createDirectory(repoReportDirectory);
+        } catch (GitDownloaderException gde) {
+            logger.log(Level.WARNING,
+                    "Exception met while trying to clone the repo, will skip this repo.", gde);
+            repoReportDirectory = Paths.get(outputPath, config.getDisplayName());
+            FileUtil.createDirectory(repoReportDirectory);
+            generateEmptyRepoReport(repoReportDirectory.toString(), archiveWriter);
+            return;
+        } catch (IOException ioe) {
+            logger.log(Level.WARNING,
+                    "Error has occurred while creating repo directory, will skip this repo.", ioe);
+            return;
+        } catch (RuntimeException rte) {
+            logger.log(Level.SEVERE, "Error has occurred during analysis, will skip this repo.", rte);
+            return;
+        }
 
-            // preprocess the config and repo
+        // preprocess the config and repo
+        MetricsRecorder.runPhase(Phase.PREPROCESS, () -> {
             updateRepoConfig(config);
             updateAuthorList(config);
+            GitRevList.resolveBoundaries(config);
+        });
+        GitDownloader.prefetchFileContents(config);
 
-            CommitContributionSummary commitSummary = CommitsReporter.generateCommitSummary(config);
-            AuthorshipSummary authorshipSummary = AuthorshipReporter.generateAuthorshipSummary(config);
-            generateIndividualRepoReport(commitSummary, authorshipSummary, repoReportDirectory.toString());
-
-            try {
-                FileUtil.deleteDirectory(FileUtil.REPOS_ADDRESS);
-            } catch (IOException ioe) {
-                logger.log(Level.WARNING, "Error deleting report directory.", ioe);
+        // within a heap budget, the commit summary is only generated once the authorship is written out, so that it is
+        // not held in memory while the files are analyzed
+        CommitContributionSummary earlyCommitSummary =
+                MemoryBudget.isEnabled() ? null : CommitsReporter.generateCommitSummary(config);
+        String repoReportPath = repoReportDirectory.toString();
+        createAuthorshipDirectory(repoReportPath);
+        AuthorshipShardWriter shardWriter = (shard, fileResults) ->
+                writeAuthorshipShard(config, repoReportPath, shard, fileResults, archiveWriter, contentStore);
+        AuthorshipSummary authorshipSummary = AuthorshipReporter.generateAuthorshipSummary(config, shardWriter);
+        CommitContributionSummary commitSummary = (earlyCommitSummary != null)
+                ? earlyCommitSummary
+                : CommitsReporter.generateCommitSummary(config);
+        MetricsRecorder.runPhase(Phase.REPORT, () -> {
+            generateIndividualRepoReport(commitSummary, authorshipSummary, repoReportPath, archiveWriter);
+            if (fingerprint != null) {
+                FileUtil.writeJsonFile(fingerprint, getFingerprintPath(repoReportPath));
             }
+        });
+    }
+
+    /**
+     * Writes {@code fileResults}, which are summarized by {@code shard}, as the authorship shard of the repo of
+     * {@code config} whose report is at {@code repoReportPath}, and adds it to {@code archiveWriter}. The contents of
+     * the files are written into {@code contentStore} instead if {@code config} enables it.
+     *
+     * @throws UncheckedIOException if the shard or the contents cannot be written.
+     */
+    private static void writeAuthorshipShard(RepoConfiguration config, String repoReportPath, AuthorshipShard shard,
+            List<FileResult> fileResults, ArchiveWriter archiveWriter, ContentStore contentStore) {
+        try {
+            Object results = config.isContentStoreEnabled()
+                    ? contentStore.store(config.getRepoRoot(), fileResults)
+                    : fileResults;
+            FileUtil.writeJsonFile(results, getAuthorshipShardPath(repoReportPath, shard), archiveWriter);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
         }
-        FileUtil.writeJsonFile(new SummaryReportJson(configs, generationDate), getSummaryResultPath(outputPath));
-        logger.info("The report is generated at " + outputPath);
     }
 
     /**
@@ -126,28 +534,100 @@ public class ReportGenerator {
         }
     }
 
-    private static void generateIndividualRepoReport(
-            CommitContributionSummary commitSummary, AuthorshipSummary authorshipSummary, String repoReportDirectory) {
+    /**
+     * Writes the commits JSON file and the authorship manifest of a repo, whose authorship shards have already been
+     * written, into {@code repoReportDirectory} and adds them to {@code archiveWriter}.
+     *
+     * @throws IOException if either file cannot be written.
+     */
+    private static void generateIndividualRepoReport(CommitContributionSummary commitSummary,
+            AuthorshipSummary authorshipSummary, String repoReportDirectory, ArchiveWriter archiveWriter)
+            throws IOException {
         CommitReportJson commitReportJson = new CommitReportJson(commitSummary, authorshipSummary);
-        FileUtil.writeJsonFile(commitReportJson, getIndividualCommitsPath(repoReportDirectory));
-        FileUtil.writeJsonFile(authorshipSummary.getFileResults(), getIndividualAuthorshipPath(repoReportDirectory));
+        FileUtil.writeJsonFile(commitReportJson, getIndividualCommitsPath(repoReportDirectory), archiveWriter);
+        FileUtil.writeJsonFile(authorshipSummary.getShards(), getAuthorshipManifestPath(repoReportDirectory),
+                archiveWriter);
     }
 
-    private static void generateEmptyRepoReport(String repoReportDirectory) {
+    /**
+     * Writes an empty commits JSON file and an authorship manifest without any shards into
+     * {@code repoReportDirectory} and adds them to {@code archiveWriter}.
+     *
+     * @throws IOException if the authorship directory or either file cannot be created.
+     */
+    private static void generateEmptyRepoReport(String repoReportDirectory, ArchiveWriter archiveWriter)
+            throws IOException {
         CommitReportJson emptyCommitReportJson = new CommitReportJson();
-        FileUtil.writeJsonFile(emptyCommitReportJson, getIndividualCommitsPath(repoReportDirectory));
-        FileUtil.writeJsonFile(Collections.emptyList(), getIndividualAuthorshipPath(repoReportDirectory));
+        FileUtil.writeJsonFile(emptyCommitReportJson, getIndividualCommitsPath(repoReportDirectory), archiveWriter);
+        createAuthorshipDirectory(repoReportDirectory);
+        FileUtil.writeJsonFile(Collections.emptyList(), getAuthorshipManifestPath(repoReportDirectory),
+                archiveWriter);
+    }
+
+    /**
+     * Creates the directory for the authorship shards of the repo at {@code repoReportDirectory}, deleting the shards
+     * of a previous run, so that no outdated shard is left behind.
+     *
+     * @throws IOException if the directory cannot be created.
+     */
+    private static void createAuthorshipDirectory(String repoReportDirectory) throws IOException {
+        String authorshipDirectory = getAuthorshipDirectory(repoReportDirectory);
+        FileUtil.deleteDirectory(authorshipDirectory);
+        FileUtil.createDirectory(Paths.get(authorshipDirectory));
     }
 
     private static String getSummaryResultPath(String targetFileLocation) {
         return targetFileLocation + "/summary.json";
     }
 
-    private static String getIndividualAuthorshipPath(String repoReportDirectory) {
-        return repoReportDirectory + "/authorship.json";
+    private static String getAuthorshipDirectory(String repoReportDirectory) {
+        return repoReportDirectory + "/authorship";
+    }
+
+    private static String getAuthorshipManifestPath(String repoReportDirectory) {
+        return getAuthorshipDirectory(repoReportDirectory) + "/manifest.json";
+    }
+
+    private static String getAuthorshipShardPath(String repoReportDirectory, AuthorshipShard shard) {
+        return getAuthorshipDirectory(repoReportDirectory) + "/" + shard.getFile();
     }
 
     private static String getIndividualCommitsPath(String repoReportDirectory) {
         return repoReportDirectory + "/commits.json";
     }
+
+    private static String getFingerprintPath(String repoReportDirectory) {
+        return repoReportDirectory + "/" + RepoFingerprint.FINGERPRINT_FILE_NAME;
+    }
+
+    /**
+     * Wraps a task of a repo to be run on the executor of the report, so that it is taken from the queue of the
+     * executor before the tasks of repos estimated to cost less, and after the tasks queued before it of repos
+     * estimated to cost as much.
+     */
+    private static class CostedTask implements Runnable, Comparable<CostedTask> {
+        private static final AtomicLong nextSequenceNumber = new AtomicLong();
+
+        private final Runnable task;
+        private final long cost;
+        private final long sequenceNumber;
+
+        CostedTask(Runnable task, long cost) {
+            this.task = task;
+            this.cost = cost;
+            this.sequenceNumber = nextSequenceNumber.getAndIncrement();
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public int compareTo(CostedTask other) {
+            return (cost != other.cost)
+                    ? Long.compare(other.cost, cost)
+                    : Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package reposense.report;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import reposense.model.RepoConfiguration;
+import reposense.system.CommandRunner;
+import reposense.system.LogsManager;
+
+/**
+ * Keeps a report up to date with its repos, by polling their branches and regenerating the report whenever any of
+ * them has changed.
+ *
+ * The branches are polled with {@code git ls-remote}, which works the same for repos on a local path and those on a
+ * remote. A regeneration only analyzes the repos whose branches changed again, as the reports of the others are
+ * reused by their fingerprints.
+ */
+public class ReportWatcher {
+    private static final Logger logger = LogsManager.getLogger(ReportWatcher.class);
+    private static final long POLL_INTERVAL_MILLIS = 5000;
+
+    private final Regeneration regeneration;
+    private final Consumer<List<String>> listener;
+
+    /**
+     * Creates a watcher which regenerates the report with {@code regeneration}, then passes the display names of the
+     * repos which changed to {@code listener}.
+     */
+    public ReportWatcher(Regeneration regeneration, Consumer<List<String>> listener) {
+        this.regeneration = regeneration;
+        this.listener = listener;
+    }
+
+    /**
+     * Polls the branches of the repos of {@code configs}, which the report was last generated from, every
+     * {@code POLL_INTERVAL_MILLIS}, and regenerates the report whenever any of them changes, until the thread is
+     * interrupted.
+     */
+    public void watch(List<RepoConfiguration> configs) {
+        Map<String, String> refs = listRefs(configs, new HashMap<>());
+        logger.info("Watching the repos for new commits...");
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            Map<String, String> previousRefs = refs;
+            Map<String, String> newRefs = listRefs(configs, previousRefs);
+            List<String> changedLocations = newRefs.keySet().stream()
+                    .filter(location -> !Objects.equals(newRefs.get(location), previousRefs.get(location)))
+                    .collect(Collectors.toList());
+            // a regeneration which fails is not retried until the repos change again
+            refs = newRefs;
+            if (changedLocations.isEmpty()) {
+                continue;
+            }
+
+            logger.info(String.join(", ", changedLocations) + " changed, regenerating the report...");
+            try {
+                configs = regeneration.regenerate();
+            } catch (IOException ioe) {
+                logger.log(Level.WARNING, "Unable to regenerate the report.", ioe);
+                continue;
+            }
+            listener.accept(configs.stream()
+                    .filter(config -> changedLocations.contains(config.getLocation()))
+                    .map(RepoConfiguration::getDisplayName)
+                    .distinct()
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Returns the branches of the repo at each location of {@code configs}, as given by
+     * {@code CommandRunner#listRemoteRefs}. Those of a repo which cannot be reached are taken from
+     * {@code previousRefs}, so that it is not taken as changed.
+     */
+    private static Map<String, String> listRefs(List<RepoConfiguration> configs, Map<String, String> previousRefs) {
+        Map<String, String> refs = new HashMap<>();
+        for (RepoConfiguration config : configs) {
+            String location = config.getLocation();
+            if (refs.containsKey(location)) {
+                continue;
+            }
+
+            try {
+                refs.put(location, CommandRunner.listRemoteRefs(location));
+            } catch (RuntimeException rte) {
+                logger.log(Level.WARNING, "Unable to list the branches of " + location + ".", rte);
+                refs.put(location, previousRefs.get(location));
+            }
+        }
+        return refs;
+    }
+
+    /**
+     * Generates the report again, and returns the configs of the repos it was generated from.
+     */
+    @FunctionalInterface
+    public interface Regeneration {
+        List<RepoConfiguration> regenerate() throws IOException;
+    }
+}
@@ -0,0 +1,437 @@
+package reposense.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import reposense.RepoSense;
+import reposense.metrics.MetricsRecorder;
+import reposense.model.RepoConfiguration;
+import reposense.model.Shard;
+import reposense.parser.CostHistoryJsonParser;
+import reposense.system.LogsManager;
+import reposense.util.ArchiveReader;
+import reposense.util.ArchiveWriter;
+import reposense.util.FileUtil;
+
+/**
+ * Merges the reports of the shards of a sharded run into one report.
+ *
+ * The report of each shard is written into {@code SHARDS_FOLDER} of the report folder, in a folder named by
+ * {@code Shard#getFolderName()}. The files of the repos of every shard, and those of its content store, are linked
+ * into the report folder, or copied where links are not supported, so that the reports of the shards stay in place to
+ * be reused by their next run. The summaries, archives, metrics and recorded costs of the shards are combined into
+ * one of each. The archives are combined without compressing their entries again.
+ *
+ * Each shard records the locations of the whole run and those assigned to it in {@code ASSIGNMENT_FILE}, so that the
+ * reports are only merged if every location was analyzed by exactly one shard, and no two repos have the same display
+ * name.
+ */
+public class ShardMerger {
+    public static final String SHARDS_FOLDER = "shards";
+
+    private static final Logger logger = LogsManager.getLogger(ShardMerger.class);
+    private static final String SUMMARY_FILE = "summary.json";
+    private static final String ASSIGNMENT_FILE = "assignment.json";
+    private static final Pattern SHARD_FOLDER_PATTERN = Pattern.compile("(\\d+)-of-(\\d+)");
+
+    /**
+     * Returns the path of the folder in the report folder at {@code reportPath} which the report of {@code shard} is
+     * written into.
+     */
+    public static Path getShardPath(Path reportPath, Shard shard) {
+        return reportPath.resolve(SHARDS_FOLDER).resolve(shard.getFolderName());
+    }
+
+    /**
+     * Records the locations of {@code configs}, which are the repos of the whole run, and those of
+     * {@code shardConfigs}, which are assigned to the shard whose report is written into {@code shardPath}.
+     *
+     * @throws IOException if the folder of the report of the shard cannot be created.
+     */
+    public static void recordAssignment(Path shardPath, List<RepoConfiguration> configs,
+            List<RepoConfiguration> shardConfigs) throws IOException {
+        Files.createDirectories(shardPath);
+        FileUtil.writeJsonFile(new ShardAssignment(getLocations(configs), getLocations(shardConfigs)),
+                shardPath.resolve(ASSIGNMENT_FILE).toString());
+    }
+
+    /**
+     * Deletes the reports of the shards at {@code reportPath} which are from a run with a different number of shards
+     * than {@code shard}, as they would otherwise be merged along with the reports of the current run.
+     *
+     * @throws IOException if the reports cannot be deleted.
+     */
+    public static void deleteStaleShards(Path reportPath, Shard shard) throws IOException {
+        for (Map.Entry<Shard, Path> entry : listShards(reportPath).entrySet()) {
+            if (entry.getKey().getCount() != shard.getCount()) {
+                logger.info("Deleting the report of shard " + entry.getKey() + " of an earlier run...");
+                FileUtil.deleteDirectory(entry.getValue().toString());
+            }
+        }
+    }
+
+    /**
+     * Merges the reports of the shards in the report folder at {@code reportPath} into the report folder, replacing
+     * the report merged there before, with the summary stating {@code generationDate} as the time it was generated.
+     *
+     * @throws IOException if the reports of the shards are missing, incomplete or from runs with different numbers
+     * of shards, if they analyzed a location more than once or not at all, or if the merged report cannot be written.
+     */
+    public static void merge(Path reportPath, String generationDate) throws IOException {
+        List<Path> shardPaths = getCompleteShards(reportPath);
+        checkAssignments(shardPaths);
+        clearReport(reportPath);
+        try (InputStream is = RepoSense.class.getResourceAsStream(ReportGenerator.TEMPLATE_FILE)) {
+            FileUtil.copyTemplate(is, reportPath.toString());
+        }
+
+        JsonArray repos = new JsonArray();
+        JsonObject metrics = new JsonObject();
+        Map<String, Long> costs = new TreeMap<>();
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(reportPath.resolve(FileUtil.ZIP_FILE), reportPath)) {
+            for (Path shardPath : shardPaths) {
+                JsonArray shardRepos = readJson(shardPath.resolve(SUMMARY_FILE)).getAsJsonArray("repos");
+                for (JsonElement repo : shardRepos) {
+                    linkFiles(shardPath, reportPath, repo.getAsJsonObject().get("displayName").getAsString());
+                }
+                linkFiles(shardPath, reportPath, ContentStore.CONTENT_STORE_FOLDER);
+
+                try (ArchiveReader archiveReader = new ArchiveReader(shardPath.resolve(FileUtil.ZIP_FILE))) {
+                    for (ArchiveReader.Entry entry : archiveReader.getEntries()) {
+                        if (!entry.getName().equals(SUMMARY_FILE)) {
+                            archiveWriter.copyEntry(archiveReader, entry);
+                        }
+                    }
+                }
+
+                repos.addAll(shardRepos);
+                Path metricsPath = shardPath.resolve(MetricsRecorder.METRICS_FILE_NAME);
+                if (Files.exists(metricsPath)) {
+                    addMetrics(metrics, readJson(metricsPath));
+                }
+                costs.putAll(readCosts(shardPath.resolve(CostEstimator.COST_HISTORY_FILE)));
+            }
+
+            JsonObject summary = new JsonObject();
+            summary.addProperty("dashboardGeneratedTime", generationDate);
+            summary.add("repos", repos);
+            FileUtil.writeJsonFile(summary, reportPath.resolve(SUMMARY_FILE).toString(), archiveWriter);
+        }
+        FileUtil.writeJsonFile(metrics, reportPath.resolve(MetricsRecorder.METRICS_FILE_NAME).toString());
+        FileUtil.writeJsonFile(costs, reportPath.resolve(CostEstimator.COST_HISTORY_FILE).toString());
+        logger.info(String.format("Merged the reports of %d shards at %s", shardPaths.size(), reportPath));
+    }
+
+    /**
+     * Returns the folders of the reports of the shards at {@code reportPath} by shard.
+     *
+     * @throws IOException if the folder of the shards cannot be listed.
+     */
+    private static Map<Shard, Path> listShards(Path reportPath) throws IOException {
+        Map<Shard, Path> shards = new TreeMap<>((first, second) -> (first.getCount() != second.getCount())
+                ? Integer.compare(first.getCount(), second.getCount())
+                : Integer.compare(first.getIndex(), second.getIndex()));
+        Path shardsPath = reportPath.resolve(SHARDS_FOLDER);
+        if (!Files.isDirectory(shardsPath)) {
+            return shards;
+        }
+
+        try (Stream<Path> paths = Files.list(shardsPath)) {
+            for (Path path : paths.collect(Collectors.toList())) {
+                Matcher matcher = SHARD_FOLDER_PATTERN.matcher(path.getFileName().toString());
+                if (!Files.isDirectory(path) || !matcher.matches()) {
+                    continue;
+                }
+                try {
+                    shards.put(new Shard(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))),
+                            path);
+                } catch (IllegalArgumentException iae) {
+                    logger.log(Level.WARNING, "Ignoring " + path + ", which is not the report of a shard.", iae);
+                }
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Returns the folders of the reports of the shards at {@code reportPath}, in the order of the shards.
+     *
+     * @throws IOException if the reports of some shards are missing or incomplete, or are from runs with different
+     * numbers of shards.
+     */
+    private static List<Path> getCompleteShards(Path reportPath) throws IOException {
+        Map<Shard, Path> shards = listShards(reportPath);
+        if (shards.isEmpty()) {
+            throw new IOException("There are no reports of shards to merge at " + reportPath.resolve(SHARDS_FOLDER)
+                    + ". Generate them with -shard INDEX/COUNT first.");
+        }
+
+        List<Integer> counts = shards.keySet().stream().map(Shard::getCount).distinct().collect(Collectors.toList());
+        if (counts.size() > 1) {
+            throw new IOException("There are reports of shards of runs with different numbers of shards, "
+                    + counts + ", at " + reportPath.resolve(SHARDS_FOLDER) + ".");
+        }
+
+        int count = counts.get(0);
+        List<Path> shardPaths = new ArrayList<>();
+        List<String> missingShards = new ArrayList<>();
+        for (int index = 1; index <= count; index++) {
+            Path shardPath = shards.get(new Shard(index, count));
+            if (shardPath == null || !Files.exists(shardPath.resolve(SUMMARY_FILE))
+                    || !Files.exists(shardPath.resolve(FileUtil.ZIP_FILE))
+                    || !Files.exists(shardPath.resolve(ASSIGNMENT_FILE))) {
+                missingShards.add(index + "/" + count);
+            } else {
+                shardPaths.add(shardPath);
+            }
+        }
+        if (!missingShards.isEmpty()) {
+            throw new IOException("The reports of shards " + String.join(", ", missingShards)
+                    + " are missing or incomplete. Run them to completion before merging.");
+        }
+        return shardPaths;
+    }
+
+    /**
+     * Checks that the reports of the shards at {@code shardPaths} were generated for the same repos, and that every
+     * location of those repos was analyzed by exactly one of them, as assigned, with no display name used twice.
+     *
+     * @throws IOException if they were not, or the assignments or summaries of the shards cannot be read.
+     */
+    private static void checkAssignments(List<Path> shardPaths) throws IOException {
+        Set<String> runLocations = null;
+        Map<String, Path> locationShards = new HashMap<>();
+        Map<String, Path> displayNameShards = new HashMap<>();
+        for (Path shardPath : shardPaths) {
+            JsonObject assignment = readJson(shardPath.resolve(ASSIGNMENT_FILE));
+            Set<String> shardRunLocations = readStrings(assignment, "locations");
+            if (runLocations == null) {
+                runLocations = shardRunLocations;
+            } else if (!runLocations.equals(shardRunLocations)) {
+                throw new IOException("The shard at " + shardPath + " was run with different repos from the shards "
+                        + "before it. Run every shard with the same repos before merging.");
+            }
+
+            Set<String> assignedLocations = readStrings(assignment, "assignedLocations");
+            for (String location : assignedLocations) {
+                Path previousShardPath = locationShards.put(location, shardPath);
+                if (previousShardPath != null) {
+                    throw new IOException(location + " was analyzed by both " + previousShardPath + " and "
+                            + shardPath + ".");
+                }
+            }
+
+            Set<String> reportedLocations = new TreeSet<>();
+            for (JsonElement repo : readJson(shardPath.resolve(SUMMARY_FILE)).getAsJsonArray("repos")) {
+                reportedLocations.add(repo.getAsJsonObject().get("location").getAsString());
+                String displayName = repo.getAsJsonObject().get("displayName").getAsString();
+                Path previousShardPath = displayNameShards.put(displayName, shardPath);
+                if (previousShardPath != null) {
+                    throw new IOException("The repo " + displayName + " is in the reports of both " + previousShardPath
+                            + " and " + shardPath + ".");
+                }
+            }
+            if (!reportedLocations.equals(assignedLocations)) {
+                throw new IOException("The report of the shard at " + shardPath + " is not of the repos assigned to "
+                        + "it. Run it to completion again before merging.");
+            }
+        }
+
+        Set<String> missingLocations = new TreeSet<>(runLocations);
+        missingLocations.removeAll(locationShards.keySet());
+        if (!missingLocations.isEmpty()) {
+            throw new IOException("The repos at " + String.join(", ", missingLocations) + " were not analyzed by "
+                    + "any shard.");
+        }
+    }
+
+    /**
+     * Returns the strings in the array {@code member} of {@code object}.
+     *
+     * @throws IOException if {@code member} is not an array of strings.
+     */
+    private static Set<String> readStrings(JsonObject object, String member) throws IOException {
+        Set<String> strings = new TreeSet<>();
+        try {
+            for (JsonElement element : object.getAsJsonArray(member)) {
+                strings.add(element.getAsString());
+            }
+        } catch (ClassCastException | IllegalStateException | NullPointerException e) {
+            throw new IOException(member + " is not a list of strings.", e);
+        }
+        return strings;
+    }
+
+    /**
+     * Returns the distinct locations of {@code configs}, in order.
+     */
+    private static List<String> getLocations(List<RepoConfiguration> configs) {
+        return configs.stream().map(RepoConfiguration::getLocation).distinct().sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * Deletes everything in the report folder at {@code reportPath} except for the reports of the shards.
+     *
+     * @throws IOException if the files cannot be deleted.
+     */
+    private static void clearReport(Path reportPath) throws IOException {
+        Files.createDirectories(reportPath);
+        try (Stream<Path> paths = Files.list(reportPath)) {
+            for (Path path : paths.collect(Collectors.toList())) {
+                if (path.getFileName().toString().equals(SHARDS_FOLDER)) {
+                    continue;
+                }
+                if (Files.isDirectory(path)) {
+                    FileUtil.deleteDirectory(path.toString());
+                } else {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Links each file in {@code folder} of the report of a shard at {@code shardPath} into the same place in the
+     * report folder at {@code reportPath}, unless it is already there, such as the contents in the content store
+     * which are shared with the shards merged before. The folders of repos which are no longer in the shard are left
+     * out, as {@code folder} is only that of a repo in its summary.
+     *
+     * @throws IOException if a file cannot be linked or copied.
+     */
+    private static void linkFiles(Path shardPath, Path reportPath, String folder) throws IOException {
+        Path folderPath = shardPath.resolve(folder);
+        if (!Files.isDirectory(folderPath)) {
+            return;
+        }
+
+        List<Path> filePaths;
+        try (Stream<Path> paths = Files.walk(folderPath)) {
+            filePaths = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path filePath : filePaths) {
+            Path targetPath = reportPath.resolve(shardPath.relativize(filePath));
+            if (Files.exists(targetPath)) {
+                continue;
+            }
+
+            Files.createDirectories(targetPath.getParent());
+            try {
+                Files.createLink(targetPath, filePath);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(filePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Reads the JSON object in the file at {@code path}.
+     *
+     * @throws IOException if the file cannot be read or does not hold a JSON object.
+     */
+    private static JsonObject readJson(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return new JsonParser().parse(reader).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException(path + " is not a valid JSON object.", e);
+        }
+    }
+
+    /**
+     * Returns the costs of the repos recorded by a shard at {@code costsPath}, or an empty map if there are none or
+     * they cannot be read, in which case the repos are estimated from their sizes by the next run.
+     */
+    private static Map<String, Long> readCosts(Path costsPath) {
+        if (!Files.exists(costsPath)) {
+            return Collections.emptyMap();
+        }
+
+        try {
+            Map<String, Long> costs = new CostHistoryJsonParser().parse(costsPath);
+            return (costs == null) ? Collections.emptyMap() : costs;
+        } catch (IOException | JsonParseException e) {
+            logger.log(Level.WARNING, "Unable to read the costs of the repos from " + costsPath + ".", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Adds the metrics of a shard, {@code shardMetrics}, into {@code metrics}. The repos of the shards are listed
+     * together, the run takes as long as the longest shard, and the resources used by each phase are summed.
+     */
+    private static void addMetrics(JsonObject metrics, JsonObject shardMetrics) {
+        for (Map.Entry<String, JsonElement> entry : shardMetrics.entrySet()) {
+            String key = entry.getKey();
+            JsonElement value = entry.getValue();
+            JsonElement total = metrics.get(key);
+            if (total == null) {
+                metrics.add(key, value.deepCopy());
+            } else if (key.equals("repos") && total.isJsonArray() && value.isJsonArray()) {
+                total.getAsJsonArray().addAll(value.getAsJsonArray());
+            } else if (key.equals("wallMillis") && isNumber(total) && isNumber(value)) {
+                metrics.addProperty(key, Math.max(total.getAsLong(), value.getAsLong()));
+            } else if (total.isJsonObject() && value.isJsonObject()) {
+                sumJson(total.getAsJsonObject(), value.getAsJsonObject());
+            }
+        }
+    }
+
+    /**
+     * Adds each number in {@code value} to the number at the same place in {@code total}, if any, and copies the
+     * members of {@code value} which are missing from {@code total} into it.
+     */
+    private static void sumJson(JsonObject total, JsonObject value) {
+        for (Map.Entry<String, JsonElement> entry : value.entrySet()) {
+            JsonElement totalMember = total.get(entry.getKey());
+            JsonElement valueMember = entry.getValue();
+            if (totalMember == null) {
+                total.add(entry.getKey(), valueMember.deepCopy());
+            } else if (totalMember.isJsonObject() && valueMember.isJsonObject()) {
+                sumJson(totalMember.getAsJsonObject(), valueMember.getAsJsonObject());
+            } else if (isNumber(totalMember) && isNumber(valueMember)) {
+                total.addProperty(entry.getKey(), totalMember.getAsLong() + valueMember.getAsLong());
+            }
+        }
+    }
+
+    private static boolean isNumber(JsonElement element) {
+        return element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber();
+    }
+
+    /**
+     * Represents the structure of the assignment of a shard in {@code ASSIGNMENT_FILE}.
+     */
+    private static class ShardAssignment {
+        private final List<String> locations;
+        private final List<String> assignedLocations;
+
+        ShardAssignment(List<String> locations, List<String> assignedLocations) {
+            this.locations = locations;
+            this.assignedLocations = assignedLocations;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package reposense.report;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import reposense.model.RepoConfiguration;
+import reposense.model.Shard;
+import reposense.system.LogsManager;
+
+/**
+ * Splits the repos of a sharded run across its shards, so that each of the independent processes running a shard
+ * analyzes a different part of the repos, and together they analyze every repo once.
+ *
+ * The branches of a repo are kept in the same shard, as they share its clone. The repos are assigned the costliest
+ * first, each to the shard with the least cost assigned so far, with the costs estimated by {@code CostEstimator}
+ * from the costs recorded in the last merged report alone. The sizes of local repos are not used, as they may differ
+ * between the machines running the shards. Every shard makes the same assignment, as long as they are given the same
+ * configs and the same last merged report.
+ */
+public class ShardScheduler {
+    private static final Logger logger = LogsManager.getLogger(ShardScheduler.class);
+
+    /**
+     * Returns the configs of {@code configs} which are assigned to {@code shard}, in the order given, weighing the
+     * repos by their recorded costs in {@code costEstimator}.
+     */
+    public static List<RepoConfiguration> selectShard(List<RepoConfiguration> configs, Shard shard,
+            CostEstimator costEstimator) {
+        Map<String, Integer> assignment =
+                assignShards(configs, shard.getCount(), costEstimator.estimateFromHistory(configs));
+        List<RepoConfiguration> shardConfigs = configs.stream()
+                .filter(config -> assignment.get(config.getLocation()) == shard.getIndex())
+                .collect(Collectors.toList());
+        logger.info(String.format("Shard %s is assigned %d of %d branches to analyze.",
+                shard, shardConfigs.size(), configs.size()));
+        return shardConfigs;
+    }
+
+    /**
+     * Assigns the location of each of {@code configs} to one of {@code shardCount} shards, numbered from 1, weighing
+     * each location by its cost in {@code costs}, or by {@code CostEstimator#DEFAULT_COST} if it is not there.
+     */
+    static Map<String, Integer> assignShards(List<RepoConfiguration> configs, int shardCount,
+            Map<String, Long> costs) {
+        Map<String, Long> locationCosts = new LinkedHashMap<>();
+        configs.forEach(config -> locationCosts.put(config.getLocation(),
+                costs.getOrDefault(config.getLocation(), CostEstimator.DEFAULT_COST)));
+
+        // the costliest first, with ties broken by location so that the order does not depend on the config order
+        List<String> locations = new ArrayList<>(locationCosts.keySet());
+        locations.sort(Comparator.comparing((String location) -> locationCosts.get(location))
+                .reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        long[] shardCosts = new long[shardCount];
+        Map<String, Integer> assignment = new HashMap<>();
+        for (String location : locations) {
+            int cheapestShard = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (shardCosts[i] < shardCosts[cheapestShard]) {
+                    cheapestShard = i;
+                }
+            }
+            shardCosts[cheapestShard] += locationCosts.get(location);
+            assignment.put(location, cheapestShard + 1);
+        }
+        return assignment;
+    }
+}
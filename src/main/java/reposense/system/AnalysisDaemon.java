@@ -0,0 +1,298 @@
+package reposense.system;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.logging.StreamHandler;
+
+import reposense.parser.ArgsParser;
+
+/**
+ * Keeps RepoSense running, so that analyses submitted to it by {@code DaemonClient} do not pay for starting the JVM,
+ * loading the classes of the analysis and warming up the JIT compiler again.
+ *
+ * The daemon listens on a port of the loopback interface. Each job sent to it, as described in {@code DaemonClient},
+ * is run one at a time, in the order in which they were received, with the paths in its arguments resolved against
+ * the working directory of its client. The log of the job is streamed back to the client as it runs, followed by
+ * whether it succeeded. Jobs which do not carry the {@code DaemonToken} of the daemon are turned away, as are those
+ * which are malformed, and those sent while {@code MAX_CONNECTION_COUNT} jobs are already waiting or running.
+ */
+public class AnalysisDaemon {
+    static final int MAX_CONNECTION_COUNT = 8;
+
+    private static final Logger logger = LogsManager.getLogger(AnalysisDaemon.class);
+    private static final int BACKLOG = 50;
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+    private static final int MAX_ARGUMENT_COUNT = 1024;
+    private static final int JOB_READ_TIMEOUT_MILLIS = 30000;
+    private static final long MAX_SKIPPED_BYTES = 1 << 20;
+    private static final int SKIP_BUFFER_SIZE = 8192;
+    private static final String MESSAGE_WAITING = "Waiting for the analyses submitted earlier to finish...\n";
+    private static final String MESSAGE_TOKEN_MISMATCH = "The job was turned away, as it does not carry the token of "
+            + "the daemon.\n";
+    private static final String MESSAGE_BUSY = "The job was turned away, as the daemon already has "
+            + MAX_CONNECTION_COUNT + " jobs waiting or running. Submit it again later.\n";
+
+    private final ServerSocket serverSocket;
+    private final Path tokenDirectory;
+    private final String token;
+    private final Predicate<String[]> job;
+    private final ReentrantLock jobLock = new ReentrantLock(true);
+    private final ThreadPoolExecutor jobExecutor = new ThreadPoolExecutor(MAX_CONNECTION_COUNT, MAX_CONNECTION_COUNT,
+            IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<>(),
+            AnalysisDaemon::createJobThread);
+
+    /**
+     * Creates a daemon listening on {@code port} of the loopback interface, or on any free port if it is 0, which
+     * runs {@code job} with the arguments of each job sent to it, which returns true if the job succeeded. The token
+     * which the jobs must carry is written into {@code tokenDirectory}.
+     *
+     * @throws IOException if the port cannot be listened on, or the token cannot be written.
+     */
+    public AnalysisDaemon(int port, Path tokenDirectory, Predicate<String[]> job) throws IOException {
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        try {
+            this.token = DaemonToken.create(tokenDirectory, serverSocket.getLocalPort());
+        } catch (IOException ioe) {
+            serverSocket.close();
+            throw ioe;
+        }
+        this.tokenDirectory = tokenDirectory;
+        this.job = job;
+        jobExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts accepting jobs on a thread of its own, which keeps the program running until the daemon is stopped.
+     */
+    public void start() {
+        Thread acceptThread = new Thread(this::acceptJobs, "reposense-daemon");
+        acceptThread.start();
+        logger.info(String.format("The daemon is listening on port %d. Submit analyses to it with -connect %d.",
+                getPort(), getPort()));
+    }
+
+    /**
+     * Stops accepting jobs, and deletes the token of the daemon. Jobs which were already accepted are still run.
+     *
+     * @throws IOException if the port cannot be closed or the token cannot be deleted.
+     */
+    public void stop() throws IOException {
+        int port = getPort();
+        serverSocket.close();
+        jobExecutor.shutdown();
+        DaemonToken.delete(tokenDirectory, port);
+    }
+
+    /**
+     * Accepts jobs until the daemon is stopped, serving each on a thread of its own while it waits for its turn, up to
+     * {@code MAX_CONNECTION_COUNT} of them at a time. The jobs sent while that many are being served are turned away.
+     */
+    private void acceptJobs() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                try {
+                    jobExecutor.execute(() -> serveJob(socket));
+                } catch (RejectedExecutionException ree) {
+                    logger.warning("Turned away a job, as too many jobs are waiting or running.");
+                    turnAway(socket, MESSAGE_BUSY);
+                }
+            } catch (IOException ioe) {
+                if (!serverSocket.isClosed()) {
+                    logger.log(Level.WARNING, "Error accepting a job.", ioe);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a thread of its own to serve a job with {@code task}.
+     */
+    private static Thread createJobThread(Runnable task) {
+        return new Thread(task, "reposense-daemon-job");
+    }
+
+    /**
+     * Sends {@code message} to the client of {@code socket}, as the log of a job which failed, without reading the
+     * job, and closes {@code socket}.
+     *
+     * @throws IOException if the message cannot be sent.
+     */
+    private static void turnAway(Socket socket, String message) throws IOException {
+        try (Socket jobSocket = socket) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(jobSocket.getOutputStream()));
+            sendLog(out, message);
+            out.writeInt(DaemonClient.END_OF_LOG);
+            out.writeBoolean(false);
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads a job from {@code socket}, then runs it once the jobs received before it are done, with its log streamed
+     * back to {@code socket}, followed by whether it succeeded. The job is turned away if it does not carry the token
+     * of the daemon.
+     */
+    private void serveJob(Socket socket) {
+        try (Socket jobSocket = socket) {
+            // a client which stops sending midway through its job should not hold on to a thread forever
+            jobSocket.setSoTimeout(JOB_READ_TIMEOUT_MILLIS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(jobSocket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(jobSocket.getOutputStream()));
+            if (!DaemonToken.matches(token, in.readUTF())) {
+                logger.warning("Turned away a job which does not carry the token of the daemon.");
+                sendLog(out, MESSAGE_TOKEN_MISMATCH);
+                out.writeInt(DaemonClient.END_OF_LOG);
+                out.writeBoolean(false);
+                out.flush();
+                jobSocket.shutdownOutput();
+                // the rest of the job is read, as closing a socket with unread input resets it before the client
+                // reads the message
+                byte[] buffer = new byte[SKIP_BUFFER_SIZE];
+                for (long skipped = 0; skipped < MAX_SKIPPED_BYTES; ) {
+                    int length = in.read(buffer);
+                    if (length == -1) {
+                        break;
+                    }
+                    skipped += length;
+                }
+                return;
+            }
+
+            Path workingDirectory = Paths.get(in.readUTF());
+            int argCount = in.readInt();
+            if (argCount < 0 || argCount > MAX_ARGUMENT_COUNT) {
+                throw new IOException("The job has " + argCount + " arguments, which is not between 0 and "
+                        + MAX_ARGUMENT_COUNT + ".");
+            }
+            String[] args = new String[argCount];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = in.readUTF();
+            }
+            jobSocket.setSoTimeout(0);
+
+            if (!jobLock.tryLock()) {
+                sendLog(out, MESSAGE_WAITING);
+                out.flush();
+                jobLock.lock();
+            }
+            boolean isSuccessful;
+            try {
+                isSuccessful = runJob(args, workingDirectory, out);
+            } finally {
+                jobLock.unlock();
+            }
+            out.writeInt(DaemonClient.END_OF_LOG);
+            out.writeBoolean(isSuccessful);
+            out.flush();
+        } catch (IOException | InvalidPathException e) {
+            logger.log(Level.WARNING, "Error reading a job.", e);
+        }
+    }
+
+    /**
+     * Runs the job of {@code args}, submitted from {@code workingDirectory}, with its log sent to {@code out}.
+     * Returns true if the job succeeded.
+     *
+     * @throws IOException if the log cannot be sent.
+     */
+    private boolean runJob(String[] args, Path workingDirectory, DataOutputStream out) throws IOException {
+        ClientLogHandler handler = new ClientLogHandler(out);
+        LogsManager.addHandler(handler);
+        try {
+            logger.info("Running the analysis submitted from " + workingDirectory + " with the arguments "
+                    + Arrays.toString(args));
+            return job.test(ArgsParser.resolvePaths(args, workingDirectory));
+        } catch (RuntimeException rte) {
+            logger.log(Level.SEVERE, "The analysis failed.", rte);
+            return false;
+        } finally {
+            LogsManager.removeHandler(handler);
+            handler.flush();
+        }
+    }
+
+    /**
+     * Sends {@code message} to a client through {@code out}, as part of the log of its job.
+     *
+     * @throws IOException if the message cannot be sent.
+     */
+    private static void sendLog(DataOutputStream out, String message) throws IOException {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Sends the log of a job to its client as soon as each record is logged.
+     */
+    private static class ClientLogHandler extends StreamHandler {
+        ClientLogHandler(DataOutputStream out) throws UnsupportedEncodingException {
+            super(new LogOutputStream(out), new CustomLogFormatter());
+            setEncoding(StandardCharsets.UTF_8.name());
+        }
+
+        @Override
+        public synchronized void publish(LogRecord record) {
+            super.publish(record);
+            flush();
+        }
+    }
+
+    /**
+     * Sends what is written into it to a client as part of the log of its job, in the parts described in
+     * {@code DaemonClient}.
+     */
+    private static class LogOutputStream extends OutputStream {
+        private final DataOutputStream out;
+
+        LogOutputStream(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return;
+            }
+            out.writeInt(length);
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
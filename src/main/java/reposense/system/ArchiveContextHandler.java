@@ -0,0 +1,223 @@
+package reposense.system;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import net.freeutils.httpserver.HTTPServer;
+import reposense.util.ArchiveReader;
+
+/**
+ * Serves the files stored in zip archives, such as a report archive, {@code archive.zip}, without extracting them.
+ *
+ * A request is served from the first of the archives which has the requested file. A deflated file is sent as it is
+ * stored in the archive, wrapped in the gzip format, to clients which accept gzip, and a stored file is sent as it is.
+ * Otherwise, the file is inflated, and the files inflated most recently are kept in memory, up to a total size, for
+ * the requests which follow. The central directory of an archive is read again whenever the archive is replaced,
+ * and the reader of the replaced archive is closed once the requests which are being served from it are done, so
+ * that they keep reading the archive they started with.
+ */
+public class ArchiveContextHandler implements HTTPServer.ContextHandler {
+    private static final String INDEX_FILE = "index.html";
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int GZIP_TRAILER_SIZE = 8;
+    private static final int BUFFER_SIZE = 1 << 16; // 64KB
+
+    private final List<ArchiveReader> archives = new ArrayList<>();
+    private final Map<ArchiveReader, Integer> archiveUsages = new HashMap<>();
+    private final long cacheCapacity;
+    private final Map<String, byte[]> inflatedFiles = new LinkedHashMap<>(16, 0.75f, true);
+    private long inflatedBytes = 0;
+
+    /**
+     * Creates a handler which serves the files of the archives at {@code archivePaths}, in the order of precedence,
+     * and keeps at most {@code cacheCapacity} bytes of inflated files in memory.
+     *
+     * @throws IOException if any of the archives cannot be read.
+     */
+    public ArchiveContextHandler(List<Path> archivePaths, long cacheCapacity) throws IOException {
+        for (Path archivePath : archivePaths) {
+            archives.add(new ArchiveReader(archivePath));
+        }
+        this.cacheCapacity = cacheCapacity;
+    }
+
+    @Override
+    public int serve(HTTPServer.Request req, HTTPServer.Response resp) throws IOException {
+        String name = req.getPath().substring(req.getContext().getPath().length());
+        name = name.startsWith("/") ? name.substring(1) : name;
+        if (name.isEmpty() || name.endsWith("/")) {
+            name += INDEX_FILE;
+        }
+
+        for (int i = 0; i < archives.size(); i++) {
+            ArchiveReader archive = acquireArchive(i);
+            try {
+                Optional<ArchiveReader.Entry> entry = archive.getEntry(name);
+                if (entry.isPresent()) {
+                    serveEntry(archive, entry.get(), req, resp);
+                    return 0;
+                }
+            } finally {
+                releaseArchive(archive);
+            }
+        }
+        return 404;
+    }
+
+    /**
+     * Returns the reader of the {@code index}-th archive, reading its central directory again if it has been replaced,
+     * and marks it as in use until it is released by {@link #releaseArchive}.
+     */
+    private synchronized ArchiveReader acquireArchive(int index) throws IOException {
+        ArchiveReader archive = archives.get(index);
+        if (archive.isOutdated()) {
+            ArchiveReader replacedArchive = archive;
+            archive = new ArchiveReader(archive.getArchivePath());
+            archives.set(index, archive);
+            if (!archiveUsages.containsKey(replacedArchive)) {
+                replacedArchive.close();
+            }
+        }
+        archiveUsages.merge(archive, 1, Integer::sum);
+        return archive;
+    }
+
+    /**
+     * Marks {@code archive} as no longer in use by a request, closing it if it has been replaced and is not in use by
+     * any other request.
+     */
+    private synchronized void releaseArchive(ArchiveReader archive) throws IOException {
+        if (archiveUsages.merge(archive, -1, Integer::sum) == 0) {
+            archiveUsages.remove(archive);
+            if (!archives.contains(archive)) {
+                archive.close();
+            }
+        }
+    }
+
+    /**
+     * Responds to {@code req} with the content of {@code entry} of {@code archive}.
+     * The entity tag is derived from the last modified time of the archive and the checksum of the entry.
+     */
+    private void serveEntry(ArchiveReader archive, ArchiveReader.Entry entry, HTTPServer.Request req,
+            HTTPServer.Response resp) throws IOException {
+        String validator = String.format("%x-%x", archive.getLastModified(), entry.getCrc());
+        long lastModified = archive.getLastModified();
+
+        String encoding = null;
+        long length = entry.getSize();
+        ContentSender.ContentWriter contentWriter;
+        if (!entry.isCompressed()) {
+            contentWriter = (start, count, out) -> archive.transferData(entry, start, count, Channels.newChannel(out));
+        } else if (!req.getHeaders().contains("Range") && ContentSender.isGzipAccepted(req)) {
+            encoding = ContentSender.GZIP_ENCODING;
+            length = GZIP_HEADER.length + entry.getCompressedSize() + GZIP_TRAILER_SIZE;
+            contentWriter = (start, count, out) -> writeAsGzip(archive, entry, out);
+        } else {
+            byte[] content = getInflatedContent(archive, entry);
+            contentWriter = (content != null)
+                    ? (start, count, out) -> out.write(content, (int) start, (int) count)
+                    : (start, count, out) -> writeInflated(archive, entry, start, count, out);
+        }
+        ContentSender.send(req, resp, entry.getName(), length, lastModified,
+                ContentSender.createEtag(validator, encoding), encoding, contentWriter);
+    }
+
+    /**
+     * Writes the deflated data of {@code entry} of {@code archive} into {@code out} in the gzip format.
+     */
+    private static void writeAsGzip(ArchiveReader archive, ArchiveReader.Entry entry, OutputStream out)
+            throws IOException {
+        out.write(GZIP_HEADER);
+        archive.transferData(entry, 0, entry.getCompressedSize(), Channels.newChannel(out));
+        ByteBuffer trailer = ByteBuffer.allocate(GZIP_TRAILER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        trailer.putInt((int) entry.getCrc());
+        trailer.putInt((int) entry.getSize());
+        out.write(trailer.array());
+    }
+
+    /**
+     * Returns the inflated content of {@code entry} of {@code archive}, inflating it if it is not kept in memory.
+     * Returns null if the content is too large to be kept in memory.
+     *
+     * @throws IOException if the entry cannot be read.
+     */
+    private byte[] getInflatedContent(ArchiveReader archive, ArchiveReader.Entry entry) throws IOException {
+        if (entry.getSize() > cacheCapacity / 4) {
+            return null;
+        }
+
+        String key = archive.getArchivePath() + "@" + archive.getLastModified() + "!" + entry.getName();
+        synchronized (inflatedFiles) {
+            byte[] content = inflatedFiles.get(key);
+            if (content != null) {
+                return content;
+            }
+        }
+
+        byte[] content = new byte[(int) entry.getSize()];
+        try (InputStream is = archive.getInputStream(entry)) {
+            int length = 0;
+            int count;
+            while (length < content.length && (count = is.read(content, length, content.length - length)) > 0) {
+                length += count;
+            }
+            if (length < content.length) {
+                throw new IOException(entry.getName() + " in " + archive.getArchivePath() + " is truncated.");
+            }
+        }
+
+        synchronized (inflatedFiles) {
+            if (inflatedFiles.put(key, content) == null) {
+                inflatedBytes += content.length;
+            }
+            Iterator<byte[]> iterator = inflatedFiles.values().iterator();
+            while (inflatedBytes > cacheCapacity && iterator.hasNext()) {
+                inflatedBytes -= iterator.next().length;
+                iterator.remove();
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Inflates {@code entry} of {@code archive}, and writes {@code count} bytes of the content starting from
+     * {@code start} into {@code out}.
+     */
+    private static void writeInflated(ArchiveReader archive, ArchiveReader.Entry entry, long start, long count,
+            OutputStream out) throws IOException {
+        try (InputStream is = archive.getInputStream(entry)) {
+            long skipped = 0;
+            while (skipped < start) {
+                long skippedCount = is.skip(start - skipped);
+                if (skippedCount <= 0) {
+                    throw new IOException(entry.getName() + " in " + archive.getArchivePath() + " is truncated.");
+                }
+                skipped += skippedCount;
+            }
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = count;
+            while (remaining > 0) {
+                int length = is.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (length < 0) {
+                    throw new IOException(entry.getName() + " in " + archive.getArchivePath() + " is truncated.");
+                }
+                out.write(buffer, 0, length);
+                remaining -= length;
+            }
+        }
+    }
+}
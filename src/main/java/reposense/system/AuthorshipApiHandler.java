@@ -0,0 +1,236 @@
+package reposense.system;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import net.freeutils.httpserver.HTTPServer;
+import reposense.report.ContentStore;
+import reposense.util.FileUtil;
+
+/**
+ * Answers queries for the authorship of one author in a repo of a report directory, so that the dashboard does not
+ * have to download the authorship shards of the repo and filter them itself.
+ *
+ * A query, {@code ?repo=REPO&author=GIT_ID[&path=PATH][&offset=OFFSET][&limit=LIMIT]}, is answered with the files
+ * which the author contributed to, those with the most lines first, from {@code offset} and at most {@code limit} of
+ * them, or only the file at {@code path} if it is given. Each file is split into segments of lines which were, or
+ * were not, written by the author. The totals of the author over all of the files are sent along with every page.
+ */
+public class AuthorshipApiHandler implements HTTPServer.ContextHandler {
+    public static final String CONTEXT_PATH = "/api/authorship";
+
+    private static final String AUTHORSHIP_MANIFEST_FILE = "authorship/manifest.json";
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+    private static final Pattern BLOB_PATTERN = Pattern.compile("[0-9a-f]{40}");
+
+    private final Path base;
+    private final Map<Path, AuthorshipIndex> indexes = new HashMap<>();
+    private final Gson gson = new Gson();
+
+    public AuthorshipApiHandler(File base) throws IOException {
+        this.base = base.getCanonicalFile().toPath();
+    }
+
+    @Override
+    public int serve(HTTPServer.Request req, HTTPServer.Response resp) throws IOException {
+        Map<String, String> params = req.getParams();
+        String repo = params.get("repo");
+        String author = params.get("author");
+        String path = params.get("path");
+        int offset;
+        int limit;
+        try {
+            offset = Integer.parseInt(params.getOrDefault("offset", "0"));
+            limit = Integer.parseInt(params.getOrDefault("limit", Integer.toString(DEFAULT_LIMIT)));
+        } catch (NumberFormatException nfe) {
+            resp.sendError(400, "offset and limit must be integers.");
+            return 0;
+        }
+        if (repo == null || author == null || offset < 0 || limit <= 0 || limit > MAX_LIMIT) {
+            resp.sendError(400, String.format(
+                    "repo and author must be given, with 0 <= offset, and 0 < limit <= %d.", MAX_LIMIT));
+            return 0;
+        }
+
+        Path manifestPath = base.resolve(repo).resolve(AUTHORSHIP_MANIFEST_FILE).normalize();
+        if (!manifestPath.startsWith(base) || !Files.isRegularFile(manifestPath)) {
+            return 404;
+        }
+
+        AuthorshipIndex index = getIndex(manifestPath);
+        List<AuthorshipIndex.IndexedFile> authorFiles = index.getFilesOf(author);
+        List<AuthorshipIndex.IndexedFile> requestedFiles = (path != null)
+                ? authorFiles.stream().filter(file -> file.getPath().equals(path)).collect(Collectors.toList())
+                : authorFiles.subList(Math.min(offset, authorFiles.size()),
+                        (int) Math.min((long) offset + limit, authorFiles.size()));
+
+        AuthorshipPage page = new AuthorshipPage(author, authorFiles, offset);
+        for (AuthorshipIndex.IndexedFile file : requestedFiles) {
+            page.files.add(new AuthorFile(file.getPath(), file.getLineCount(author),
+                    splitSegments(index.readFile(file), author)));
+        }
+        sendJson(resp, page);
+        return 0;
+    }
+
+    /**
+     * Returns the index of the report whose authorship manifest is at {@code manifestPath}, building it again if the
+     * report has changed since it was indexed.
+     *
+     * @throws IOException if the report cannot be indexed.
+     */
+    private synchronized AuthorshipIndex getIndex(Path manifestPath) throws IOException {
+        AuthorshipIndex index = indexes.get(manifestPath);
+        if (index == null || index.isOutdated()) {
+            index = new AuthorshipIndex(manifestPath);
+            indexes.put(manifestPath, index);
+        }
+        return index;
+    }
+
+    /**
+     * Splits the lines of {@code file} into segments of consecutive lines which were, or were not, written by
+     * {@code author}, like the dashboard does. The contents of the file are read from the content store of the report
+     * if the file refers to them instead of holding them.
+     *
+     * @throws IOException if the contents of the file cannot be read from the content store.
+     */
+    private List<Segment> splitSegments(JsonObject file, String author) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        if (file.has("blob")) {
+            JsonArray contents = readBlob(file.get("blob").getAsString());
+            int lineIndex = 0;
+            for (JsonElement rangeElement : file.getAsJsonArray("authorRanges")) {
+                JsonObject range = rangeElement.getAsJsonObject();
+                boolean isAuthored = range.has("gitId") && author.equals(range.get("gitId").getAsString());
+                for (int i = 0; i < range.get("lineCount").getAsInt() && lineIndex < contents.size(); i++) {
+                    addLine(segments, isAuthored, contents.get(lineIndex++).getAsString());
+                }
+            }
+            return segments;
+        }
+
+        for (JsonElement lineElement : file.getAsJsonArray("lines")) {
+            JsonObject line = lineElement.getAsJsonObject();
+            JsonObject lineAuthor = line.getAsJsonObject("author");
+            boolean isAuthored = lineAuthor != null && lineAuthor.has("gitId")
+                    && author.equals(lineAuthor.get("gitId").getAsString());
+            addLine(segments, isAuthored, line.has("content") ? line.get("content").getAsString() : "");
+        }
+        return segments;
+    }
+
+    /**
+     * Adds a line with {@code content} to the last of {@code segments}, or to a new segment if the line is not
+     * {@code isAuthored} like the last segment.
+     */
+    private static void addLine(List<Segment> segments, boolean isAuthored, String content) {
+        Segment lastSegment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (lastSegment == null || lastSegment.authored != isAuthored) {
+            lastSegment = new Segment(isAuthored);
+            segments.add(lastSegment);
+        }
+        lastSegment.lines.add(content.isEmpty() ? " " : content);
+    }
+
+    /**
+     * Returns the lines of the file whose git blob SHA is {@code blob} from the content store of the report.
+     *
+     * @throws IOException if the contents are not in the content store, or cannot be read.
+     */
+    private JsonArray readBlob(String blob) throws IOException {
+        if (!BLOB_PATTERN.matcher(blob).matches()) {
+            throw new IOException(blob + " is not a git blob SHA.");
+        }
+        Path blobPath = base.resolve(ContentStore.CONTENT_STORE_FOLDER).resolve(blob.substring(0, 2))
+                .resolve(blob.substring(2) + ".json");
+        try (Reader reader = new InputStreamReader(Files.newInputStream(blobPath), FileUtil.JSON_CHARSET)) {
+            return new JsonParser().parse(reader).getAsJsonArray();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException(blobPath + " is not a list of lines.", e);
+        }
+    }
+
+    /**
+     * Responds with {@code object} as JSON.
+     */
+    private void sendJson(HTTPServer.Response resp, Object object) throws IOException {
+        resp.getHeaders().add("Cache-Control", "no-cache");
+        resp.sendHeaders(200, -1, -1, null, "application/json; charset=utf-8", null);
+        try (OutputStream out = resp.getBody()) {
+            out.write(gson.toJson(object).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Holds a page of the files of an author, to be serialized into JSON.
+     */
+    private static class AuthorshipPage {
+        private final String author;
+        private final int totalFileCount;
+        private final int totalLineCount;
+        private final Map<String, Integer> fileTypeLineCounts = new TreeMap<>();
+        private final int offset;
+        private final List<AuthorFile> files = new ArrayList<>();
+
+        AuthorshipPage(String author, List<AuthorshipIndex.IndexedFile> authorFiles, int offset) {
+            this.author = author;
+            this.totalFileCount = authorFiles.size();
+            this.totalLineCount = authorFiles.stream().mapToInt(file -> file.getLineCount(author)).sum();
+            this.offset = offset;
+            for (AuthorshipIndex.IndexedFile file : authorFiles) {
+                String fileType = file.getPath().substring(file.getPath().lastIndexOf('.') + 1);
+                fileTypeLineCounts.merge(fileType.isEmpty() ? "others" : fileType, file.getLineCount(author),
+                        Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Holds a file which an author contributed to, to be serialized into JSON.
+     */
+    private static class AuthorFile {
+        private final String path;
+        private final int lineCount;
+        private final List<Segment> segments;
+
+        AuthorFile(String path, int lineCount, List<Segment> segments) {
+            this.path = path;
+            this.lineCount = lineCount;
+            this.segments = segments;
+        }
+    }
+
+    /**
+     * Holds consecutive lines of a file which were, or were not, written by an author.
+     */
+    private static class Segment {
+        private final boolean authored;
+        private final List<String> lines = new ArrayList<>();
+
+        Segment(boolean authored) {
+            this.authored = authored;
+        }
+    }
+}
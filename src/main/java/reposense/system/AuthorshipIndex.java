@@ -0,0 +1,266 @@
+package reposense.system;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import reposense.authorship.model.AuthorshipShard;
+import reposense.parser.AuthorshipManifestJsonParser;
+import reposense.util.FileUtil;
+
+/**
+ * Indexes the files listed in the authorship shards of a repo, so that the files of one author can be read from them
+ * without reading the rest of them.
+ *
+ * The authorship manifest of the repo is read when the index is built, and a shard is only scanned the first time the
+ * files of an author who contributed to it are asked for. The index holds only the position of each file in its shard
+ * along with the number of lines contributed by each author, so that it stays small however large the report is.
+ */
+class AuthorshipIndex {
+    private static final int BUFFER_SIZE = 1 << 16; // 64KB
+
+    private final Path manifestPath;
+    private final long lastModified;
+    private final long size;
+    private final List<AuthorshipShard> shards;
+    private final Map<String, List<IndexedFile>> shardFiles = new HashMap<>();
+
+    /**
+     * Builds the index of the authorship shards listed in the manifest at {@code manifestPath}.
+     *
+     * @throws IOException if the manifest cannot be read, or is malformed.
+     */
+    AuthorshipIndex(Path manifestPath) throws IOException {
+        this.manifestPath = manifestPath;
+        this.lastModified = Files.getLastModifiedTime(manifestPath).toMillis();
+        this.size = Files.size(manifestPath);
+        List<AuthorshipShard> manifest;
+        try {
+            manifest = new AuthorshipManifestJsonParser().parse(manifestPath);
+        } catch (JsonParseException jpe) {
+            throw new IOException(manifestPath + " is malformed.", jpe);
+        }
+        this.shards = (manifest == null) ? Collections.emptyList() : manifest;
+    }
+
+    /**
+     * Returns true if the report has been replaced or modified since it was indexed.
+     * The manifest is written after all of the shards of a report, so it is the only file which has to be checked.
+     *
+     * @throws IOException if the report cannot be read anymore.
+     */
+    boolean isOutdated() throws IOException {
+        return Files.getLastModifiedTime(manifestPath).toMillis() != lastModified
+                || Files.size(manifestPath) != size;
+    }
+
+    /**
+     * Returns the files which {@code author} contributed lines to, those with the most lines first.
+     * Only the shards which {@code author} contributed lines to are scanned.
+     *
+     * @throws IOException if a shard cannot be read, or is not a list of files.
+     */
+    List<IndexedFile> getFilesOf(String author) throws IOException {
+        List<IndexedFile> files = new ArrayList<>();
+        for (AuthorshipShard shard : shards) {
+            if (shard.getLineCount(author) > 0) {
+                files.addAll(getShardFiles(shard));
+            }
+        }
+        return files.stream()
+                .filter(file -> file.getLineCount(author) > 0)
+                .sorted(Comparator.comparing((IndexedFile file) -> file.getLineCount(author)).reversed()
+                        .thenComparing(IndexedFile::getPath))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reads the entry of {@code file} from its shard.
+     *
+     * @throws IOException if the entry cannot be read, or the shard has changed since it was indexed.
+     */
+    JsonObject readFile(IndexedFile file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(file.length);
+        try (FileChannel channel = FileChannel.open(file.shardPath, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, file.offset + buffer.position()) < 0) {
+                    throw new IOException(file.shardPath + " was truncated after it was indexed.");
+                }
+            }
+        }
+        try {
+            return new JsonParser().parse(new String(buffer.array(), FileUtil.JSON_CHARSET)).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException(file.shardPath + " has changed after it was indexed.", e);
+        }
+    }
+
+    /**
+     * Returns the files listed in {@code shard}, scanning it if it has not been scanned yet.
+     *
+     * @throws IOException if the shard cannot be read, is not a list of files, or lies outside of the directory of
+     *     the manifest.
+     */
+    private synchronized List<IndexedFile> getShardFiles(AuthorshipShard shard) throws IOException {
+        List<IndexedFile> files = shardFiles.get(shard.getFile());
+        if (files == null) {
+            Path shardPath = manifestPath.resolveSibling(shard.getFile()).normalize();
+            if (!shardPath.getParent().equals(manifestPath.getParent())) {
+                throw new IOException(manifestPath + " lists a shard outside of its directory.");
+            }
+            try (InputStream is = Files.newInputStream(shardPath)) {
+                files = Collections.unmodifiableList(scanFiles(shardPath, is));
+            }
+            shardFiles.put(shard.getFile(), files);
+        }
+        return files;
+    }
+
+    /**
+     * Scans the list of files in the shard at {@code shardPath} read from {@code is}, keeping only one file in memory
+     * at a time. The shard is written with the default charset, in which the JSON delimiters are single bytes, like
+     * in {@code FileUtil}.
+     *
+     * @throws IOException if the shard cannot be read, or is not a list of files.
+     */
+    private static List<IndexedFile> scanFiles(Path shardPath, InputStream is) throws IOException {
+        List<IndexedFile> indexedFiles = new ArrayList<>();
+        ByteArrayOutputStream element = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long position = 0;
+        long elementOffset = -1;
+        int depth = 0;
+        boolean isInString = false;
+        boolean isEscaped = false;
+
+        int count;
+        while ((count = is.read(buffer)) != -1) {
+            // the part of the buffer which belongs to the entry being scanned starts from here
+            int elementStart = (depth >= 2) ? 0 : -1;
+            for (int i = 0; i < count; i++) {
+                byte value = buffer[i];
+                if (isInString) {
+                    if (isEscaped) {
+                        isEscaped = false;
+                    } else if (value == '\\') {
+                        isEscaped = true;
+                    } else if (value == '"') {
+                        isInString = false;
+                    }
+                } else if (value == '"') {
+                    isInString = true;
+                } else if (value == '[' || value == '{') {
+                    depth++;
+                    if (depth == 1 && value != '[') {
+                        throw new IOException(shardPath + " is not a list of files.");
+                    }
+                    if (depth == 2) {
+                        elementOffset = position + i;
+                        elementStart = i;
+                    }
+                } else if (value == ']' || value == '}') {
+                    depth--;
+                    if (depth == 1) {
+                        element.write(buffer, elementStart, i + 1 - elementStart);
+                        indexedFiles.add(parseFile(shardPath, element.toByteArray(), elementOffset));
+                        element.reset();
+                        elementStart = -1;
+                    }
+                }
+            }
+            if (elementStart >= 0) {
+                element.write(buffer, elementStart, count - elementStart);
+            }
+            position += count;
+        }
+
+        if (depth != 0) {
+            throw new IOException(shardPath + " is truncated.");
+        }
+        return indexedFiles;
+    }
+
+    /**
+     * Returns the index of the file whose entry, {@code element}, starts from {@code offset} in the shard at
+     * {@code shardPath}. The lines of the file are skipped.
+     *
+     * @throws IOException if the entry is not a file.
+     */
+    private static IndexedFile parseFile(Path shardPath, byte[] element, long offset) throws IOException {
+        String path = null;
+        Map<String, Integer> authorContributionMap = new HashMap<>();
+        try (JsonReader reader = new JsonReader(new StringReader(new String(element, FileUtil.JSON_CHARSET)))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("path")) {
+                    path = reader.nextString();
+                } else if (name.equals("authorContributionMap")) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        authorContributionMap.put(reader.nextName(), reader.nextInt());
+                    }
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException(shardPath + " has an entry at " + offset + " which is not a file.", e);
+        }
+
+        if (path == null) {
+            throw new IOException(shardPath + " has an entry at " + offset + " without a path.");
+        }
+        return new IndexedFile(path, shardPath, offset, element.length, authorContributionMap);
+    }
+
+    /**
+     * Represents a file listed in a shard of the report.
+     */
+    static class IndexedFile {
+        private final String path;
+        private final Path shardPath;
+        private final long offset;
+        private final int length;
+        private final Map<String, Integer> authorContributionMap;
+
+        IndexedFile(String path, Path shardPath, long offset, int length, Map<String, Integer> authorContributionMap) {
+            this.path = path;
+            this.shardPath = shardPath;
+            this.offset = offset;
+            this.length = length;
+            this.authorContributionMap = authorContributionMap;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        /**
+         * Returns the number of lines of the file contributed by {@code author}.
+         */
+        int getLineCount(String author) {
+            return authorContributionMap.getOrDefault(author, 0);
+        }
+    }
+}
@@ -1,23 +1,33 @@
 package reposense.system;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.time.OffsetDateTime;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Predicate;
 
 import reposense.git.CommitNotFoundException;
+import reposense.metrics.MetricsRecorder;
+import reposense.metrics.Phase;
 import reposense.model.Author;
+import reposense.model.CommitBoundaries;
 import reposense.model.RepoConfiguration;
-import reposense.util.FileUtil;
 import reposense.util.StringsUtil;
 
 public class CommandRunner {
-    private static final DateFormat GIT_LOG_SINCE_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'00:00:00+08:00");
-    private static final DateFormat GIT_LOG_UNTIL_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'23:59:59+08:00");
+    // DateFormat is not thread-safe, and repos are analyzed in parallel
+    private static final ThreadLocal<DateFormat> GIT_LOG_SINCE_DATE_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd'T'00:00:00+08:00"));
+    private static final ThreadLocal<DateFormat> GIT_LOG_UNTIL_DATE_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd'T'23:59:59+08:00"));
 
     // ignore check against email
     private static final String AUTHOR_NAME_PATTERN = "^%s <.*>$";
@@ -26,21 +36,32 @@ public class CommandRunner {
     private static boolean isWindows = isWindows();
 
     public static String gitLog(RepoConfiguration config, Author author) {
-        Path rootPath = Paths.get(config.getRepoRoot());
+        return gitLog(config, author, "");
+    }
 
-        String command = "git log --no-merges -i ";
-        command += convertToGitDateRangeArgs(config.getSinceDate(), config.getUntilDate());
-        command += " --pretty=format:\"%H|%aN|%ad|%s\" --date=iso --shortstat";
-        command += convertToFilterAuthorArgs(author);
-        command += convertToGitFormatsArgs(config.getFormats());
-        command += convertToGitExcludeGlobArgs(author.getIgnoreGlobList());
+    /**
+     * Returns the log of the commits of {@code author} in the repo of {@code config} within its date range, which are
+     * after {@code sinceCommit} if it is not empty.
+     */
+    public static String gitLog(RepoConfiguration config, Author author, String sinceCommit) {
+        Path rootPath = Paths.get(config.getRepoRoot());
+        String logCommand = getGitLogCommand(config, author, sinceCommit);
+        return MetricsRecorder.callPhase(Phase.LOG, () -> runCommand(rootPath, logCommand));
+    }
 
-        return runCommand(rootPath, command);
+    /**
+     * Appends the log of the commits of {@code author} in the repo of {@code config} within its date range, as given
+     * by {@code #gitLog(RepoConfiguration, Author)}, to the file at {@code logPath}, without reading it into memory.
+     */
+    public static void gitLog(RepoConfiguration config, Author author, Path logPath) {
+        Path rootPath = Paths.get(config.getRepoRoot());
+        String logCommand = getGitLogCommand(config, author, "") + " >> " + addQuote(logPath.toString());
+        MetricsRecorder.runPhase(Phase.LOG, () -> runCommand(rootPath, logCommand));
     }
 
     public static void checkout(String root, String hash) {
         Path rootPath = Paths.get(root);
-        runCommand(rootPath, "git checkout " + hash);
+        MetricsRecorder.runPhase(Phase.CHECKOUT, () -> runCommand(rootPath, "git checkout " + hash));
     }
 
     /**
@@ -56,22 +77,53 @@ public class CommandRunner {
         Path rootPath = Paths.get(root);
 
         String substituteCommand = "git rev-list -1 --before="
-                + GIT_LOG_UNTIL_DATE_FORMAT.format(untilDate) + " " + branchName;
+                + GIT_LOG_UNTIL_DATE_FORMAT.get().format(untilDate) + " " + branchName;
         String hash = runCommand(rootPath, substituteCommand);
         if (hash.isEmpty()) {
             throw new CommitNotFoundException("Commit before until date is not found.");
         }
         String checkoutCommand = "git checkout " + hash;
-        runCommand(rootPath, checkoutCommand);
+        MetricsRecorder.runPhase(Phase.CHECKOUT, () -> runCommand(rootPath, checkoutCommand));
     }
 
-    public static String blameRaw(String root, String fileDirectory) {
+    /**
+     * Returns the hash of the commit checked out in the repo at {@code root}.
+     */
+    public static String getHeadCommit(String root) {
         Path rootPath = Paths.get(root);
+        return runCommand(rootPath, "git rev-parse HEAD").trim();
+    }
 
-        String blameCommand = "git blame -w --line-porcelain";
-        blameCommand += " " + addQuote(fileDirectory);
+    /**
+     * Returns true if {@code ancestorCommit} is {@code commit} or one of its ancestors in the repo at {@code root}.
+     * Returns false if either commit is not in the repo.
+     */
+    public static boolean isAncestor(String root, String ancestorCommit, String commit) {
+        Path rootPath = Paths.get(root);
+        try {
+            runCommand(rootPath, "git merge-base --is-ancestor " + ancestorCommit + " " + commit);
+            return true;
+        } catch (RuntimeException rte) {
+            // git merge-base exits with an error if it is not an ancestor
+            return false;
+        }
+    }
+
+    /**
+     * Returns the paths of the files changed by any of the commits after {@code sinceCommit} up to {@code untilCommit}
+     * in the repo at {@code root}, one per line, including those changed by merge commits.
+     */
+    public static String getChangedPaths(String root, String sinceCommit, String untilCommit) {
+        Path rootPath = Paths.get(root);
+        return runCommand(rootPath, "git log -m --name-only --format= " + sinceCommit + ".." + untilCommit);
+    }
 
-        return StringsUtil.filterText(runCommand(rootPath, blameCommand), "(^author .*)|(^[0-9a-f]{40} .*)");
+    public static String blameRaw(String root, String fileDirectory) {
+        Path rootPath = Paths.get(root);
+
+        String blameCommand = "git blame -w --line-porcelain " + addQuote(fileDirectory);
+        String blame = MetricsRecorder.callPhase(Phase.BLAME, () -> runCommand(rootPath, blameCommand));
+        return StringsUtil.filterText(blame, "(^author .*)|(^[0-9a-f]{40} .*)");
     }
 
     public static String checkStyleRaw(String absoluteDirectory) {
@@ -90,6 +142,15 @@ public class CommandRunner {
         return runCommand(rootPath, "git diff -U0 " + lastCommitHash);
     }
 
+    /**
+     * Writes the git diff result of the current commit compared to {@code lastCommitHash}, as given by
+     * {@code #diffCommit(String, String)}, into the file at {@code diffPath}, without reading it into memory.
+     */
+    public static void diffCommit(String root, String lastCommitHash, Path diffPath) {
+        Path rootPath = Paths.get(root);
+        runCommand(rootPath, "git diff -U0 " + lastCommitHash + " > " + addQuote(diffPath.toString()));
+    }
+
     /**
      * Returns the latest commit hash before {@code date}.
      * Returns an empty {@code String} if {@code date} is null, or there is no such commit.
@@ -101,10 +162,26 @@ public class CommandRunner {
 
         Path rootPath = Paths.get(root);
         String revListCommand = "git rev-list -1 --before="
-                + GIT_LOG_SINCE_DATE_FORMAT.format(date) + " " + branchName;
+                + GIT_LOG_SINCE_DATE_FORMAT.get().format(date) + " " + branchName;
         return runCommand(rootPath, revListCommand);
     }
 
+    /**
+     * Returns the time in seconds since the epoch up to which {@code #checkoutToDate} looks for the latest commit
+     * before {@code untilDate}, which is the end of the day.
+     */
+    public static long getUntilTimestamp(Date untilDate) {
+        return OffsetDateTime.parse(GIT_LOG_UNTIL_DATE_FORMAT.get().format(untilDate)).toEpochSecond();
+    }
+
+    /**
+     * Returns the time in seconds since the epoch up to which {@code #getCommitHashBeforeDate} looks for the latest
+     * commit before {@code sinceDate}, which is the start of the day.
+     */
+    public static long getSinceTimestamp(Date sinceDate) {
+        return OffsetDateTime.parse(GIT_LOG_SINCE_DATE_FORMAT.get().format(sinceDate)).toEpochSecond();
+    }
+
     /**
      * Returns the current working branch.
      */
@@ -115,6 +192,25 @@ public class CommandRunner {
         return StringsUtil.filterText(runCommand(rootPath, gitBranchCommand), "\\* (.*)").split("\\*")[1].trim();
     }
 
+    /**
+     * Returns the branches of the repo at {@code root} with their latest commits, one per line, each given as the
+     * commit and the full name of the branch, prefixed by {@code *} if the branch is checked out, or a space if not.
+     */
+    public static String listLocalRefs(String root) {
+        Path rootPath = Paths.get(root);
+        return runCommand(rootPath, "git for-each-ref --format=\"%(HEAD)%(objectname) %(refname)\" refs/heads");
+    }
+
+    /**
+     * Walks the commits reachable from {@code branchName} in the repo at {@code root}, in the order given by
+     * {@code git rev-list}, which is the latest commit first, passing each of them to {@code lineConsumer} as its
+     * commit timestamp in seconds and its hash, until {@code lineConsumer} returns false.
+     */
+    public static void walkCommits(String root, String branchName, Predicate<String> lineConsumer) {
+        Path rootPath = Paths.get(root);
+        runCommand(rootPath, "git rev-list --timestamp " + addQuote(branchName), lineConsumer);
+    }
+
     public static String getShortlogSummary(String root, Date sinceDate, Date untilDate) {
         Path rootPath = Paths.get(root);
         String command = "git log --pretty=short";
@@ -124,24 +220,207 @@ public class CommandRunner {
         return runCommand(rootPath, command);
     }
 
-    public static String cloneRepo(String location, String repoName) throws IOException {
-        Path rootPath = Paths.get(FileUtil.REPOS_ADDRESS, repoName);
-        Files.createDirectories(rootPath);
-        return runCommand(rootPath, "git clone " + addQuote(location));
+    /**
+     * Clones the repo at {@code location} into a bare repo at {@code storeRoot}, without a working tree.
+     */
+    public static String cloneRepo(String location, String storeRoot) throws IOException {
+        Path storePath = Paths.get(storeRoot).toAbsolutePath();
+        Files.createDirectories(storePath.getParent());
+        return runCommand(storePath.getParent(),
+                "git clone --bare " + addQuote(location) + " " + addQuote(storePath.getFileName().toString()));
     }
 
-    private static String runCommand(Path path, String command) {
-        ProcessBuilder pb = null;
-        if (isWindows) {
-            pb = new ProcessBuilder()
-                    .command(new String[]{"CMD", "/c", command})
-                    .directory(path.toFile());
-        } else {
-            pb = new ProcessBuilder()
-                    .command(new String[]{"bash", "-c", command})
-                    .directory(path.toFile());
+    /**
+     * Clones the repo at the local path {@code location} into a bare repo at {@code storeRoot}, which borrows the
+     * objects of the original repo instead of copying them.
+     */
+    public static String sharedCloneRepo(String location, String storeRoot) throws IOException {
+        Path storePath = Paths.get(storeRoot).toAbsolutePath();
+        Files.createDirectories(storePath.getParent());
+        return runCommand(storePath.getParent(), "git clone --bare --shared "
+                + addQuote(Paths.get(location).toAbsolutePath().toString()) + " "
+                + addQuote(storePath.getFileName().toString()));
+    }
+
+    /**
+     * Clones the repo at {@code location} into a bare repo at {@code storeRoot}, without the contents of the files,
+     * which are then fetched on demand.
+     * If {@code shallowSinceDate} is not null, only the history after {@code shallowSinceDate} is cloned, of
+     * {@code branch} only if it is not null, or of all the branches otherwise.
+     */
+    public static String partialCloneRepo(String location, String storeRoot, String branch, Date shallowSinceDate)
+            throws IOException {
+        Path storePath = Paths.get(storeRoot).toAbsolutePath();
+        Files.createDirectories(storePath.getParent());
+
+        String command = "git clone --bare --filter=blob:none";
+        if (shallowSinceDate != null) {
+            command += " --shallow-since=" + addQuote(GIT_LOG_SINCE_DATE_FORMAT.get().format(shallowSinceDate));
+            if (branch == null) {
+                command += " --no-single-branch";
+            } else if (!branch.equals(RepoConfiguration.DEFAULT_BRANCH)) {
+                command += " --branch " + addQuote(branch);
+            }
+        }
+        return runCommand(storePath.getParent(),
+                command + " " + addQuote(location) + " " + addQuote(storePath.getFileName().toString()));
+    }
+
+    /**
+     * Returns the branches of the repo at {@code location} with their latest commits, as well as the branch which its
+     * HEAD points to, without cloning it.
+     */
+    public static String listRemoteRefs(String location) {
+        return runCommand(Paths.get("."), "git ls-remote --symref " + addQuote(location) + " HEAD \"refs/heads/*\"");
+    }
+
+    /**
+     * Returns the counts and sizes of the loose and packed objects in the repo at {@code root}, one per line, each
+     * given as a name and a value separated by {@code :}, with the sizes in KiB.
+     */
+    public static String countObjects(String root) {
+        Path rootPath = Paths.get(root);
+        return runCommand(rootPath, "git count-objects -v");
+    }
+
+    /**
+     * Writes the commit-graph file of all the commits reachable in the repo at {@code root}, replacing the existing
+     * one, with the paths changed by each commit recorded in Bloom filters if {@code withChangedPaths}.
+     */
+    public static void writeCommitGraph(String root, boolean withChangedPaths) {
+        Path rootPath = Paths.get(root);
+        runCommand(rootPath, "git commit-graph write --reachable" + (withChangedPaths ? " --changed-paths" : ""));
+    }
+
+    /**
+     * Combines the packs of the repo at {@code root} into one, with a bitmap index of the objects reachable from each
+     * commit where git can write one, leaving out the objects borrowed from other repos.
+     */
+    public static void repackRepo(String root) {
+        Path rootPath = Paths.get(root);
+        runCommand(rootPath, "git repack -a -d -l --write-bitmap-index");
+    }
+
+    /**
+     * Fetches {@code depth} more commits behind each of the oldest commits of {@code branches} in the shallow repo at
+     * {@code root}.
+     */
+    public static void deepenRepo(String root, int depth, List<String> branches) {
+        Path rootPath = Paths.get(root);
+        StringBuilder command = new StringBuilder("git fetch --no-tags --deepen=" + depth + " origin");
+        branches.forEach(branch -> command.append(" ").append(addQuote(branch)));
+        runCommand(rootPath, command.toString());
+    }
+
+    /**
+     * Returns the location which the repo at {@code root} was cloned from.
+     */
+    public static String getRemoteUrl(String root) {
+        Path rootPath = Paths.get(root);
+        return runCommand(rootPath, "git config --get remote.origin.url").trim();
+    }
+
+    /**
+     * Updates {@code branches} of the repo at {@code root} to their latest commits in the repo it was cloned from,
+     * even if they were rewritten. If the repo is shallow, only the history after {@code shallowSinceDate} is kept,
+     * or the whole history is fetched if it is null.
+     */
+    public static void fetchBranches(String root, List<String> branches, boolean isShallow, Date shallowSinceDate) {
+        Path rootPath = Paths.get(root);
+        StringBuilder command = new StringBuilder("git fetch --no-tags");
+        if (isShallow && shallowSinceDate != null) {
+            command.append(" --shallow-since=")
+                    .append(addQuote(GIT_LOG_SINCE_DATE_FORMAT.get().format(shallowSinceDate)));
+        } else if (isShallow) {
+            command.append(" --unshallow");
+        }
+        command.append(" origin");
+        for (String branch : branches) {
+            command.append(" ").append(addQuote("+refs/heads/" + branch + ":refs/heads/" + branch));
         }
+        runCommand(rootPath, command.toString());
+    }
+
+    /**
+     * Forgets the working trees of the repo at {@code storeRoot} which have been deleted.
+     */
+    public static void pruneWorktrees(String storeRoot) {
+        Path storePath = Paths.get(storeRoot);
+        runCommand(storePath, "git worktree prune");
+    }
+
+    /**
+     * Adds a working tree at {@code worktreeRoot} to the repo at {@code storeRoot}, with {@code branch} checked out.
+     */
+    public static void addWorktree(String storeRoot, String worktreeRoot, String branch) {
+        Path storePath = Paths.get(storeRoot);
+        // forced, as the same branch may be analyzed more than once under different names, such as HEAD
+        runCommand(storePath, "git worktree add --force "
+                + addQuote(Paths.get(worktreeRoot).toAbsolutePath().toString()) + " " + addQuote(branch));
+    }
+
+    /**
+     * Returns true if the repo at {@code root} is shallow, with the history before some of its commits left out.
+     */
+    public static boolean isShallowRepo(String root) {
+        Path rootPath = Paths.get(root);
+        return Boolean.parseBoolean(runCommand(rootPath, "git rev-parse --is-shallow-repository").trim());
+    }
+
+    /**
+     * Returns true if the repo at {@code root} is a partial clone, which fetches missing objects on demand.
+     */
+    public static boolean isPartialClone(String root) {
+        Path rootPath = Paths.get(root);
+        try {
+            return Boolean.parseBoolean(runCommand(rootPath, "git config --get remote.origin.promisor").trim());
+        } catch (RuntimeException rte) {
+            // git config exits with an error if the key is not set
+            return false;
+        }
+    }
+
+    /**
+     * Walks the ids of the objects which are not in the partial clone at {@code root}, out of those reachable from the
+     * commits of {@code branchName} between {@code sinceDate} and {@code untilDate} and from the commits just before
+     * them, passing each of them to {@code lineConsumer} until it returns false.
+     */
+    public static void walkMissingObjects(String root, String branchName, Date sinceDate, Date untilDate,
+            Predicate<String> lineConsumer) {
+        Path rootPath = Paths.get(root);
+        String command = "git rev-list --objects --missing=print --boundary";
+        command += convertToGitDateRangeArgs(sinceDate, untilDate) + " " + addQuote(branchName);
+        runCommand(rootPath, command, line -> !line.startsWith("?") || lineConsumer.test(line.substring(1)));
+    }
+
+    /**
+     * Walks the raw diff of each commit in {@code branchName} between {@code sinceDate} and {@code untilDate} for
+     * files of {@code formats}, which lists the ids of the blobs before and after the change without needing their
+     * contents, passing each of its lines to {@code lineConsumer} until it returns false.
+     */
+    public static void walkRawDiffHistory(String root, String branchName, List<String> formats, Date sinceDate,
+            Date untilDate, Predicate<String> lineConsumer) {
+        Path rootPath = Paths.get(root);
+        String command = "git log --raw --no-abbrev --no-renames --format=";
+        command += convertToGitDateRangeArgs(sinceDate, untilDate) + " " + addQuote(branchName);
+        command += convertToGitFormatsArgs(formats);
+        runCommand(rootPath, command, lineConsumer);
+    }
+
+    /**
+     * Fetches the objects whose ids are listed in {@code objectListPath}, one per line, into the partial clone at
+     * {@code root}.
+     */
+    public static void fetchObjects(String root, Path objectListPath) {
+        Path rootPath = Paths.get(root);
+        runCommand(rootPath, "git fetch --no-tags --filter=blob:none --stdin origin < "
+                + addQuote(objectListPath.toAbsolutePath().toString()));
+    }
+
+    private static String runCommand(Path path, String command) {
+        ProcessBuilder pb = createProcessBuilder(path, command);
         Process p = null;
+        long startNanos = System.nanoTime();
         try {
             p = pb.start();
         } catch (IOException e) {
@@ -159,6 +438,8 @@ public class CommandRunner {
         } catch (InterruptedException e) {
             throw new RuntimeException("Error Handling Thread.");
         }
+        MetricsRecorder.recordProcess(getCommandName(command), command, System.nanoTime() - startNanos,
+                outputGobbler.getBytesRead() + errorGobbler.getBytesRead());
 
         if (exit == 0) {
             return outputGobbler.getValue();
@@ -170,14 +451,106 @@ public class CommandRunner {
         }
     }
 
+    /**
+     * Runs {@code command} at {@code path}, passing each line of its output to {@code lineConsumer} as it is output,
+     * and stops the command as soon as {@code lineConsumer} returns false, without reading the rest of its output.
+     */
+    private static void runCommand(Path path, String command, Predicate<String> lineConsumer) {
+        Process p = null;
+        long startNanos = System.nanoTime();
+        try {
+            p = createProcessBuilder(path, command).start();
+        } catch (IOException e) {
+            throw new RuntimeException("Error Creating Thread:" + e.getMessage());
+        }
+        StreamGobbler errorGobbler = new StreamGobbler(p.getErrorStream());
+        errorGobbler.start();
+        long bytesRead = 0;
+        boolean isStopped = false;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(p.getInputStream(),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                bytesRead += line.length() + 1;
+                if (!lineConsumer.test(line)) {
+                    isStopped = true;
+                    p.destroy();
+                    break;
+                }
+            }
+        } catch (IOException ioe) {
+            p.destroy();
+            throw new RuntimeException("Error reading the output of " + command + ": " + ioe.getMessage());
+        }
+
+        int exit = 0;
+        try {
+            exit = p.waitFor();
+            errorGobbler.join();
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Error Handling Thread.");
+        }
+        MetricsRecorder.recordProcess(getCommandName(command), command, System.nanoTime() - startNanos,
+                bytesRead + errorGobbler.getBytesRead());
+
+        if (exit != 0 && !isStopped) {
+            String errorMessage = "Error returned from command ";
+            errorMessage += command + "on path ";
+            errorMessage += path.toString() + " :\n" + errorGobbler.getValue();
+            throw new RuntimeException(errorMessage);
+        }
+    }
+
+    private static ProcessBuilder createProcessBuilder(Path path, String command) {
+        if (isWindows) {
+            return new ProcessBuilder()
+                    .command(new String[]{"CMD", "/c", command})
+                    .directory(path.toFile());
+        }
+        return new ProcessBuilder()
+                .command(new String[]{"bash", "-c", command})
+                .directory(path.toFile());
+    }
+
+    /**
+     * Returns the program run by {@code command}, along with the subcommand if the program is git.
+     */
+    private static String getCommandName(String command) {
+        String[] tokens = command.trim().split("\\s+", 3);
+        if (tokens[0].equals("git") && tokens.length > 1) {
+            return tokens[0] + " " + tokens[1];
+        }
+        return tokens[0];
+    }
+
     private static String addQuote(String original) {
         return "\"" + original + "\"";
     }
 
-    private static boolean isWindows() {
+    /**
+     * Returns true if RepoSense is running on Windows.
+     */
+    public static boolean isWindows() {
         return (System.getProperty("os.name").toLowerCase().indexOf("win") >= 0);
     }
 
+    /**
+     * Returns the {@code String} command to log the commits of {@code author} in the repo of {@code config} within
+     * its date range, which are after {@code sinceCommit} if it is not empty.
+     * The commits are those of the latest commit of the branch if it was resolved, or of the commit checked out if not.
+     */
+    private static String getGitLogCommand(RepoConfiguration config, Author author, String sinceCommit) {
+        String headCommit = config.getCommitBoundaries().map(CommitBoundaries::getHeadCommit).orElse("HEAD");
+        String command = "git log --no-merges -i ";
+        command += sinceCommit.isEmpty() ? headCommit + " " : sinceCommit + ".." + headCommit + " ";
+        command += convertToGitDateRangeArgs(config.getSinceDate(), config.getUntilDate());
+        command += " --pretty=format:\"%H|%aN|%ad|%s\" --date=iso --shortstat";
+        command += convertToFilterAuthorArgs(author);
+        command += convertToGitFormatsArgs(config.getFormats());
+        command += convertToGitExcludeGlobArgs(author.getIgnoreGlobList());
+        return command;
+    }
+
     /**
      * Returns the {@code String} command to specify the date range of commits to analyze for `git` commands.
      */
@@ -185,10 +558,10 @@ public class CommandRunner {
         String gitDateRangeArgs = "";
 
         if (sinceDate != null) {
-            gitDateRangeArgs += " --since=" + addQuote(GIT_LOG_SINCE_DATE_FORMAT.format(sinceDate));
+            gitDateRangeArgs += " --since=" + addQuote(GIT_LOG_SINCE_DATE_FORMAT.get().format(sinceDate));
         }
         if (untilDate != null) {
-            gitDateRangeArgs += " --until=" + addQuote(GIT_LOG_UNTIL_DATE_FORMAT.format(untilDate));
+            gitDateRangeArgs += " --until=" + addQuote(GIT_LOG_UNTIL_DATE_FORMAT.get().format(untilDate));
         }
 
         return gitDateRangeArgs;
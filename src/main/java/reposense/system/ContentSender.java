@@ -0,0 +1,164 @@
+package reposense.system;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Date;
+
+import net.freeutils.httpserver.HTTPServer;
+import reposense.report.ContentStore;
+
+/**
+ * Sends the content of a static file in response to a request, honoring the conditional and range headers of the
+ * request.
+ */
+class ContentSender {
+    static final String GZIP_ENCODING = "gzip";
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final String CONTENT_STORE_PATH = "/" + ContentStore.CONTENT_STORE_FOLDER + "/";
+    private static final int BUFFER_SIZE = 1 << 16; // 64KB
+
+    /**
+     * Writes a part of the content being sent.
+     */
+    interface ContentWriter {
+        /**
+         * Writes {@code count} bytes of the content starting from {@code start} into {@code out}.
+         */
+        void write(long start, long count, OutputStream out) throws IOException;
+    }
+
+    static boolean isGzipAccepted(HTTPServer.Request req) {
+        String acceptedEncodings = req.getHeaders().get("Accept-Encoding");
+        return Arrays.asList(HTTPServer.splitElements(acceptedEncodings, true)).contains(GZIP_ENCODING);
+    }
+
+    /**
+     * Returns a strong entity tag for the representation of a file identified by {@code validator}, which is
+     * compressed with {@code encoding} if it is not null.
+     * The representations of a file have different entity tags, as required of strong entity tags.
+     */
+    static String createEtag(String validator, String encoding) {
+        String encodingSuffix = (encoding == null) ? "" : "-" + encoding;
+        return String.format("\"%s%s\"", validator, encodingSuffix);
+    }
+
+    /**
+     * Responds to {@code req} with the content of the file named {@code fileName}, which is {@code length} bytes long,
+     * is compressed with {@code encoding} if it is not null, and is written by {@code contentWriter}.
+     * Responds with 304 instead if the client already has the content, and with the range of it which is asked for,
+     * if any. Ranges are only served for content which is not compressed.
+     */
+    static void send(HTTPServer.Request req, HTTPServer.Response resp, String fileName, long length,
+            long lastModified, String etag, String encoding, ContentWriter contentWriter) throws IOException {
+        HTTPServer.Headers headers = resp.getHeaders();
+        headers.add("Vary", "Accept-Encoding");
+        if (req.getPath().startsWith(CONTENT_STORE_PATH)) {
+            // the contents in the content store are named by their SHA, so they never change
+            headers.add("Cache-Control", "public, max-age=31536000, immutable");
+        } else {
+            // the other files are rewritten whenever the report is regenerated, such as in watch mode
+            headers.add("Cache-Control", "no-cache");
+        }
+
+        long[] range = (encoding == null) ? getRange(req, length, lastModified, etag) : null;
+        int status = HTTPServer.getConditionalStatus(req, lastModified, etag);
+        if (status == 200 && range != null && range[0] >= length) {
+            headers.add("Content-Range", "bytes */" + length);
+            resp.sendHeaders(416);
+            return;
+        }
+
+        if (status != 200) {
+            headers.add("ETag", etag);
+            headers.add("Last-Modified", HTTPServer.formatDate(lastModified));
+            resp.sendHeaders(status);
+            return;
+        }
+
+        if (encoding != null) {
+            headers.add("Content-Encoding", encoding);
+        } else {
+            headers.add("Accept-Ranges", "bytes");
+        }
+        long start = (range == null) ? 0 : range[0];
+        long count = (range == null) ? length : range[1] - range[0] + 1;
+        // compressed content or a range is sent as it is, instead of being compressed by the server on the fly
+        boolean isSentAsIs = encoding != null || range != null;
+        if (isSentAsIs) {
+            headers.add("Content-Length", Long.toString(count));
+        }
+        resp.sendHeaders(status, length, lastModified, etag,
+                HTTPServer.getContentType(fileName, DEFAULT_CONTENT_TYPE), range);
+        if (req.getMethod().equals("HEAD")) {
+            return;
+        }
+
+        contentWriter.write(start, count, isSentAsIs ? resp.getOutputStream() : resp.getBody());
+    }
+
+    /**
+     * Returns the range of bytes of the content asked for by {@code req}, or null if the whole content should be sent.
+     * The range is ignored if its {@code If-Range} condition does not hold.
+     */
+    private static long[] getRange(HTTPServer.Request req, long length, long lastModified, String etag) {
+        long[] range;
+        try {
+            range = req.getRange(length);
+        } catch (NumberFormatException nfe) {
+            // a malformed range is ignored
+            return null;
+        }
+        if (range == null || length == 0) {
+            return null;
+        }
+        range[1] = Math.min(range[1], length - 1);
+
+        String ifRange = req.getHeaders().get("If-Range");
+        if (ifRange == null) {
+            return range;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag) ? range : null;
+        }
+        Date ifRangeDate = req.getHeaders().getDate("If-Range");
+        return (ifRangeDate != null && lastModified / 1000 <= ifRangeDate.getTime() / 1000) ? range : null;
+    }
+
+    /**
+     * Writes {@code count} bytes of the file at {@code path} starting from {@code start} into {@code out}.
+     */
+    static void transferFile(Path path, long start, long count, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long position = start;
+            long end = start + count;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    throw new IOException(path + " was truncated while being sent.");
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of {@code buffer} into {@code out}.
+     */
+    static void writeBuffer(ByteBuffer buffer, OutputStream out) throws IOException {
+        byte[] chunk = new byte[Math.min(BUFFER_SIZE, buffer.remaining())];
+        while (buffer.hasRemaining()) {
+            int chunkLength = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, chunkLength);
+            out.write(chunk, 0, chunkLength);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package reposense.system;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.stream.JsonReader;
+
+import reposense.util.FileUtil;
+
+/**
+ * Holds the daily contributions of each author in a {@code commits.json} as prefix sums, so that the contributions of
+ * an author over any range of days can be summed in constant time.
+ */
+class ContributionSeries {
+    private static final String DAILY_CONTRIBUTIONS_KEY = "authorDailyIntervalContributions";
+
+    private final Path commitsPath;
+    private final long lastModified;
+    private final long size;
+    private final long firstDay;
+    private final int dayCount;
+    private final Map<String, long[]> insertionSums = new HashMap<>();
+    private final Map<String, long[]> deletionSums = new HashMap<>();
+
+    /**
+     * Reads the daily contributions of the {@code commits.json} at {@code commitsPath}.
+     *
+     * @throws IOException if the report cannot be read, or its daily contributions are malformed.
+     */
+    ContributionSeries(Path commitsPath) throws IOException {
+        this.commitsPath = commitsPath;
+        this.lastModified = Files.getLastModifiedTime(commitsPath).toMillis();
+        this.size = Files.size(commitsPath);
+
+        Map<String, List<DailyContribution>> authorDailyContributions;
+        try (Reader reader = new InputStreamReader(Files.newInputStream(commitsPath), FileUtil.JSON_CHARSET)) {
+            authorDailyContributions = readDailyContributions(new JsonReader(reader));
+        } catch (IllegalStateException | NumberFormatException | DateTimeParseException e) {
+            throw new IOException(commitsPath + " has malformed daily contributions.", e);
+        }
+
+        long minDay = Long.MAX_VALUE;
+        long maxDay = Long.MIN_VALUE;
+        for (List<DailyContribution> dailyContributions : authorDailyContributions.values()) {
+            for (DailyContribution dailyContribution : dailyContributions) {
+                minDay = Math.min(minDay, dailyContribution.day);
+                maxDay = Math.max(maxDay, dailyContribution.day);
+            }
+        }
+        this.firstDay = (minDay <= maxDay) ? minDay : 0;
+        this.dayCount = (minDay <= maxDay) ? (int) (maxDay - minDay + 1) : 0;
+
+        for (Map.Entry<String, List<DailyContribution>> entry : authorDailyContributions.entrySet()) {
+            long[] insertions = new long[dayCount + 1];
+            long[] deletions = new long[dayCount + 1];
+            for (DailyContribution dailyContribution : entry.getValue()) {
+                int dayIndex = (int) (dailyContribution.day - firstDay);
+                insertions[dayIndex + 1] += dailyContribution.insertions;
+                deletions[dayIndex + 1] += dailyContribution.deletions;
+            }
+            for (int i = 1; i <= dayCount; i++) {
+                insertions[i] += insertions[i - 1];
+                deletions[i] += deletions[i - 1];
+            }
+            insertionSums.put(entry.getKey(), insertions);
+            deletionSums.put(entry.getKey(), deletions);
+        }
+    }
+
+    /**
+     * Returns true if the report has been replaced or modified since it was read.
+     *
+     * @throws IOException if the report cannot be read anymore.
+     */
+    boolean isOutdated() throws IOException {
+        return Files.getLastModifiedTime(commitsPath).toMillis() != lastModified
+                || Files.size(commitsPath) != size;
+    }
+
+    Set<String> getAuthors() {
+        return Collections.unmodifiableSet(insertionSums.keySet());
+    }
+
+    /**
+     * Returns true if no author has any daily contribution, in which case there are no first and last dates.
+     */
+    boolean isEmpty() {
+        return dayCount == 0;
+    }
+
+    LocalDate getFirstDate() {
+        return LocalDate.ofEpochDay(firstDay);
+    }
+
+    LocalDate getLastDate() {
+        return LocalDate.ofEpochDay(firstDay + dayCount - 1);
+    }
+
+    /**
+     * Returns the number of lines inserted by {@code author} from {@code since} until {@code until}, inclusive.
+     */
+    long getInsertions(String author, LocalDate since, LocalDate until) {
+        return sum(insertionSums.get(author), since, until);
+    }
+
+    /**
+     * Returns the number of lines deleted by {@code author} from {@code since} until {@code until}, inclusive.
+     */
+    long getDeletions(String author, LocalDate since, LocalDate until) {
+        return sum(deletionSums.get(author), since, until);
+    }
+
+    /**
+     * Returns the sum of the days from {@code since} until {@code until}, inclusive, of the series whose prefix sums
+     * are {@code prefixSums}. Days outside of the series count as zero.
+     */
+    private long sum(long[] prefixSums, LocalDate since, LocalDate until) {
+        if (prefixSums == null) {
+            return 0;
+        }
+        long start = Math.max(since.toEpochDay() - firstDay, 0);
+        long end = Math.min(until.toEpochDay() - firstDay + 1, dayCount);
+        return (start < end) ? prefixSums[(int) end] - prefixSums[(int) start] : 0;
+    }
+
+    /**
+     * Reads the daily contributions of each author from {@code reader}, skipping the rest of the report.
+     *
+     * @throws IOException if the report cannot be read.
+     */
+    private static Map<String, List<DailyContribution>> readDailyContributions(JsonReader reader) throws IOException {
+        Map<String, List<DailyContribution>> authorDailyContributions = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals(DAILY_CONTRIBUTIONS_KEY)) {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String author = reader.nextName();
+                List<DailyContribution> dailyContributions = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    dailyContributions.add(readDailyContribution(reader));
+                }
+                reader.endArray();
+                authorDailyContributions.put(author, dailyContributions);
+            }
+            reader.endObject();
+        }
+        reader.endObject();
+        return authorDailyContributions;
+    }
+
+    /**
+     * Reads the contribution of an author on a day from {@code reader}.
+     *
+     * @throws IOException if the report cannot be read.
+     */
+    private static DailyContribution readDailyContribution(JsonReader reader) throws IOException {
+        LocalDate date = null;
+        long insertions = 0;
+        long deletions = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("sinceDate")) {
+                date = LocalDate.parse(reader.nextString());
+            } else if (name.equals("insertions")) {
+                insertions = reader.nextLong();
+            } else if (name.equals("deletions")) {
+                deletions = reader.nextLong();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (date == null) {
+            throw new IllegalStateException("A daily contribution has no date.");
+        }
+        return new DailyContribution(date.toEpochDay(), insertions, deletions);
+    }
+
+    /**
+     * Represents the contribution of an author on a day.
+     */
+    private static class DailyContribution {
+        private final long day;
+        private final long insertions;
+        private final long deletions;
+
+        DailyContribution(long day, long insertions, long deletions) {
+            this.day = day;
+            this.insertions = insertions;
+            this.deletions = deletions;
+        }
+    }
+}
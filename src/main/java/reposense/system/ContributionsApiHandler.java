@@ -0,0 +1,171 @@
+package reposense.system;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.Gson;
+
+import net.freeutils.httpserver.HTTPServer;
+import reposense.commits.model.ContributionGranularity;
+
+/**
+ * Answers queries for the contributions of the authors of a repo of a report directory, summed over intervals of a
+ * given granularity, so that the dashboard does not have to sum the daily contributions itself whenever its filters
+ * change.
+ *
+ * A query, {@code ?repo=REPO[&since=DATE][&until=DATE][&granularity=GRANULARITY]}, is answered with the contributions
+ * of each author in every interval which overlaps the dates from {@code since} until {@code until}, which default to
+ * the first and last dates of the contributions of the repo. The intervals are those of a
+ * {@code ContributionGranularity}, each of which is summed in constant time from the daily contributions in
+ * {@code commits.json}.
+ */
+public class ContributionsApiHandler implements HTTPServer.ContextHandler {
+    public static final String CONTEXT_PATH = "/api/contributions";
+
+    private static final String COMMITS_FILE = "commits.json";
+    private static final int MAX_INTERVAL_COUNT = 20000;
+
+    private final Path base;
+    private final Map<Path, ContributionSeries> series = new HashMap<>();
+    private final Gson gson = new Gson();
+
+    public ContributionsApiHandler(File base) throws IOException {
+        this.base = base.getCanonicalFile().toPath();
+    }
+
+    @Override
+    public int serve(HTTPServer.Request req, HTTPServer.Response resp) throws IOException {
+        Map<String, String> params = req.getParams();
+        String repo = params.get("repo");
+        ContributionGranularity granularity = ContributionGranularity.fromName(
+                params.getOrDefault("granularity", ContributionGranularity.DAY.toString()));
+        if (repo == null || granularity == null) {
+            resp.sendError(400, "repo must be given, and granularity must be one of day, week, month and quarter.");
+            return 0;
+        }
+
+        Path commitsPath = base.resolve(repo).resolve(COMMITS_FILE).normalize();
+        if (!commitsPath.startsWith(base) || !Files.isRegularFile(commitsPath)) {
+            return 404;
+        }
+        ContributionSeries repoSeries = getSeries(commitsPath);
+
+        LocalDate since;
+        LocalDate until;
+        try {
+            since = params.containsKey("since") ? LocalDate.parse(params.get("since"))
+                    : repoSeries.isEmpty() ? null : repoSeries.getFirstDate();
+            until = params.containsKey("until") ? LocalDate.parse(params.get("until"))
+                    : repoSeries.isEmpty() ? null : repoSeries.getLastDate();
+        } catch (DateTimeParseException dtpe) {
+            resp.sendError(400, "since and until must be dates in the format of yyyy-MM-dd.");
+            return 0;
+        }
+
+        ContributionsPage page = new ContributionsPage(granularity);
+        if (since != null && until != null && !since.isAfter(until)) {
+            since = granularity.getStart(since);
+            if (granularity.countIntervals(since, until) > MAX_INTERVAL_COUNT) {
+                resp.sendError(400, "The dates from since until until span too many intervals.");
+                return 0;
+            }
+            page.since = since.toString();
+            page.until = until.toString();
+            addContributions(page, repoSeries, since, until, granularity);
+        }
+        sendJson(resp, page);
+        return 0;
+    }
+
+    /**
+     * Returns the daily contributions of the report at {@code commitsPath}, reading them again if the report has
+     * changed since they were read.
+     *
+     * @throws IOException if the report cannot be read.
+     */
+    private synchronized ContributionSeries getSeries(Path commitsPath) throws IOException {
+        ContributionSeries repoSeries = series.get(commitsPath);
+        if (repoSeries == null || repoSeries.isOutdated()) {
+            repoSeries = new ContributionSeries(commitsPath);
+            series.put(commitsPath, repoSeries);
+        }
+        return repoSeries;
+    }
+
+    /**
+     * Adds the contributions of each author of {@code repoSeries} in every interval of {@code granularity}, from the
+     * interval starting on {@code since} until the interval containing {@code until}, to {@code page}.
+     */
+    private static void addContributions(ContributionsPage page, ContributionSeries repoSeries, LocalDate since,
+            LocalDate until, ContributionGranularity granularity) {
+        List<LocalDate> starts = new ArrayList<>();
+        for (LocalDate start = since; !start.isAfter(until); start = granularity.getNext(start)) {
+            starts.add(start);
+        }
+
+        for (String author : repoSeries.getAuthors()) {
+            List<IntervalContribution> contributions = new ArrayList<>();
+            for (LocalDate start : starts) {
+                LocalDate next = granularity.getNext(start);
+                LocalDate last = next.minusDays(1);
+                contributions.add(new IntervalContribution(repoSeries.getInsertions(author, start, last),
+                        repoSeries.getDeletions(author, start, last), start, next));
+            }
+            page.authorContributions.put(author, contributions);
+        }
+    }
+
+    /**
+     * Responds with {@code object} as JSON.
+     */
+    private void sendJson(HTTPServer.Response resp, Object object) throws IOException {
+        resp.getHeaders().add("Cache-Control", "no-cache");
+        resp.sendHeaders(200, -1, -1, null, "application/json; charset=utf-8", null);
+        try (OutputStream out = resp.getBody()) {
+            out.write(gson.toJson(object).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Holds the contributions of the authors of a repo, to be serialized into JSON.
+     */
+    private static class ContributionsPage {
+        private final String granularity;
+        private String since;
+        private String until;
+        private final Map<String, List<IntervalContribution>> authorContributions = new TreeMap<>();
+
+        ContributionsPage(ContributionGranularity granularity) {
+            this.granularity = granularity.toString();
+        }
+    }
+
+    /**
+     * Holds the contribution of an author in an interval, in the format of {@code AuthorIntervalContribution}, to be
+     * serialized into JSON.
+     */
+    private static class IntervalContribution {
+        private final long insertions;
+        private final long deletions;
+        private final String sinceDate;
+        private final String untilDate;
+
+        IntervalContribution(long insertions, long deletions, LocalDate sinceDate, LocalDate untilDate) {
+            this.insertions = insertions;
+            this.deletions = deletions;
+            this.sinceDate = sinceDate.toString();
+            this.untilDate = untilDate.toString();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package reposense.system;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import reposense.parser.ParseException;
+
+/**
+ * Submits an analysis to an {@code AnalysisDaemon}, and prints its log as it runs.
+ *
+ * The client only forwards its arguments, so that it starts quickly, without loading the classes of the analysis.
+ * A job is sent as the {@code DaemonToken} of the daemon, the working directory of the client, the number of
+ * arguments and the arguments, each string written in the modified UTF-8 of {@code DataOutputStream}. The daemon
+ * then sends back the log of the job, in UTF-8, as it is written, in parts which are each given as their length in
+ * bytes and their bytes. Once the job is done, the daemon sends {@code END_OF_LOG} in place of the length of a part,
+ * followed by a boolean which tells whether the job succeeded, and closes the connection.
+ */
+public class DaemonClient {
+    public static final String CONNECT_FLAG = "-connect";
+
+    static final int END_OF_LOG = -1;
+
+    private static final String MESSAGE_USAGE = "usage: java -jar RepoSense.jar " + CONNECT_FLAG
+            + " PORT [ARGUMENTS...]\nPORT must be the port which the daemon, started with -daemon PORT, listens on.\n";
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Returns true if {@code args} are the arguments of a client, which are {@code CONNECT_FLAG}, the port of the
+     * daemon and the arguments of the analysis to submit to it.
+     */
+    public static boolean isClientInvocation(String[] args) {
+        return args.length > 0 && args[0].equals(CONNECT_FLAG);
+    }
+
+    /**
+     * Submits the analysis of {@code args}, which are the arguments of a client, to the daemon on this machine, and
+     * prints its log into the standard error stream, like the log of an analysis run by the client itself would be.
+     * Returns true if the analysis succeeded.
+     *
+     * @throws ParseException if {@code args} do not give the port of the daemon.
+     * @throws IOException if the daemon cannot be reached.
+     */
+    public static boolean submit(String[] args) throws ParseException, IOException {
+        int port;
+        try {
+            port = (args.length >= 2) ? Integer.parseInt(args[1]) : -1;
+        } catch (NumberFormatException nfe) {
+            port = -1;
+        }
+        if (port < 1 || port > 65535) {
+            throw new ParseException(MESSAGE_USAGE);
+        }
+
+        return submit(port, DaemonToken.DEFAULT_DIRECTORY, Arrays.asList(args).subList(2, args.length),
+                Paths.get("").toAbsolutePath(), System.err);
+    }
+
+    /**
+     * Submits the analysis of {@code args} to the daemon listening on {@code port}, whose token is in
+     * {@code tokenDirectory}, to be run as if from {@code workingDirectory}, and copies its log into {@code log} until
+     * it is done. Returns true if the analysis succeeded.
+     *
+     * @throws IOException if the token cannot be read, or the daemon cannot be reached or stops before it is done.
+     */
+    public static boolean submit(int port, Path tokenDirectory, List<String> args, Path workingDirectory,
+            OutputStream log) throws IOException {
+        String token;
+        try {
+            token = DaemonToken.read(tokenDirectory, port);
+        } catch (NoSuchFileException nsfe) {
+            throw new IOException(String.format("No daemon started by this user is listening on port %d. "
+                    + "Start one with -daemon %d.", port, port), nsfe);
+        }
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeUTF(token);
+            out.writeUTF(workingDirectory.toString());
+            out.writeInt(args.size());
+            for (String arg : args) {
+                out.writeUTF(arg);
+            }
+            out.flush();
+            socket.shutdownOutput();
+
+            return receiveLog(socket.getInputStream(), log);
+        } catch (ConnectException ce) {
+            throw new IOException(String.format("No daemon is listening on port %d. Start one with -daemon %d.",
+                    port, port), ce);
+        }
+    }
+
+    /**
+     * Copies the log of a job, sent by the daemon through {@code in}, into {@code log} until the job is done.
+     * Returns true if the job succeeded.
+     *
+     * @throws IOException if the log cannot be read, or the daemon stops sending it before the job is done.
+     */
+    static boolean receiveLog(InputStream in, OutputStream log) throws IOException {
+        DataInputStream logIn = new DataInputStream(new BufferedInputStream(in));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            for (int partLength = logIn.readInt(); partLength != END_OF_LOG; partLength = logIn.readInt()) {
+                if (partLength < 0) {
+                    throw new IOException("The daemon sent a part of the log of length " + partLength + ".");
+                }
+                for (int remaining = partLength; remaining > 0; ) {
+                    int length = logIn.read(buffer, 0, Math.min(remaining, buffer.length));
+                    if (length == -1) {
+                        throw new EOFException();
+                    }
+                    log.write(buffer, 0, length);
+                    remaining -= length;
+                }
+                log.flush();
+            }
+            return logIn.readBoolean();
+        } catch (EOFException eofe) {
+            throw new IOException("The daemon closed the connection before the analysis was done.", eofe);
+        }
+    }
+}
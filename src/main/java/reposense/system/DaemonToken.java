@@ -0,0 +1,101 @@
+package reposense.system;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Manages the secret token which a client of an {@code AnalysisDaemon} must send with each job.
+ *
+ * The daemon listens on a port which any user of the machine can connect to, and runs its jobs as the user who
+ * started it. So that only that user can submit jobs, the daemon writes a random token into a file which only its
+ * owner can read, and turns away the jobs which do not carry it.
+ */
+public class DaemonToken {
+    public static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("user.home"), ".reposense");
+
+    private static final int TOKEN_LENGTH = 32;
+    private static final String OWNER_ONLY_FILE_PERMISSIONS = "rw-------";
+    private static final String OWNER_ONLY_DIRECTORY_PERMISSIONS = "rwx------";
+    private static final SecureRandom random = new SecureRandom();
+
+    /**
+     * Returns the path of the file in {@code directory} holding the token of the daemon listening on {@code port}.
+     */
+    public static Path getPath(Path directory, int port) {
+        return directory.resolve("daemon-" + port + ".token");
+    }
+
+    /**
+     * Generates a new token for the daemon listening on {@code port} and writes it into its file in
+     * {@code directory}, which only the current user can read. Returns the token.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public static String create(Path directory, int port) throws IOException {
+        byte[] bytes = new byte[TOKEN_LENGTH];
+        random.nextBytes(bytes);
+        StringBuilder token = new StringBuilder();
+        for (byte value : bytes) {
+            token.append(String.format("%02x", value & 0xff));
+        }
+
+        boolean isPosix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        if (!Files.isDirectory(directory)) {
+            if (isPosix) {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(
+                        PosixFilePermissions.fromString(OWNER_ONLY_DIRECTORY_PERMISSIONS)));
+            } else {
+                Files.createDirectories(directory);
+            }
+        }
+
+        // the token is written into a file which is only readable by its owner from the start, then moved into place
+        Path tempFile = isPosix
+                ? Files.createTempFile(directory, "daemon-", ".tmp", PosixFilePermissions.asFileAttribute(
+                        PosixFilePermissions.fromString(OWNER_ONLY_FILE_PERMISSIONS)))
+                : Files.createTempFile(directory, "daemon-", ".tmp");
+        try {
+            Files.write(tempFile, token.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(tempFile, getPath(directory, port), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return token.toString();
+    }
+
+    /**
+     * Returns the token of the daemon listening on {@code port}, from its file in {@code directory}.
+     *
+     * @throws IOException if the file cannot be read.
+     */
+    public static String read(Path directory, int port) throws IOException {
+        return new String(Files.readAllBytes(getPath(directory, port)), StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Deletes the file in {@code directory} holding the token of the daemon listening on {@code port}, if any.
+     *
+     * @throws IOException if the file cannot be deleted.
+     */
+    public static void delete(Path directory, int port) throws IOException {
+        Files.deleteIfExists(getPath(directory, port));
+    }
+
+    /**
+     * Returns true if {@code token} is {@code expectedToken}, taking the same time whichever of their characters
+     * differ.
+     */
+    public static boolean matches(String expectedToken, String token) {
+        return MessageDigest.isEqual(expectedToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8));
+    }
+}
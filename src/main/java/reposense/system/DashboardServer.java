@@ -2,13 +2,18 @@ package reposense.system;
 
 import java.awt.Desktop;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import net.freeutils.httpserver.HTTPServer;
+import reposense.report.ReportGenerator;
 
 /**
  * Handles starting of the server to display the dashboard.
@@ -16,13 +21,28 @@ import net.freeutils.httpserver.HTTPServer;
 public class DashboardServer {
 
     private static final String LOCAL_HOST_URL = "http://localhost:%s/";
+    private static final long MAPPED_FILE_CACHE_CAPACITY = 512L << 20; // 512MB
+    private static final long MAPPED_FILE_MAX_SIZE = 128L << 20; // 128MB
+    private static final long INFLATED_FILE_CACHE_CAPACITY = 256L << 20; // 256MB
 
     private static final Logger logger = LogsManager.getLogger(DashboardServer.class);
 
     /**
      * Starts a server at {@code port} and loads the {@code requestPath} from the local disk.
+     * {@code requestPath} is either a report directory, or a report archive whose files are served without being
+     * extracted, along with the files of the dashboard.
+     * The authorship and contributions of authors can be queried from a report directory, as described in
+     * {@code AuthorshipApiHandler} and {@code ContributionsApiHandler}.
      */
     public static void startServer(int port, Path requestPath) {
+        startServer(port, requestPath, null);
+    }
+
+    /**
+     * Starts a server at {@code port} like {@link #startServer(int, Path)}, which also pushes the regenerations of the
+     * report directory at {@code requestPath} to the dashboards through {@code eventsHandler}, if it is not null.
+     */
+    public static void startServer(int port, Path requestPath, ReportEventsHandler eventsHandler) {
         logger.info("Starting a server at port " + port + "...");
         HTTPServer server = new HTTPServer(port);
 
@@ -31,7 +51,19 @@ public class DashboardServer {
 
         try {
             // a handler to process the request and give the corresponding response
-            host.addContext("/", new HTTPServer.FileContextHandler(requestPath.toFile()));
+            if (Files.isRegularFile(requestPath)) {
+                host.addContext("/", new ArchiveContextHandler(
+                        Arrays.asList(requestPath, extractTemplateArchive()), INFLATED_FILE_CACHE_CAPACITY));
+            } else {
+                host.addContext("/", new ReportFileContextHandler(requestPath.toFile(),
+                        new MappedFileCache(MAPPED_FILE_CACHE_CAPACITY, MAPPED_FILE_MAX_SIZE)));
+                host.addContext(AuthorshipApiHandler.CONTEXT_PATH, new AuthorshipApiHandler(requestPath.toFile()));
+                host.addContext(ContributionsApiHandler.CONTEXT_PATH,
+                        new ContributionsApiHandler(requestPath.toFile()));
+                if (eventsHandler != null) {
+                    host.addContext(ReportEventsHandler.CONTEXT_PATH, eventsHandler);
+                }
+            }
             server.start();
             launchBrowser(String.format(LOCAL_HOST_URL, port));
             logger.info("Press Ctrl + C or equivalent to stop the server");
@@ -40,6 +72,24 @@ public class DashboardServer {
         }
     }
 
+    /**
+     * Copies the archive of the files of the dashboard out of the jar into a temporary file, which is deleted when
+     * the program exits, and returns its path.
+     *
+     * @throws IOException if the archive cannot be copied.
+     */
+    private static Path extractTemplateArchive() throws IOException {
+        Path templatePath = Files.createTempFile("reposense-template", ".zip");
+        templatePath.toFile().deleteOnExit();
+        try (InputStream is = DashboardServer.class.getResourceAsStream(ReportGenerator.TEMPLATE_FILE)) {
+            if (is == null) {
+                throw new IOException(ReportGenerator.TEMPLATE_FILE + " does not exist in the jar file.");
+            }
+            Files.copy(is, templatePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return templatePath;
+    }
+
     /**
      * Launches the default browser with {@code url}.
      */
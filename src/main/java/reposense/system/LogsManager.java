@@ -4,6 +4,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
 import java.util.logging.Handler;
@@ -31,14 +35,18 @@ public class LogsManager {
     private static Level currentFileLogLevel = Level.INFO;
     private static FileHandler fileHandler;
     private static ConsoleHandler consoleHandler;
+    private static final Set<Logger> loggers = ConcurrentHashMap.newKeySet();
+    private static final List<Handler> additionalHandlers = new CopyOnWriteArrayList<>();
 
-    public static Logger getLogger(String name) {
+    public static synchronized Logger getLogger(String name) {
         Logger logger = Logger.getLogger(name);
         logger.setUseParentHandlers(false);
 
         removeHandlers(logger);
         addConsoleHandler(logger);
         addFileHandler(logger);
+        additionalHandlers.forEach(logger::addHandler);
+        loggers.add(logger);
 
         return logger;
     }
@@ -115,6 +123,22 @@ public class LogsManager {
         return consoleHandler;
     }
 
+    /**
+     * Adds {@code handler} to all the loggers, including those created after this, until it is removed.
+     */
+    public static synchronized void addHandler(Handler handler) {
+        additionalHandlers.add(handler);
+        loggers.forEach(logger -> logger.addHandler(handler));
+    }
+
+    /**
+     * Removes {@code handler}, which was added by {@code addHandler}, from all the loggers.
+     */
+    public static synchronized void removeHandler(Handler handler) {
+        additionalHandlers.remove(handler);
+        loggers.forEach(logger -> logger.removeHandler(handler));
+    }
+
     public static void setConsoleHandlerLevel(Level level) {
         currentConsoleLogLevel = level;
     }
@@ -0,0 +1,107 @@
+package reposense.system;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the files which were read most recently mapped into memory, up to a total size, so that files which are
+ * requested repeatedly are served from memory instead of being read from disk on every request.
+ *
+ * A mapping is replaced when the size or last modified time of its file changes. Mappings which are evicted are
+ * released by the garbage collector, as Java 8 has no way to unmap a file explicitly.
+ */
+public class MappedFileCache {
+    private final long capacity;
+    private final long maxFileSize;
+    private final Map<Path, MappedFile> mappedFiles = new LinkedHashMap<>(16, 0.75f, true);
+    private long mappedBytes = 0;
+
+    /**
+     * Creates a cache which keeps at most {@code capacity} bytes mapped, and does not map files larger than
+     * {@code maxFileSize} bytes.
+     */
+    public MappedFileCache(long capacity, long maxFileSize) {
+        this.capacity = capacity;
+        this.maxFileSize = Math.min(maxFileSize, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the content of the file at {@code path} as a read-only buffer of its own, mapping the file if it is
+     * not mapped yet or has changed since it was mapped.
+     * Returns null if the file is too large to be mapped.
+     *
+     * @throws IOException if the file cannot be read.
+     */
+    public synchronized ByteBuffer get(Path path) throws IOException {
+        long size = Files.size(path);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        MappedFile mappedFile = mappedFiles.get(path);
+        if (mappedFile != null && mappedFile.size == size && mappedFile.lastModified == lastModified) {
+            return mappedFile.buffer.duplicate();
+        }
+
+        remove(path);
+        if (size > maxFileSize || size > capacity) {
+            return null;
+        }
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).asReadOnlyBuffer();
+        }
+        mappedFiles.put(path, new MappedFile(buffer, size, lastModified));
+        mappedBytes += size;
+        evictLeastRecentlyUsed();
+        return buffer.duplicate();
+    }
+
+    /**
+     * Returns the total size of the files which are mapped.
+     */
+    synchronized long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    /**
+     * Removes the mapping of the file at {@code path}, if any.
+     */
+    private void remove(Path path) {
+        MappedFile removedFile = mappedFiles.remove(path);
+        if (removedFile != null) {
+            mappedBytes -= removedFile.size;
+        }
+    }
+
+    /**
+     * Removes the mappings of the files which were read least recently until the mapped files fit in the capacity.
+     */
+    private void evictLeastRecentlyUsed() {
+        Iterator<MappedFile> iterator = mappedFiles.values().iterator();
+        while (mappedBytes > capacity && iterator.hasNext()) {
+            mappedBytes -= iterator.next().size;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Represents a file which is mapped into memory.
+     */
+    private static class MappedFile {
+        private final ByteBuffer buffer;
+        private final long size;
+        private final long lastModified;
+
+        MappedFile(ByteBuffer buffer, long size, long lastModified) {
+            this.buffer = buffer;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
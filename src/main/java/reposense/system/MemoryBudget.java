@@ -0,0 +1,164 @@
+package reposense.system;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationFilter;
+
+/**
+ * Keeps the memory used by the analysis within a budget, by streaming the logs of the repos from temporary files
+ * instead of holding them in memory, and by analyzing only one branch at a time while the heap is near the budget.
+ *
+ * The heap is near the budget once the objects left in the tenured pools after a garbage collection take up more
+ * than {@code THROTTLE_RATIO} of it, as notified by the pools, and is no longer near it once a branch completes with
+ * less left in them. The budget is off until it is enabled, which a run with a heap budget does.
+ */
+public class MemoryBudget {
+    static final double THROTTLE_RATIO = 0.75;
+
+    private static final Logger logger = LogsManager.getLogger(MemoryBudget.class);
+    private static final Object lock = new Object();
+
+    private static long budget = 0;
+    private static boolean isListening = false;
+    private static boolean isThrottled = false;
+    private static int analysisCount = 0;
+
+    /**
+     * Enables the budget of {@code budgetBytes} bytes for the heap, replacing the budget enabled before, if any.
+     */
+    public static void enable(long budgetBytes) {
+        synchronized (lock) {
+            if (!isListening) {
+                NotificationEmitter emitter = (NotificationEmitter) ManagementFactory.getMemoryMXBean();
+                NotificationFilter filter = notification ->
+                        notification.getType().equals(MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED);
+                emitter.addNotificationListener((notification, handback) -> throttle(), filter, null);
+                isListening = true;
+            }
+
+            long maxMemory = Runtime.getRuntime().maxMemory();
+            if (maxMemory != Long.MAX_VALUE && maxMemory < budgetBytes) {
+                logger.warning(String.format("The heap budget of %d MiB is more than the %d MiB which the heap can "
+                        + "grow to, the analysis may still run out of memory.", budgetBytes >> 20, maxMemory >> 20));
+            }
+
+            budget = budgetBytes;
+            isThrottled = false;
+            for (MemoryPoolMXBean pool : getTenuredPools()) {
+                pool.setCollectionUsageThreshold(getThreshold(pool));
+            }
+            logger.info(String.format("Keeping the heap within %d MiB.", budgetBytes >> 20));
+        }
+    }
+
+    /**
+     * Disables the budget, so that the logs are read into memory and the branches are analyzed in parallel again.
+     */
+    public static void disable() {
+        synchronized (lock) {
+            if (budget == 0) {
+                return;
+            }
+
+            budget = 0;
+            isThrottled = false;
+            for (MemoryPoolMXBean pool : getTenuredPools()) {
+                // a threshold of 0 turns off the notifications of the pool
+                pool.setCollectionUsageThreshold(0);
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Returns true if a budget is enabled.
+     */
+    public static boolean isEnabled() {
+        synchronized (lock) {
+            return budget > 0;
+        }
+    }
+
+    /**
+     * Waits until a branch can be analyzed within the budget, which is once no other branch is being analyzed while
+     * the heap is near the budget. Returns without waiting if the budget is not enabled.
+     * Each call has to be followed by a call to {@code #release()} once the branch is analyzed.
+     */
+    public static void acquire() {
+        synchronized (lock) {
+            while (isThrottled && analysisCount > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            analysisCount++;
+        }
+    }
+
+    /**
+     * Releases the branch analyzed after a call to {@code #acquire()}, allowing the branches waiting for it to be
+     * analyzed, all of them if the heap is no longer near the budget.
+     */
+    public static void release() {
+        synchronized (lock) {
+            analysisCount--;
+            if (isThrottled && getTenuredPools().stream()
+                    .allMatch(pool -> pool.getCollectionUsage().getUsed() < getThreshold(pool))) {
+                isThrottled = false;
+                logger.info("The heap is no longer near its budget, analyzing branches in parallel again.");
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Limits the analysis to one branch at a time, as the heap is near the budget.
+     */
+    static void throttle() {
+        synchronized (lock) {
+            if (budget == 0 || isThrottled) {
+                return;
+            }
+
+            isThrottled = true;
+            logger.warning("The heap is near its budget, analyzing one branch at a time until it is not.");
+        }
+    }
+
+    static boolean isThrottled() {
+        synchronized (lock) {
+            return isThrottled;
+        }
+    }
+
+    /**
+     * Returns the usage of {@code pool} after a garbage collection beyond which the heap is near the budget, which is
+     * {@code THROTTLE_RATIO} of the budget, or of the most that the pool can grow to if that is less.
+     */
+    static long getThreshold(MemoryPoolMXBean pool) {
+        long poolMax = pool.getUsage().getMax();
+        long limit = (poolMax < 0) ? budget : Math.min(budget, poolMax);
+        return Math.max(1, (long) (limit * THROTTLE_RATIO));
+    }
+
+    /**
+     * Returns the pools of the heap which hold the objects that survived several garbage collections, which are the
+     * ones that can notify when their usage exceeds a threshold.
+     */
+    static List<MemoryPoolMXBean> getTenuredPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported()
+                        && pool.isCollectionUsageThresholdSupported())
+                .collect(Collectors.toList());
+    }
+}
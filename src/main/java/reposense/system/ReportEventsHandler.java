@@ -0,0 +1,110 @@
+package reposense.system;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.google.gson.Gson;
+
+import net.freeutils.httpserver.HTTPServer;
+
+/**
+ * Notifies the dashboards which are open whenever the report is regenerated in watch mode, using server-sent events,
+ * so that they reload the report without being refreshed by hand.
+ *
+ * A dashboard subscribes by requesting {@code CONTEXT_PATH}, after which it is sent a {@code report} event after each
+ * regeneration, whose data is the JSON object {@code {"repos": [...]}} of the display names of the repos which
+ * changed. A dashboard which reconnects with the id of the last event it was sent is sent the latest event at once
+ * if it missed any. A comment is sent every {@code HEARTBEAT_INTERVAL_MILLIS} so that the connections of dashboards
+ * which were closed are found and let go.
+ */
+public class ReportEventsHandler implements HTTPServer.ContextHandler {
+    public static final String CONTEXT_PATH = "/api/events";
+
+    private static final long HEARTBEAT_INTERVAL_MILLIS = 15000;
+    private static final long RETRY_INTERVAL_MILLIS = 3000;
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private final Gson gson = new Gson();
+    private long eventId = 0;
+    private String eventData;
+
+    /**
+     * Sends a {@code report} event about the regeneration of {@code repos} to every dashboard which is subscribed.
+     */
+    public synchronized void notifyReportChanged(List<String> repos) {
+        eventId++;
+        eventData = gson.toJson(new ReportEvent(repos));
+        notifyAll();
+    }
+
+    @Override
+    public int serve(HTTPServer.Request req, HTTPServer.Response resp) throws IOException {
+        long lastEventId = getLastEventId(req);
+
+        resp.getHeaders().add("Cache-Control", "no-cache");
+        // keeps the events from being held back in the buffer of a compressed response
+        resp.getHeaders().add("Content-Encoding", "identity");
+        resp.sendHeaders(200, -1, -1, null, "text/event-stream; charset=utf-8", null);
+        OutputStream out = resp.getBody();
+        write(out, String.format("retry: %d\n\n", RETRY_INTERVAL_MILLIS));
+
+        try {
+            while (true) {
+                String event;
+                synchronized (this) {
+                    if (eventId == lastEventId) {
+                        wait(HEARTBEAT_INTERVAL_MILLIS);
+                    }
+                    if (eventId != lastEventId) {
+                        lastEventId = eventId;
+                        event = String.format("id: %d\nevent: report\ndata: %s\n\n", eventId, eventData);
+                    } else {
+                        event = ": heartbeat\n\n";
+                    }
+                }
+                write(out, event);
+            }
+        } catch (IOException ioe) {
+            // the dashboard was closed
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the id of the last event sent to the dashboard of {@code req}, which is the id of the latest event if
+     * the dashboard has not been sent any event.
+     */
+    private synchronized long getLastEventId(HTTPServer.Request req) {
+        String lastEventIdHeader = req.getHeaders().get(LAST_EVENT_ID_HEADER);
+        try {
+            return (lastEventIdHeader == null) ? eventId : Long.parseLong(lastEventIdHeader.trim());
+        } catch (NumberFormatException nfe) {
+            return eventId;
+        }
+    }
+
+    /**
+     * Writes {@code text} into {@code out} and sends it at once.
+     *
+     * @throws IOException if the dashboard was closed.
+     */
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /**
+     * The data of a {@code report} event.
+     */
+    private static class ReportEvent {
+        private final List<String> repos;
+
+        ReportEvent(List<String> repos) {
+            this.repos = repos;
+        }
+    }
+}
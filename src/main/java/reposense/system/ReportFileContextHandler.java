@@ -0,0 +1,83 @@
+package reposense.system;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import net.freeutils.httpserver.HTTPServer;
+import reposense.util.FileUtil;
+
+/**
+ * Serves the files of a report directory in place of {@code HTTPServer.FileContextHandler}.
+ *
+ * A file which has a gzip-compressed copy written alongside it is served as that copy to clients which accept gzip,
+ * instead of being compressed again on every request. A single range of bytes of a file may be requested with the
+ * {@code Range} header, so that a slice of a large JSON file can be fetched without the rest of it. The files served
+ * most recently are kept mapped into memory by {@code cache}, so that a file requested by many clients is not read
+ * from disk again for each of them.
+ */
+public class ReportFileContextHandler implements HTTPServer.ContextHandler {
+    private final File base;
+    private final HTTPServer.FileContextHandler fileContextHandler;
+    private final MappedFileCache cache;
+
+    public ReportFileContextHandler(File base, MappedFileCache cache) throws IOException {
+        this.base = base.getCanonicalFile();
+        this.fileContextHandler = new HTTPServer.FileContextHandler(base);
+        this.cache = cache;
+    }
+
+    @Override
+    public int serve(HTTPServer.Request req, HTTPServer.Response resp) throws IOException {
+        File file = getRequestedFile(req);
+        if (file == null) {
+            // directories, and files which may not be served, are handled as before
+            return fileContextHandler.serve(req, resp);
+        }
+
+        // a range is always served from the uncompressed file, as it is what the client can make sense of
+        File compressedFile = new File(file.getPath() + FileUtil.GZIP_EXTENSION);
+        if (!req.getHeaders().contains("Range") && ContentSender.isGzipAccepted(req) && compressedFile.isFile()
+                && compressedFile.lastModified() >= file.lastModified()) {
+            serveFile(file, compressedFile, ContentSender.GZIP_ENCODING, req, resp);
+        } else {
+            serveFile(file, file, null, req, resp);
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the file requested by {@code req}, or null if it is not a regular file which may be served from
+     * {@code base}.
+     */
+    private File getRequestedFile(HTTPServer.Request req) throws IOException {
+        String relativePath = req.getPath().substring(req.getContext().getPath().length());
+        File file = new File(base, relativePath).getCanonicalFile();
+        if (!file.toPath().startsWith(base.toPath()) || !file.isFile() || file.isHidden()
+                || file.getName().startsWith(".")) {
+            return null;
+        }
+        return file;
+    }
+
+    /**
+     * Responds to {@code req} with {@code contentFile}, which is {@code file} itself, or its copy compressed with
+     * {@code encoding} if it is not null.
+     * The entity tag is derived from the size and last modified time of {@code file}.
+     */
+    private void serveFile(File file, File contentFile, String encoding, HTTPServer.Request req,
+            HTTPServer.Response resp) throws IOException {
+        ByteBuffer mappedContent = cache.get(contentFile.toPath());
+        long length = (mappedContent != null) ? mappedContent.remaining() : contentFile.length();
+        long lastModified = file.lastModified();
+        String etag = ContentSender.createEtag(String.format("%x-%x", lastModified, file.length()), encoding);
+        ContentSender.send(req, resp, file.getName(), length, lastModified, etag, encoding, (start, count, out) -> {
+            if (mappedContent != null) {
+                mappedContent.position((int) start).limit((int) (start + count));
+                ContentSender.writeBuffer(mappedContent, out);
+            } else {
+                ContentSender.transferFile(contentFile.toPath(), start, count, out);
+            }
+        });
+    }
+}
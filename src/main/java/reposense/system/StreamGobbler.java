@@ -3,15 +3,25 @@ package reposense.system;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 
+/**
+ * Reads the whole output of a command, decoded as UTF-8, which is the encoding git outputs commit messages, author
+ * names and paths in unless configured otherwise.
+ */
 public class StreamGobbler extends Thread {
 
     private final ByteBuffer buffer = ByteBuffer.allocate(1 << 13); // 8KB
+    private final CharBuffer chars = CharBuffer.allocate(1 << 13);
 
     private InputStream is;
     private String value;
+    private long bytesRead;
 
     public StreamGobbler(InputStream is) {
         this.is = is;
@@ -21,19 +31,40 @@ public class StreamGobbler extends Thread {
         return value;
     }
 
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
     @Override
     public void run() {
         try {
             StringBuilder sb = new StringBuilder();
             ReadableByteChannel ch = Channels.newChannel(is);
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
             int len;
             while ((len = ch.read(buffer)) > 0) {
-                sb.append(new String(buffer.array(), 0, len));
-                buffer.rewind();
+                bytesRead += len;
+                buffer.flip();
+                // the bytes of a character split between two reads are kept in the buffer until the next read
+                decoder.decode(buffer, chars, false);
+                appendChars(sb);
+                buffer.compact();
             }
+            buffer.flip();
+            decoder.decode(buffer, chars, true);
+            decoder.flush(chars);
+            appendChars(sb);
             value = sb.toString();
         } catch (IOException ioe) {
             ioe.printStackTrace();
         }
     }
+
+    private void appendChars(StringBuilder sb) {
+        chars.flip();
+        sb.append(chars);
+        chars.clear();
+    }
 }
@@ -0,0 +1,362 @@
+package reposense.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Reads the entries of a zip archive, such as one written by {@code ArchiveWriter}, by random access.
+ *
+ * The central directory of the archive is read once, after which the data of any entry can be read directly from its
+ * position in the archive, either as it is stored, or inflated. Reading the data as it is stored lets a deflated entry
+ * be sent to a client which accepts compressed content without being inflated and compressed again.
+ * Archives which need the zip64 format are not supported, like in {@code ArchiveWriter}.
+ *
+ * The archive is kept open until the reader is closed, and every entry is read through it, so that the reader keeps
+ * reading the archive whose central directory it read even if the file at its path is replaced.
+ */
+public class ArchiveReader implements Closeable {
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int LOCAL_FILE_HEADER_SIZE = 30;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final int STORED_METHOD = 0;
+    private static final int DEFLATED_METHOD = 8;
+    private static final int BUFFER_SIZE = 1 << 16; // 64KB
+
+    private final Path archivePath;
+    private final FileChannel channel;
+    private final long archiveSize;
+    private final long lastModified;
+    private final Map<String, Entry> entries;
+
+    /**
+     * Reads the central directory of the archive at {@code archivePath}.
+     *
+     * @throws IOException if the archive cannot be read, or is not a zip archive which is supported.
+     */
+    public ArchiveReader(Path archivePath) throws IOException {
+        this.archivePath = archivePath;
+        this.lastModified = Files.getLastModifiedTime(archivePath).toMillis();
+        this.channel = FileChannel.open(archivePath, StandardOpenOption.READ);
+        try {
+            this.archiveSize = channel.size();
+            this.entries = Collections.unmodifiableMap(readCentralDirectory());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getArchivePath() {
+        return archivePath;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Returns true if the archive has been replaced or modified since its central directory was read.
+     *
+     * @throws IOException if the archive cannot be read anymore.
+     */
+    public boolean isOutdated() throws IOException {
+        return Files.getLastModifiedTime(archivePath).toMillis() != lastModified
+                || Files.size(archivePath) != archiveSize;
+    }
+
+    /**
+     * Returns the entry named {@code name}, if any.
+     */
+    public Optional<Entry> getEntry(String name) {
+        return Optional.ofNullable(entries.get(name));
+    }
+
+    /**
+     * Returns the entries of the archive, sorted by name.
+     */
+    public Collection<Entry> getEntries() {
+        return new TreeMap<>(entries).values();
+    }
+
+    /**
+     * Returns the position of the data of {@code entry} in the archive, which follows its local header.
+     *
+     * @throws IOException if the local header of the entry cannot be read.
+     */
+    public long getDataOffset(Entry entry) throws IOException {
+        if (entry.dataOffset < 0) {
+            ByteBuffer header = read(channel, entry.localHeaderOffset, LOCAL_FILE_HEADER_SIZE);
+            if (header.getInt(0) != LOCAL_FILE_HEADER_SIGNATURE) {
+                throw new ZipException("Invalid local header of " + entry.name + " in " + archivePath);
+            }
+            int nameLength = Short.toUnsignedInt(header.getShort(26));
+            int extraLength = Short.toUnsignedInt(header.getShort(28));
+            entry.dataOffset = entry.localHeaderOffset + LOCAL_FILE_HEADER_SIZE + nameLength + extraLength;
+        }
+        return entry.dataOffset;
+    }
+
+    /**
+     * Returns a stream of the uncompressed content of {@code entry}.
+     *
+     * @throws IOException if the data of the entry cannot be read.
+     */
+    public InputStream getInputStream(Entry entry) throws IOException {
+        InputStream rawStream = getRawInputStream(entry);
+        if (!entry.isCompressed()) {
+            return rawStream;
+        }
+
+        Inflater inflater = new Inflater(true);
+        return new InflaterInputStream(rawStream, inflater, BUFFER_SIZE) {
+            private boolean isClosed = false;
+            private boolean isEndOfInput = false;
+
+            /**
+             * Passes a dummy byte to the inflater at the end of the data, as an inflater which does not expect the
+             * zlib header may need one to finish, like in {@code ZipFile}.
+             */
+            @Override
+            protected void fill() throws IOException {
+                if (isEndOfInput) {
+                    throw new EOFException("Unexpected end of the data of " + entry.name + " in " + archivePath);
+                }
+                len = in.read(buf, 0, buf.length);
+                if (len == -1) {
+                    buf[0] = 0;
+                    len = 1;
+                    isEndOfInput = true;
+                }
+                inf.setInput(buf, 0, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!isClosed) {
+                    isClosed = true;
+                    inflater.end();
+                    super.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns a stream of the data of {@code entry} as it is stored in the archive.
+     *
+     * @throws IOException if the data of the entry cannot be read.
+     */
+    public InputStream getRawInputStream(Entry entry) throws IOException {
+        return new EntryDataStream(getDataOffset(entry), entry.compressedSize);
+    }
+
+    /**
+     * Writes {@code count} bytes of the data of {@code entry} as it is stored in the archive, starting from
+     * {@code start}, into {@code target}, letting the operating system copy them directly where it can.
+     *
+     * @throws IOException if the data of the entry cannot be read, or ends before all of them are written.
+     */
+    public void transferData(Entry entry, long start, long count, WritableByteChannel target) throws IOException {
+        long position = getDataOffset(entry) + start;
+        long end = position + count;
+        while (position < end) {
+            long transferred = channel.transferTo(position, end - position, target);
+            if (transferred <= 0) {
+                throw new EOFException("Unexpected end of the data of " + entry.name + " in " + archivePath);
+            }
+            position += transferred;
+        }
+    }
+
+    /**
+     * Closes the archive. The entries cannot be read anymore afterwards.
+     *
+     * @throws IOException if the archive cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads the entries listed in the central directory of the archive.
+     *
+     * @throws IOException if the central directory cannot be read, or uses features which are not supported.
+     */
+    private Map<String, Entry> readCentralDirectory() throws IOException {
+        long size = channel.size();
+        int tailLength = (int) Math.min(size, END_OF_CENTRAL_DIRECTORY_SIZE + MAX_COMMENT_LENGTH);
+        ByteBuffer tail = read(channel, size - tailLength, tailLength);
+        int endPosition = tailLength - END_OF_CENTRAL_DIRECTORY_SIZE;
+        while (endPosition >= 0 && tail.getInt(endPosition) != END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+            endPosition--;
+        }
+        if (endPosition < 0) {
+            throw new ZipException(archivePath + " is not a zip archive.");
+        }
+
+        int entryCount = Short.toUnsignedInt(tail.getShort(endPosition + 10));
+        long centralDirectorySize = Integer.toUnsignedLong(tail.getInt(endPosition + 12));
+        long centralDirectoryOffset = Integer.toUnsignedLong(tail.getInt(endPosition + 16));
+        if (centralDirectorySize > Integer.MAX_VALUE || centralDirectoryOffset + centralDirectorySize > size) {
+            throw new ZipException("Invalid central directory in " + archivePath);
+        }
+
+        ByteBuffer directory = read(channel, centralDirectoryOffset, (int) centralDirectorySize);
+        Map<String, Entry> entries = new HashMap<>();
+        for (int i = 0; i < entryCount; i++) {
+            int position = directory.position();
+            if (directory.getInt(position) != CENTRAL_DIRECTORY_HEADER_SIGNATURE) {
+                throw new ZipException("Invalid central directory in " + archivePath);
+            }
+            int method = Short.toUnsignedInt(directory.getShort(position + 10));
+            long crc = Integer.toUnsignedLong(directory.getInt(position + 16));
+            long compressedSize = Integer.toUnsignedLong(directory.getInt(position + 20));
+            long uncompressedSize = Integer.toUnsignedLong(directory.getInt(position + 24));
+            int nameLength = Short.toUnsignedInt(directory.getShort(position + 28));
+            int extraLength = Short.toUnsignedInt(directory.getShort(position + 30));
+            int commentLength = Short.toUnsignedInt(directory.getShort(position + 32));
+            long localHeaderOffset = Integer.toUnsignedLong(directory.getInt(position + 42));
+
+            byte[] name = new byte[nameLength];
+            directory.position(position + CENTRAL_DIRECTORY_HEADER_SIZE);
+            directory.get(name);
+            directory.position(directory.position() + extraLength + commentLength);
+
+            String entryName = new String(name, StandardCharsets.UTF_8);
+            if (entryName.endsWith("/")) {
+                continue;
+            }
+            if (method != STORED_METHOD && method != DEFLATED_METHOD) {
+                throw new ZipException(entryName + " in " + archivePath + " is compressed with an unsupported method.");
+            }
+            entries.put(entryName,
+                    new Entry(entryName, method, crc, compressedSize, uncompressedSize, localHeaderOffset));
+        }
+        return entries;
+    }
+
+    /**
+     * Reads {@code length} bytes of {@code channel} starting from {@code position}.
+     *
+     * @throws IOException if the channel ends before all of them are read.
+     */
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new ZipException("Unexpected end of archive.");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Represents an entry of the archive.
+     */
+    public static class Entry {
+        private final String name;
+        private final int method;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long localHeaderOffset;
+        private volatile long dataOffset = -1;
+
+        Entry(String name, int method, long crc, long compressedSize, long size, long localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isCompressed() {
+            return method == DEFLATED_METHOD;
+        }
+
+        public long getCrc() {
+            return crc;
+        }
+
+        /**
+         * Returns the size of the data of the entry as it is stored in the archive.
+         */
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        /**
+         * Returns the size of the content of the entry when it is uncompressed.
+         */
+        public long getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * Reads a range of the archive, without moving the position of the channel which the archive is open as, so that
+     * any number of them can read the archive at the same time.
+     */
+    private class EntryDataStream extends InputStream {
+        private long position;
+        private final long end;
+
+        EntryDataStream(long position, long length) {
+            this.position = position;
+            this.end = position + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] value = new byte[1];
+            return (read(value, 0, 1) == -1) ? -1 : Byte.toUnsignedInt(value[0]);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            int count = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, end - position)),
+                    position);
+            if (count < 0) {
+                throw new EOFException("Unexpected end of archive.");
+            }
+            position += count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package reposense.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a zip archive whose entries are added one by one as soon as their contents are produced, possibly from
+ * several threads at once, instead of walking the files again after they are all written.
+ *
+ * Each entry is compressed by the thread which adds it, so that entries added from different threads are compressed
+ * in parallel, and is then appended to the archive as a whole. The central directory, which is what tools list and
+ * look entries up from, is sorted by entry name, so that it does not depend on the order the entries were added in.
+ * A file which is added again, such as the report of a repo which is written more than once, replaces the earlier
+ * entry in the central directory. The archive is written into a temporary file, which replaces the file at the path
+ * of the archive only when it is complete, so that a reader never sees a partly written archive. If any entry fails to
+ * be added, the archive is left out when it is closed instead, as it would be missing that entry.
+ */
+public class ArchiveWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16; // 64KB
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int LOCAL_FILE_HEADER_SIZE = 30;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final short VERSION_NEEDED = 20;
+    private static final short UTF8_NAME_FLAG = 1 << 11;
+    private static final short DEFLATED_METHOD = 8;
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    private final Path archivePath;
+    private final Path temporaryPath;
+    private final OutputStream out;
+    private final Path rootPath;
+    private final Map<String, Entry> entries = new TreeMap<>();
+    private long offset = 0;
+    private boolean isClosed = false;
+    private volatile boolean isFailed = false;
+
+    /**
+     * Creates an empty archive at {@code archivePath}, replacing the file there if any, for files in
+     * {@code rootPath} and its subdirectories.
+     *
+     * @throws IOException if the archive cannot be created.
+     */
+    public ArchiveWriter(Path archivePath, Path rootPath) throws IOException {
+        this.archivePath = archivePath;
+        this.temporaryPath = Paths.get(archivePath + TEMPORARY_EXTENSION);
+        this.out = new BufferedOutputStream(Files.newOutputStream(temporaryPath), BUFFER_SIZE);
+        this.rootPath = rootPath.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Compresses the file at {@code filePath} and adds it to the archive.
+     *
+     * @throws IOException if the file cannot be read or the archive cannot be written to.
+     */
+    public void addFile(Path filePath) throws IOException {
+        addEntry(getEntryName(filePath), out -> Files.copy(filePath, out));
+    }
+
+    /**
+     * Compresses {@code content}, which has just been written to the file at {@code filePath}, and adds it to the
+     * archive as that file.
+     *
+     * @throws IOException if the archive cannot be written to.
+     */
+    public void addFile(Path filePath, byte[] content) throws IOException {
+        addEntry(getEntryName(filePath), out -> out.write(content));
+    }
+
+    /**
+     * Compresses the content which {@code contentWriter} writes, as it writes the file at {@code filePath}, and adds
+     * it to the archive as that file, so that the content does not have to be held in memory or read back.
+     * Nothing is added if {@code contentWriter} fails.
+     *
+     * @throws IOException if {@code contentWriter} fails or the archive cannot be written to.
+     */
+    public void addFile(Path filePath, ContentWriter contentWriter) throws IOException {
+        addEntry(getEntryName(filePath), contentWriter);
+    }
+
+    /**
+     * Adds {@code entry} of the archive read by {@code archiveReader} to this archive under the same name.
+     * A deflated entry is copied as it is stored, instead of being inflated and compressed again.
+     *
+     * @throws IOException if the entry cannot be read or the archive cannot be written to.
+     */
+    public void copyEntry(ArchiveReader archiveReader, ArchiveReader.Entry entry) throws IOException {
+        if (!entry.isCompressed()) {
+            addEntry(entry.getName(), out -> copy(archiveReader.getInputStream(entry), out));
+            return;
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try {
+            copy(archiveReader.getRawInputStream(entry), compressed);
+        } catch (IOException ioe) {
+            isFailed = true;
+            throw ioe;
+        }
+        appendEntry(new Entry(entry.getName(), entry.getName().getBytes(StandardCharsets.UTF_8), entry.getCrc(),
+                compressed.size(), entry.getSize(), getDosDateTime(LocalDateTime.now())), compressed);
+    }
+
+    /**
+     * Returns the path of {@code filePath} relative to the root of the archive, separated by {@code /}.
+     */
+    private String getEntryName(Path filePath) {
+        return rootPath.relativize(filePath.toAbsolutePath().normalize()).toString().replace('\\', '/');
+    }
+
+    /**
+     * Compresses the content which {@code contentWriter} writes and adds it to the archive as {@code entryName}.
+     *
+     * @throws IOException if {@code contentWriter} fails or the archive cannot be written to.
+     */
+    private void addEntry(String entryName, ContentWriter contentWriter) throws IOException {
+        CRC32 crc = new CRC32();
+        long size;
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            try (OutputStream os = new CheckedOutputStream(
+                    new DeflaterOutputStream(compressed, deflater, BUFFER_SIZE), crc)) {
+                contentWriter.write(os);
+            }
+            size = deflater.getBytesRead();
+        } catch (IOException | RuntimeException e) {
+            isFailed = true;
+            throw e;
+        } finally {
+            deflater.end();
+        }
+
+        Entry entry = new Entry(entryName, entryName.getBytes(StandardCharsets.UTF_8), crc.getValue(),
+                compressed.size(), size, getDosDateTime(LocalDateTime.now()));
+        if (entry.compressedSize > MAX_SIZE || entry.size > MAX_SIZE) {
+            isFailed = true;
+            throw new IOException(entryName + " is too large to be archived.");
+        }
+        appendEntry(entry, compressed);
+    }
+
+    /**
+     * Writes the remaining bytes of {@code is} into {@code out}, then closes {@code is}.
+     */
+    private static void copy(InputStream is, OutputStream out) throws IOException {
+        try (InputStream stream = is) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+        }
+    }
+
+    /**
+     * Writes the central directory of the archive, closes it and moves it to the path of the archive.
+     * Deletes the archive instead if any entry failed to be added to it.
+     *
+     * @throws IOException if the archive cannot be written to, or an entry failed to be added to it.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+
+        if (isFailed) {
+            try {
+                out.close();
+            } finally {
+                Files.deleteIfExists(temporaryPath);
+            }
+            throw new IOException(archivePath + " is not written, as some files failed to be added to it.");
+        }
+
+        try {
+            long centralDirectoryOffset = offset;
+            for (Entry entry : entries.values()) {
+                ByteBuffer header = createHeader(CENTRAL_DIRECTORY_HEADER_SIZE + entry.name.length);
+                header.putInt(CENTRAL_DIRECTORY_HEADER_SIGNATURE);
+                header.putShort(VERSION_NEEDED); // version made by
+                putEntryFields(header, entry);
+                header.putShort((short) 0); // comment length
+                header.putShort((short) 0); // disk number
+                header.putShort((short) 0); // internal attributes
+                header.putInt(0); // external attributes
+                header.putInt((int) entry.offset);
+                header.put(entry.name);
+                write(header);
+            }
+            long centralDirectorySize = offset - centralDirectoryOffset;
+            if (entries.size() > MAX_ENTRIES || offset > MAX_SIZE) {
+                throw new IOException("The archive has too many entries or is too large.");
+            }
+
+            ByteBuffer end = createHeader(END_OF_CENTRAL_DIRECTORY_SIZE);
+            end.putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+            end.putShort((short) 0); // disk number
+            end.putShort((short) 0); // disk with the central directory
+            end.putShort((short) entries.size());
+            end.putShort((short) entries.size());
+            end.putInt((int) centralDirectorySize);
+            end.putInt((int) centralDirectoryOffset);
+            end.putShort((short) 0); // comment length
+            write(end);
+        } finally {
+            out.close();
+        }
+        Files.move(temporaryPath, archivePath, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Appends the local header and {@code compressedContent} of {@code entry} to the archive.
+     */
+    private synchronized void appendEntry(Entry entry, ByteArrayOutputStream compressedContent) throws IOException {
+        if (isClosed) {
+            throw new IOException("The archive is already closed.");
+        }
+
+        if (offset > MAX_SIZE) {
+            throw new IOException("The archive is too large.");
+        }
+
+        entry.offset = offset;
+        ByteBuffer header = createHeader(LOCAL_FILE_HEADER_SIZE + entry.name.length);
+        header.putInt(LOCAL_FILE_HEADER_SIGNATURE);
+        putEntryFields(header, entry);
+        header.put(entry.name);
+        try {
+            write(header);
+            compressedContent.writeTo(out);
+        } catch (IOException ioe) {
+            isFailed = true;
+            throw ioe;
+        }
+        offset += compressedContent.size();
+        entries.put(entry.entryName, entry);
+    }
+
+    /**
+     * Puts the fields shared by the local and central directory headers of {@code entry} into {@code header}.
+     */
+    private static void putEntryFields(ByteBuffer header, Entry entry) {
+        header.putShort(VERSION_NEEDED);
+        header.putShort(UTF8_NAME_FLAG);
+        header.putShort(DEFLATED_METHOD);
+        header.putInt(entry.dosDateTime);
+        header.putInt((int) entry.crc);
+        header.putInt((int) entry.compressedSize);
+        header.putInt((int) entry.size);
+        header.putShort((short) entry.name.length);
+        header.putShort((short) 0); // extra field length
+    }
+
+    private static ByteBuffer createHeader(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        out.write(buffer.array(), 0, buffer.position());
+        offset += buffer.position();
+    }
+
+    /**
+     * Returns {@code dateTime} in the MS-DOS format used by zip archives, with the time in the lower 16 bits.
+     */
+    private static int getDosDateTime(LocalDateTime dateTime) {
+        int date = ((dateTime.getYear() - 1980) << 9) | (dateTime.getMonthValue() << 5) | dateTime.getDayOfMonth();
+        int time = (dateTime.getHour() << 11) | (dateTime.getMinute() << 5) | (dateTime.getSecond() / 2);
+        return (date << 16) | time;
+    }
+
+    /**
+     * Writes the content of a file which is added to the archive.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Represents an entry which has been written to the archive.
+     */
+    private static class Entry {
+        private final String entryName;
+        private final byte[] name;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final int dosDateTime;
+        private long offset;
+
+        Entry(String entryName, byte[] name, long crc, long compressedSize, long size, int dosDateTime) {
+            this.entryName = entryName;
+            this.name = name;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.dosDateTime = dosDateTime;
+        }
+    }
+}
@@ -1,28 +1,32 @@
 package reposense.util;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PrintWriter;
-import java.nio.ByteBuffer;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.Set;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
 
 import reposense.system.LogsManager;
 
@@ -33,23 +37,94 @@ public class FileUtil {
     // zip file which contains all the specified file types
     public static final String ZIP_FILE = "archive.zip";
 
+    // extension of the gzip-compressed copy of a report file, which is served in its place by the dashboard server
+    public static final String GZIP_EXTENSION = ".gz";
+
+    // charset of the JSON files of the report, which is the one the dashboard decodes them with
+    public static final Charset JSON_CHARSET = StandardCharsets.UTF_8;
+
     private static final Logger logger = LogsManager.getLogger(FileUtil.class);
     private static final String GITHUB_API_DATE_FORMAT = "yyyy-MM-dd";
-    private static final ByteBuffer buffer = ByteBuffer.allocate(1 << 11); // 2KB
+    private static final int BUFFER_SIZE = 1 << 16; // 64KB
+    private static final String TEMPORARY_EXTENSION = ".tmp";
 
     public static void writeJsonFile(Object object, String path) {
-        Gson gson = new GsonBuilder()
+        try {
+            Files.write(Paths.get(path), toJsonBytes(object));
+        } catch (IOException ioe) {
+            logger.log(Level.SEVERE, ioe.getMessage(), ioe);
+        }
+    }
+
+    /**
+     * Writes {@code object} as JSON into the file at {@code path}, along with a gzip-compressed copy of it whose path
+     * ends with {@code GZIP_EXTENSION}, and adds the same content to {@code archiveWriter}. The JSON is produced once
+     * and streamed into all three, so that it is never held in memory as a whole, nor read again to be archived.
+     *
+     * @throws IOException if either file cannot be written, or the archive cannot be written to.
+     */
+    public static void writeJsonFile(Object object, String path, ArchiveWriter archiveWriter) throws IOException {
+        Path filePath = Paths.get(path);
+        archiveWriter.addFile(filePath, archiveStream -> writeJsonFile(object, filePath, archiveStream));
+    }
+
+    /**
+     * Writes {@code object} as JSON into the file at {@code path}, its gzip-compressed copy and {@code archiveStream}
+     * at once. Each file is written into a temporary file which then replaces it, so that the file is never seen
+     * partly written, and a server which has the previous file open or mapped keeps reading it unchanged.
+     *
+     * @throws IOException if either file cannot be written, or {@code archiveStream} cannot be written to.
+     */
+    private static void writeJsonFile(Object object, Path path, OutputStream archiveStream) throws IOException {
+        Path gzipPath = Paths.get(path + GZIP_EXTENSION);
+        Path temporaryPath = Paths.get(path + TEMPORARY_EXTENSION);
+        Path temporaryGzipPath = Paths.get(gzipPath + TEMPORARY_EXTENSION);
+        try {
+            try (OutputStream fileStream = Files.newOutputStream(temporaryPath);
+                    OutputStream gzipStream = new GZIPOutputStream(Files.newOutputStream(temporaryGzipPath),
+                            BUFFER_SIZE);
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(
+                            new TeeOutputStream(fileStream, gzipStream, archiveStream), JSON_CHARSET), BUFFER_SIZE)) {
+                createGson().toJson(object, writer);
+                writer.write("\n");
+            } catch (JsonIOException jioe) {
+                throw new IOException("Error writing " + path, jioe);
+            }
+            moveAtomically(temporaryPath, path);
+            moveAtomically(temporaryGzipPath, gzipPath);
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+            Files.deleteIfExists(temporaryGzipPath);
+        }
+    }
+
+    /**
+     * Moves the file at {@code sourcePath} to {@code targetPath}, replacing the file there, atomically if the file
+     * system supports it.
+     */
+    private static void moveAtomically(Path sourcePath, Path targetPath) throws IOException {
+        try {
+            Files.move(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException amnse) {
+            Files.move(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Returns {@code object} as pretty-printed JSON, ending with a new line.
+     */
+    private static byte[] toJsonBytes(Object object) {
+        return (createGson().toJson(object) + "\n").getBytes(JSON_CHARSET);
+    }
+
+    /**
+     * Returns the {@code Gson} which the JSON files of the report are written with, which pretty-prints them.
+     */
+    private static Gson createGson() {
+        return new GsonBuilder()
                 .setDateFormat(GITHUB_API_DATE_FORMAT)
                 .setPrettyPrinting()
                 .create();
-        String result = gson.toJson(object);
-
-        try (PrintWriter out = new PrintWriter(path)) {
-            out.print(result);
-            out.print("\n");
-        } catch (FileNotFoundException e) {
-            logger.log(Level.SEVERE, e.getMessage(), e);
-        }
     }
 
     public static void deleteDirectory(String root) throws IOException {
@@ -73,24 +148,10 @@ public class FileUtil {
      * Creates the zipped {@code ZIP_FILE} file in the {@code outputPath}.
      */
     public static void zip(Path sourcePath, Path outputPath, String... fileTypes) {
-        try (
-                FileOutputStream fos = new FileOutputStream(outputPath + File.separator + ZIP_FILE);
-                ZipOutputStream zos = new ZipOutputStream(fos)
-        ) {
-            Set<Path> allFiles = getFilePaths(sourcePath, fileTypes);
-            for (Path path : allFiles) {
-                String filePath = sourcePath.relativize(path.toAbsolutePath()).toString();
-                String zipEntry = Files.isDirectory(path) ? filePath + File.separator : filePath;
-                zos.putNextEntry(new ZipEntry(zipEntry.replace("\\", "/")));
-                if (Files.isRegularFile(path)) {
-                    try (InputStream is = Files.newInputStream(path)) {
-                        int length;
-                        while ((length = is.read(buffer.array())) > 0) {
-                            zos.write(buffer.array(), 0, length);
-                        }
-                    }
-                }
-                zos.closeEntry();
+        Path archivePath = Paths.get(outputPath.toString(), ZIP_FILE);
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(archivePath, sourcePath)) {
+            for (Path path : getFilePaths(sourcePath, fileTypes)) {
+                archiveWriter.addFile(path);
             }
         } catch (IOException ioe) {
             logger.log(Level.SEVERE, ioe.getMessage(), ioe);
@@ -126,12 +187,7 @@ public class FileUtil {
                 if (!Files.exists(path.getParent())) {
                     Files.createDirectories(path.getParent());
                 }
-                try (OutputStream output = Files.newOutputStream(path)) {
-                    int length;
-                    while ((length = zis.read(buffer.array())) > 0) {
-                        output.write(buffer.array(), 0, length);
-                    }
-                }
+                Files.copy(zis, path, StandardCopyOption.REPLACE_EXISTING);
                 zis.closeEntry();
             }
         }
@@ -153,12 +209,15 @@ public class FileUtil {
     }
 
     /**
-     * Returns a list of {@code Path} of {@code fileTypes} contained in the given {@code directoryPath} directory.
+     * Returns a list of {@code Path} of {@code fileTypes} files contained in the given {@code directoryPath}
+     * directory, in the order of their paths.
      */
-    private static Set<Path> getFilePaths(Path directoryPath, String... fileTypes) throws IOException {
-        return Files.walk(directoryPath)
-                .filter(p -> FileUtil.isFileTypeInPath(p, fileTypes) || Files.isDirectory(p))
-                .collect(Collectors.toSet());
+    private static List<Path> getFilePaths(Path directoryPath, String... fileTypes) throws IOException {
+        try (Stream<Path> paths = Files.walk(directoryPath)) {
+            return paths.filter(p -> FileUtil.isFileTypeInPath(p, fileTypes) && Files.isRegularFile(p))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
     }
 
     /**
@@ -171,4 +230,55 @@ public class FileUtil {
     private static String attachJsPrefix(String original, String prefix) {
         return "var " + prefix + " = " + original;
     }
+
+    /**
+     * Writes the same bytes into several streams, and closes all of them when it is closed.
+     */
+    private static class TeeOutputStream extends OutputStream {
+        private final OutputStream[] streams;
+
+        TeeOutputStream(OutputStream... streams) {
+            this.streams = streams;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            for (OutputStream stream : streams) {
+                stream.write(value);
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            for (OutputStream stream : streams) {
+                stream.write(buffer, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            for (OutputStream stream : streams) {
+                stream.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException exception = null;
+            for (OutputStream stream : streams) {
+                try {
+                    stream.close();
+                } catch (IOException ioe) {
+                    if (exception == null) {
+                        exception = ioe;
+                    } else {
+                        exception.addSuppressed(ioe);
+                    }
+                }
+            }
+            if (exception != null) {
+                throw exception;
+            }
+        }
+    }
 }
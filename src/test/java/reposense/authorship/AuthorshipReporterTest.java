@@ -0,0 +1,53 @@
+package reposense.authorship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import reposense.authorship.model.AuthorshipShard;
+import reposense.authorship.model.AuthorshipSummary;
+import reposense.authorship.model.FileResult;
+import reposense.template.GitTestTemplate;
+
+public class AuthorshipReporterTest extends GitTestTemplate {
+
+    @Test
+    public void generateAuthorshipSummary_filesInSubdirectory_shardedByTopLevelDirectory() {
+        List<AuthorshipShard> writtenShards = new ArrayList<>();
+        List<List<FileResult>> writtenResults = new ArrayList<>();
+        AuthorshipShardWriter shardWriter = (shard, fileResults) -> {
+            writtenShards.add(shard);
+            writtenResults.add(new ArrayList<>(fileResults));
+        };
+        AuthorshipSummary authorshipSummary = AuthorshipReporter.generateAuthorshipSummary(config, shardWriter);
+
+        Assert.assertEquals(writtenShards, authorshipSummary.getShards());
+        Assert.assertEquals(Arrays.asList("", "newPos"), Arrays.asList(
+                writtenShards.get(0).getDirectory(), writtenShards.get(writtenShards.size() - 1).getDirectory()));
+        Assert.assertEquals("0.json", writtenShards.get(0).getFile());
+
+        int totalLineCount = 0;
+        for (int i = 0; i < writtenShards.size(); i++) {
+            AuthorshipShard shard = writtenShards.get(i);
+            List<FileResult> fileResults = writtenResults.get(i);
+            Assert.assertEquals(fileResults.size(), shard.getFileCount());
+            Assert.assertTrue(shard.getLineCount() <= AuthorshipReporter.MAX_SHARD_LINE_COUNT);
+            for (FileResult fileResult : fileResults) {
+                Assert.assertEquals(shard.getDirectory(), AuthorshipShard.getTopLevelDirectory(fileResult.getPath()));
+            }
+            totalLineCount += shard.getLineCount(MAIN_AUTHOR_NAME);
+        }
+        Assert.assertEquals(totalLineCount,
+                (int) authorshipSummary.getAuthorFinalContributionMap().get(getAlphaAllAliasAuthor()));
+    }
+
+    @Test
+    public void getTopLevelDirectory_fileInRootOrSubdirectory_success() {
+        Assert.assertEquals("", AuthorshipShard.getTopLevelDirectory("README.md"));
+        Assert.assertEquals("newPos", AuthorshipShard.getTopLevelDirectory("newPos/movedFile.java"));
+        Assert.assertEquals("src", AuthorshipShard.getTopLevelDirectory("src/main/java/Main.java"));
+    }
+}
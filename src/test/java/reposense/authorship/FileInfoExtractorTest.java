@@ -1,10 +1,13 @@
 package reposense.authorship;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -61,6 +64,17 @@ public class FileInfoExtractorTest extends GitTestTemplate {
         Assert.assertFalse(isFileExistence(Paths.get("newFile.java"), files));
     }
 
+    @Test
+    public void streamFileInfos_sinceDateFebrauaryNineToLatestCommit_sameAsExtractFileInfos() throws IOException {
+        config.setSinceDate(TestUtil.getDate(2018, Calendar.FEBRUARY, 9));
+        assertStreamedSameAsExtracted();
+    }
+
+    @Test
+    public void streamFileInfos_noSinceDate_sameAsExtractFileInfos() throws IOException {
+        assertStreamedSameAsExtracted();
+    }
+
     @Test
     public void extractFileInfos_windowsIllegalFileNameBranch_success() {
         GitChecker.checkout(config.getRepoRoot(), WINDOWS_ILLEGAL_FILE_NAME_BRANCH);
@@ -145,4 +159,14 @@ public class FileInfoExtractorTest extends GitTestTemplate {
     private boolean isFileExistence(Path filePath, List<FileInfo> files) {
         return files.stream().anyMatch(file -> Paths.get(file.getPath()).equals(filePath));
     }
+
+    /**
+     * Asserts that the files streamed for {@code config} are the same as those extracted into memory, in order.
+     */
+    private void assertStreamedSameAsExtracted() throws IOException {
+        List<FileInfo> extractedFiles = FileInfoExtractor.extractFileInfos(config);
+        try (Stream<FileInfo> streamedFiles = FileInfoExtractor.streamFileInfos(config)) {
+            Assert.assertEquals(extractedFiles, streamedFiles.collect(Collectors.toList()));
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package reposense.commits;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import reposense.commits.model.CommitContributionSummary;
+import reposense.commits.model.CommitResult;
+import reposense.commits.model.ContributionLevel;
+import reposense.model.Author;
+import reposense.model.RepoConfiguration;
+import reposense.parser.InvalidLocationException;
+import reposense.util.TestUtil;
+
+public class CommitResultAggregatorTest {
+    private static final Author FIRST_AUTHOR = new Author("first");
+    private static final Author SECOND_AUTHOR = new Author("second");
+
+    @Test
+    public void aggregateCommitResults_contributionPyramid_sumsDailyContributions() throws InvalidLocationException {
+        RepoConfiguration config = new RepoConfiguration("https://github.com/reposense/testrepo-Alpha.git");
+        config.setAuthorList(Arrays.asList(FIRST_AUTHOR, SECOND_AUTHOR));
+        config.setSinceDate(TestUtil.getDate(2018, Calendar.JANUARY, 30));
+        List<CommitResult> commitResults = Arrays.asList(
+                new CommitResult(FIRST_AUTHOR, "a", getTime(2018, Calendar.JANUARY, 30), "", 5, 0),
+                new CommitResult(FIRST_AUTHOR, "b", getTime(2018, Calendar.FEBRUARY, 14), "", 3, 1),
+                new CommitResult(SECOND_AUTHOR, "c", getTime(2018, Calendar.APRIL, 2), "", 7, 2));
+
+        CommitContributionSummary summary = CommitResultAggregator.aggregateCommitResults(config, commitResults);
+        Map<String, ContributionLevel> pyramid = summary.getContributionPyramid();
+
+        Assert.assertEquals(Arrays.asList("week", "month", "quarter"), Arrays.asList(pyramid.keySet().toArray()));
+
+        ContributionLevel weekLevel = pyramid.get("week");
+        Assert.assertEquals(TestUtil.getDate(2018, Calendar.JANUARY, 28), weekLevel.getSinceDates().get(0));
+        Assert.assertEquals(TestUtil.getDate(2018, Calendar.APRIL, 8), weekLevel.getUntilDate());
+        Assert.assertEquals(8, Arrays.stream(weekLevel.getAuthorInsertions().get(FIRST_AUTHOR)).sum());
+
+        ContributionLevel monthLevel = pyramid.get("month");
+        Assert.assertArrayEquals(new int[] {5, 3, 0, 0}, monthLevel.getAuthorInsertions().get(FIRST_AUTHOR));
+        Assert.assertArrayEquals(new int[] {0, 1, 0, 0}, monthLevel.getAuthorDeletions().get(FIRST_AUTHOR));
+        Assert.assertArrayEquals(new int[] {0, 0, 0, 7}, monthLevel.getAuthorInsertions().get(SECOND_AUTHOR));
+
+        ContributionLevel quarterLevel = pyramid.get("quarter");
+        Assert.assertEquals(Arrays.asList(TestUtil.getDate(2018, Calendar.JANUARY, 1),
+                TestUtil.getDate(2018, Calendar.APRIL, 1)), quarterLevel.getSinceDates());
+        Assert.assertEquals(TestUtil.getDate(2018, Calendar.JULY, 1), quarterLevel.getUntilDate());
+        Assert.assertArrayEquals(new int[] {8, 0}, quarterLevel.getAuthorInsertions().get(FIRST_AUTHOR));
+        Assert.assertArrayEquals(new int[] {0, 2}, quarterLevel.getAuthorDeletions().get(SECOND_AUTHOR));
+    }
+
+    /**
+     * Returns the time at noon of the given date.
+     */
+    private static Date getTime(int year, int month, int date) {
+        return new Calendar.Builder().setDate(year, month, date).setTimeOfDay(12, 0, 0).build().getTime();
+    }
+}
@@ -0,0 +1,30 @@
+package reposense.git;
+
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GitForEachRefTest {
+    private static final String MASTER_HEAD = "e630ea8105690267b0e53e803208efefd38ca67f";
+    private static final String FEATURE_HEAD = "f2dfa4112f659bcae6c1e43f346eb2636026ed11";
+
+    @Test
+    public void extractCurrentBranch_branchCheckedOut_success() {
+        String refs = " " + FEATURE_HEAD + " refs/heads/feature/login\n"
+                + "*" + MASTER_HEAD + " refs/heads/master\n";
+        Assert.assertEquals(Optional.of("master"), GitForEachRef.extractCurrentBranch(refs));
+
+        refs = "*" + FEATURE_HEAD + " refs/heads/feature/login\n"
+                + " " + MASTER_HEAD + " refs/heads/master\n";
+        Assert.assertEquals(Optional.of("feature/login"), GitForEachRef.extractCurrentBranch(refs));
+    }
+
+    @Test
+    public void extractCurrentBranch_noBranchCheckedOut_empty() {
+        String refs = " " + FEATURE_HEAD + " refs/heads/feature/login\n"
+                + " " + MASTER_HEAD + " refs/heads/master\n";
+        Assert.assertEquals(Optional.empty(), GitForEachRef.extractCurrentBranch(refs));
+        Assert.assertEquals(Optional.empty(), GitForEachRef.extractCurrentBranch(""));
+    }
+}
@@ -0,0 +1,38 @@
+package reposense.git;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import reposense.model.RepoConfiguration;
+
+public class GitLsRemoteTest {
+    private static final String MASTER_HEAD = "e630ea8105690267b0e53e803208efefd38ca67f";
+    private static final String FEATURE_HEAD = "f2dfa4112f659bcae6c1e43f346eb2636026ed11";
+    private static final String REFS = "ref: refs/heads/master\tHEAD\n"
+            + MASTER_HEAD + "\tHEAD\n"
+            + FEATURE_HEAD + "\trefs/heads/feature/login\n"
+            + MASTER_HEAD + "\trefs/heads/master\n";
+
+    @Test
+    public void extractBranchHeads_branchesAndHead_success() {
+        Map<String, String> branchHeads = GitLsRemote.extractBranchHeads(REFS);
+
+        Assert.assertEquals(3, branchHeads.size());
+        Assert.assertEquals(MASTER_HEAD, branchHeads.get("master"));
+        Assert.assertEquals(FEATURE_HEAD, branchHeads.get("feature/login"));
+        Assert.assertEquals(MASTER_HEAD, branchHeads.get(RepoConfiguration.DEFAULT_BRANCH));
+    }
+
+    @Test
+    public void extractDefaultBranch_headPointsToBranch_success() {
+        Assert.assertEquals(Optional.of("master"), GitLsRemote.extractDefaultBranch(REFS));
+    }
+
+    @Test
+    public void extractDefaultBranch_detachedHead_empty() {
+        Assert.assertEquals(Optional.empty(), GitLsRemote.extractDefaultBranch(MASTER_HEAD + "\tHEAD\n"));
+    }
+}
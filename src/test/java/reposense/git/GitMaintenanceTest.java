@@ -0,0 +1,106 @@
+package reposense.git;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import reposense.metrics.MetricsRecorder;
+import reposense.metrics.Phase;
+import reposense.metrics.PhaseMetrics;
+import reposense.system.CommandRunner;
+import reposense.util.FileUtil;
+import reposense.util.SyntheticRepoGenerator;
+
+public class GitMaintenanceTest {
+    private static final long START_EPOCH_SECOND = 1514764800L; // 1 Jan 2018
+    private static final int DAY_SPREAD = 30;
+
+    private Path tempDirectory;
+    private Path repo;
+
+    @Before
+    public void before() throws IOException {
+        tempDirectory = Files.createTempDirectory("git-maintenance-test");
+        repo = tempDirectory.resolve("repo");
+        new SyntheticRepoGenerator(2, 20, 5, 3, 0, START_EPOCH_SECOND, DAY_SPREAD, 11).generate(repo);
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtil.deleteDirectory(tempDirectory.toString());
+    }
+
+    @Test
+    public void extractPackCount_countObjectsOutput_success() {
+        String objectCounts = "count: 12\n"
+                + "size: 48\n"
+                + "in-pack: 3011\n"
+                + "packs: 6\n"
+                + "size-pack: 1090\n"
+                + "prune-packable: 0\n"
+                + "garbage: 0\n"
+                + "size-garbage: 0\n";
+        Assert.assertEquals(6, GitMaintenance.extractPackCount(objectCounts));
+    }
+
+    @Test
+    public void extractPackCount_noPacks_zero() {
+        Assert.assertEquals(0, GitMaintenance.extractPackCount("count: 0\nsize: 0\nin-pack: 0\npacks: 0\n"));
+        Assert.assertEquals(0, GitMaintenance.extractPackCount(""));
+    }
+
+    @Test
+    public void maintainRepoStore_fullClone_commitGraphWritten() throws IOException {
+        Path store = tempDirectory.resolve("full.git");
+        CommandRunner.cloneRepo(repo.toUri().toString(), store.toString());
+
+        GitMaintenance.maintainRepoStore(store.toString());
+
+        Assert.assertTrue(Files.isRegularFile(store.resolve("objects/info/commit-graph")));
+    }
+
+    @Test
+    public void maintainRepoStore_partialClone_commitGraphWritten() throws IOException {
+        // lets the clone leave out the file contents, which git ignores for local repos otherwise
+        Files.write(repo.resolve(".git/config"), "[uploadpack]\n\tallowFilter = true\n".getBytes(),
+                StandardOpenOption.APPEND);
+        Path store = tempDirectory.resolve("partial.git");
+        CommandRunner.partialCloneRepo(repo.toUri().toString(), store.toString(), null, null);
+        Assert.assertTrue(CommandRunner.isPartialClone(store.toString()));
+
+        MetricsRecorder.reset();
+        GitMaintenance.maintainRepoStore(store.toString());
+
+        Assert.assertTrue(Files.isRegularFile(store.resolve("objects/info/commit-graph")));
+        Map<String, PhaseMetrics.CommandMetrics> commands =
+                MetricsRecorder.getReport().getPhases().get(Phase.MAINTENANCE).getCommands();
+        Assert.assertFalse(commands.containsKey("git count-objects"));
+        Assert.assertFalse(commands.containsKey("git repack"));
+    }
+
+    @Test
+    public void maintainRepoStore_shallowClone_notMaintained() throws IOException {
+        Path store = tempDirectory.resolve("shallow.git");
+        Date shallowSinceDate = new Date(TimeUnit.SECONDS.toMillis(START_EPOCH_SECOND)
+                + TimeUnit.DAYS.toMillis(DAY_SPREAD / 2));
+        CommandRunner.partialCloneRepo(repo.toUri().toString(), store.toString(), null, shallowSinceDate);
+        Assert.assertTrue(CommandRunner.isShallowRepo(store.toString()));
+
+        MetricsRecorder.reset();
+        GitMaintenance.maintainRepoStore(store.toString());
+
+        Map<String, PhaseMetrics.CommandMetrics> commands =
+                MetricsRecorder.getReport().getPhases().get(Phase.MAINTENANCE).getCommands();
+        Assert.assertFalse(commands.containsKey("git commit-graph"));
+        Assert.assertFalse(commands.containsKey("git repack"));
+    }
+}
@@ -0,0 +1,80 @@
+package reposense.git;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import reposense.model.CommitBoundaries;
+
+public class GitRevListTest {
+    private static final List<String> HISTORY = Arrays.asList(
+            "1500 e630ea8105690267b0e53e803208efefd38ca67f",
+            "1400 f2dfa4112f659bcae6c1e43f346eb2636026ed11",
+            "1300 2fb6b9b2dd9fa40bf0f9815da2cb0ae8731436c7",
+            "1200 136c6713fc00cfe79a1598e8ce83c6ef3b878660",
+            "1100 8d0ac2ee20f04dce8df0591caed460bffacb65a4");
+
+    @Test
+    public void boundaryWalk_sinceAndUntil_stopsOnceBothFound() {
+        GitRevList.BoundaryWalk walk = new GitRevList.BoundaryWalk(1450L, 1300L);
+
+        Assert.assertEquals(3, walk(walk));
+        CommitBoundaries boundaries = walk.getBoundaries();
+        Assert.assertEquals(getCommit(0), boundaries.getHeadCommit());
+        Assert.assertEquals(getCommit(1), boundaries.getUntilCommit());
+        Assert.assertEquals(getCommit(2), boundaries.getSinceCommit());
+    }
+
+    @Test
+    public void boundaryWalk_noDates_stopsAtHead() {
+        GitRevList.BoundaryWalk walk = new GitRevList.BoundaryWalk(null, null);
+
+        Assert.assertEquals(1, walk(walk));
+        CommitBoundaries boundaries = walk.getBoundaries();
+        Assert.assertEquals(getCommit(0), boundaries.getHeadCommit());
+        Assert.assertEquals(getCommit(0), boundaries.getUntilCommit());
+        Assert.assertEquals("", boundaries.getSinceCommit());
+    }
+
+    @Test
+    public void boundaryWalk_sinceBeforeHistory_walksWholeHistory() {
+        GitRevList.BoundaryWalk walk = new GitRevList.BoundaryWalk(null, 1000L);
+
+        Assert.assertEquals(HISTORY.size(), walk(walk));
+        CommitBoundaries boundaries = walk.getBoundaries();
+        Assert.assertEquals(getCommit(0), boundaries.getUntilCommit());
+        Assert.assertEquals("", boundaries.getSinceCommit());
+    }
+
+    @Test
+    public void boundaryWalk_untilBeforeHistory_noUntilCommit() {
+        GitRevList.BoundaryWalk walk = new GitRevList.BoundaryWalk(1000L, 900L);
+
+        Assert.assertEquals(HISTORY.size(), walk(walk));
+        CommitBoundaries boundaries = walk.getBoundaries();
+        Assert.assertEquals(getCommit(0), boundaries.getHeadCommit());
+        Assert.assertEquals("", boundaries.getUntilCommit());
+        Assert.assertEquals("", boundaries.getSinceCommit());
+    }
+
+    /**
+     * Passes the commits of {@code HISTORY} to {@code walk} until it stops, and returns the number of commits passed.
+     */
+    private static int walk(GitRevList.BoundaryWalk walk) {
+        int count = 0;
+        for (String line : HISTORY) {
+            count++;
+            String[] fields = line.split(" ");
+            if (!walk.test(fields[1], Long.parseLong(fields[0]))) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private static String getCommit(int index) {
+        return HISTORY.get(index).split(" ")[1];
+    }
+}
@@ -0,0 +1,96 @@
+package reposense.git;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import reposense.system.CommandRunner;
+import reposense.util.FileUtil;
+import reposense.util.SyntheticRepoGenerator;
+
+public class PackHistoryReaderTest {
+    private static final long START_EPOCH_SECOND = 1514764800L; // 1 Jan 2018
+
+    private Path tempDirectory;
+    private String root;
+
+    @Before
+    public void before() throws IOException {
+        tempDirectory = Files.createTempDirectory("pack-history-reader-test");
+        Path repo = tempDirectory.resolve("repo");
+        new SyntheticRepoGenerator(3, 60, 10, 5, 0.1, START_EPOCH_SECOND, 30, 7).generate(repo);
+        root = repo.toString();
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtil.deleteDirectory(tempDirectory.toString());
+    }
+
+    @Test
+    public void open_packedRepo_sameHistoryAsGit() {
+        assertSameHistoryAsGit();
+    }
+
+    @Test
+    public void open_repoWithCommitGraph_sameHistoryAsGit() {
+        CommandRunner.writeCommitGraph(root, false);
+        assertSameHistoryAsGit();
+    }
+
+    @Test
+    public void walkCommits_visitorReturnsFalse_stopsWalk() {
+        List<String> visitedCommits = new ArrayList<>();
+        PackHistoryReader.open(root).walkCommits("master", (commit, timestamp) -> {
+            visitedCommits.add(commit);
+            return visitedCommits.size() < 5;
+        });
+        Assert.assertEquals(5, visitedCommits.size());
+    }
+
+    @Test
+    public void isAncestor_missingCommit_false() {
+        HistoryReader historyReader = PackHistoryReader.open(root);
+        String missingCommit = "0123456789abcdef0123456789abcdef01234567";
+        String headCommit = historyReader.getHeadCommit();
+
+        Assert.assertFalse(historyReader.isAncestor(missingCommit, headCommit));
+        Assert.assertFalse(historyReader.isAncestor(headCommit, missingCommit));
+    }
+
+    /**
+     * Asserts that the history of the repo is read without git, and is the same as the history read by git.
+     */
+    private void assertSameHistoryAsGit() {
+        HistoryReader historyReader = PackHistoryReader.open(root);
+        HistoryReader gitHistoryReader = new GitHistoryReader(root);
+        Assert.assertTrue(historyReader instanceof PackHistoryReader);
+
+        List<String> commits = walk(historyReader, "master");
+        Assert.assertEquals(walk(gitHistoryReader, "master"), commits);
+        Assert.assertEquals(gitHistoryReader.getHeadCommit(), historyReader.getHeadCommit());
+
+        String firstCommit = commits.get(commits.size() - 1).split(" ")[0];
+        String middleCommit = commits.get(commits.size() / 2).split(" ")[0];
+        String lastCommit = commits.get(0).split(" ")[0];
+        Assert.assertTrue(historyReader.isAncestor(firstCommit, lastCommit));
+        Assert.assertTrue(historyReader.isAncestor(middleCommit, middleCommit));
+        Assert.assertFalse(historyReader.isAncestor(lastCommit, middleCommit));
+    }
+
+    /**
+     * Returns the commits visited by a walk of {@code branchName}, each followed by its commit time.
+     */
+    private List<String> walk(HistoryReader historyReader, String branchName) {
+        List<String> commits = new ArrayList<>();
+        historyReader.walkCommits(branchName, (commit, timestamp) -> commits.add(commit + " " + timestamp));
+        return commits;
+    }
+}
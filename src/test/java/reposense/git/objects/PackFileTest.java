@@ -0,0 +1,82 @@
+package reposense.git.objects;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import reposense.system.CommandRunner;
+import reposense.util.FileUtil;
+import reposense.util.SyntheticRepoGenerator;
+
+public class PackFileTest {
+    private static final long START_EPOCH_SECOND = 1514764800L; // 1 Jan 2018
+
+    private Path tempDirectory;
+
+    @Before
+    public void before() throws IOException {
+        tempDirectory = Files.createTempDirectory("pack-file-test");
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtil.deleteDirectory(tempDirectory.toString());
+    }
+
+    @Test
+    public void applyDelta_copyAndInsert_success() throws IOException {
+        byte[] base = "hello world".getBytes(StandardCharsets.US_ASCII);
+        byte[] delta = {
+            11, 13, // base size, result size
+            (byte) 0x91, 6, 5, // copy 5 bytes from offset 6
+            2, ',', ' ', // insert 2 bytes
+            (byte) 0x90, 6 // copy 6 bytes from offset 0
+        };
+        Assert.assertEquals("world, hello ", new String(PackFile.applyDelta(base, delta), StandardCharsets.US_ASCII));
+    }
+
+    @Test(expected = IOException.class)
+    public void applyDelta_wrongBaseSize_throwsIoException() throws IOException {
+        PackFile.applyDelta(new byte[4], new byte[] {5, 1, 1, 'a'});
+    }
+
+    @Test(expected = IOException.class)
+    public void applyDelta_copyBeyondBase_throwsIoException() throws IOException {
+        PackFile.applyDelta(new byte[4], new byte[] {4, 4, (byte) 0x91, 2, 4});
+    }
+
+    @Test(expected = IOException.class)
+    public void applyDelta_truncatedInsert_throwsIoException() throws IOException {
+        PackFile.applyDelta(new byte[4], new byte[] {4, 3, 3, 'a'});
+    }
+
+    @Test
+    public void read_repackedRepo_everyObjectMatchesItsId() throws IOException, NoSuchAlgorithmException {
+        Path repo = tempDirectory.resolve("repo");
+        new SyntheticRepoGenerator(3, 60, 10, 5, 0.1, START_EPOCH_SECOND, 30, 7).generate(repo);
+        // repacking stores most of the objects as deltas
+        CommandRunner.repackRepo(repo.toString());
+
+        ObjectStore store = ObjectStore.open(repo.resolve(".git").resolve("objects"));
+        Assert.assertFalse(store.getPacks().isEmpty());
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        for (PackFile pack : store.getPacks()) {
+            for (int i = 0; i < pack.getIndex().getObjectCount(); i++) {
+                String id = pack.getIndex().getId(i);
+                GitObject object = store.read(ObjectIds.parse(id)).get();
+
+                digest.update((object.getType().name().toLowerCase() + " " + object.getSize() + "\0")
+                        .getBytes(StandardCharsets.US_ASCII));
+                Assert.assertEquals(id, ObjectIds.format(digest.digest(object.getData())));
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package reposense.metrics;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import reposense.model.RepoConfiguration;
+import reposense.parser.InvalidLocationException;
+
+public class MetricsRecorderTest {
+    private static final String TEST_REPO_LOCATION = "https://github.com/reposense/testrepo-Alpha.git";
+
+    @Before
+    public void before() {
+        MetricsRecorder.reset();
+    }
+
+    @Test
+    public void recordProcess_insidePhase_attributedToRepoAndPhase() throws InvalidLocationException {
+        RepoConfiguration config = new RepoConfiguration(TEST_REPO_LOCATION, "master");
+
+        MetricsRecorder.startRepo(config);
+        MetricsRecorder.runPhase(Phase.AUTHORSHIP, () -> {
+            MetricsRecorder.recordProcess("git blame", "git blame", 2_000_000, 100);
+            MetricsRecorder.recordProcess("git blame", "git blame", 3_000_000, 50);
+            MetricsRecorder.recordProcess("git diff", "git diff", 1_000_000, 10);
+        });
+        MetricsRecorder.endRepo();
+
+        MetricsReportJson report = MetricsRecorder.getReport();
+        Assert.assertEquals(1, report.getRepos().size());
+        Assert.assertTrue(report.getPhases().isEmpty());
+
+        RepoMetrics repoMetrics = report.getRepos().get(0);
+        Assert.assertEquals(config.getDisplayName(), repoMetrics.getRepo());
+
+        PhaseMetrics authorshipMetrics = repoMetrics.getPhases().get(Phase.AUTHORSHIP);
+        Assert.assertEquals(3, authorshipMetrics.getProcesses());
+        Assert.assertEquals(160, authorshipMetrics.getBytesRead());
+        Assert.assertEquals(6_000_000, authorshipMetrics.getProcessNanos());
+        Assert.assertTrue(authorshipMetrics.getWallNanos() > 0);
+
+        Map<String, PhaseMetrics.CommandMetrics> commands = authorshipMetrics.getCommands();
+        Assert.assertEquals(2, commands.get("git blame").getCount());
+        Assert.assertEquals(150, commands.get("git blame").getBytesRead());
+        Assert.assertEquals(1, commands.get("git diff").getCount());
+    }
+
+    @Test
+    public void runPhase_nestedPhase_countedOnlyInNestedPhase() throws InterruptedException {
+        MetricsRecorder.runPhase(Phase.AUTHORSHIP, () -> {
+            MetricsRecorder.runPhase(Phase.BLAME, () -> {
+                MetricsRecorder.recordProcess("git blame", "git blame", 2_000_000, 100);
+                Thread.sleep(200);
+            });
+            MetricsRecorder.recordProcess("git diff", "git diff", 1_000_000, 10);
+        });
+
+        Map<Phase, PhaseMetrics> phases = MetricsRecorder.getReport().getPhases();
+        Assert.assertEquals(1, phases.get(Phase.BLAME).getCommands().get("git blame").getCount());
+        Assert.assertFalse(phases.get(Phase.AUTHORSHIP).getCommands().containsKey("git blame"));
+        Assert.assertEquals(1, phases.get(Phase.AUTHORSHIP).getProcesses());
+        Assert.assertTrue(phases.get(Phase.BLAME).getWallNanos() >= TimeUnit.MILLISECONDS.toNanos(200));
+        Assert.assertTrue(phases.get(Phase.AUTHORSHIP).getWallNanos() < TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    public void recordProcess_outsideRepoAndPhase_attributedToOtherPhaseOfRun() {
+        MetricsRecorder.recordProcess("git --version", "git --version", 1_000_000, 20);
+
+        MetricsReportJson report = MetricsRecorder.getReport();
+        Assert.assertTrue(report.getRepos().isEmpty());
+        Assert.assertEquals(1, report.getPhases().get(Phase.OTHER).getProcesses());
+    }
+
+    @Test
+    public void runPhase_throws_runRecordedAndRethrown() {
+        IOException thrown = new IOException("failed");
+        try {
+            MetricsRecorder.runPhase(Phase.ARCHIVE, () -> {
+                throw thrown;
+            });
+            Assert.fail();
+        } catch (IOException ioe) {
+            Assert.assertSame(thrown, ioe);
+        }
+
+        Assert.assertTrue(MetricsRecorder.getReport().getPhases().containsKey(Phase.ARCHIVE));
+        Assert.assertEquals("result", MetricsRecorder.callPhase(Phase.SUMMARY, () -> "result"));
+        Assert.assertTrue(MetricsRecorder.getReport().getPhases().containsKey(Phase.SUMMARY));
+    }
+
+    @Test
+    public void endRepo_branchUpdatedDuringAnalysis_usesUpdatedDisplayName() throws InvalidLocationException {
+        RepoConfiguration config = new RepoConfiguration(TEST_REPO_LOCATION);
+
+        MetricsRecorder.startRepo(config);
+        config.setBranch("master");
+        MetricsRecorder.endRepo();
+
+        Assert.assertEquals(config.getDisplayName(), MetricsRecorder.getReport().getRepos().get(0).getRepo());
+    }
+
+    @Test
+    public void startLocation_sharedWork_recordedUnderLocationWithoutRepo() throws InvalidLocationException {
+        RepoConfiguration config = new RepoConfiguration(TEST_REPO_LOCATION, "master");
+
+        MetricsRecorder.startLocation(TEST_REPO_LOCATION);
+        MetricsRecorder.runPhase(Phase.CLONE, () -> {
+            MetricsRecorder.recordProcess("git clone", "git clone", 1_000_000, 10);
+        });
+        MetricsRecorder.endRepo();
+        MetricsRecorder.startRepo(config);
+        MetricsRecorder.endRepo();
+
+        MetricsReportJson report = MetricsRecorder.getReport();
+        Assert.assertEquals(2, report.getRepos().size());
+        RepoMetrics locationMetrics = report.getRepos().get(0);
+        Assert.assertNull(locationMetrics.getRepo());
+        Assert.assertEquals(TEST_REPO_LOCATION, locationMetrics.getLocation());
+        Assert.assertEquals(TEST_REPO_LOCATION, locationMetrics.getName());
+        Assert.assertEquals(1, locationMetrics.getPhases().get(Phase.CLONE).getProcesses());
+        Assert.assertTrue(MetricsRecorder.getSummaryTable(report).contains("1 repositories analyzed"));
+    }
+
+    @Test
+    public void getSummaryTable_multipleRepos_includesPhasesCommandsAndRepos() throws InvalidLocationException {
+        RepoConfiguration config = new RepoConfiguration(TEST_REPO_LOCATION, "master");
+
+        MetricsRecorder.startRepo(config);
+        MetricsRecorder.runPhase(Phase.CLONE, () -> {
+            MetricsRecorder.recordProcess("git clone", "git clone", 1_000_000, 10);
+        });
+        MetricsRecorder.endRepo();
+        MetricsRecorder.runPhase(Phase.SUMMARY, () -> {
+            // nothing to do
+        });
+
+        String table = MetricsRecorder.getSummaryTable(MetricsRecorder.getReport());
+        Assert.assertTrue(table.contains("clone"));
+        Assert.assertTrue(table.contains("summary"));
+        Assert.assertTrue(table.contains("git clone"));
+        Assert.assertTrue(table.contains(config.getDisplayName()));
+    }
+}
@@ -0,0 +1,74 @@
+package reposense.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import reposense.model.RepoConfiguration;
+import reposense.parser.InvalidLocationException;
+
+public class TraceWriterTest {
+    private Path traceFilePath;
+
+    @Before
+    public void before() throws IOException {
+        traceFilePath = Files.createTempFile("trace", ".json");
+        MetricsRecorder.reset();
+    }
+
+    @After
+    public void after() throws IOException {
+        TraceWriter.stop();
+        Files.deleteIfExists(traceFilePath);
+    }
+
+    @Test
+    public void start_repoWithPhaseAndProcess_writesNestedSpans() throws IOException, InvalidLocationException {
+        TraceWriter.start(traceFilePath);
+        MetricsRecorder.startRepo(new RepoConfiguration("https://github.com/reposense/testrepo-Alpha.git", "master"));
+        MetricsRecorder.runPhase(Phase.COMMITS, () -> {
+            MetricsRecorder.recordProcess("git log", "git log --no-merges", 1000, 10);
+        });
+        MetricsRecorder.endRepo();
+        TraceWriter.stop();
+
+        JsonArray events = new JsonParser()
+                .parse(new String(Files.readAllBytes(traceFilePath), StandardCharsets.UTF_8)).getAsJsonArray();
+        List<String> spanCategories = new ArrayList<>();
+        boolean hasThreadName = false;
+        for (JsonElement element : events) {
+            JsonObject event = element.getAsJsonObject();
+            if (event.get("ph").getAsString().equals("X")) {
+                spanCategories.add(event.get("cat").getAsString());
+                Assert.assertEquals(Thread.currentThread().getId(), event.get("tid").getAsLong());
+            } else if (event.get("name").getAsString().equals("thread_name")) {
+                hasThreadName = true;
+            }
+        }
+
+        Assert.assertTrue(hasThreadName);
+        Assert.assertEquals(3, spanCategories.size());
+        Assert.assertTrue(spanCategories.containsAll(Arrays.asList("repo", "phase", "process")));
+    }
+
+    @Test
+    public void addSpan_notStarted_nothingWritten() throws IOException {
+        MetricsRecorder.runPhase(Phase.SUMMARY, () -> Assert.assertFalse(TraceWriter.isEnabled()));
+
+        Assert.assertEquals(0, Files.size(traceFilePath));
+    }
+}
@@ -19,8 +19,11 @@ import org.junit.Test;
 import reposense.RepoSense;
 import reposense.model.CliArguments;
 import reposense.model.ConfigCliArguments;
+import reposense.model.DaemonCliArguments;
 import reposense.model.LocationsCliArguments;
+import reposense.model.MergeCliArguments;
 import reposense.model.RepoConfiguration;
+import reposense.model.Shard;
 import reposense.model.ViewCliArguments;
 import reposense.util.TestUtil;
 
@@ -103,6 +106,7 @@ public class ArgsParserTest {
         Assert.assertEquals(Optional.empty(), cliArguments.getUntilDate());
         Assert.assertEquals(ArgsParser.DEFAULT_REPORT_NAME, cliArguments.getOutputFilePath().getFileName().toString());
         Assert.assertEquals(ArgsParser.DEFAULT_FORMATS, cliArguments.getFormats());
+        Assert.assertEquals(Optional.empty(), cliArguments.getTraceFilePath());
 
         input = String.format("-config %s", CONFIG_FOLDER_RELATIVE);
         cliArguments = ArgsParser.parse(translateCommandline(input));
@@ -127,6 +131,16 @@ public class ArgsParserTest {
                 OUTPUT_DIRECTORY_ABSOLUTE, ((ViewCliArguments) cliArguments).getReportDirectoryPath()));
     }
 
+    @Test
+    public void parse_viewArchive_success() throws ParseException, IOException {
+        Path archivePath = new File(ArgsParserTest.class.getClassLoader()
+                .getResource("FileUtilTest/testZip.zip").getFile()).toPath();
+        String input = String.format("-view %s", archivePath);
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline(input));
+        Assert.assertTrue(cliArguments instanceof ViewCliArguments);
+        Assert.assertTrue(Files.isSameFile(archivePath, ((ViewCliArguments) cliArguments).getReportDirectoryPath()));
+    }
+
     @Test
     public void parse_configFolderAndOutputDirectory_success() throws ParseException, IOException {
         Path expectedRelativeOutputDirectoryPath = OUTPUT_DIRECTORY_RELATIVE.resolve(ArgsParser.DEFAULT_REPORT_NAME);
@@ -248,6 +262,160 @@ public class ArgsParserTest {
         ArgsParser.parse(translateCommandline(input));
     }
 
+    @Test
+    public void parse_traceFile_success() throws ParseException {
+        Path traceFilePath = OUTPUT_DIRECTORY_ABSOLUTE.resolve("trace.json");
+        String input = String.format("-repos %s -trace %s", TEST_REPO_BETA, traceFilePath);
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline(input));
+        Assert.assertEquals(Optional.of(traceFilePath), cliArguments.getTraceFilePath());
+    }
+
+    @Test
+    public void parse_contentStore_success() throws ParseException {
+        String input = String.format("-repos %s", TEST_REPO_BETA);
+        Assert.assertFalse(ArgsParser.parse(translateCommandline(input)).isContentStoreEnabled());
+
+        input = String.format("-config %s -content-store", CONFIG_FOLDER_ABSOLUTE);
+        Assert.assertTrue(ArgsParser.parse(translateCommandline(input)).isContentStoreEnabled());
+    }
+
+    @Test
+    public void parse_watch_success() throws ParseException {
+        String input = String.format("-config %s", CONFIG_FOLDER_ABSOLUTE);
+        Assert.assertFalse(ArgsParser.parse(translateCommandline(input)).isWatchEnabled());
+
+        input = String.format("-repos %s -watch", TEST_REPO_BETA);
+        Assert.assertTrue(ArgsParser.parse(translateCommandline(input)).isWatchEnabled());
+    }
+
+    @Test
+    public void parse_shard_success() throws ParseException {
+        String input = String.format("-config %s", CONFIG_FOLDER_ABSOLUTE);
+        Assert.assertEquals(Optional.empty(), ArgsParser.parse(translateCommandline(input)).getShard());
+
+        input = String.format("-config %s -shard 2/4", CONFIG_FOLDER_ABSOLUTE);
+        Assert.assertEquals(Optional.of(new Shard(2, 4)), ArgsParser.parse(translateCommandline(input)).getShard());
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_shardIndexOutOfRange_throwsParseException() throws ParseException {
+        String input = String.format("-config %s -shard 5/4", CONFIG_FOLDER_ABSOLUTE);
+        ArgsParser.parse(translateCommandline(input));
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_shardWithWatch_throwsParseException() throws ParseException {
+        String input = String.format("-config %s -shard 1/4 -watch", CONFIG_FOLDER_ABSOLUTE);
+        ArgsParser.parse(translateCommandline(input));
+    }
+
+    @Test
+    public void parse_resume_success() throws ParseException {
+        String input = String.format("-config %s", CONFIG_FOLDER_ABSOLUTE);
+        Assert.assertFalse(ArgsParser.parse(translateCommandline(input)).isResumed());
+
+        input = String.format("-repos %s -resume", TEST_REPO_BETA);
+        Assert.assertTrue(ArgsParser.parse(translateCommandline(input)).isResumed());
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_resumeWithWatch_throwsParseException() throws ParseException {
+        String input = String.format("-config %s -resume -watch", CONFIG_FOLDER_ABSOLUTE);
+        ArgsParser.parse(translateCommandline(input));
+    }
+
+    @Test
+    public void parse_maxHeapBudget_success() throws ParseException {
+        String input = String.format("-config %s", CONFIG_FOLDER_ABSOLUTE);
+        Assert.assertEquals(Optional.empty(), ArgsParser.parse(translateCommandline(input)).getMaxHeapBudget());
+
+        input = String.format("-config %s -max-heap-budget 512m", CONFIG_FOLDER_ABSOLUTE);
+        Assert.assertEquals(Optional.of(512L << 20), ArgsParser.parse(translateCommandline(input)).getMaxHeapBudget());
+
+        input = String.format("-repos %s -max-heap-budget 2G", TEST_REPO_BETA);
+        Assert.assertEquals(Optional.of(2L << 30), ArgsParser.parse(translateCommandline(input)).getMaxHeapBudget());
+
+        input = String.format("-repos %s -max-heap-budget 65536", TEST_REPO_BETA);
+        Assert.assertEquals(Optional.of(65536L), ArgsParser.parse(translateCommandline(input)).getMaxHeapBudget());
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_invalidMaxHeapBudget_throwsParseException() throws ParseException {
+        String input = String.format("-config %s -max-heap-budget 2tb", CONFIG_FOLDER_ABSOLUTE);
+        ArgsParser.parse(translateCommandline(input));
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_zeroMaxHeapBudget_throwsParseException() throws ParseException {
+        String input = String.format("-config %s -max-heap-budget 0m", CONFIG_FOLDER_ABSOLUTE);
+        ArgsParser.parse(translateCommandline(input));
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_maxHeapBudgetWithWatch_throwsParseException() throws ParseException {
+        String input = String.format("-config %s -max-heap-budget 1g -watch", CONFIG_FOLDER_ABSOLUTE);
+        ArgsParser.parse(translateCommandline(input));
+    }
+
+    @Test
+    public void parse_merge_success() throws ParseException {
+        String input = String.format("-merge -output %s", OUTPUT_DIRECTORY_ABSOLUTE);
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline(input));
+        Assert.assertEquals(new MergeCliArguments(OUTPUT_DIRECTORY_ABSOLUTE.resolve(ArgsParser.DEFAULT_REPORT_NAME)),
+                cliArguments);
+    }
+
+    @Test
+    public void parse_daemon_success() throws ParseException {
+        CliArguments cliArguments = ArgsParser.parse(translateCommandline("-daemon 9001"));
+        Assert.assertEquals(new DaemonCliArguments(9001), cliArguments);
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_daemonWithConfig_throwsParseException() throws ParseException {
+        String input = String.format("-daemon 9001 -config %s", CONFIG_FOLDER_ABSOLUTE);
+        ArgsParser.parse(translateCommandline(input));
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_daemonPortOutOfRange_throwsParseException() throws ParseException {
+        ArgsParser.parse(translateCommandline("-daemon 65536"));
+    }
+
+    @Test
+    public void resolvePaths_relativePaths_resolvedAgainstWorkingDirectory() throws ParseException, IOException {
+        String input = String.format("-config %s -output %s -since 01/07/2017 -formats java",
+                CONFIG_FOLDER_RELATIVE, OUTPUT_DIRECTORY_RELATIVE);
+        CliArguments cliArguments = ArgsParser.parse(
+                ArgsParser.resolvePaths(translateCommandline(input), PROJECT_DIRECTORY));
+        Assert.assertTrue(Files.isSameFile(
+                REPO_CONFIG_CSV_FILE, ((ConfigCliArguments) cliArguments).getRepoConfigFilePath()));
+        Assert.assertEquals(OUTPUT_DIRECTORY_ABSOLUTE.resolve(ArgsParser.DEFAULT_REPORT_NAME),
+                cliArguments.getOutputFilePath());
+        Assert.assertEquals(Arrays.asList("java"), cliArguments.getFormats());
+
+        input = String.format("-repos %s %s", TEST_REPO_BETA, CONFIG_FOLDER_RELATIVE);
+        List<String> expectedArgs = Arrays.asList(
+                "-repos", TEST_REPO_BETA, CONFIG_FOLDER_ABSOLUTE.toString(), "-output", PROJECT_DIRECTORY.toString());
+        Assert.assertEquals(expectedArgs,
+                Arrays.asList(ArgsParser.resolvePaths(translateCommandline(input), PROJECT_DIRECTORY)));
+    }
+
+    @Test
+    public void resolvePaths_noConfigOrOutput_defaultsToWorkingDirectory() {
+        List<String> expectedArgs = Arrays.asList("-since", "01/07/2017",
+                "-config", CONFIG_FOLDER_ABSOLUTE.toString(), "-output", CONFIG_FOLDER_ABSOLUTE.toString());
+        String[] args = ArgsParser.resolvePaths(translateCommandline("-since 01/07/2017"), CONFIG_FOLDER_ABSOLUTE);
+        Assert.assertEquals(expectedArgs, Arrays.asList(args));
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_traceFileInNonExistingFolder_throwsParseException() throws ParseException {
+        Path traceFilePath = PROJECT_DIRECTORY.resolve("non_existing_random_folder").resolve("trace.json");
+        String input = String.format("-config %s -trace %s", CONFIG_FOLDER_ABSOLUTE, traceFilePath);
+        ArgsParser.parse(translateCommandline(input));
+    }
+
     @Test(expected = ParseException.class)
     public void parse_notExistsConfigFolder_throwsParseException() throws ParseException {
         String absConfigFolder = PROJECT_DIRECTORY.resolve("non_existing_random_folder").toString();
@@ -117,6 +117,15 @@ public class RepoConfigurationTest {
         }
     }
 
+    @Test
+    public void getRepoRoot_branchesWithSameLegalCharacters_differentRoots() throws InvalidLocationException {
+        RepoConfiguration slashConfig = new RepoConfiguration(TEST_REPO_DELTA, "feature/x");
+        RepoConfiguration underscoreConfig = new RepoConfiguration(TEST_REPO_DELTA, "feature_x");
+
+        Assert.assertNotEquals(slashConfig.getRepoRoot(), underscoreConfig.getRepoRoot());
+        Assert.assertEquals(slashConfig.getRepoFolderPath(), underscoreConfig.getRepoFolderPath());
+    }
+
     @Test
     public void repoConfig_usesStandaloneConfig_success() throws InvalidLocationException, GitDownloaderException {
         RepoConfiguration actualConfig = new RepoConfiguration(TEST_REPO_DELTA, "master");
@@ -216,4 +225,10 @@ public class RepoConfigurationTest {
         Assert.assertEquals(1, actualConfigs.size());
         Assert.assertEquals(ArgsParser.DEFAULT_FORMATS, actualConfigs.get(0).getFormats());
     }
+
+    @Test
+    public void isLocalRepo_urlAndPathLocations_success() throws InvalidLocationException {
+        Assert.assertFalse(new RepoConfiguration(TEST_REPO_DELTA).isLocalRepo());
+        Assert.assertTrue(new RepoConfiguration(FORMATS_TEST_CONFIG_FILES.toString()).isLocalRepo());
+    }
 }
@@ -0,0 +1,97 @@
+package reposense.report;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import reposense.authorship.model.FileResult;
+import reposense.authorship.model.LineInfo;
+import reposense.util.ArchiveWriter;
+import reposense.util.FileUtil;
+
+public class ContentStoreTest {
+    // the git blob SHA of a file holding "hello\n", as given by git hash-object
+    private static final String HELLO_BLOB = "ce013625030ba8dba906f756967f9e9ca394464a";
+
+    private Path rootPath;
+    private Path repoPath;
+    private Path outputPath;
+
+    @Before
+    public void before() throws IOException {
+        rootPath = Files.createTempDirectory("ContentStoreTest");
+        repoPath = Files.createDirectories(rootPath.resolve("repo"));
+        outputPath = Files.createDirectories(rootPath.resolve("report"));
+        Files.write(repoPath.resolve("hello.txt"), "hello\n".getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(repoPath.resolve("copy"));
+        Files.write(repoPath.resolve("copy/hello.txt"), "hello\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void store_identicalFiles_storedOnceUnderBlobSha() throws IOException {
+        List<Object> attributions;
+        try (ArchiveWriter archiveWriter = createArchiveWriter()) {
+            ContentStore contentStore = new ContentStore(outputPath.toString(), archiveWriter);
+            attributions = contentStore.store(repoPath.toString(),
+                    Arrays.asList(createFileResult("hello.txt"), createFileResult("copy/hello.txt")));
+        }
+
+        Assert.assertEquals(2, attributions.size());
+        Assert.assertTrue(attributions.get(0) instanceof FileAttributionJson);
+        Assert.assertTrue(attributions.get(1) instanceof FileAttributionJson);
+        Path blobsPath = outputPath.resolve(ContentStore.CONTENT_STORE_FOLDER);
+        Assert.assertTrue(Files.exists(blobsPath.resolve(HELLO_BLOB.substring(0, 2))
+                .resolve(HELLO_BLOB.substring(2) + ".json")));
+        Assert.assertEquals(1, Files.list(blobsPath.resolve(HELLO_BLOB.substring(0, 2)))
+                .filter(path -> path.toString().endsWith(".json")).count());
+    }
+
+    @Test
+    public void store_missingFile_resultKept() throws IOException {
+        FileResult missingResult = createFileResult("missing.txt");
+        List<Object> attributions;
+        try (ArchiveWriter archiveWriter = createArchiveWriter()) {
+            ContentStore contentStore = new ContentStore(outputPath.toString(), archiveWriter);
+            attributions = contentStore.store(repoPath.toString(), Arrays.asList(missingResult));
+        }
+
+        Assert.assertEquals(Arrays.asList(missingResult), attributions);
+    }
+
+    @Test(expected = IOException.class)
+    public void storeReused_missingBlob_throwsIoException() throws IOException {
+        Path shardPath = outputPath.resolve("0.json");
+        FileUtil.writeJsonFile(Arrays.asList(new FileAttributionJson(createFileResult("hello.txt"), HELLO_BLOB)),
+                shardPath.toString());
+        try (ArchiveWriter archiveWriter = createArchiveWriter()) {
+            new ContentStore(outputPath.toString(), archiveWriter).storeReused(shardPath);
+        }
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtil.deleteDirectory(rootPath.toString());
+    }
+
+    private ArchiveWriter createArchiveWriter() throws IOException {
+        return new ArchiveWriter(rootPath.resolve("archive.zip"), outputPath);
+    }
+
+    /**
+     * Returns the result of a file at {@code path} which holds the line "hello", without an author.
+     */
+    private static FileResult createFileResult(String path) {
+        ArrayList<LineInfo> lines = new ArrayList<>(Arrays.asList(new LineInfo(1, "hello")));
+        return new FileResult(path, lines, new HashMap<>());
+    }
+}
@@ -0,0 +1,184 @@
+package reposense.report;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import reposense.metrics.MetricsRecorder;
+import reposense.model.RepoConfiguration;
+import reposense.parser.CostHistoryJsonParser;
+import reposense.parser.InvalidLocationException;
+import reposense.util.FileUtil;
+import reposense.util.SyntheticRepoGenerator;
+
+public class CostEstimatorTest {
+    private static final String REPO_ALPHA = "https://github.com/reposense/testrepo-Alpha.git";
+    private static final String REPO_BETA = "https://github.com/reposense/testrepo-Beta.git";
+    private static final String REPO_CHARLIE = "https://github.com/reposense/testrepo-Charlie.git";
+    private static final String REPO_DELTA = "https://github.com/reposense/testrepo-Delta.git";
+    private static final String REPO_ECHO = "https://github.com/reposense/testrepo-Echo.git";
+
+    private static final long START_EPOCH_SECOND = 1514764800L; // 1 Jan 2018
+
+    private Path reportPath;
+
+    @Before
+    public void before() throws IOException {
+        reportPath = Files.createTempDirectory("CostEstimatorTest");
+    }
+
+    @Test
+    public void estimate_recordedCostsAndSizes_sizesWeighedByRecordedTimePerKib() {
+        Map<String, Long> history = new HashMap<>();
+        history.put(REPO_ALPHA, 100L);
+        history.put(REPO_BETA, 700L);
+        Map<String, Long> sizes = new HashMap<>();
+        sizes.put(REPO_ALPHA, 50L);
+        sizes.put(REPO_CHARLIE, 200L);
+
+        Map<String, Long> estimates = new CostEstimator(history)
+                .estimate(Arrays.asList(REPO_ALPHA, REPO_BETA, REPO_CHARLIE, REPO_DELTA), sizes);
+
+        Assert.assertEquals(Long.valueOf(100), estimates.get(REPO_ALPHA));
+        Assert.assertEquals(Long.valueOf(700), estimates.get(REPO_BETA));
+        // 2 ms per KiB, as taken by alpha
+        Assert.assertEquals(Long.valueOf(400), estimates.get(REPO_CHARLIE));
+        Assert.assertEquals(Long.valueOf((100 + 700 + 400) / 3), estimates.get(REPO_DELTA));
+    }
+
+    @Test
+    public void estimate_noSizesOfRecordedRepos_sizesWeighedByAverageRecordedCost() {
+        Map<String, Long> history = new HashMap<>();
+        history.put(REPO_ALPHA, 100L);
+        history.put(REPO_BETA, 300L);
+        Map<String, Long> sizes = new HashMap<>();
+        sizes.put(REPO_CHARLIE, 10L);
+        sizes.put(REPO_DELTA, 30L);
+
+        Map<String, Long> estimates = new CostEstimator(history)
+                .estimate(Arrays.asList(REPO_ALPHA, REPO_BETA, REPO_CHARLIE, REPO_DELTA, REPO_ECHO), sizes);
+
+        Assert.assertEquals(Long.valueOf(100), estimates.get(REPO_CHARLIE));
+        Assert.assertEquals(Long.valueOf(300), estimates.get(REPO_DELTA));
+        Assert.assertEquals(Long.valueOf(200), estimates.get(REPO_ECHO));
+    }
+
+    @Test
+    public void estimate_noRecordedCosts_sizesComparedAgainstEachOther() {
+        Map<String, Long> sizes = new HashMap<>();
+        sizes.put(REPO_ALPHA, 10L);
+        sizes.put(REPO_BETA, 30L);
+
+        Map<String, Long> estimates = new CostEstimator(Collections.emptyMap())
+                .estimate(Arrays.asList(REPO_ALPHA, REPO_BETA, REPO_CHARLIE), sizes);
+
+        Assert.assertEquals(Long.valueOf(10), estimates.get(REPO_ALPHA));
+        Assert.assertEquals(Long.valueOf(30), estimates.get(REPO_BETA));
+        Assert.assertEquals(Long.valueOf(20), estimates.get(REPO_CHARLIE));
+    }
+
+    @Test
+    public void estimate_nothingKnown_defaultCost() {
+        Map<String, Long> estimates = new CostEstimator(Collections.emptyMap())
+                .estimate(Arrays.asList(REPO_ALPHA, REPO_BETA), Collections.emptyMap());
+
+        Assert.assertEquals(Long.valueOf(CostEstimator.DEFAULT_COST), estimates.get(REPO_ALPHA));
+        Assert.assertEquals(Long.valueOf(CostEstimator.DEFAULT_COST), estimates.get(REPO_BETA));
+    }
+
+    @Test
+    public void estimateFromHistory_localReposWithoutRecordedCosts_sizesNotRead()
+            throws InvalidLocationException, IOException {
+        Path smallRepo = reportPath.resolve("small");
+        new SyntheticRepoGenerator(2, 5, 5, 5, 0, START_EPOCH_SECOND, 10, 3).generate(smallRepo);
+        Path largeRepo = reportPath.resolve("large");
+        new SyntheticRepoGenerator(2, 100, 20, 20, 0, START_EPOCH_SECOND, 10, 3).generate(largeRepo);
+        Map<String, Long> history = new HashMap<>();
+        history.put(REPO_ALPHA, 100L);
+        history.put(REPO_BETA, 300L);
+        List<RepoConfiguration> configs = Arrays.asList(new RepoConfiguration(REPO_ALPHA),
+                new RepoConfiguration(REPO_BETA), new RepoConfiguration(smallRepo.toString()),
+                new RepoConfiguration(largeRepo.toString()));
+
+        Map<String, Long> estimates = new CostEstimator(history).estimateFromHistory(configs);
+
+        Assert.assertEquals(Long.valueOf(100), estimates.get(REPO_ALPHA));
+        Assert.assertEquals(Long.valueOf(300), estimates.get(REPO_BETA));
+        // both are the average recorded cost, as the sizes of their objects may differ on other machines
+        Assert.assertEquals(Long.valueOf(200), estimates.get(smallRepo.toString()));
+        Assert.assertEquals(Long.valueOf(200), estimates.get(largeRepo.toString()));
+    }
+
+    @Test
+    public void record_reusedAndRemovedRepos_keepsRecordedCostsOfConfiguredRepos()
+            throws InvalidLocationException, IOException {
+        Map<String, Long> history = new HashMap<>();
+        history.put(REPO_ALPHA, 100L);
+        history.put(REPO_BETA, 200L);
+        history.put(REPO_CHARLIE, 300L);
+        RepoConfiguration alphaConfig = new RepoConfiguration(REPO_ALPHA);
+        List<RepoConfiguration> configs = Arrays.asList(alphaConfig, new RepoConfiguration(REPO_BETA),
+                new RepoConfiguration(REPO_DELTA));
+
+        MetricsRecorder.reset();
+        MetricsRecorder.startRepo(alphaConfig);
+        MetricsRecorder.endRepo();
+        new CostEstimator(history).record(reportPath.toString(), configs, MetricsRecorder.getReport().getRepos());
+
+        Map<String, Long> costs =
+                new CostHistoryJsonParser().parse(reportPath.resolve(CostEstimator.COST_HISTORY_FILE));
+        Assert.assertEquals(2, costs.size());
+        Assert.assertTrue(costs.get(REPO_ALPHA) < 100L);
+        Assert.assertEquals(Long.valueOf(200), costs.get(REPO_BETA));
+    }
+
+    @Test
+    public void record_sharedWorkOfLocation_addedToCostOfAnalyzedLocationOnly()
+            throws InterruptedException, InvalidLocationException, IOException {
+        Map<String, Long> history = new HashMap<>();
+        history.put(REPO_BETA, 200L);
+        RepoConfiguration alphaConfig = new RepoConfiguration(REPO_ALPHA);
+        List<RepoConfiguration> configs = Arrays.asList(alphaConfig, new RepoConfiguration(REPO_BETA));
+
+        MetricsRecorder.reset();
+        MetricsRecorder.startLocation(REPO_ALPHA);
+        Thread.sleep(50);
+        MetricsRecorder.endRepo();
+        MetricsRecorder.startRepo(alphaConfig);
+        MetricsRecorder.endRepo();
+        // the branches of beta were all reused after checking for changes
+        MetricsRecorder.startLocation(REPO_BETA);
+        MetricsRecorder.endRepo();
+        new CostEstimator(history).record(reportPath.toString(), configs, MetricsRecorder.getReport().getRepos());
+
+        Map<String, Long> costs =
+                new CostHistoryJsonParser().parse(reportPath.resolve(CostEstimator.COST_HISTORY_FILE));
+        Assert.assertTrue(costs.get(REPO_ALPHA) >= 50L);
+        Assert.assertEquals(Long.valueOf(200), costs.get(REPO_BETA));
+    }
+
+    @Test
+    public void load_malformedHistory_noRecordedCosts() throws IOException {
+        Files.write(reportPath.resolve(CostEstimator.COST_HISTORY_FILE), "[not costs".getBytes());
+
+        Map<String, Long> estimates = CostEstimator.load(reportPath)
+                .estimate(Collections.singletonList(REPO_ALPHA), Collections.emptyMap());
+
+        Assert.assertEquals(Long.valueOf(CostEstimator.DEFAULT_COST), estimates.get(REPO_ALPHA));
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtil.deleteDirectory(reportPath.toString());
+    }
+}
@@ -0,0 +1,102 @@
+package reposense.report;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import reposense.model.RepoConfiguration;
+import reposense.parser.InvalidLocationException;
+import reposense.util.FileUtil;
+
+public class ProgressJournalTest {
+    private static final String REPO_ALPHA = "https://github.com/reposense/testrepo-Alpha.git";
+    private static final String KEY = REPO_ALPHA + "#master";
+    private static final String COMMIT = "2fb6b9b2dd9fa40bf0f9815da2cb0ae8731436c7";
+
+    private Path outputPath;
+    private Path commitsPath;
+    private Path manifestPath;
+    private RepoFingerprint fingerprint;
+
+    @Before
+    public void before() throws IOException, InvalidLocationException {
+        outputPath = Files.createTempDirectory("ProgressJournalTest");
+        Path repoReportPath = Files.createDirectories(outputPath.resolve("testrepo-Alpha_master"));
+        commitsPath = repoReportPath.resolve("commits.json");
+        manifestPath = Files.createDirectories(repoReportPath.resolve("authorship")).resolve("manifest.json");
+        Files.write(commitsPath, "{\"authorDailyContributionsMap\":{}}".getBytes(StandardCharsets.UTF_8));
+        Files.write(manifestPath, "[]".getBytes(StandardCharsets.UTF_8));
+        fingerprint = RepoFingerprint.create(new RepoConfiguration(REPO_ALPHA, "master"), COMMIT).get();
+    }
+
+    @Test
+    public void getCompletedFingerprint_recordedThenResumed_fingerprintReturned() throws IOException {
+        recordAlpha();
+
+        try (ProgressJournal journal = ProgressJournal.open(outputPath, true)) {
+            Assert.assertEquals(Optional.of(fingerprint), journal.getCompletedFingerprint(KEY));
+            Assert.assertEquals(Optional.empty(), journal.getCompletedFingerprint(REPO_ALPHA + "#HEAD"));
+        }
+    }
+
+    @Test
+    public void getCompletedFingerprint_notResumed_nothingCompleted() throws IOException {
+        recordAlpha();
+
+        try (ProgressJournal journal = ProgressJournal.open(outputPath, false)) {
+            Assert.assertEquals(Optional.empty(), journal.getCompletedFingerprint(KEY));
+        }
+        Assert.assertEquals(0, Files.size(outputPath.resolve(ProgressJournal.JOURNAL_FILE_NAME)));
+    }
+
+    @Test
+    public void getCompletedFingerprint_fileChangedSinceRecorded_notCompleted() throws IOException {
+        recordAlpha();
+        Files.write(commitsPath, "{}".getBytes(StandardCharsets.UTF_8));
+
+        try (ProgressJournal journal = ProgressJournal.open(outputPath, true)) {
+            Assert.assertEquals(Optional.empty(), journal.getCompletedFingerprint(KEY));
+        }
+    }
+
+    @Test
+    public void open_resumedWithIncompleteLastLine_lineDiscardedAndRecordingContinues() throws IOException {
+        recordAlpha();
+        Path journalPath = outputPath.resolve(ProgressJournal.JOURNAL_FILE_NAME);
+        Files.write(journalPath, "{\"key\":\"https://github.com/reposense/testrepo-Beta.git#mas"
+                .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (ProgressJournal journal = ProgressJournal.open(outputPath, true)) {
+            journal.record(REPO_ALPHA + "#dev", "testrepo-Alpha_dev", fingerprint, Arrays.asList(commitsPath));
+        }
+
+        try (ProgressJournal journal = ProgressJournal.open(outputPath, true)) {
+            Assert.assertEquals(Optional.of(fingerprint), journal.getCompletedFingerprint(KEY));
+            Assert.assertEquals(Optional.of(fingerprint), journal.getCompletedFingerprint(REPO_ALPHA + "#dev"));
+        }
+        Assert.assertEquals(2, Files.readAllLines(journalPath).size());
+    }
+
+    /**
+     * Records the report of the master branch of alpha as completed in a new journal.
+     */
+    private void recordAlpha() throws IOException {
+        try (ProgressJournal journal = ProgressJournal.open(outputPath, false)) {
+            journal.record(KEY, "testrepo-Alpha_master", fingerprint, Arrays.asList(commitsPath, manifestPath));
+        }
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtil.deleteDirectory(outputPath.toString());
+    }
+}
@@ -0,0 +1,89 @@
+package reposense.report;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import reposense.model.Author;
+import reposense.model.RepoConfiguration;
+import reposense.parser.InvalidLocationException;
+import reposense.parser.RepoFingerprintJsonParser;
+import reposense.util.FileUtil;
+import reposense.util.TestUtil;
+
+public class RepoFingerprintTest {
+    private static final String TEST_REPO_LOCATION = "https://github.com/reposense/testrepo-Alpha.git";
+    private static final String COMMIT = "136c6713fc00cfe79a1598e8ce83c6ef3b878660";
+
+    private RepoConfiguration config;
+
+    @Before
+    public void before() throws InvalidLocationException {
+        config = createConfig();
+    }
+
+    @Test
+    public void equals_sameConfigAndCommit_success() throws InvalidLocationException {
+        Assert.assertEquals(RepoFingerprint.create(config, COMMIT), RepoFingerprint.create(createConfig(), COMMIT));
+    }
+
+    @Test
+    public void equals_differentCommit_fail() {
+        Assert.assertNotEquals(RepoFingerprint.create(config, COMMIT),
+                RepoFingerprint.create(config, "2fb6b9b2dd9fa40bf0f9815da2cb0ae8731436c7"));
+    }
+
+    @Test
+    public void equals_differentDateRange_fail() {
+        RepoFingerprint fingerprint = RepoFingerprint.create(config, COMMIT).get();
+        config.setSinceDate(TestUtil.getDate(2018, 1, 1));
+
+        Assert.assertNotEquals(fingerprint, RepoFingerprint.create(config, COMMIT).get());
+    }
+
+    @Test
+    public void equals_differentAuthorAlias_fail() {
+        RepoFingerprint fingerprint = RepoFingerprint.create(config, COMMIT).get();
+        config.addAuthorAliases(config.getAuthorList().get(0), Collections.singletonList("Harry"));
+
+        Assert.assertNotEquals(fingerprint, RepoFingerprint.create(config, COMMIT).get());
+    }
+
+    @Test
+    public void equals_differentContentStore_fail() {
+        RepoFingerprint fingerprint = RepoFingerprint.create(config, COMMIT).get();
+        RepoConfiguration.setContentStoreToRepoConfigs(Collections.singletonList(config), true);
+
+        Assert.assertNotEquals(fingerprint, RepoFingerprint.create(config, COMMIT).get());
+    }
+
+    @Test
+    public void parse_writtenFingerprint_equalsOriginal() throws IOException {
+        config.setUntilDate(TestUtil.getDate(2018, 5, 1));
+        RepoFingerprint fingerprint = RepoFingerprint.create(config, COMMIT).get();
+        Path fingerprintPath = Files.createTempFile("fingerprint", ".json");
+
+        try {
+            FileUtil.writeJsonFile(fingerprint, fingerprintPath.toString());
+            Assert.assertEquals(fingerprint, new RepoFingerprintJsonParser().parse(fingerprintPath));
+        } finally {
+            Files.delete(fingerprintPath);
+        }
+    }
+
+    /**
+     * Returns a new {@code RepoConfiguration} with the same settings each time.
+     */
+    private static RepoConfiguration createConfig() throws InvalidLocationException {
+        RepoConfiguration config = new RepoConfiguration(TEST_REPO_LOCATION, "master");
+        config.setFormats(Arrays.asList("java", "md"));
+        config.setAuthorList(Collections.singletonList(new Author("harryggg")));
+        return config;
+    }
+}
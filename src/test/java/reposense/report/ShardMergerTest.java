@@ -0,0 +1,167 @@
+package reposense.report;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.JsonParser;
+
+import reposense.model.RepoConfiguration;
+import reposense.model.Shard;
+import reposense.parser.InvalidLocationException;
+import reposense.util.ArchiveWriter;
+import reposense.util.FileUtil;
+
+public class ShardMergerTest {
+    private static final String SUMMARY_JSON = "{\"dashboardGeneratedTime\":\"\",\"repos\":[]}";
+    private static final String REPO_ALPHA = "https://github.com/reposense/testrepo-Alpha.git";
+    private static final String REPO_BETA = "https://github.com/reposense/testrepo-Beta.git";
+    private static final String REPO_CHARLIE = "https://github.com/reposense/testrepo-Charlie.git";
+    private static final String GENERATION_DATE = "19/10/2026 10:00:00";
+
+    private Path reportPath;
+
+    @Before
+    public void before() throws IOException {
+        reportPath = Files.createTempDirectory("ShardMergerTest");
+    }
+
+    @Test
+    public void getShardPath_shard_inShardsFolder() {
+        Assert.assertEquals(reportPath.resolve("shards").resolve("2-of-3"),
+                ShardMerger.getShardPath(reportPath, new Shard(2, 3)));
+    }
+
+    @Test
+    public void deleteStaleShards_shardsOfDifferentCount_deleted() throws IOException {
+        createShardReport(new Shard(1, 2));
+        createShardReport(new Shard(2, 2));
+        createShardReport(new Shard(1, 3));
+
+        ShardMerger.deleteStaleShards(reportPath, new Shard(1, 3));
+
+        Assert.assertFalse(Files.exists(ShardMerger.getShardPath(reportPath, new Shard(1, 2))));
+        Assert.assertFalse(Files.exists(ShardMerger.getShardPath(reportPath, new Shard(2, 2))));
+        Assert.assertTrue(Files.exists(ShardMerger.getShardPath(reportPath, new Shard(1, 3))));
+    }
+
+    @Test(expected = IOException.class)
+    public void merge_noShards_throwsIoException() throws IOException {
+        ShardMerger.merge(reportPath, GENERATION_DATE);
+    }
+
+    @Test
+    public void merge_missingShard_throwsIoExceptionAndKeepsReport() throws IOException {
+        createShardReport(new Shard(1, 3));
+        createShardReport(new Shard(3, 3));
+        Path summaryPath = reportPath.resolve("summary.json");
+        Files.write(summaryPath, SUMMARY_JSON.getBytes(StandardCharsets.UTF_8));
+
+        try {
+            ShardMerger.merge(reportPath, GENERATION_DATE);
+            Assert.fail("Merging the reports of some of the shards should fail.");
+        } catch (IOException ioe) {
+            Assert.assertTrue(ioe.getMessage().contains("2/3"));
+        }
+        Assert.assertTrue(Files.exists(summaryPath));
+    }
+
+    @Test(expected = IOException.class)
+    public void merge_shardsOfDifferentCounts_throwsIoException() throws IOException {
+        createShardReport(new Shard(1, 1));
+        createShardReport(new Shard(1, 2));
+        createShardReport(new Shard(2, 2));
+
+        ShardMerger.merge(reportPath, GENERATION_DATE);
+    }
+
+    @Test
+    public void merge_everyLocationInOneShard_reposMerged() throws InvalidLocationException, IOException {
+        List<String> locations = Arrays.asList(REPO_ALPHA, REPO_BETA, REPO_CHARLIE);
+        createShardReport(new Shard(1, 2), locations, REPO_BETA);
+        createShardReport(new Shard(2, 2), locations, REPO_ALPHA, REPO_CHARLIE);
+
+        ShardMerger.merge(reportPath, GENERATION_DATE);
+
+        String summary = new String(Files.readAllBytes(reportPath.resolve("summary.json")), StandardCharsets.UTF_8);
+        Assert.assertEquals(3, new JsonParser().parse(summary).getAsJsonObject().getAsJsonArray("repos").size());
+    }
+
+    @Test
+    public void merge_locationInTwoShards_throwsIoException() throws InvalidLocationException, IOException {
+        List<String> locations = Arrays.asList(REPO_ALPHA, REPO_BETA);
+        createShardReport(new Shard(1, 2), locations, REPO_ALPHA, REPO_BETA);
+        createShardReport(new Shard(2, 2), locations, REPO_BETA);
+
+        try {
+            ShardMerger.merge(reportPath, GENERATION_DATE);
+            Assert.fail("Merging the reports of shards which analyzed the same repo should fail.");
+        } catch (IOException ioe) {
+            Assert.assertTrue(ioe.getMessage().contains(REPO_BETA));
+        }
+    }
+
+    @Test
+    public void merge_locationInNoShard_throwsIoException() throws InvalidLocationException, IOException {
+        List<String> locations = Arrays.asList(REPO_ALPHA, REPO_BETA, REPO_CHARLIE);
+        createShardReport(new Shard(1, 2), locations, REPO_ALPHA);
+        createShardReport(new Shard(2, 2), locations, REPO_BETA);
+
+        try {
+            ShardMerger.merge(reportPath, GENERATION_DATE);
+            Assert.fail("Merging the reports of shards which left out a repo should fail.");
+        } catch (IOException ioe) {
+            Assert.assertTrue(ioe.getMessage().contains(REPO_CHARLIE));
+        }
+    }
+
+    /**
+     * Creates an empty, but complete, report of {@code shard} in the report folder, for a run without repos.
+     */
+    private void createShardReport(Shard shard) throws IOException {
+        Path shardPath = Files.createDirectories(ShardMerger.getShardPath(reportPath, shard));
+        ShardMerger.recordAssignment(shardPath, Collections.emptyList(), Collections.emptyList());
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(shardPath.resolve(FileUtil.ZIP_FILE), shardPath)) {
+            byte[] summary = SUMMARY_JSON.getBytes(StandardCharsets.UTF_8);
+            Files.write(shardPath.resolve("summary.json"), summary);
+            archiveWriter.addFile(shardPath.resolve("summary.json"), summary);
+        }
+    }
+
+    /**
+     * Creates a complete report of {@code shard} in the report folder, for a run of the repos at
+     * {@code runLocations}, with the repos at {@code shardLocations} assigned to it and listed in its summary.
+     */
+    private void createShardReport(Shard shard, List<String> runLocations, String... shardLocations)
+            throws InvalidLocationException, IOException {
+        Path shardPath = Files.createDirectories(ShardMerger.getShardPath(reportPath, shard));
+        List<RepoConfiguration> configs = new ArrayList<>();
+        for (String location : runLocations) {
+            configs.add(new RepoConfiguration(location));
+        }
+        List<RepoConfiguration> shardConfigs = configs.stream()
+                .filter(config -> Arrays.asList(shardLocations).contains(config.getLocation()))
+                .collect(Collectors.toList());
+        ShardMerger.recordAssignment(shardPath, configs, shardConfigs);
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(shardPath.resolve(FileUtil.ZIP_FILE), shardPath)) {
+            FileUtil.writeJsonFile(new SummaryReportJson(shardConfigs, ""), shardPath.resolve("summary.json")
+                    .toString(), archiveWriter);
+        }
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtil.deleteDirectory(reportPath.toString());
+    }
+}
@@ -0,0 +1,66 @@
+package reposense.report;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import reposense.model.RepoConfiguration;
+import reposense.parser.InvalidLocationException;
+
+public class ShardSchedulerTest {
+    private static final String REPO_ALPHA = "https://github.com/reposense/testrepo-Alpha.git";
+    private static final String REPO_BETA = "https://github.com/reposense/testrepo-Beta.git";
+    private static final String REPO_CHARLIE = "https://github.com/reposense/testrepo-Charlie.git";
+    private static final String REPO_DELTA = "https://github.com/reposense/testrepo-Delta.git";
+
+    @Test
+    public void assignShards_knownCosts_costliestFirstToCheapestShard() throws InvalidLocationException {
+        List<RepoConfiguration> configs = Arrays.asList(new RepoConfiguration(REPO_ALPHA),
+                new RepoConfiguration(REPO_BETA), new RepoConfiguration(REPO_CHARLIE),
+                new RepoConfiguration(REPO_DELTA));
+        Map<String, Long> costs = new HashMap<>();
+        costs.put(REPO_ALPHA, 10L);
+        costs.put(REPO_BETA, 60L);
+        costs.put(REPO_CHARLIE, 30L);
+        costs.put(REPO_DELTA, 35L);
+
+        Map<String, Integer> assignment = ShardScheduler.assignShards(configs, 2, costs);
+
+        // beta (60) goes to shard 1, delta (35) and charlie (30) to shard 2, then alpha (10) to shard 1
+        Assert.assertEquals(Integer.valueOf(1), assignment.get(REPO_BETA));
+        Assert.assertEquals(Integer.valueOf(2), assignment.get(REPO_CHARLIE));
+        Assert.assertEquals(Integer.valueOf(2), assignment.get(REPO_DELTA));
+        Assert.assertEquals(Integer.valueOf(1), assignment.get(REPO_ALPHA));
+    }
+
+    @Test
+    public void assignShards_branchesOfSameRepo_sameShard() throws InvalidLocationException {
+        List<RepoConfiguration> configs = Arrays.asList(new RepoConfiguration(REPO_ALPHA, "master"),
+                new RepoConfiguration(REPO_BETA, "master"), new RepoConfiguration(REPO_ALPHA, "dev"));
+
+        Map<String, Integer> assignment = ShardScheduler.assignShards(configs, 2, Collections.emptyMap());
+
+        Assert.assertEquals(2, assignment.size());
+        Assert.assertNotEquals(assignment.get(REPO_ALPHA), assignment.get(REPO_BETA));
+    }
+
+    @Test
+    public void assignShards_differentConfigOrder_sameAssignment() throws InvalidLocationException {
+        List<RepoConfiguration> configs = new ArrayList<>(Arrays.asList(new RepoConfiguration(REPO_ALPHA),
+                new RepoConfiguration(REPO_BETA), new RepoConfiguration(REPO_CHARLIE),
+                new RepoConfiguration(REPO_DELTA)));
+        Map<String, Long> costs = new HashMap<>();
+        costs.put(REPO_ALPHA, 40L);
+        costs.put(REPO_CHARLIE, 20L);
+
+        Map<String, Integer> assignment = ShardScheduler.assignShards(configs, 3, costs);
+        Collections.reverse(configs);
+        Assert.assertEquals(assignment, ShardScheduler.assignShards(configs, 3, costs));
+    }
+}
@@ -0,0 +1,259 @@
+package reposense.system;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import reposense.parser.ParseException;
+import reposense.util.FileUtil;
+import reposense.util.TestUtil;
+
+public class AnalysisDaemonTest {
+    private static final Logger logger = LogsManager.getLogger(AnalysisDaemonTest.class);
+    private static final Path WORKING_DIRECTORY = Paths.get(System.getProperty("user.dir"));
+
+    private final List<List<String>> jobs = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch releaseLatch = new CountDownLatch(1);
+    private Path tokenDirectory;
+    private AnalysisDaemon daemon;
+
+    @Before
+    public void before() throws IOException {
+        tokenDirectory = Files.createTempDirectory("analysis-daemon-test");
+        daemon = new AnalysisDaemon(0, tokenDirectory, args -> {
+            jobs.add(Arrays.asList(args));
+            logger.info("Analyzing " + args[1]);
+            if (args[1].endsWith("slow")) {
+                try {
+                    releaseLatch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return !args[1].endsWith("failing");
+        });
+        daemon.start();
+    }
+
+    @Test
+    public void submit_job_runWithResolvedPathsAndLogStreamed() throws IOException {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        Assert.assertTrue(DaemonClient.submit(daemon.getPort(), tokenDirectory, Arrays.asList("-repos", "repo"),
+                WORKING_DIRECTORY, log));
+
+        Assert.assertEquals(Collections.singletonList(Arrays.asList("-repos", WORKING_DIRECTORY.resolve("repo")
+                .toString(), "-output", WORKING_DIRECTORY.toString())), jobs);
+        Assert.assertTrue(new String(log.toByteArray(), StandardCharsets.UTF_8)
+                .contains("Analyzing " + WORKING_DIRECTORY.resolve("repo")));
+    }
+
+    @Test
+    public void submit_failingJob_failureReturned() throws IOException {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        Assert.assertFalse(DaemonClient.submit(daemon.getPort(), tokenDirectory, Arrays.asList("-repos", "failing"),
+                WORKING_DIRECTORY, log));
+        Assert.assertTrue(new String(log.toByteArray(), StandardCharsets.UTF_8)
+                .contains("Analyzing " + WORKING_DIRECTORY.resolve("failing")));
+    }
+
+    @Test
+    public void submit_concurrentJobs_runOneAtATime() throws Exception {
+        ByteArrayOutputStream slowLog = new ByteArrayOutputStream();
+        Thread slowClient = new Thread(() -> {
+            try {
+                DaemonClient.submit(daemon.getPort(), tokenDirectory, Arrays.asList("-repos", "slow"),
+                        WORKING_DIRECTORY, slowLog);
+            } catch (IOException ioe) {
+                throw new AssertionError(ioe);
+            }
+        });
+        slowClient.start();
+        while (jobs.isEmpty()) {
+            Thread.sleep(10);
+        }
+
+        ByteArrayOutputStream fastLog = new ByteArrayOutputStream();
+        Thread fastClient = new Thread(() -> {
+            try {
+                DaemonClient.submit(daemon.getPort(), tokenDirectory, Arrays.asList("-repos", "fast"),
+                        WORKING_DIRECTORY, fastLog);
+            } catch (IOException ioe) {
+                throw new AssertionError(ioe);
+            }
+        });
+        fastClient.start();
+        fastClient.join(500);
+        Assert.assertEquals(1, jobs.size());
+
+        releaseLatch.countDown();
+        slowClient.join();
+        fastClient.join();
+        Assert.assertEquals(2, jobs.size());
+        String slowOutput = new String(slowLog.toByteArray(), StandardCharsets.UTF_8);
+        String fastOutput = new String(fastLog.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertFalse(slowOutput.contains("Analyzing " + WORKING_DIRECTORY.resolve("fast")));
+        Assert.assertTrue(fastOutput.startsWith("Waiting for the analyses submitted earlier to finish..."));
+        Assert.assertTrue(fastOutput.contains("Analyzing " + WORKING_DIRECTORY.resolve("fast")));
+    }
+
+    @Test
+    public void submit_tooManyJobs_turnedAway() throws Exception {
+        List<Thread> clients = new ArrayList<>();
+        List<ByteArrayOutputStream> logs = new ArrayList<>();
+        for (int i = 0; i < AnalysisDaemon.MAX_CONNECTION_COUNT; i++) {
+            ByteArrayOutputStream log = new ByteArrayOutputStream();
+            logs.add(log);
+            clients.add(startClient("slow", log));
+            // each job is only sent once the one before it is being served
+            while (log.size() == 0) {
+                Thread.sleep(10);
+            }
+        }
+
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        Assert.assertFalse(DaemonClient.submit(daemon.getPort(), tokenDirectory, Arrays.asList("-repos", "extra"),
+                WORKING_DIRECTORY, log));
+        Assert.assertTrue(new String(log.toByteArray(), StandardCharsets.UTF_8).startsWith("The job was turned away"));
+
+        releaseLatch.countDown();
+        for (Thread client : clients) {
+            client.join();
+        }
+        Assert.assertEquals(AnalysisDaemon.MAX_CONNECTION_COUNT, jobs.size());
+    }
+
+    @Test
+    public void start_tokenWritten_onlyOwnerCanRead() throws IOException {
+        if (TestUtil.isWindows()) {
+            return;
+        }
+        Path tokenPath = DaemonToken.getPath(tokenDirectory, daemon.getPort());
+        Assert.assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(tokenPath));
+    }
+
+    @Test(expected = IOException.class)
+    public void submit_noToken_throwsIoException() throws IOException {
+        int port = daemon.getPort();
+        daemon.stop();
+        DaemonClient.submit(port, tokenDirectory, Collections.emptyList(), WORKING_DIRECTORY,
+                new ByteArrayOutputStream());
+    }
+
+    @Test(expected = IOException.class)
+    public void submit_portNotListening_throwsIoException() throws IOException {
+        // the port stays bound, so nothing else can listen on it or connect to itself through it
+        try (Socket boundSocket = new Socket()) {
+            boundSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            int port = boundSocket.getLocalPort();
+            DaemonToken.create(tokenDirectory, port);
+            DaemonClient.submit(port, tokenDirectory, Collections.emptyList(), WORKING_DIRECTORY,
+                    new ByteArrayOutputStream());
+        }
+    }
+
+    @Test
+    public void serveJob_wrongToken_notRun() throws IOException {
+        String output = sendRawJob(out -> {
+            out.writeUTF("not the token");
+            out.writeUTF(WORKING_DIRECTORY.toString());
+            out.writeInt(2);
+            out.writeUTF("-repos");
+            out.writeUTF("repo");
+        });
+
+        Assert.assertTrue(output.startsWith("The job was turned away"));
+        Assert.assertTrue(jobs.isEmpty());
+    }
+
+    @Test
+    public void serveJob_invalidArgumentCount_notRunAndDaemonStillServes() throws IOException {
+        String token = DaemonToken.read(tokenDirectory, daemon.getPort());
+        for (int argCount : new int[] {-1, Integer.MAX_VALUE}) {
+            sendRawJob(out -> {
+                out.writeUTF(token);
+                out.writeUTF(WORKING_DIRECTORY.toString());
+                out.writeInt(argCount);
+            });
+        }
+        Assert.assertTrue(jobs.isEmpty());
+
+        DaemonClient.submit(daemon.getPort(), tokenDirectory, Arrays.asList("-repos", "repo"), WORKING_DIRECTORY,
+                new ByteArrayOutputStream());
+        Assert.assertEquals(1, jobs.size());
+    }
+
+    @Test(expected = ParseException.class)
+    public void submit_invalidPort_throwsParseException() throws ParseException, IOException {
+        DaemonClient.submit(new String[] {DaemonClient.CONNECT_FLAG, "port", "-repos", "repo"});
+    }
+
+    @After
+    public void after() throws IOException {
+        daemon.stop();
+        FileUtil.deleteDirectory(tokenDirectory.toString());
+    }
+
+    /**
+     * Starts a client which submits the analysis of {@code repo} to the daemon, with its log copied into {@code log}.
+     */
+    private Thread startClient(String repo, ByteArrayOutputStream log) {
+        Thread client = new Thread(() -> {
+            try {
+                DaemonClient.submit(daemon.getPort(), tokenDirectory, Arrays.asList("-repos", repo),
+                        WORKING_DIRECTORY, log);
+            } catch (IOException ioe) {
+                throw new AssertionError(ioe);
+            }
+        });
+        client.start();
+        return client;
+    }
+
+    /**
+     * Sends the job written by {@code writer} to the daemon, and returns the log which the daemon sends back, checking
+     * that the job is reported as failed if the daemon reports on it at all.
+     */
+    private String sendRawJob(JobWriter writer) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            writer.write(out);
+            out.flush();
+            socket.shutdownOutput();
+
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            try {
+                Assert.assertFalse(DaemonClient.receiveLog(socket.getInputStream(), response));
+            } catch (IOException ioe) {
+                // the daemon closes the connection without a word if the job is malformed
+            }
+            return new String(response.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Writes a job, which need not be well formed, to the daemon.
+     */
+    private interface JobWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,135 @@
+package reposense.system;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.freeutils.httpserver.HTTPServer;
+import reposense.util.ArchiveWriter;
+import reposense.util.FileUtil;
+
+public class ArchiveContextHandlerTest {
+    private static final String COMMITS_CONTENT = String.join("", Collections.nCopies(1000, "commits\n"));
+    private static final String INDEX_CONTENT = "<html></html>";
+    private static final String REPORT_INDEX_CONTENT = "<html>report</html>";
+
+    private Path rootPath;
+    private HTTPServer server;
+    private int port;
+
+    @Before
+    public void before() throws IOException {
+        rootPath = Files.createTempDirectory("ArchiveContextHandlerTest");
+        Path reportPath = rootPath.resolve("report");
+        Path templatePath = rootPath.resolve("template");
+        Path reportArchivePath = rootPath.resolve(FileUtil.ZIP_FILE);
+        Path templateArchivePath = rootPath.resolve("templateZip.zip");
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(reportArchivePath, reportPath)) {
+            archiveWriter.addFile(reportPath.resolve("repo/commits.json"),
+                    COMMITS_CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(templateArchivePath, templatePath)) {
+            archiveWriter.addFile(templatePath.resolve("index.html"), INDEX_CONTENT.getBytes(StandardCharsets.UTF_8));
+            archiveWriter.addFile(templatePath.resolve("repo/commits.json"), new byte[0]);
+        }
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new HTTPServer(port);
+        server.getVirtualHost(null).addContext("/", new ArchiveContextHandler(
+                Arrays.asList(reportArchivePath, templateArchivePath), 1 << 20));
+        server.start();
+    }
+
+    @Test
+    public void serve_gzipAccepted_sendsDeflatedDataAsGzip() throws IOException {
+        HttpURLConnection connection = openConnection("repo/commits.json");
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertEquals("gzip", connection.getHeaderField("Content-Encoding"));
+        Assert.assertTrue(connection.getContentLengthLong() < COMMITS_CONTENT.length());
+        Assert.assertEquals(COMMITS_CONTENT, readAll(new GZIPInputStream(connection.getInputStream())));
+    }
+
+    @Test
+    public void serve_gzipNotAccepted_sendsInflatedContent() throws IOException {
+        HttpURLConnection connection = openConnection("repo/commits.json");
+
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertNull(connection.getHeaderField("Content-Encoding"));
+        Assert.assertEquals(COMMITS_CONTENT, readAll(connection.getInputStream()));
+    }
+
+    @Test
+    public void serve_range_sendsPartOfInflatedContent() throws IOException {
+        HttpURLConnection connection = openConnection("repo/commits.json");
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        connection.setRequestProperty("Range", "bytes=8-15");
+
+        Assert.assertEquals(206, connection.getResponseCode());
+        Assert.assertEquals(COMMITS_CONTENT.substring(8, 16), readAll(connection.getInputStream()));
+    }
+
+    @Test
+    public void serve_fileOnlyInLaterArchive_servedFromLaterArchive() throws IOException {
+        HttpURLConnection connection = openConnection("");
+
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertEquals(INDEX_CONTENT, readAll(connection.getInputStream()));
+    }
+
+    @Test
+    public void serve_replacedArchive_servesNewContent() throws IOException {
+        Path reportPath = rootPath.resolve("report");
+        Path reportArchivePath = rootPath.resolve(FileUtil.ZIP_FILE);
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(reportArchivePath, reportPath)) {
+            archiveWriter.addFile(reportPath.resolve("index.html"),
+                    REPORT_INDEX_CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+        reportArchivePath.toFile().setLastModified(reportArchivePath.toFile().lastModified() + 10_000);
+
+        Assert.assertEquals(REPORT_INDEX_CONTENT, readAll(openConnection("index.html").getInputStream()));
+        Assert.assertEquals(404, openConnection("repo/authorship.json").getResponseCode());
+    }
+
+    @After
+    public void after() throws IOException {
+        server.stop();
+        FileUtil.deleteDirectory(rootPath.toString());
+    }
+
+    private HttpURLConnection openConnection(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + port + "/" + path).openConnection();
+    }
+
+    /**
+     * Returns the remaining content of {@code is}, and closes it.
+     */
+    private static String readAll(InputStream is) throws IOException {
+        try (InputStream stream = is) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1 << 12];
+            int length;
+            while ((length = stream.read(buffer)) != -1) {
+                content.write(buffer, 0, length);
+            }
+            return new String(content.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package reposense.system;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import net.freeutils.httpserver.HTTPServer;
+import reposense.authorship.model.AuthorshipShard;
+import reposense.authorship.model.FileResult;
+import reposense.authorship.model.LineInfo;
+import reposense.model.Author;
+import reposense.report.ContentStore;
+import reposense.util.ArchiveWriter;
+import reposense.util.FileUtil;
+
+public class AuthorshipApiHandlerTest {
+    private static final String REPO = "repo_master";
+    private static final Author FIRST_AUTHOR = new Author("first");
+    private static final Author SECOND_AUTHOR = new Author("second");
+
+    private Path rootPath;
+    private HTTPServer server;
+    private int port;
+
+    @Before
+    public void before() throws IOException {
+        rootPath = Files.createTempDirectory("AuthorshipApiHandlerTest");
+        Files.createDirectories(rootPath.resolve(REPO));
+        writeAuthorship(Arrays.asList(
+                createFileResult("src/Main.java", FIRST_AUTHOR, SECOND_AUTHOR, FIRST_AUTHOR, FIRST_AUTHOR),
+                createFileResult("README", SECOND_AUTHOR),
+                createFileResult("src/Util.java", FIRST_AUTHOR, SECOND_AUTHOR),
+                createFileResult("build.gradle", FIRST_AUTHOR, FIRST_AUTHOR, FIRST_AUTHOR)));
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new HTTPServer(port);
+        server.getVirtualHost(null).addContext(AuthorshipApiHandler.CONTEXT_PATH,
+                new AuthorshipApiHandler(rootPath.toFile()));
+        server.start();
+    }
+
+    @Test
+    public void serve_firstPage_filesWithMostLinesFirst() throws IOException {
+        JsonObject page = query("repo=" + REPO + "&author=first&limit=2");
+
+        Assert.assertEquals(3, page.get("totalFileCount").getAsInt());
+        Assert.assertEquals(7, page.get("totalLineCount").getAsInt());
+        JsonObject fileTypeLineCounts = page.getAsJsonObject("fileTypeLineCounts");
+        Assert.assertEquals(4, fileTypeLineCounts.get("java").getAsInt());
+        Assert.assertEquals(3, fileTypeLineCounts.get("gradle").getAsInt());
+
+        JsonArray files = page.getAsJsonArray("files");
+        Assert.assertEquals(2, files.size());
+        Assert.assertEquals("build.gradle", files.get(0).getAsJsonObject().get("path").getAsString());
+        Assert.assertEquals("src/Main.java", files.get(1).getAsJsonObject().get("path").getAsString());
+
+        JsonArray segments = files.get(1).getAsJsonObject().getAsJsonArray("segments");
+        Assert.assertEquals(3, segments.size());
+        Assert.assertTrue(segments.get(0).getAsJsonObject().get("authored").getAsBoolean());
+        Assert.assertFalse(segments.get(1).getAsJsonObject().get("authored").getAsBoolean());
+        Assert.assertEquals(2, segments.get(2).getAsJsonObject().getAsJsonArray("lines").size());
+        Assert.assertEquals("line 3 of src/Main.java",
+                segments.get(2).getAsJsonObject().getAsJsonArray("lines").get(0).getAsString());
+    }
+
+    @Test
+    public void serve_nextPage_remainingFiles() throws IOException {
+        JsonArray files = query("repo=" + REPO + "&author=first&offset=2&limit=2").getAsJsonArray("files");
+
+        Assert.assertEquals(1, files.size());
+        Assert.assertEquals("src/Util.java", files.get(0).getAsJsonObject().get("path").getAsString());
+    }
+
+    @Test
+    public void serve_path_onlyThatFile() throws IOException {
+        JsonObject page = query("repo=" + REPO + "&author=second&path=README");
+
+        Assert.assertEquals(3, page.get("totalFileCount").getAsInt());
+        Assert.assertEquals(1, page.getAsJsonObject("fileTypeLineCounts").get("README").getAsInt());
+        JsonArray files = page.getAsJsonArray("files");
+        Assert.assertEquals(1, files.size());
+        Assert.assertEquals("README", files.get(0).getAsJsonObject().get("path").getAsString());
+    }
+
+    @Test
+    public void serve_rewrittenReport_indexedAgain() throws IOException {
+        Assert.assertEquals(3, query("repo=" + REPO + "&author=first").get("totalFileCount").getAsInt());
+
+        writeAuthorship(Arrays.asList(createFileResult("src/Main.java", FIRST_AUTHOR)));
+        Path manifestPath = rootPath.resolve(REPO).resolve("authorship/manifest.json");
+        manifestPath.toFile().setLastModified(manifestPath.toFile().lastModified() + 10_000);
+
+        Assert.assertEquals(1, query("repo=" + REPO + "&author=first").get("totalFileCount").getAsInt());
+    }
+
+    @Test
+    public void serve_contentsInContentStore_sameSegments() throws IOException {
+        JsonArray expectedFiles = query("repo=" + REPO + "&author=first").getAsJsonArray("files");
+
+        Path repoPath = Files.createDirectories(rootPath.resolve("repo"));
+        List<FileResult> fileResults = Arrays.asList(
+                createFileResult("src/Main.java", FIRST_AUTHOR, SECOND_AUTHOR, FIRST_AUTHOR, FIRST_AUTHOR),
+                createFileResult("README", SECOND_AUTHOR),
+                createFileResult("src/Util.java", FIRST_AUTHOR, SECOND_AUTHOR),
+                createFileResult("build.gradle", FIRST_AUTHOR, FIRST_AUTHOR, FIRST_AUTHOR));
+        for (FileResult fileResult : fileResults) {
+            Path filePath = repoPath.resolve(fileResult.getPath());
+            Files.createDirectories(filePath.getParent());
+            Files.write(filePath, fileResult.getLines().stream().map(LineInfo::getContent)
+                    .collect(Collectors.toList()), StandardCharsets.UTF_8);
+        }
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(repoPath.resolve("archive.zip"), rootPath)) {
+            ContentStore contentStore = new ContentStore(rootPath.toString(), archiveWriter);
+            writeAuthorship(fileResults, shardResults -> contentStore.store(repoPath.toString(), shardResults));
+        }
+        Path manifestPath = rootPath.resolve(REPO).resolve("authorship/manifest.json");
+        manifestPath.toFile().setLastModified(manifestPath.toFile().lastModified() + 10_000);
+
+        JsonObject page = query("repo=" + REPO + "&author=first");
+        Assert.assertFalse(new String(Files.readAllBytes(rootPath.resolve(REPO).resolve("authorship/0.json")),
+                StandardCharsets.UTF_8).contains("line 1 of build.gradle"));
+        Assert.assertEquals(expectedFiles, page.getAsJsonArray("files"));
+    }
+
+    @Test
+    public void serve_offsetNearMaxInt_noFiles() throws IOException {
+        JsonObject page = query("repo=" + REPO + "&author=first&offset=" + Integer.MAX_VALUE + "&limit=10");
+
+        Assert.assertEquals(3, page.get("totalFileCount").getAsInt());
+        Assert.assertEquals(0, page.getAsJsonArray("files").size());
+    }
+
+    @Test
+    public void serve_nonAsciiContentsInContentStore_decodedAsWritten() throws IOException {
+        Path repoPath = Files.createDirectories(rootPath.resolve("repo"));
+        List<String> contents = Arrays.asList("String greeting = \"Grüße, 世界\";", "// ✓");
+        Files.write(repoPath.resolve("Greeting.java"), contents, StandardCharsets.UTF_8);
+        ArrayList<LineInfo> lines = new ArrayList<>();
+        for (int i = 0; i < contents.size(); i++) {
+            LineInfo line = new LineInfo(i + 1, contents.get(i));
+            line.setAuthor(FIRST_AUTHOR);
+            lines.add(line);
+        }
+        HashMap<Author, Integer> authorContributionMap = new HashMap<>();
+        authorContributionMap.put(FIRST_AUTHOR, contents.size());
+        List<FileResult> fileResults =
+                Arrays.asList(new FileResult("Greeting.java", lines, authorContributionMap));
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(repoPath.resolve("archive.zip"), rootPath)) {
+            ContentStore contentStore = new ContentStore(rootPath.toString(), archiveWriter);
+            writeAuthorship(fileResults, shardResults -> contentStore.store(repoPath.toString(), shardResults));
+        }
+        Path manifestPath = rootPath.resolve(REPO).resolve("authorship/manifest.json");
+        manifestPath.toFile().setLastModified(manifestPath.toFile().lastModified() + 10_000);
+
+        JsonArray servedLines = query("repo=" + REPO + "&author=first").getAsJsonArray("files").get(0)
+                .getAsJsonObject().getAsJsonArray("segments").get(0).getAsJsonObject().getAsJsonArray("lines");
+        Assert.assertEquals(contents.get(0), servedLines.get(0).getAsString());
+        Assert.assertEquals(contents.get(1), servedLines.get(1).getAsString());
+    }
+
+    @Test
+    public void serve_invalidQuery_badRequest() throws IOException {
+        Assert.assertEquals(400, openConnection("repo=" + REPO).getResponseCode());
+        Assert.assertEquals(400, openConnection("repo=" + REPO + "&author=first&limit=0").getResponseCode());
+        Assert.assertEquals(400, openConnection("repo=" + REPO + "&author=first&offset=a").getResponseCode());
+    }
+
+    @Test
+    public void serve_repoOutsideReport_notFound() throws IOException {
+        Assert.assertEquals(404, openConnection("repo=missing&author=first").getResponseCode());
+        Assert.assertEquals(404, openConnection("repo=..%2F" + REPO + "&author=first").getResponseCode());
+    }
+
+    @After
+    public void after() throws IOException {
+        server.stop();
+        FileUtil.deleteDirectory(rootPath.toString());
+    }
+
+    /**
+     * Writes {@code fileResults} as the authorship of the repo, in a shard for each top-level directory.
+     */
+    private void writeAuthorship(List<FileResult> fileResults) throws IOException {
+        writeAuthorship(fileResults, shardResults -> shardResults);
+    }
+
+    /**
+     * Writes {@code fileResults} as the authorship of the repo, in a shard for each top-level directory, with the
+     * results of each shard converted by {@code toJson} before they are written.
+     */
+    private void writeAuthorship(List<FileResult> fileResults, ShardConverter toJson) throws IOException {
+        Path authorshipPath = rootPath.resolve(REPO).resolve("authorship");
+        FileUtil.deleteDirectory(authorshipPath.toString());
+        Files.createDirectories(authorshipPath);
+
+        Map<String, List<FileResult>> directoryResults = new TreeMap<>();
+        for (FileResult fileResult : fileResults) {
+            String directory = AuthorshipShard.getTopLevelDirectory(fileResult.getPath());
+            directoryResults.computeIfAbsent(directory, key -> new ArrayList<>()).add(fileResult);
+        }
+        List<AuthorshipShard> shards = new ArrayList<>();
+        for (Map.Entry<String, List<FileResult>> entry : directoryResults.entrySet()) {
+            AuthorshipShard shard = new AuthorshipShard(shards.size(), entry.getKey(), entry.getValue());
+            FileUtil.writeJsonFile(toJson.convert(entry.getValue()),
+                    authorshipPath.resolve(shard.getFile()).toString());
+            shards.add(shard);
+        }
+        FileUtil.writeJsonFile(shards, authorshipPath.resolve("manifest.json").toString());
+    }
+
+    /**
+     * Returns the result of a file at {@code path} whose lines were written by {@code authors} in order.
+     */
+    private static FileResult createFileResult(String path, Author... authors) {
+        ArrayList<LineInfo> lines = new ArrayList<>();
+        HashMap<Author, Integer> authorContributionMap = new HashMap<>();
+        for (int i = 0; i < authors.length; i++) {
+            LineInfo line = new LineInfo(i + 1, String.format("line %d of %s", i + 1, path));
+            line.setAuthor(authors[i]);
+            lines.add(line);
+            authorContributionMap.merge(authors[i], 1, Integer::sum);
+        }
+        return new FileResult(path, lines, authorContributionMap);
+    }
+
+    private HttpURLConnection openConnection(String query) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + port + AuthorshipApiHandler.CONTEXT_PATH + "?" + query)
+                .openConnection();
+    }
+
+    /**
+     * Returns the answer of the handler to {@code query}, which must be successful.
+     */
+    private JsonObject query(String query) throws IOException {
+        HttpURLConnection connection = openConnection(query);
+        Assert.assertEquals(200, connection.getResponseCode());
+        try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+            return new JsonParser().parse(reader).getAsJsonObject();
+        }
+    }
+
+    /**
+     * Converts the results of a shard into what is written as the shard.
+     */
+    private interface ShardConverter {
+        Object convert(List<FileResult> fileResults) throws IOException;
+    }
+}
@@ -0,0 +1,173 @@
+package reposense.system;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import net.freeutils.httpserver.HTTPServer;
+import reposense.authorship.model.AuthorshipSummary;
+import reposense.commits.model.AuthorIntervalContribution;
+import reposense.commits.model.CommitContributionSummary;
+import reposense.model.Author;
+import reposense.report.CommitReportJson;
+import reposense.util.FileUtil;
+import reposense.util.TestUtil;
+
+public class ContributionsApiHandlerTest {
+    private static final String REPO = "repo_master";
+    private static final Author FIRST_AUTHOR = new Author("first");
+    private static final Author SECOND_AUTHOR = new Author("second");
+
+    private Path rootPath;
+    private HTTPServer server;
+    private int port;
+
+    @Before
+    public void before() throws IOException {
+        rootPath = Files.createTempDirectory("ContributionsApiHandlerTest");
+        Files.createDirectories(rootPath.resolve(REPO));
+
+        // the first author inserts a line every day from 30 Jan 2018 until 2 Apr 2018
+        List<AuthorIntervalContribution> firstContributions = new ArrayList<>();
+        Calendar calendar = new Calendar.Builder().setDate(2018, Calendar.JANUARY, 30).build();
+        while (calendar.getTime().before(TestUtil.getDate(2018, Calendar.APRIL, 3))) {
+            Date sinceDate = calendar.getTime();
+            calendar.add(Calendar.DATE, 1);
+            firstContributions.add(new AuthorIntervalContribution(1, 0, sinceDate, calendar.getTime()));
+        }
+        // the second author contributes on 14 Feb 2018 only
+        List<AuthorIntervalContribution> secondContributions = Collections.singletonList(new AuthorIntervalContribution(
+                10, 3, TestUtil.getDate(2018, Calendar.FEBRUARY, 14), TestUtil.getDate(2018, Calendar.FEBRUARY, 15)));
+
+        Map<Author, List<AuthorIntervalContribution>> dailyContributions = new HashMap<>();
+        dailyContributions.put(FIRST_AUTHOR, firstContributions);
+        dailyContributions.put(SECOND_AUTHOR, secondContributions);
+        CommitContributionSummary commitSummary = new CommitContributionSummary(
+                new HashMap<>(), dailyContributions, new HashMap<>(), new HashMap<>(), null);
+        AuthorshipSummary authorshipSummary = new AuthorshipSummary(Arrays.asList(FIRST_AUTHOR, SECOND_AUTHOR));
+        FileUtil.writeJsonFile(new CommitReportJson(commitSummary, authorshipSummary),
+                rootPath.resolve(REPO).resolve("commits.json").toString());
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new HTTPServer(port);
+        server.getVirtualHost(null).addContext(ContributionsApiHandler.CONTEXT_PATH,
+                new ContributionsApiHandler(rootPath.toFile()));
+        server.start();
+    }
+
+    @Test
+    public void serve_dayGranularity_dailyContributionsWithinDates() throws IOException {
+        JsonObject page = query("repo=" + REPO + "&since=2018-02-13&until=2018-02-15");
+
+        Assert.assertEquals("2018-02-13", page.get("since").getAsString());
+        Assert.assertEquals("2018-02-15", page.get("until").getAsString());
+        assertInsertions(page, FIRST_AUTHOR, 1, 1, 1);
+        assertInsertions(page, SECOND_AUTHOR, 0, 10, 0);
+        JsonObject contribution = getContributions(page, SECOND_AUTHOR).get(1).getAsJsonObject();
+        Assert.assertEquals(3, contribution.get("deletions").getAsInt());
+        Assert.assertEquals("2018-02-14", contribution.get("sinceDate").getAsString());
+        Assert.assertEquals("2018-02-15", contribution.get("untilDate").getAsString());
+    }
+
+    @Test
+    public void serve_weekGranularity_weeksStartingOnSunday() throws IOException {
+        JsonObject page = query("repo=" + REPO + "&since=2018-02-14&until=2018-02-20&granularity=week");
+
+        Assert.assertEquals("2018-02-11", page.get("since").getAsString());
+        assertInsertions(page, FIRST_AUTHOR, 7, 7);
+        assertInsertions(page, SECOND_AUTHOR, 10, 0);
+        JsonObject contribution = getContributions(page, FIRST_AUTHOR).get(1).getAsJsonObject();
+        Assert.assertEquals("2018-02-18", contribution.get("sinceDate").getAsString());
+        Assert.assertEquals("2018-02-25", contribution.get("untilDate").getAsString());
+    }
+
+    @Test
+    public void serve_monthGranularityWithoutDates_allContributions() throws IOException {
+        JsonObject page = query("repo=" + REPO + "&granularity=month");
+
+        Assert.assertEquals("2018-01-01", page.get("since").getAsString());
+        Assert.assertEquals("2018-04-02", page.get("until").getAsString());
+        assertInsertions(page, FIRST_AUTHOR, 2, 28, 31, 2);
+        assertInsertions(page, SECOND_AUTHOR, 0, 10, 0, 0);
+    }
+
+    @Test
+    public void serve_quarterGranularity_success() throws IOException {
+        JsonObject page = query("repo=" + REPO + "&granularity=quarter");
+
+        assertInsertions(page, FIRST_AUTHOR, 61, 2);
+        Assert.assertEquals("2018-04-01",
+                getContributions(page, FIRST_AUTHOR).get(1).getAsJsonObject().get("sinceDate").getAsString());
+    }
+
+    @Test
+    public void serve_invalidQuery_badRequestOrNotFound() throws IOException {
+        Assert.assertEquals(400, openConnection("repo=" + REPO + "&granularity=year").getResponseCode());
+        Assert.assertEquals(400, openConnection("repo=" + REPO + "&since=14/02/2018").getResponseCode());
+        Assert.assertEquals(400, openConnection("granularity=day").getResponseCode());
+        Assert.assertEquals(404, openConnection("repo=missing").getResponseCode());
+    }
+
+    @After
+    public void after() throws IOException {
+        server.stop();
+        FileUtil.deleteDirectory(rootPath.toString());
+    }
+
+    private static JsonArray getContributions(JsonObject page, Author author) {
+        return page.getAsJsonObject("authorContributions").getAsJsonArray(author.getGitId());
+    }
+
+    /**
+     * Asserts that {@code author} inserted {@code expectedInsertions} lines in the intervals of {@code page}.
+     */
+    private static void assertInsertions(JsonObject page, Author author, int... expectedInsertions) {
+        JsonArray contributions = getContributions(page, author);
+        int[] insertions = new int[contributions.size()];
+        for (int i = 0; i < insertions.length; i++) {
+            insertions[i] = contributions.get(i).getAsJsonObject().get("insertions").getAsInt();
+        }
+        Assert.assertArrayEquals(expectedInsertions, insertions);
+    }
+
+    private HttpURLConnection openConnection(String query) throws IOException {
+        return (HttpURLConnection) new URL(
+                "http://localhost:" + port + ContributionsApiHandler.CONTEXT_PATH + "?" + query).openConnection();
+    }
+
+    /**
+     * Returns the answer of the handler to {@code query}, which must be successful.
+     */
+    private JsonObject query(String query) throws IOException {
+        HttpURLConnection connection = openConnection(query);
+        Assert.assertEquals(200, connection.getResponseCode());
+        try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+            return new JsonParser().parse(reader).getAsJsonObject();
+        }
+    }
+}
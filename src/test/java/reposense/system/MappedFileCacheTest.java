@@ -0,0 +1,67 @@
+package reposense.system;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import reposense.util.FileUtil;
+
+public class MappedFileCacheTest {
+    private Path directoryPath;
+
+    @Before
+    public void before() throws IOException {
+        directoryPath = Files.createTempDirectory("MappedFileCacheTest");
+    }
+
+    @Test
+    public void get_modifiedFile_remapped() throws IOException {
+        MappedFileCache cache = new MappedFileCache(100, 100);
+        Path filePath = createFile("a.json", 10);
+        Assert.assertEquals(10, cache.get(filePath).remaining());
+
+        Files.write(filePath, new byte[20]);
+        Files.setLastModifiedTime(filePath, FileTime.fromMillis(Files.getLastModifiedTime(filePath).toMillis() + 1000));
+        Assert.assertEquals(20, cache.get(filePath).remaining());
+        Assert.assertEquals(20, cache.getMappedBytes());
+    }
+
+    @Test
+    public void get_capacityExceeded_leastRecentlyUsedEvicted() throws IOException {
+        MappedFileCache cache = new MappedFileCache(100, 100);
+        Path firstPath = createFile("a.json", 40);
+        Path secondPath = createFile("b.json", 40);
+        Path thirdPath = createFile("c.json", 40);
+
+        cache.get(firstPath);
+        cache.get(secondPath);
+        cache.get(firstPath);
+        ByteBuffer content = cache.get(thirdPath);
+
+        Assert.assertEquals(40, content.remaining());
+        Assert.assertEquals(80, cache.getMappedBytes());
+    }
+
+    @Test
+    public void get_fileLargerThanMaxFileSize_notMapped() throws IOException {
+        MappedFileCache cache = new MappedFileCache(100, 10);
+        Assert.assertNull(cache.get(createFile("a.json", 11)));
+        Assert.assertEquals(0, cache.getMappedBytes());
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtil.deleteDirectory(directoryPath.toString());
+    }
+
+    private Path createFile(String fileName, int size) throws IOException {
+        return Files.write(directoryPath.resolve(fileName), new byte[size]);
+    }
+}
@@ -0,0 +1,79 @@
+package reposense.system;
+
+import java.lang.management.MemoryPoolMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MemoryBudgetTest {
+    private static final long LARGE_BUDGET = 1L << 50;
+
+    @Test
+    public void enable_budget_thresholdsSetUntilDisabled() {
+        MemoryBudget.enable(64L << 20);
+        Assert.assertTrue(MemoryBudget.isEnabled());
+        for (MemoryPoolMXBean pool : MemoryBudget.getTenuredPools()) {
+            Assert.assertEquals(MemoryBudget.getThreshold(pool), pool.getCollectionUsageThreshold());
+            Assert.assertTrue(pool.getCollectionUsageThreshold() <= (long) ((64L << 20) * MemoryBudget.THROTTLE_RATIO));
+        }
+
+        MemoryBudget.disable();
+        Assert.assertFalse(MemoryBudget.isEnabled());
+        for (MemoryPoolMXBean pool : MemoryBudget.getTenuredPools()) {
+            Assert.assertEquals(0, pool.getCollectionUsageThreshold());
+        }
+    }
+
+    @Test
+    public void throttle_notEnabled_notThrottled() {
+        MemoryBudget.throttle();
+        Assert.assertFalse(MemoryBudget.isThrottled());
+    }
+
+    @Test
+    public void acquire_throttled_waitsUntilRunningAnalysisReleased() throws InterruptedException {
+        MemoryBudget.enable(LARGE_BUDGET);
+        MemoryBudget.acquire();
+        MemoryBudget.throttle();
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            MemoryBudget.acquire();
+            acquired.countDown();
+            MemoryBudget.release();
+        });
+        thread.start();
+        Assert.assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+
+        // far below the budget, so releasing the analysis lifts the throttle
+        MemoryBudget.release();
+        Assert.assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        thread.join();
+        Assert.assertFalse(MemoryBudget.isThrottled());
+    }
+
+    @Test
+    public void acquire_notThrottled_analysesRunTogether() throws InterruptedException {
+        MemoryBudget.enable(LARGE_BUDGET);
+        MemoryBudget.acquire();
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            MemoryBudget.acquire();
+            acquired.countDown();
+            MemoryBudget.release();
+        });
+        thread.start();
+        Assert.assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        thread.join();
+        MemoryBudget.release();
+    }
+
+    @After
+    public void after() {
+        MemoryBudget.disable();
+    }
+}
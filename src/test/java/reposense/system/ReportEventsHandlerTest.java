@@ -0,0 +1,87 @@
+package reposense.system;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.freeutils.httpserver.HTTPServer;
+
+public class ReportEventsHandlerTest {
+    private static final int READ_TIMEOUT_MILLIS = 10000;
+
+    private ReportEventsHandler eventsHandler;
+    private HTTPServer server;
+    private int port;
+
+    @Before
+    public void before() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        eventsHandler = new ReportEventsHandler();
+        server = new HTTPServer(port);
+        server.getVirtualHost(null).addContext(ReportEventsHandler.CONTEXT_PATH, eventsHandler);
+        server.start();
+    }
+
+    @Test
+    public void serve_reportChanged_eventSent() throws IOException {
+        HttpURLConnection connection = openConnection();
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertTrue(connection.getContentType().startsWith("text/event-stream"));
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            Assert.assertEquals("retry: 3000", reader.readLine());
+            Assert.assertEquals("", reader.readLine());
+
+            eventsHandler.notifyReportChanged(Arrays.asList("repo_master", "repo_dev"));
+            Assert.assertEquals("id: 1", reader.readLine());
+            Assert.assertEquals("event: report", reader.readLine());
+            Assert.assertEquals("data: {\"repos\":[\"repo_master\",\"repo_dev\"]}", reader.readLine());
+            Assert.assertEquals("", reader.readLine());
+        }
+    }
+
+    @Test
+    public void serve_missedEvents_latestEventSentAtOnce() throws IOException {
+        eventsHandler.notifyReportChanged(Collections.singletonList("repo_master"));
+        eventsHandler.notifyReportChanged(Collections.singletonList("repo_dev"));
+
+        HttpURLConnection connection = openConnection();
+        connection.setRequestProperty("Last-Event-ID", "1");
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            Assert.assertEquals("retry: 3000", reader.readLine());
+            Assert.assertEquals("", reader.readLine());
+            Assert.assertEquals("id: 2", reader.readLine());
+            Assert.assertEquals("event: report", reader.readLine());
+            Assert.assertEquals("data: {\"repos\":[\"repo_dev\"]}", reader.readLine());
+        }
+    }
+
+    @After
+    public void after() {
+        server.stop();
+    }
+
+    /**
+     * Returns a connection subscribing to the events of the handler, which gives up if nothing is sent for a while.
+     */
+    private HttpURLConnection openConnection() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(
+                "http://localhost:" + port + ReportEventsHandler.CONTEXT_PATH).openConnection();
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        return connection;
+    }
+}
@@ -0,0 +1,179 @@
+package reposense.system;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.freeutils.httpserver.HTTPServer;
+import reposense.util.ArchiveWriter;
+import reposense.util.FileUtil;
+
+public class ReportFileContextHandlerTest {
+    private static final String JSON_FILE_NAME = "commits.json";
+    private static final String UNMAPPED_CONTEXT = "unmapped";
+
+    private Path reportPath;
+    private HTTPServer server;
+    private int port;
+    private byte[] expectedContent;
+
+    @Before
+    public void before() throws IOException {
+        reportPath = Files.createTempDirectory("ReportFileContextHandlerTest");
+        Path jsonPath = reportPath.resolve(JSON_FILE_NAME);
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(reportPath.resolve(FileUtil.ZIP_FILE), reportPath)) {
+            FileUtil.writeJsonFile(Collections.nCopies(1000, "author"), jsonPath.toString(), archiveWriter);
+        }
+        expectedContent = Files.readAllBytes(jsonPath);
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new HTTPServer(port);
+        server.getVirtualHost(null).addContext("/", new ReportFileContextHandler(reportPath.toFile(),
+                new MappedFileCache(1 << 20, 1 << 20)));
+        server.getVirtualHost(null).addContext("/" + UNMAPPED_CONTEXT, new ReportFileContextHandler(
+                reportPath.toFile(), new MappedFileCache(0, 0)));
+        server.start();
+    }
+
+    @Test
+    public void serve_gzipAccepted_servesCompressedCopy() throws IOException {
+        HttpURLConnection connection = openConnection(JSON_FILE_NAME);
+        connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertEquals("gzip", connection.getHeaderField("Content-Encoding"));
+        Assert.assertEquals("Accept-Encoding", connection.getHeaderField("Vary"));
+        Assert.assertEquals(Files.size(Paths.get(reportPath.toString(), JSON_FILE_NAME + FileUtil.GZIP_EXTENSION)),
+                connection.getContentLengthLong());
+        Assert.assertNotNull(connection.getHeaderField("ETag"));
+        try (InputStream is = new GZIPInputStream(connection.getInputStream())) {
+            Assert.assertArrayEquals(expectedContent, readAll(is));
+        }
+    }
+
+    @Test
+    public void serve_matchingEtag_notModified() throws IOException {
+        HttpURLConnection connection = openConnection(JSON_FILE_NAME);
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        String etag = connection.getHeaderField("ETag");
+        connection.getInputStream().close();
+
+        HttpURLConnection conditionalConnection = openConnection(JSON_FILE_NAME);
+        conditionalConnection.setRequestProperty("Accept-Encoding", "gzip");
+        conditionalConnection.setRequestProperty("If-None-Match", etag);
+        Assert.assertEquals(304, conditionalConnection.getResponseCode());
+        Assert.assertEquals(etag, conditionalConnection.getHeaderField("ETag"));
+    }
+
+    @Test
+    public void serve_gzipNotAccepted_servesUncompressedFile() throws IOException {
+        HttpURLConnection connection = openConnection(JSON_FILE_NAME);
+
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertNull(connection.getHeaderField("Content-Encoding"));
+        try (InputStream is = connection.getInputStream()) {
+            Assert.assertArrayEquals(expectedContent, readAll(is));
+        }
+    }
+
+    @Test
+    public void serve_outdatedCompressedCopy_servesFileCompressedOnRequest() throws IOException {
+        Path jsonPath = reportPath.resolve(JSON_FILE_NAME);
+        Path compressedPath = Paths.get(jsonPath + FileUtil.GZIP_EXTENSION);
+        compressedPath.toFile().setLastModified(jsonPath.toFile().lastModified() - 10_000);
+
+        HttpURLConnection connection = openConnection(JSON_FILE_NAME);
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertFalse(connection.getHeaderField("ETag").contains("gzip"));
+        try (InputStream is = new GZIPInputStream(connection.getInputStream())) {
+            Assert.assertArrayEquals(expectedContent, readAll(is));
+        }
+    }
+
+    @Test
+    public void serve_range_servesPartOfUncompressedFile() throws IOException {
+        HttpURLConnection connection = openConnection(JSON_FILE_NAME);
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        connection.setRequestProperty("Range", "bytes=10-19");
+
+        Assert.assertEquals(206, connection.getResponseCode());
+        Assert.assertNull(connection.getHeaderField("Content-Encoding"));
+        Assert.assertEquals("bytes 10-19/" + expectedContent.length, connection.getHeaderField("Content-Range"));
+        try (InputStream is = connection.getInputStream()) {
+            Assert.assertArrayEquals(Arrays.copyOfRange(expectedContent, 10, 20), readAll(is));
+        }
+    }
+
+    @Test
+    public void serve_rangeOfUnmappedFile_servesPartOfFile() throws IOException {
+        HttpURLConnection connection = openConnection(UNMAPPED_CONTEXT + "/" + JSON_FILE_NAME);
+        connection.setRequestProperty("Range", "bytes=100-");
+
+        Assert.assertEquals(206, connection.getResponseCode());
+        try (InputStream is = connection.getInputStream()) {
+            Assert.assertArrayEquals(Arrays.copyOfRange(expectedContent, 100, expectedContent.length), readAll(is));
+        }
+    }
+
+    @Test
+    public void serve_rangePastEnd_rangeNotSatisfiable() throws IOException {
+        HttpURLConnection connection = openConnection(JSON_FILE_NAME);
+        connection.setRequestProperty("Range",
+                "bytes=" + expectedContent.length + "-" + (expectedContent.length + 10));
+
+        Assert.assertEquals(416, connection.getResponseCode());
+        Assert.assertEquals("bytes */" + expectedContent.length, connection.getHeaderField("Content-Range"));
+    }
+
+    @Test
+    public void serve_rangeWithOutdatedIfRange_servesWholeFile() throws IOException {
+        HttpURLConnection connection = openConnection(JSON_FILE_NAME);
+        connection.setRequestProperty("Range", "bytes=10-19");
+        connection.setRequestProperty("If-Range", "\"outdated\"");
+
+        Assert.assertEquals(200, connection.getResponseCode());
+        try (InputStream is = connection.getInputStream()) {
+            Assert.assertArrayEquals(expectedContent, readAll(is));
+        }
+    }
+
+    @After
+    public void after() throws IOException {
+        server.stop();
+        FileUtil.deleteDirectory(reportPath.toString());
+    }
+
+    private HttpURLConnection openConnection(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + port + "/" + path).openConnection();
+    }
+
+    /**
+     * Returns all the remaining bytes of {@code is}.
+     */
+    private static byte[] readAll(InputStream is) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1 << 12];
+        int length;
+        while ((length = is.read(buffer)) != -1) {
+            content.write(buffer, 0, length);
+        }
+        return content.toByteArray();
+    }
+}
@@ -0,0 +1,125 @@
+package reposense.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ArchiveReaderTest {
+    private static final String CONTENT = String.join("", Collections.nCopies(1000, "commits\n"));
+
+    private Path rootPath;
+
+    @Before
+    public void before() throws IOException {
+        rootPath = Files.createTempDirectory("ArchiveReaderTest");
+    }
+
+    @Test
+    public void getInputStream_archiveFromArchiveWriter_success() throws IOException {
+        Path archivePath = rootPath.resolve(FileUtil.ZIP_FILE);
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(archivePath, rootPath)) {
+            archiveWriter.addFile(rootPath.resolve("repo/commits.json"), CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (ArchiveReader archiveReader = new ArchiveReader(archivePath)) {
+            ArchiveReader.Entry entry = archiveReader.getEntry("repo/commits.json").get();
+            Assert.assertTrue(entry.isCompressed());
+            Assert.assertEquals(CONTENT.length(), entry.getSize());
+            Assert.assertTrue(entry.getCompressedSize() < entry.getSize());
+            Assert.assertEquals(CONTENT, readAll(archiveReader.getInputStream(entry)));
+            Assert.assertFalse(archiveReader.getEntry("commits.json").isPresent());
+            Assert.assertFalse(archiveReader.isOutdated());
+        }
+    }
+
+    @Test
+    public void getInputStream_archiveReplaced_readsOriginalArchive() throws IOException {
+        Path archivePath = rootPath.resolve(FileUtil.ZIP_FILE);
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(archivePath, rootPath)) {
+            archiveWriter.addFile(rootPath.resolve("repo/commits.json"), CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (ArchiveReader archiveReader = new ArchiveReader(archivePath)) {
+            try (ArchiveWriter archiveWriter = new ArchiveWriter(archivePath, rootPath)) {
+                archiveWriter.addFile(rootPath.resolve("repo/commits.json"), new byte[0]);
+            }
+
+            ArchiveReader.Entry entry = archiveReader.getEntry("repo/commits.json").get();
+            Assert.assertTrue(archiveReader.isOutdated());
+            Assert.assertEquals(CONTENT, readAll(archiveReader.getInputStream(entry)));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            archiveReader.transferData(entry, 0, entry.getCompressedSize(), Channels.newChannel(out));
+            Assert.assertEquals(readAll(archiveReader.getRawInputStream(entry)),
+                    new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void getInputStream_storedEntryAndDirectoryWithComment_success() throws IOException {
+        Path archivePath = rootPath.resolve("stored.zip");
+        byte[] content = CONTENT.getBytes(StandardCharsets.UTF_8);
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(archivePath))) {
+            zos.setComment("report archive");
+            zos.putNextEntry(new ZipEntry("repo/"));
+            ZipEntry storedEntry = new ZipEntry("repo/authorship.json");
+            storedEntry.setMethod(ZipEntry.STORED);
+            storedEntry.setSize(content.length);
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            storedEntry.setCrc(crc.getValue());
+            zos.putNextEntry(storedEntry);
+            zos.write(content);
+        }
+
+        try (ArchiveReader archiveReader = new ArchiveReader(archivePath)) {
+            Assert.assertFalse(archiveReader.getEntry("repo/").isPresent());
+            ArchiveReader.Entry entry = archiveReader.getEntry("repo/authorship.json").get();
+            Assert.assertFalse(entry.isCompressed());
+            Assert.assertEquals(CONTENT, readAll(archiveReader.getInputStream(entry)));
+        }
+    }
+
+    @Test(expected = ZipException.class)
+    public void constructor_notArchive_throwsZipException() throws IOException {
+        Path filePath = rootPath.resolve("commits.json");
+        try (OutputStream os = Files.newOutputStream(filePath)) {
+            os.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+        new ArchiveReader(filePath);
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtil.deleteDirectory(rootPath.toString());
+    }
+
+    /**
+     * Returns the remaining content of {@code is}, and closes it.
+     */
+    private static String readAll(InputStream is) throws IOException {
+        try (InputStream stream = is) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1 << 12];
+            int length;
+            while ((length = stream.read(buffer)) != -1) {
+                content.write(buffer, 0, length);
+            }
+            return new String(content.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package reposense.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ArchiveWriterTest {
+    private static final int NUMBER_OF_ENTRIES = 20;
+
+    private Path rootPath;
+
+    @Before
+    public void before() throws IOException {
+        rootPath = Files.createTempDirectory("ArchiveWriterTest");
+    }
+
+    @Test
+    public void addFile_fromSeveralThreads_entriesSortedWithContents() throws IOException {
+        Path archivePath = rootPath.resolve(FileUtil.ZIP_FILE);
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(archivePath, rootPath)) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = NUMBER_OF_ENTRIES - 1; i >= 0; i--) {
+                Path filePath = rootPath.resolve(String.format("repo%02d/commits.json", i));
+                byte[] content = String.join("", Collections.nCopies(1000, "line " + i + "\n"))
+                        .getBytes(StandardCharsets.UTF_8);
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        archiveWriter.addFile(filePath, content);
+                    } catch (IOException ioe) {
+                        throw new AssertionError(ioe);
+                    }
+                }));
+            }
+            futures.forEach(CompletableFuture::join);
+        }
+
+        try (ZipFile zipFile = new ZipFile(archivePath.toFile())) {
+            List<? extends ZipEntry> entries = Collections.list(zipFile.entries());
+            Assert.assertEquals(NUMBER_OF_ENTRIES, entries.size());
+            for (int i = 0; i < NUMBER_OF_ENTRIES; i++) {
+                ZipEntry entry = entries.get(i);
+                Assert.assertEquals(String.format("repo%02d/commits.json", i), entry.getName());
+                try (Scanner scanner = new Scanner(zipFile.getInputStream(entry), StandardCharsets.UTF_8.name())) {
+                    Assert.assertEquals(String.join("", Collections.nCopies(1000, "line " + i + "\n")),
+                            scanner.useDelimiter("\\A").next());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void copyEntry_entriesOfAnotherArchive_copiedWithContents() throws IOException {
+        Path sourcePath = rootPath.resolve("source.zip");
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(sourcePath, rootPath)) {
+            archiveWriter.addFile(rootPath.resolve("repo/commits.json"),
+                    String.join("", Collections.nCopies(1000, "commit\n")).getBytes(StandardCharsets.UTF_8));
+            archiveWriter.addFile(rootPath.resolve("repo/empty.json"), new byte[0]);
+        }
+
+        Path archivePath = rootPath.resolve(FileUtil.ZIP_FILE);
+        try (ArchiveReader archiveReader = new ArchiveReader(sourcePath);
+                ArchiveWriter archiveWriter = new ArchiveWriter(archivePath, rootPath)) {
+            for (ArchiveReader.Entry entry : archiveReader.getEntries()) {
+                archiveWriter.copyEntry(archiveReader, entry);
+            }
+        }
+
+        try (ZipFile zipFile = new ZipFile(archivePath.toFile())) {
+            List<? extends ZipEntry> entries = Collections.list(zipFile.entries());
+            Assert.assertEquals(2, entries.size());
+            Assert.assertEquals("repo/commits.json", entries.get(0).getName());
+            try (Scanner scanner = new Scanner(zipFile.getInputStream(entries.get(0)),
+                    StandardCharsets.UTF_8.name())) {
+                Assert.assertEquals(String.join("", Collections.nCopies(1000, "commit\n")),
+                        scanner.useDelimiter("\\A").next());
+            }
+            Assert.assertEquals("repo/empty.json", entries.get(1).getName());
+            Assert.assertEquals(0, entries.get(1).getSize());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void addFile_afterClose_throwsIoException() throws IOException {
+        ArchiveWriter archiveWriter = new ArchiveWriter(rootPath.resolve(FileUtil.ZIP_FILE), rootPath);
+        archiveWriter.close();
+        archiveWriter.addFile(rootPath.resolve("commits.json"), new byte[0]);
+    }
+
+    @Test
+    public void close_contentWriterFailed_archiveNotReplaced() throws IOException {
+        Path archivePath = rootPath.resolve(FileUtil.ZIP_FILE);
+        try (ArchiveWriter archiveWriter = new ArchiveWriter(archivePath, rootPath)) {
+            archiveWriter.addFile(rootPath.resolve("summary.json"), new byte[0]);
+        }
+
+        ArchiveWriter archiveWriter = new ArchiveWriter(archivePath, rootPath);
+        archiveWriter.addFile(rootPath.resolve("repo/commits.json"), new byte[0]);
+        try {
+            archiveWriter.addFile(rootPath.resolve("repo/authorship.json"), out -> {
+                throw new IOException("authorship cannot be written");
+            });
+            Assert.fail();
+        } catch (IOException ioe) {
+            Assert.assertEquals("authorship cannot be written", ioe.getMessage());
+        }
+        try {
+            archiveWriter.close();
+            Assert.fail();
+        } catch (IOException ioe) {
+            // expected, as the archive would be missing an entry
+        }
+
+        try (ZipFile zipFile = new ZipFile(archivePath.toFile())) {
+            Assert.assertEquals(1, zipFile.size());
+            Assert.assertNotNull(zipFile.getEntry("summary.json"));
+        }
+        Assert.assertFalse(Files.exists(rootPath.resolve(FileUtil.ZIP_FILE + ".tmp")));
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtil.deleteDirectory(rootPath.toString());
+    }
+}
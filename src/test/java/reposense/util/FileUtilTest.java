@@ -2,9 +2,13 @@ package reposense.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Scanner;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -50,6 +54,33 @@ public class FileUtilTest {
         Assert.assertFalse(Files.exists(Paths.get(FILE_UTIL_TEST_DIRECTORY.toString(), "test")));
     }
 
+    @Test
+    public void writeJsonFile_withArchiveWriter_sameJsonInFileGzipAndArchive() throws IOException {
+        Path rootPath = Files.createTempDirectory("FileUtilTest");
+        try {
+            Path jsonPath = rootPath.resolve("commits.json");
+            Path archivePath = rootPath.resolve(FileUtil.ZIP_FILE);
+            try (ArchiveWriter archiveWriter = new ArchiveWriter(archivePath, rootPath)) {
+                FileUtil.writeJsonFile(Collections.nCopies(1000, "author"), jsonPath.toString(), archiveWriter);
+            }
+
+            String json = new String(Files.readAllBytes(jsonPath), FileUtil.JSON_CHARSET);
+            Assert.assertTrue(json.startsWith("[\n  \"author\","));
+            Assert.assertTrue(json.endsWith("]\n"));
+            Path gzipPath = rootPath.resolve("commits.json" + FileUtil.GZIP_EXTENSION);
+            try (InputStream is = new GZIPInputStream(Files.newInputStream(gzipPath))) {
+                Assert.assertEquals(json, readAll(is));
+            }
+            try (ArchiveReader archiveReader = new ArchiveReader(archivePath)) {
+                Assert.assertEquals(json,
+                        readAll(archiveReader.getInputStream(archiveReader.getEntry("commits.json").get())));
+            }
+            Assert.assertFalse(Files.exists(rootPath.resolve("commits.json.tmp")));
+        } finally {
+            FileUtil.deleteDirectory(rootPath.toString());
+        }
+    }
+
     @After
     public void after() throws IOException, NullPointerException {
         Files.deleteIfExists(ARCHIVE_ZIP_PATH);
@@ -57,4 +88,13 @@ public class FileUtilTest {
             FileUtil.deleteDirectory(UNZIPPED_DIRECTORY_PATH.toString());
         }
     }
+
+    /**
+     * Returns the remaining content of {@code is} decoded as JSON.
+     */
+    private static String readAll(InputStream is) throws IOException {
+        try (Scanner scanner = new Scanner(is, FileUtil.JSON_CHARSET.name())) {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
 }
@@ -0,0 +1,275 @@
+package reposense.util;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds local git repositories of a controlled shape for scale testing.
+ *
+ * The history is streamed into {@code git fast-import}, so only the git CLI is needed and large repositories can be
+ * generated without spawning a process per commit. Author identities, commit dates and file contents are all derived
+ * from the seed, hence generating the same shape twice yields the same commit hashes.
+ */
+public class SyntheticRepoGenerator {
+    private static final String BRANCH_NAME = "master";
+    private static final String BRANCH_REF = "refs/heads/" + BRANCH_NAME;
+    private static final String TIMEZONE_OFFSET = "+0800";
+    private static final List<String> FILE_EXTENSIONS = Arrays.asList("java", "java", "java", "md", "xml");
+    private static final String[] LINE_TOKENS = {
+        "int", "String", "return", "final", "value", "count", "result", "index", "buffer", "config", "author", "repo"
+    };
+    private static final int MAX_LINE_TOKENS = 8;
+    private static final int MAX_DIRECTORIES = 20;
+    private static final long SECONDS_PER_DAY = TimeUnit.DAYS.toSeconds(1);
+    private static final long PROCESS_TIMEOUT_MINUTES = 30;
+
+    private final int authorCount;
+    private final int commitCount;
+    private final int fileCount;
+    private final int linesChurnedPerCommit;
+    private final double renameRate;
+    private final long startEpochSecond;
+    private final int daySpread;
+    private final long seed;
+
+    /**
+     * @param authorCount number of distinct authors committing to the repository.
+     * @param commitCount number of commits on the {@code master} branch.
+     * @param fileCount number of files created over the history.
+     * @param linesChurnedPerCommit average number of lines inserted, deleted or modified by each commit.
+     * @param renameRate probability in [0, 1] that a commit renames one of the existing files.
+     * @param startEpochSecond the date of the first commit, in seconds since the epoch.
+     * @param daySpread number of days the commits are spread over.
+     * @param seed the seed from which every random choice is derived.
+     */
+    public SyntheticRepoGenerator(int authorCount, int commitCount, int fileCount, int linesChurnedPerCommit,
+            double renameRate, long startEpochSecond, int daySpread, long seed) {
+        if (authorCount < 1 || commitCount < 1 || fileCount < 1 || linesChurnedPerCommit < 1 || daySpread < 1) {
+            throw new IllegalArgumentException("Repository shape values must be positive.");
+        }
+        if (renameRate < 0 || renameRate > 1) {
+            throw new IllegalArgumentException("Rename rate must be between 0 and 1.");
+        }
+
+        this.authorCount = authorCount;
+        this.commitCount = commitCount;
+        this.fileCount = fileCount;
+        this.linesChurnedPerCommit = linesChurnedPerCommit;
+        this.renameRate = renameRate;
+        this.startEpochSecond = startEpochSecond;
+        this.daySpread = daySpread;
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the git id of the author with {@code authorIndex}.
+     */
+    public static String getAuthorName(int authorIndex) {
+        return String.format("author%03d", authorIndex);
+    }
+
+    /**
+     * Creates a git repository at {@code repoPath} with the shape of this generator and checks out its
+     * {@code master} branch.
+     *
+     * @throws IOException if {@code repoPath} already exists or any of the git commands fails.
+     */
+    public void generate(Path repoPath) throws IOException {
+        if (Files.exists(repoPath)) {
+            throw new IOException("Target path for the synthetic repository already exists: " + repoPath);
+        }
+        Files.createDirectories(repoPath);
+
+        runGit(repoPath, "init", "-q");
+        runGit(repoPath, "symbolic-ref", "HEAD", BRANCH_REF);
+
+        Process fastImport = startGit(repoPath, "fast-import", "--quiet", "--done");
+        try (OutputStream os = new BufferedOutputStream(fastImport.getOutputStream(), 1 << 16)) {
+            writeHistory(os);
+        }
+        waitFor(fastImport, "fast-import");
+
+        runGit(repoPath, "reset", "-q", "--hard", BRANCH_NAME);
+    }
+
+    /**
+     * Writes the whole commit history of the repository as a {@code git fast-import} stream into {@code os}.
+     */
+    private void writeHistory(OutputStream os) throws IOException {
+        Random random = new Random(seed);
+        List<String> paths = new ArrayList<>();
+        List<List<String>> contents = new ArrayList<>();
+        int filesCreated = 0;
+
+        for (int commitIndex = 0; commitIndex < commitCount; commitIndex++) {
+            StringBuilder fileCommands = new StringBuilder();
+            int commitsLeft = commitCount - commitIndex;
+            int filesLeft = fileCount - filesCreated;
+            boolean isCreatingFile = paths.isEmpty()
+                    || (filesLeft > 0 && (filesLeft >= commitsLeft || random.nextInt(commitsLeft) < filesLeft));
+
+            if (isCreatingFile) {
+                String path = generatePath(random, "File", filesCreated++);
+                List<String> lines = new ArrayList<>();
+                for (int i = 0; i < linesChurnedPerCommit; i++) {
+                    lines.add(generateLine(random));
+                }
+                paths.add(path);
+                contents.add(lines);
+                appendModifyCommand(fileCommands, path, lines);
+            } else {
+                int fileIndex = random.nextInt(paths.size());
+                churnLines(random, contents.get(fileIndex));
+                appendModifyCommand(fileCommands, paths.get(fileIndex), contents.get(fileIndex));
+            }
+
+            if (paths.size() > 1 && random.nextDouble() < renameRate) {
+                int fileIndex = random.nextInt(paths.size());
+                String oldPath = paths.get(fileIndex);
+                String newPath = generatePath(random, "Renamed", commitIndex);
+                if (!paths.contains(newPath)) {
+                    paths.set(fileIndex, newPath);
+                    fileCommands.append("R ").append(quotePath(oldPath)).append(' ').append(quotePath(newPath))
+                            .append('\n');
+                }
+            }
+
+            int authorIndex = random.nextInt(authorCount);
+            long commitTime = startEpochSecond
+                    + (daySpread * SECONDS_PER_DAY * commitIndex) / commitCount
+                    + random.nextInt((int) SECONDS_PER_DAY / 2);
+            writeCommit(os, commitIndex, authorIndex, commitTime, fileCommands.toString());
+        }
+
+        os.write("done\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Inserts, deletes and modifies lines of {@code lines} in place, for a total of about
+     * {@code linesChurnedPerCommit} changed lines.
+     */
+    private void churnLines(Random random, List<String> lines) {
+        int changes = 1 + random.nextInt(2 * linesChurnedPerCommit);
+        for (int i = 0; i < changes; i++) {
+            int operation = random.nextInt(3);
+            if (operation == 0 || lines.size() < 2) {
+                lines.add(random.nextInt(lines.size() + 1), generateLine(random));
+            } else if (operation == 1) {
+                lines.remove(random.nextInt(lines.size()));
+            } else {
+                lines.set(random.nextInt(lines.size()), generateLine(random));
+            }
+        }
+    }
+
+    /**
+     * Writes a commit of {@code fileCommands}, authored and committed by the author with {@code authorIndex} at
+     * {@code commitTime}, into the fast-import stream {@code os}.
+     */
+    private void writeCommit(OutputStream os, int commitIndex, int authorIndex, long commitTime,
+            String fileCommands) throws IOException {
+        String authorName = getAuthorName(authorIndex);
+        String identity = String.format("%s <%s@example.com> %d %s",
+                authorName, authorName, commitTime, TIMEZONE_OFFSET);
+        String message = String.format("Synthetic commit %d by %s", commitIndex, authorName);
+        byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+
+        StringBuilder header = new StringBuilder();
+        header.append("commit ").append(BRANCH_REF).append('\n');
+        header.append("author ").append(identity).append('\n');
+        header.append("committer ").append(identity).append('\n');
+        header.append("data ").append(messageBytes.length).append('\n');
+
+        os.write(header.toString().getBytes(StandardCharsets.UTF_8));
+        os.write(messageBytes);
+        os.write('\n');
+        os.write(fileCommands.getBytes(StandardCharsets.UTF_8));
+        os.write('\n');
+    }
+
+    /**
+     * Appends a fast-import command that sets the content of {@code path} to {@code lines}.
+     */
+    private static void appendModifyCommand(StringBuilder fileCommands, String path, List<String> lines) {
+        byte[] data = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+        fileCommands.append("M 100644 inline ").append(quotePath(path)).append('\n');
+        fileCommands.append("data ").append(data.length).append('\n');
+        fileCommands.append(new String(data, StandardCharsets.UTF_8)).append('\n');
+    }
+
+    private String generatePath(Random random, String filePrefix, int fileId) {
+        String directory = "dir" + random.nextInt(Math.min(MAX_DIRECTORIES, fileCount));
+        String extension = FILE_EXTENSIONS.get(random.nextInt(FILE_EXTENSIONS.size()));
+        return String.format("src/%s/%s%d.%s", directory, filePrefix, fileId, extension);
+    }
+
+    /**
+     * Returns a code-like line made of a random number of tokens.
+     */
+    private static String generateLine(Random random) {
+        int tokenCount = 1 + random.nextInt(MAX_LINE_TOKENS);
+        StringBuilder line = new StringBuilder("    ");
+        for (int i = 0; i < tokenCount; i++) {
+            line.append(LINE_TOKENS[random.nextInt(LINE_TOKENS.length)]).append(random.nextInt(100)).append(' ');
+        }
+        return line.append(';').toString();
+    }
+
+    private static String quotePath(String path) {
+        return "\"" + path + "\"";
+    }
+
+    private static void runGit(Path workingDirectory, String... args) throws IOException {
+        Process process = startGit(workingDirectory, args);
+        process.getOutputStream().close();
+        waitFor(process, args[0]);
+    }
+
+    /**
+     * Starts a git process in {@code workingDirectory} that is isolated from the user's global git configuration,
+     * so that the generated history does not depend on the machine it is built on.
+     */
+    private static Process startGit(Path workingDirectory, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+
+        ProcessBuilder pb = new ProcessBuilder(command)
+                .directory(workingDirectory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT);
+        pb.environment().put("GIT_CONFIG_NOSYSTEM", "1");
+        pb.environment().put("GIT_CONFIG_GLOBAL", workingDirectory.resolve(".git").resolve("nonexistent").toString());
+        return pb.start();
+    }
+
+    /**
+     * Waits for the git {@code process} to complete.
+     *
+     * @throws IOException if the process times out or exits with a non-zero code.
+     */
+    private static void waitFor(Process process, String commandName) throws IOException {
+        try {
+            if (!process.waitFor(PROCESS_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                process.destroyForcibly();
+                throw new IOException("git " + commandName + " timed out.");
+            }
+        } catch (InterruptedException ie) {
+            process.destroyForcibly();
+            throw new IOException("Interrupted while waiting for git " + commandName + ".", ie);
+        }
+
+        if (process.exitValue() != 0) {
+            throw new IOException("git " + commandName + " exited with code " + process.exitValue() + ".");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package reposense.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Scanner;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SyntheticRepoGeneratorTest {
+    private static final long START_EPOCH_SECOND = 1514764800L; // 1 Jan 2018
+    private static final int COMMIT_COUNT = 40;
+
+    private Path tempDirectory;
+
+    @Before
+    public void before() throws IOException {
+        tempDirectory = Files.createTempDirectory("synthetic-repo-test");
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtil.deleteDirectory(tempDirectory.toString());
+    }
+
+    @Test
+    public void generate_sameSeed_sameHistory() throws IOException, InterruptedException {
+        Path firstRepo = tempDirectory.resolve("first");
+        Path secondRepo = tempDirectory.resolve("second");
+
+        getGenerator(7).generate(firstRepo);
+        getGenerator(7).generate(secondRepo);
+
+        Assert.assertEquals(runGit(firstRepo, "rev-parse", "HEAD"), runGit(secondRepo, "rev-parse", "HEAD"));
+    }
+
+    @Test
+    public void generate_differentSeed_differentHistory() throws IOException, InterruptedException {
+        Path firstRepo = tempDirectory.resolve("first");
+        Path secondRepo = tempDirectory.resolve("second");
+
+        getGenerator(7).generate(firstRepo);
+        getGenerator(8).generate(secondRepo);
+
+        Assert.assertNotEquals(runGit(firstRepo, "rev-parse", "HEAD"), runGit(secondRepo, "rev-parse", "HEAD"));
+    }
+
+    @Test
+    public void generate_validShape_expectedCommitCountAndCheckedOut() throws IOException, InterruptedException {
+        Path repo = tempDirectory.resolve("repo");
+        getGenerator(7).generate(repo);
+
+        Assert.assertEquals(String.valueOf(COMMIT_COUNT), runGit(repo, "rev-list", "--count", "HEAD"));
+        Assert.assertEquals("master", runGit(repo, "rev-parse", "--abbrev-ref", "HEAD"));
+        Assert.assertTrue(Files.isDirectory(Paths.get(repo.toString(), "src")));
+        Assert.assertTrue(runGit(repo, "status", "--porcelain").isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void generate_existingTarget_throwsIoException() throws IOException {
+        getGenerator(7).generate(tempDirectory);
+    }
+
+    private SyntheticRepoGenerator getGenerator(long seed) {
+        return new SyntheticRepoGenerator(3, COMMIT_COUNT, 10, 5, 0.1, START_EPOCH_SECOND, 30, seed);
+    }
+
+    /**
+     * Runs git with {@code args} in {@code repo} and returns its trimmed output.
+     */
+    private String runGit(Path repo, String... args) throws IOException, InterruptedException {
+        String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+
+        Process process = new ProcessBuilder(command).directory(repo.toFile()).start();
+        try (InputStream is = process.getInputStream();
+                Scanner scanner = new Scanner(is, StandardCharsets.UTF_8.name())) {
+            String output = scanner.useDelimiter("\\A").hasNext() ? scanner.next().trim() : "";
+            Assert.assertEquals(0, process.waitFor());
+            return output;
+        }
+    }
+}